@@ -0,0 +1,86 @@
+package org.example.bench;
+
+import io.restassured.path.json.JsonPath;
+import org.example.json.Json;
+import org.example.json.JsonPathExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code data.brand.id} from a /products page: RestAssured's GPath-based JsonPath, as the suites used to do it,
+ * against the streaming {@link JsonPathExtractor}. Pages are shaped like the API's, at several sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractionBenchmark {
+
+    private static final JsonPathExtractor BRAND_IDS = JsonPathExtractor.compile("data.brand.id");
+
+    @Param({"9", "100", "1000"})
+    public int products;
+
+    private byte[] page;
+    private String pageText;
+
+    @Setup
+    public void setUp() {
+        List<Object> data = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("id", String.format("01HF%022d", i));
+            product.put("name", "Product " + i);
+            product.put("description", "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(4));
+            product.put("price", 9.99 + i);
+            product.put("is_location_offer", false);
+            product.put("is_rental", i % 6 == 0);
+            product.put("in_stock", true);
+            product.put("brand", Map.of("id", 1 + i % 3, "name", "Brand"));
+            product.put("category", Map.of("id", 1 + i % 7, "name", "Category"));
+            product.put("product_image", Map.of("id", i, "file_name", "image.avif"));
+            data.add(product);
+        }
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("current_page", 1);
+        envelope.put("data", data);
+        envelope.put("last_page", 1);
+        envelope.put("total", products);
+        pageText = Json.stringify(envelope);
+        page = pageText.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Integer> restAssuredJsonPath() {
+        return JsonPath.from(pageText).getList("data.brand.id");
+    }
+
+    /** As in the suites, where the response bytes are first decoded to a String. */
+    @Benchmark
+    public List<Integer> restAssuredJsonPathFromBytes() {
+        return JsonPath.from(new String(page, StandardCharsets.UTF_8)).getList("data.brand.id");
+    }
+
+    @Benchmark
+    public long[] streamingExtractor() {
+        return BRAND_IDS.longs(page);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.bench;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * The body assertions UsersTest makes, e.g. {@code .body("message", equalTo("Unauthorized"))}, evaluated on
+ * prebuilt responses so only the matching is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+
+    private Response unauthorized;
+    private Response usersPage;
+
+    @Setup
+    public void setUp() {
+        unauthorized = json(401, "{\"message\":\"Unauthorized\"}");
+        StringBuilder users = new StringBuilder("{\"current_page\":1,\"data\":[");
+        for (int i = 0; i < 15; i++) {
+            users.append(i == 0 ? "" : ",")
+                    .append("{\"id\":\"01HF").append(String.format("%022d", i))
+                    .append("\",\"first_name\":\"Jane\",\"last_name\":\"Doe\",\"email\":\"customer").append(i)
+                    .append("@practicesoftwaretesting.com\",\"role\":\"user\"}");
+        }
+        usersPage = json(200, users.append("],\"last_page\":3,\"total\":40}").toString());
+    }
+
+    private static Response json(int status, String body) {
+        return new ResponseBuilder()
+                .setStatusCode(status)
+                .setContentType("application/json")
+                .setBody(body)
+                .build();
+    }
+
+    @Benchmark
+    public Object messageEqualTo() {
+        return unauthorized.then().statusCode(401).body("message", equalTo("Unauthorized"));
+    }
+
+    @Benchmark
+    public Object dataNotNull() {
+        return usersPage.then().statusCode(200).body("data", not(equalTo(null)));
+    }
+
+    @Benchmark
+    public Object currentPageEqualTo() {
+        return usersPage.then().statusCode(200).body("current_page", equalTo(1));
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.bench;
+
+import org.example.json.Json;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request bodies built the way ProductsTest and CategoryTest build them (string concatenation with a random
+ * suffix), next to serializing the same fields from a map. The product's varying fields live in the state, so
+ * the concatenation happens at run time as it does in the suites.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBodyBenchmark {
+
+    // Values the suites vary per request; as fields, the compiler cannot fold the concatenation into a constant
+    private String productName;
+    private String price;
+    private long categoryId;
+
+    @Setup(Level.Iteration)
+    public void randomize() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        productName = "New Product " + Math.abs(random.nextLong());
+        price = random.nextInt(1, 100) + ".99";
+        categoryId = random.nextInt(1, 8);
+    }
+
+    @Benchmark
+    public String productBodyConcatenated() {
+        return "{\n" +
+                "  \"name\": \"" + productName + "\",\n" +
+                "  \"description\": \"Product description\",\n" +
+                "  \"price\": " + price + ",\n" +
+                "  \"category_id\": " + categoryId + ",\n" +
+                "  \"brand_id\": 1,\n" +
+                "  \"product_image_id\": 1\n" +
+                "}";
+    }
+
+    @Benchmark
+    public String categoryBodyConcatenated() {
+        String nameNumber = String.valueOf(Math.abs(ThreadLocalRandom.current().nextLong()));
+        return "{\n" +
+                "  \"name\": \"new category " + nameNumber + "\",\n" +
+                "  \"slug\": \"new-category-" + nameNumber + "\"\n" +
+                "}";
+    }
+
+    @Benchmark
+    public String categoryBodyFromMap() {
+        String nameNumber = String.valueOf(Math.abs(ThreadLocalRandom.current().nextLong()));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", "new category " + nameNumber);
+        body.put("slug", "new-category-" + nameNumber);
+        return Json.stringify(body);
+    }
+}
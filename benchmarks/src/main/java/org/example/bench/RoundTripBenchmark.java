@@ -0,0 +1,95 @@
+package org.example.bench;
+
+import io.restassured.RestAssured;
+import org.example.server.CategoryStore;
+import org.example.server.ToolshopServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full request/response round trips against the in-JVM stand-in, through RestAssured as the suites send them
+ * and through java.net.http for comparison. Loopback only, so this measures client and server overhead rather
+ * than the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    private static final String BENCH_SLUG = "bench-category-";
+
+    private ToolshopServer server;
+    private HttpClient client;
+    private String productUrl;
+    private String categoriesUrl;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        server = ToolshopServer.start(0);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        productUrl = server.baseUrl() + "/products/" + server.products().find(null, null, null).get(0).id();
+        categoriesUrl = server.baseUrl() + "/categories";
+    }
+
+    // Every iteration starts from the seeded categories, or later ones would post into an ever larger store
+    @Setup(Level.Iteration)
+    public void removePostedCategories() {
+        for (CategoryStore.Category category : server.categories().all()) {
+            if (category.slug().startsWith(BENCH_SLUG)) {
+                server.categories().delete(category.id());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        server.stop();
+    }
+
+    @Benchmark
+    public int restAssuredGetProduct() {
+        return RestAssured.get(productUrl).getStatusCode();
+    }
+
+    @Benchmark
+    public int restAssuredGetCategoryTree() {
+        return RestAssured.get(categoriesUrl + "/tree").getStatusCode();
+    }
+
+    @Benchmark
+    public int restAssuredPostCategory() {
+        String nameNumber = String.valueOf(System.nanoTime());
+        return RestAssured.given()
+                .contentType("application/json")
+                .body("{\"name\": \"bench category " + nameNumber + "\", "
+                        + "\"slug\": \"" + BENCH_SLUG + nameNumber + "\"}")
+                .post(categoriesUrl)
+                .getStatusCode();
+    }
+
+    @Benchmark
+    public int javaNetHttpGetProduct() throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(productUrl)).build(),
+                HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+}
@@ -1,7 +1,252 @@
 package org.example;
 
+import org.example.auth.TokenBroker;
+import org.example.fuzz.FuzzReport;
+import org.example.fuzz.Fuzzer;
+import org.example.fuzz.PayloadSchema;
+import org.example.load.LoadCoordinator;
+import org.example.load.LoadGenerator;
+import org.example.load.LoadResult;
+import org.example.load.LoadWorker;
+import org.example.load.Scenario;
+import org.example.seed.SeedResult;
+import org.example.soak.AuthSoak;
+import org.example.soak.SoakReport;
+import org.example.seed.Seeder;
+import org.example.server.ToolshopServer;
+import org.example.server.UserStore;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 public class Main {
-    public static void main(String[] args) {
-        System.out.println("Hello world!");
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 ? args[0] : "help";
+        switch (command) {
+            case "serve" -> serve(args);
+            case "load" -> load(Options.parse(args, 1));
+            case "load-worker" -> loadWorker(Options.parse(args, 1));
+            case "fuzz" -> {
+                if (!fuzz(Options.parse(args, 1))) {
+                    System.exit(1);
+                }
+            }
+            case "seed" -> {
+                if (!seed(Options.parse(args, 1))) {
+                    System.exit(1);
+                }
+            }
+            case "soak" -> {
+                if (!soak(Options.parse(args, 1))) {
+                    System.exit(1);
+                }
+            }
+            default -> usage();
+        }
+    }
+
+    // java org.example.Main serve [port] [products]
+    private static void serve(String[] args) throws Exception {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8091;
+        int products = args.length > 2 ? Integer.parseInt(args[2]) : ToolshopServer.DEFAULT_PRODUCTS;
+        ToolshopServer server = ToolshopServer.start(port, products);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.println("Toolshop stand-in listening on " + server.baseUrl());
+        Thread.currentThread().join();
+    }
+
+    // java org.example.Main load --url https://api-v2.practicesoftwaretesting.com --rate 200 --duration 60s
+    // java org.example.Main load --rate 5000 --workers 4 --scenario categories
+    private static void load(Options options) throws Exception {
+        String scenario = options.get("scenario", "products");
+        TokenBroker.Credentials admin = options.has("admin-email")
+                ? new TokenBroker.Credentials(options.get("admin-email", null), options.get("admin-password", ""))
+                : options.has("url") ? null : new TokenBroker.Credentials("admin@practicesoftwaretesting.com",
+                UserStore.DEFAULT_PASSWORD);
+        if ("categories".equals(scenario) && admin == null) {
+            throw new IllegalArgumentException("The categories scenario needs --admin-email and --admin-password"
+                    + " to delete the categories it creates");
+        }
+        int spawn = options.getInt("workers", 0);
+        int attach = options.getInt("attach", 0);
+        ToolshopServer local = options.has("url") ? null : ToolshopServer.start(0);
+        try {
+            URI base = URI.create(local != null ? local.baseUrl() : options.get("url", null));
+            LoadGenerator.Config config = new LoadGenerator.Config(base, options.getDouble("rate", 100),
+                    options.getDuration("duration", Duration.ofSeconds(30)),
+                    options.getDuration("warmup", Duration.ofSeconds(5)));
+            System.out.printf("Loading %s with the %s scenario at %.0f req/s for %ds (+%ds warmup)%s%n", base,
+                    scenario, config.rate(), config.duration().toSeconds(), config.warmup().toSeconds(),
+                    spawn + attach > 0 ? " from " + (spawn + attach) + " worker processes" : "");
+            LoadResult result;
+            if (spawn + attach > 0) {
+                LoadCoordinator.Config coordinated = new LoadCoordinator.Config(config, scenario, admin, spawn,
+                        attach, options.getInt("port", attach > 0 ? 7171 : 0));
+                if (attach > 0) {
+                    System.out.println("Waiting for " + attach + " more worker(s), started with: "
+                            + String.join(" ", LoadCoordinator.workerCommand(coordinated.port())));
+                }
+                result = new LoadCoordinator(coordinated).run();
+            } else {
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                result = new LoadGenerator(config, Scenario.named(scenario, base, client, admin), client).run();
+            }
+            result.print(System.out);
+            Path out = Path.of(options.get("out", "load-result.json"));
+            result.write(out);
+            System.out.println("Wrote " + out.toAbsolutePath());
+        } finally {
+            if (local != null) {
+                local.stop();
+            }
+        }
+    }
+
+    // java org.example.Main load-worker --coordinator 127.0.0.1:7171
+    private static void loadWorker(Options options) throws Exception {
+        String coordinator = options.get("coordinator", "127.0.0.1:7171");
+        int colon = coordinator.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("--coordinator needs host:port, got " + coordinator);
+        }
+        new LoadWorker(coordinator.substring(0, colon), Integer.parseInt(coordinator.substring(colon + 1))).run();
+    }
+
+    // java org.example.Main fuzz --url https://api-v2.practicesoftwaretesting.com --cases 20000 --concurrency 32
+    private static boolean fuzz(Options options) throws Exception {
+        ToolshopServer local = options.has("url") ? null : ToolshopServer.start(0);
+        try {
+            URI base = URI.create(local != null ? local.baseUrl() : options.get("url", null));
+            List<Fuzzer.Target> targets = new ArrayList<>();
+            for (String schema : options.get("schemas", "product,category,user").split(",")) {
+                targets.add(Fuzzer.Target.of(base, PayloadSchema.named(schema.trim())));
+            }
+            long seed = options.has("seed") ? Long.parseLong(options.get("seed", null)) : System.nanoTime();
+            Fuzzer.Config config = new Fuzzer.Config(targets, options.getInt("cases", 10_000),
+                    options.getInt("concurrency", 32), seed);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            System.out.printf("Fuzzing %s with %d payloads from %d workers%n", base, config.cases(),
+                    config.concurrency());
+            FuzzReport report = new Fuzzer(config, client).run();
+            report.print(System.out);
+            Path out = Path.of(options.get("out", "fuzz-result.json"));
+            report.write(out);
+            System.out.println("Wrote " + out.toAbsolutePath());
+            return report.passed();
+        } finally {
+            if (local != null) {
+                local.stop();
+            }
+        }
+    }
+
+    // java org.example.Main seed --file catalog.ndjson --url https://api-v2.practicesoftwaretesting.com --resume
+    private static boolean seed(Options options) throws Exception {
+        if (!options.has("file")) {
+            throw new IllegalArgumentException("seed needs --file <csv or ndjson file>");
+        }
+        ToolshopServer local = options.has("url") ? null : ToolshopServer.start(0);
+        try {
+            URI base = URI.create(local != null ? local.baseUrl() : options.get("url", null));
+            Path file = Path.of(options.get("file", null));
+            Seeder.Config config = new Seeder.Config(base, file,
+                    Path.of(options.get("journal", file + ".journal")), options.has("resume"),
+                    options.getInt("concurrency", 64), options.get("token", null));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            System.out.printf("Seeding %s from %s with up to %d requests in flight%s%n", base, file,
+                    config.maxConcurrency(), config.resume() ? ", resuming from " + config.journal() : "");
+            SeedResult result = new Seeder(config, client).run();
+            result.print(System.out);
+            Path out = Path.of(options.get("out", "seed-result.json"));
+            result.write(out);
+            System.out.println("Wrote " + out.toAbsolutePath());
+            return result.passed();
+        } finally {
+            if (local != null) {
+                local.stop();
+            }
+        }
+    }
+
+    // java org.example.Main soak --url https://api-v2.practicesoftwaretesting.com --duration 4h --accounts 50
+    private static boolean soak(Options options) throws Exception {
+        ToolshopServer local = options.has("url") ? null : ToolshopServer.start(0);
+        try {
+            URI base = URI.create(local != null ? local.baseUrl() : options.get("url", null));
+            AuthSoak.Config config = new AuthSoak.Config(base, options.getInt("accounts", 20),
+                    options.getInt("concurrency", 4), options.getDuration("duration", Duration.ofHours(1)),
+                    options.getDuration("warmup", Duration.ofMinutes(2)),
+                    options.getDuration("sample", Duration.ofSeconds(10)));
+            System.out.printf("Soaking the auth flows of %s with %d accounts from %d workers for %ds (+%ds warmup)%s%n",
+                    base, config.accounts(), config.concurrency(), config.duration().toSeconds(),
+                    config.warmup().toSeconds(), local != null ? "; the stand-in shares this JVM's heap" : "");
+            SoakReport report = new AuthSoak(config).run();
+            report.print(System.out);
+            Path out = Path.of(options.get("out", "soak-result.json"));
+            report.write(out);
+            System.out.println("Wrote " + out.toAbsolutePath());
+            return report.passed();
+        } finally {
+            if (local != null) {
+                local.stop();
+            }
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage: java org.example.Main <command> [options]");
+        System.out.println("  serve [port] [products]");
+        System.out.println("                 run the in-memory Toolshop API stand-in (default port 8091, 48 products)");
+        System.out.println("  load           open-model load on the ProductsTest or CategoryTest calls");
+        System.out.println("                 --url <base>         API to load (default: an in-process stand-in)");
+        System.out.println("                 --scenario <name>    products or categories (default products)");
+        System.out.println("                 --rate <n>           requests per second, over all workers (default 100)");
+        System.out.println("                 --duration <d>       measured time, e.g. 30s, 5m (default 30s)");
+        System.out.println("                 --warmup <d>         unmeasured lead-in (default 5s)");
+        System.out.println("                 --workers <n>        worker JVMs to start on this host (default none)");
+        System.out.println("                 --attach <n>         worker JVMs started by hand to wait for");
+        System.out.println("                 --port <n>           coordinator port for --attach (default 7171)");
+        System.out.println("                 --admin-email <e>    admin login for deleting categories (default: the");
+        System.out.println("                 --admin-password <p> stand-in's seeded admin)");
+        System.out.println("                 --out <file>         JSON result file (default load-result.json)");
+        System.out.println("  load-worker    one worker of a load run");
+        System.out.println("                 --coordinator <h:p>  load coordinator (default 127.0.0.1:7171)");
+        System.out.println("  fuzz           invalid product, category and user payloads against the create endpoints");
+        System.out.println("                 --url <base>         API to fuzz (default: an in-process stand-in)");
+        System.out.println("                 --cases <n>          payloads to send (default 10000)");
+        System.out.println("                 --concurrency <n>    requests in flight (default 32)");
+        System.out.println("                 --schemas <list>     any of product,category,user (default all)");
+        System.out.println("                 --seed <n>           repeat an earlier run's payloads");
+        System.out.println("                 --out <file>         JSON report (default fuzz-result.json)");
+        System.out.println("  seed           create the categories and products in a CSV or NDJSON file");
+        System.out.println("                 --file <file>        rows to create, parents above their children");
+        System.out.println("                 --url <base>         API to seed (default: an in-process stand-in)");
+        System.out.println("                 --concurrency <n>    most requests in flight (default 64)");
+        System.out.println("                 --journal <file>     created rows (default <file>.journal)");
+        System.out.println("                 --resume             skip the rows the journal has");
+        System.out.println("                 --token <jwt>        bearer token to send");
+        System.out.println("                 --out <file>         JSON result file (default seed-result.json)");
+        System.out.println("  soak           login, /users/me and change-password on a loop, watching heap, GC and");
+        System.out.println("                 client state for growth and throughput for drift");
+        System.out.println("                 --url <base>         API to soak (default: an in-process stand-in)");
+        System.out.println("                 --duration <d>       measured time, e.g. 30m, 4h (default 1h)");
+        System.out.println("                 --warmup <d>         lead-in left out of the trends (default 2m)");
+        System.out.println("                 --accounts <n>       accounts to register and cycle through (default 20)");
+        System.out.println("                 --concurrency <n>    workers, at most one per account (default 4)");
+        System.out.println("                 --sample <d>         sampling interval (default 10s)");
+        System.out.println("                 --out <file>         JSON report (default soak-result.json)");
     }
-}
\ No newline at end of file
+}
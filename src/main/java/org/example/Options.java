@@ -0,0 +1,80 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code --name value} and {@code --flag} command line options following the command word.
+ */
+public final class Options {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    private Options() {
+    }
+
+    public static Options parse(String[] args, int from) {
+        Options options = new Options();
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String name = arg.substring(2);
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                options.values.put(name.substring(0, eq), name.substring(eq + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.values.put(name, args[++i]);
+            } else {
+                options.values.put(name, "true");
+            }
+        }
+        return options;
+    }
+
+    public boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    public String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    /** Accepts plain seconds ("30") or a unit suffix: "500ms", "30s", "10m", "2h". */
+    public Duration getDuration(String name, Duration defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : parseDuration(value);
+    }
+
+    public static Duration parseDuration(String value) {
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("us")) {
+            return Duration.ofNanos(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)) * 1000);
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("h")) {
+            return Duration.ofHours(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(trimmed));
+    }
+}
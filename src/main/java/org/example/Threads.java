@@ -0,0 +1,38 @@
+package org.example;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors shared by the server and the command line tools.
+ */
+public final class Threads {
+
+    private Threads() {
+    }
+
+    /**
+     * Returns a thread-per-task executor. On JDK 21+ the tasks run on virtual threads; the project still targets
+     * Java 17, so older runtimes fall back to a cached pool of daemon platform threads.
+     */
+    public static ExecutorService perTaskExecutor(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemonFactory(name));
+        }
+    }
+
+    public static ThreadFactory daemonFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.auth;
+
+import org.example.json.Json;
+
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Reads the claims of a JWT without verifying it. Enough for a client to know when its own token expires.
+ */
+public final class Jwt {
+
+    private Jwt() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> claims(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Not a JWT: expected three dot-separated parts");
+        }
+        Object claims = Json.parse(Base64.getUrlDecoder().decode(parts[1]));
+        if (!(claims instanceof Map)) {
+            throw new IllegalArgumentException("Not a JWT: payload is not a JSON object");
+        }
+        return (Map<String, Object>) claims;
+    }
+
+    /** The {@code exp} claim in epoch seconds, or -1 when the token has none. */
+    public static long expiresAt(String token) {
+        Object exp = claims(token).get("exp");
+        return exp instanceof Number ? ((Number) exp).longValue() : -1;
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.auth;
+
+import org.example.json.Json;
+import org.example.json.JsonTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and checks HS256 JWTs with the claims the public API puts in its tokens: {@code iss}, {@code iat},
+ * {@code exp}, {@code nbf}, {@code jti}, {@code sub} (the user id) and {@code role}.
+ * <ul>
+ *     <li>A token is accepted only with the exact header this authority writes, so {@code alg: none} and other
+ *     algorithms never get as far as the signature.</li>
+ *     <li>Signing borrows a {@link Mac} from a small pool of clones of a keyed prototype and hands it back, so
+ *     concurrent checks neither share one nor build one each, however many (virtual) threads make them.</li>
+ *     <li>Tokens that passed are remembered until they expire, up to {@value #MAX_CACHED}; a repeated token costs
+ *     one map lookup and an expiry check.</li>
+ * </ul>
+ */
+public class JwtAuthority {
+
+    /** Verified tokens kept at most; past that, expired ones are dropped and then all if that is not enough. */
+    static final int MAX_CACHED = 20_000;
+
+    /** Idle {@link Mac}s kept for reuse; a check that finds none clones another and drops it if the pool is full. */
+    static final int MAX_IDLE_MACS = 2 * Runtime.getRuntime().availableProcessors();
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = BASE64.encodeToString("{\"typ\":\"JWT\",\"alg\":\"HS256\"}"
+            .getBytes(StandardCharsets.UTF_8));
+    private static final JsonTemplate PAYLOAD = JsonTemplate.compile("{\"iss\":{{iss}},\"iat\":{{iat:long}},"
+            + "\"exp\":{{exp:long}},\"nbf\":{{iat:long}},\"jti\":{{jti}},\"sub\":{{sub}},\"role\":{{role}}}");
+
+    /** What a valid token says about its bearer. */
+    public record Claims(String subject, String role, long expiresAt) {
+
+        public boolean isAdmin() {
+            return "admin".equals(role);
+        }
+    }
+
+    private final String issuer;
+    private final long ttlSeconds;
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final BlockingQueue<Mac> macs = new ArrayBlockingQueue<>(MAX_IDLE_MACS);
+    private final Map<String, Claims> verified = new ConcurrentHashMap<>();
+
+    public JwtAuthority(String issuer, byte[] key, long ttlSeconds) {
+        this.issuer = issuer;
+        this.ttlSeconds = ttlSeconds;
+        this.key = new SecretKeySpec(key, "HmacSHA256");
+        this.prototype = keyedMac();
+    }
+
+    /** An authority with a fresh random key, so its tokens are good for this process only. */
+    public static JwtAuthority withRandomKey(String issuer, long ttlSeconds) {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return new JwtAuthority(issuer, key, ttlSeconds);
+    }
+
+    public long ttlSeconds() {
+        return ttlSeconds;
+    }
+
+    public String issue(String subject, String role) {
+        long now = System.currentTimeMillis() / 1000;
+        byte[] payload = PAYLOAD.renderer()
+                .with("iss", issuer)
+                .with("iat", now)
+                .with("exp", now + ttlSeconds)
+                .with("jti", UUID.randomUUID().toString())
+                .with("sub", subject)
+                .with("role", role)
+                .toByteArray();
+        String signed = HEADER + '.' + BASE64.encodeToString(payload);
+        return signed + '.' + BASE64.encodeToString(sign(signed));
+    }
+
+    /** The claims of a token this authority issued and that is still valid, or null. */
+    public Claims verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        Claims cached = verified.get(token);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached;
+            }
+            verified.remove(token);
+            return null;
+        }
+        Claims claims = check(token, now);
+        if (claims != null) {
+            if (verified.size() >= MAX_CACHED) {
+                verified.values().removeIf(c -> c.expiresAt() <= now);
+                if (verified.size() >= MAX_CACHED) {
+                    verified.clear();
+                }
+            }
+            verified.put(token, claims);
+        }
+        return claims;
+    }
+
+    private Claims check(String token, long now) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot != HEADER.length() || !token.startsWith(HEADER) || lastDot == firstDot) {
+            return null;
+        }
+        byte[] signature;
+        Object payload;
+        try {
+            signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, lastDot)))) {
+                return null;
+            }
+            payload = Json.parse(DECODER.decode(token.substring(firstDot + 1, lastDot)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!(payload instanceof Map<?, ?> claims) || !issuer.equals(claims.get("iss"))
+                || !(claims.get("sub") instanceof String subject) || !(claims.get("role") instanceof String role)
+                || !(claims.get("exp") instanceof Number exp) || exp.longValue() <= now
+                || claims.get("nbf") instanceof Number nbf && nbf.longValue() > now) {
+            return null;
+        }
+        return new Claims(subject, role, exp.longValue());
+    }
+
+    private byte[] sign(String headerAndPayload) {
+        Mac mac = macs.poll();
+        if (mac == null) {
+            mac = newMac();
+        }
+        byte[] signature = mac.doFinal(headerAndPayload.getBytes(StandardCharsets.US_ASCII));
+        macs.offer(mac);
+        return signature;
+    }
+
+    // Cloning skips the provider lookup and the key schedule
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return keyedMac();
+        }
+    }
+
+    private Mac keyedMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
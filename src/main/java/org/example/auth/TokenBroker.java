@@ -0,0 +1,211 @@
+package org.example.auth;
+
+import org.example.Threads;
+import org.example.json.Json;
+import org.example.json.JsonTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide cache of bearer tokens, one broker per API base URL and one token per credential.
+ * <ul>
+ *     <li>Concurrent callers asking for the same credential share a single /users/login call.</li>
+ *     <li>The expiry is read from the JWT {@code exp} claim; a token that is still used gets replaced in the
+ *     background shortly before it expires, so callers never wait for a login after the first one.</li>
+ *     <li>A token without a readable expiry, or one that is already expired when it arrives (e.g. replayed from a
+ *     cassette), is kept for {@value #FALLBACK_TTL_SECONDS} seconds and never refreshed in the background.</li>
+ * </ul>
+ */
+public class TokenBroker {
+
+    public record Credentials(String email, String password) {
+    }
+
+    private record Token(String value, long expiresAt, long issuedAt, boolean refreshable) {
+    }
+
+    private static final Map<String, TokenBroker> SHARED = new ConcurrentHashMap<>();
+    private static final ScheduledThreadPoolExecutor REFRESHER = refresher();
+    private static final JsonTemplate LOGIN = JsonTemplate.compile("{\"email\":{{email}},\"password\":{{password}}}");
+
+    /** Never refresh later than this before expiry; tokens shorter-lived than 5x this refresh at 80% of life. */
+    static final long REFRESH_AHEAD_SECONDS = 30;
+
+    /** How long a token whose expiry is unknown or already past is used before logging in again. */
+    static final long FALLBACK_TTL_SECONDS = 300;
+
+    private final URI loginUri;
+    private final HttpClient client;
+    private final Map<Credentials, CompletableFuture<Token>> tokens = new ConcurrentHashMap<>();
+    private final Map<Credentials, Long> lastUsed = new ConcurrentHashMap<>();
+    private final Map<Credentials, ScheduledFuture<?>> refreshes = new ConcurrentHashMap<>();
+
+    public TokenBroker(String baseUrl, HttpClient client) {
+        this.loginUri = URI.create(baseUrl + "/users/login");
+        this.client = client;
+    }
+
+    public static TokenBroker shared(String baseUrl) {
+        return SHARED.computeIfAbsent(baseUrl, url -> new TokenBroker(url, HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build()));
+    }
+
+    /** Like {@link #shared(String)}, but logs in through {@code client} if this creates the broker. */
+    public static TokenBroker shared(String baseUrl, HttpClient client) {
+        return SHARED.computeIfAbsent(baseUrl, url -> new TokenBroker(url, client));
+    }
+
+    /** Returns a valid access token for the credential, logging in only if no usable token is cached. */
+    public String token(Credentials credentials) {
+        lastUsed.put(credentials, now());
+        CompletableFuture<Token> future = tokens.computeIfAbsent(credentials, this::login);
+        Token token;
+        try {
+            token = future.join();
+        } catch (CompletionException e) {
+            tokens.remove(credentials, future);
+            throw new IllegalStateException("Login failed for " + credentials.email(), e.getCause());
+        }
+        if (token.expiresAt() <= now() + 1) {
+            // The background refresh did not happen (e.g. it failed); log in again on the caller's thread, once
+            // for all callers that find the same expired token.
+            CompletableFuture<Token> fresh = tokens.compute(credentials,
+                    (c, current) -> current == null || current == future ? login(c) : current);
+            try {
+                return fresh.join().value();
+            } catch (CompletionException e) {
+                tokens.remove(credentials, fresh);
+                throw new IllegalStateException("Login failed for " + credentials.email(), e.getCause());
+            }
+        }
+        return token.value();
+    }
+
+    /** Starts logins for all credentials at once, so a later {@link #token} call finds them ready. */
+    public void prefetch(Credentials... credentials) {
+        for (Credentials c : credentials) {
+            tokens.computeIfAbsent(c, this::login);
+        }
+    }
+
+    /** Drops the cached token, e.g. after its password was changed. */
+    public void invalidate(Credentials credentials) {
+        tokens.remove(credentials);
+        lastUsed.remove(credentials);
+        // Otherwise the refresh sits in the queue, holding the token, until shortly before it would have expired
+        ScheduledFuture<?> refresh = refreshes.remove(credentials);
+        if (refresh != null) {
+            refresh.cancel(false);
+        }
+    }
+
+    /** Credentials with a cached (or pending) token. */
+    public int size() {
+        return tokens.size();
+    }
+
+    private CompletableFuture<Token> login(Credentials credentials) {
+        byte[] body = LOGIN.renderer()
+                .with("email", credentials.email())
+                .with("password", credentials.password())
+                .toByteArray();
+        HttpRequest request = HttpRequest.newBuilder(loginUri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("/users/login answered " + response.statusCode());
+                    }
+                    if (!(Json.parse(response.body()) instanceof Map<?, ?> json)
+                            || !(json.get("access_token") instanceof String value)) {
+                        throw new IllegalStateException("/users/login answered without an access_token");
+                    }
+                    long issuedAt = now();
+                    long expiresAt = expiresAt(value);
+                    if (expiresAt < 0 && json.get("expires_in") instanceof Number) {
+                        expiresAt = issuedAt + ((Number) json.get("expires_in")).longValue();
+                    }
+                    Token token = expiresAt > issuedAt
+                            ? new Token(value, expiresAt, issuedAt, true)
+                            : new Token(value, issuedAt + FALLBACK_TTL_SECONDS, issuedAt, false);
+                    scheduleRefresh(credentials, token);
+                    return token;
+                });
+    }
+
+    private void scheduleRefresh(Credentials credentials, Token token) {
+        if (!token.refreshable()) {
+            return;
+        }
+        long lifetime = token.expiresAt() - token.issuedAt();
+        long ahead = Math.min(REFRESH_AHEAD_SECONDS, lifetime / 5);
+        long delay = Math.max(0, token.expiresAt() - ahead - now());
+        ScheduledFuture<?> refresh = REFRESHER.schedule(() -> refresh(credentials, token), delay, TimeUnit.SECONDS);
+        ScheduledFuture<?> previous = refreshes.put(credentials, refresh);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        if (!tokens.containsKey(credentials)) {
+            // Invalidated while the login was under way
+            refreshes.remove(credentials, refresh);
+            refresh.cancel(false);
+        }
+    }
+
+    private void refresh(Credentials credentials, Token expiring) {
+        CompletableFuture<Token> current = tokens.get(credentials);
+        if (current == null || !isCurrent(current, expiring)) {
+            return;
+        }
+        Long used = lastUsed.get(credentials);
+        if (used == null || used < expiring.issuedAt()) {
+            // Nobody asked for the token during its lifetime; let it lapse instead of refreshing forever.
+            tokens.computeIfPresent(credentials, (c, f) -> isCurrent(f, expiring) ? null : f);
+            refreshes.remove(credentials);
+            return;
+        }
+        login(credentials).thenAccept(fresh ->
+                tokens.computeIfPresent(credentials, (c, f) -> isCurrent(f, expiring)
+                        ? CompletableFuture.completedFuture(fresh) : f));
+        // On failure the old token stays cached until it expires; token() then retries on the caller's thread.
+    }
+
+    // An opaque token is not an error: its expiry is unknown, like a JWT's without an exp claim
+    private static long expiresAt(String token) {
+        try {
+            return Jwt.expiresAt(token);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor refresher() {
+        ScheduledThreadPoolExecutor refresher =
+                new ScheduledThreadPoolExecutor(1, Threads.daemonFactory("token-refresh"));
+        refresher.setRemoveOnCancelPolicy(true);
+        return refresher;
+    }
+
+    private static boolean isCurrent(CompletableFuture<Token> future, Token token) {
+        return future.isDone() && !future.isCompletedExceptionally() && future.join() == token;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.cassette;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Read side of a recorded cassette, memory-mapped so replay costs no file reads.
+ * <p>
+ * Layout (big-endian, at most 2 GB):
+ * <pre>
+ * header    int magic, int keyCount, int slotCount
+ * per key   exchanges:  int status, int headerCount, (int len, name, int len, value)*, int len, body
+ *           entry:      long keyHash, int ordinal, int len, key, int exchangeCount, long exchangeOffset*
+ * index     long entryOffset[slotCount]     open addressing on keyHash, 0 = empty
+ * </pre>
+ * A lookup hashes the key, probes the index from {@code keyHash & (slotCount - 1)} and compares the stored key,
+ * so it takes constant time whatever the cassette's size. Each key has a cursor: the n-th request for a key gets
+ * the n-th recorded response, and once they are used up the last one is repeated. Safe for concurrent use.
+ */
+public final class Cassette {
+
+    static final int MAGIC = 0x54534332; // "TSC2", keys with scope and caller
+    private static final int HEADER_SIZE = 12;
+
+    private final ByteBuffer buffer;
+    private final int slotCount;
+    private final int indexOffset;
+    private final AtomicIntegerArray cursors;
+
+    private Cassette(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a cassette file");
+        }
+        this.buffer = buffer;
+        int keyCount = buffer.getInt(4);
+        this.slotCount = buffer.getInt(8);
+        this.indexOffset = buffer.capacity() - slotCount * 8;
+        this.cursors = new AtomicIntegerArray(keyCount);
+    }
+
+    public static Cassette open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Cassette(mapped);
+        }
+    }
+
+    public int size() {
+        return cursors.length();
+    }
+
+    /** The next recorded response for the key, or null if the key was never recorded. */
+    public Exchange next(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = CassetteKey.hash(keyBytes);
+        int slot = (int) hash & (slotCount - 1);
+        while (true) {
+            int entry = (int) buffer.getLong(indexOffset + slot * 8);
+            if (entry == 0) {
+                return null;
+            }
+            if (buffer.getLong(entry) == hash && keyEquals(entry + 12, keyBytes)) {
+                int ordinal = buffer.getInt(entry + 8);
+                int countAt = entry + 16 + keyBytes.length;
+                int count = buffer.getInt(countAt);
+                int n = Math.min(cursors.getAndIncrement(ordinal), count - 1);
+                return readExchange((int) buffer.getLong(countAt + 4 + n * 8));
+            }
+            slot = (slot + 1) & (slotCount - 1);
+        }
+    }
+
+    private boolean keyEquals(int at, byte[] key) {
+        if (buffer.getInt(at) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(at + 4 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Exchange readExchange(int at) {
+        int status = buffer.getInt(at);
+        int headerCount = buffer.getInt(at + 4);
+        int position = at + 8;
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            byte[] name = bytes(position);
+            position += 4 + name.length;
+            byte[] value = bytes(position);
+            position += 4 + value.length;
+            headers.computeIfAbsent(new String(name, StandardCharsets.UTF_8), k -> new ArrayList<>())
+                    .add(new String(value, StandardCharsets.UTF_8));
+        }
+        return new Exchange(status, headers, bytes(position));
+    }
+
+    private byte[] bytes(int at) {
+        byte[] bytes = new byte[buffer.getInt(at)];
+        buffer.get(at + 4, bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,228 @@
+package org.example.cassette;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link HttpClient} that records into or replays from a cassette, for code that talks to the API without going
+ * through RestAssured (token logins, page crawls). Exchanges are keyed like the suites' own calls, see
+ * {@link CassetteKey}, but without a scope: logins are shared between tests, and which test happens to trigger
+ * one differs from run to run. Replay never opens a connection.
+ */
+public final class CassetteHttpClient extends HttpClient {
+
+    private final HttpClient delegate;
+    private final CassetteRecorder recorder;
+    private final Cassette cassette;
+
+    private CassetteHttpClient(HttpClient delegate, CassetteRecorder recorder, Cassette cassette) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+        this.cassette = cassette;
+    }
+
+    public static CassetteHttpClient recording(HttpClient delegate, CassetteRecorder recorder) {
+        return new CassetteHttpClient(delegate, recorder, null);
+    }
+
+    public static CassetteHttpClient replaying(HttpClient delegate, Cassette cassette) {
+        return new CassetteHttpClient(delegate, null, cassette);
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        try {
+            return sendAsync(request, handler).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        String key = CassetteKey.of(CassetteKey.NONE, request.method(), request.uri(),
+                request.headers().firstValue("Authorization").orElse(null), body(request));
+        if (cassette != null) {
+            Exchange exchange = cassette.next(key);
+            if (exchange == null) {
+                return CompletableFuture.failedFuture(new IOException("No recorded response for " + key));
+            }
+            return respond(request, exchange, handler);
+        }
+        return delegate.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenCompose(response -> {
+                    Exchange exchange = new Exchange(response.statusCode(), response.headers().map(), response.body());
+                    recorder.record(key, exchange);
+                    return respond(request, exchange, handler);
+                });
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        return sendAsync(request, handler);
+    }
+
+    // Feeds the recorded body through the caller's handler, as the real client would
+    private static <T> CompletableFuture<HttpResponse<T>> respond(HttpRequest request, Exchange exchange,
+                                                                  HttpResponse.BodyHandler<T> handler) {
+        HttpHeaders headers = HttpHeaders.of(exchange.headers(), (name, value) -> true);
+        HttpResponse.ResponseInfo info = new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return exchange.status();
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public Version version() {
+                return Version.HTTP_1_1;
+            }
+        };
+        HttpResponse.BodySubscriber<T> subscriber = handler.apply(info);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onNext(List.of(ByteBuffer.wrap(exchange.body())));
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture()
+                .thenApply(body -> new Response<>(exchange.status(), request, headers, body));
+    }
+
+    // Drains the request's body publisher; the publishers the JDK provides complete synchronously
+    private static byte[] body(HttpRequest request) {
+        Optional<HttpRequest.BodyPublisher> publisher = request.bodyPublisher();
+        if (publisher.isEmpty() || publisher.get().contentLength() == 0) {
+            return new byte[0];
+        }
+        HttpResponse.BodySubscriber<byte[]> collector = HttpResponse.BodySubscribers.ofByteArray();
+        publisher.get().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                collector.onSubscribe(subscription);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                collector.onNext(List.of(item));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                collector.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                collector.onComplete();
+            }
+        });
+        try {
+            return collector.getBody().toCompletableFuture().join();
+        } catch (CompletionException e) {
+            throw new IllegalArgumentException("Could not read the request body", e.getCause());
+        }
+    }
+
+    private record Response<T>(int statusCode, HttpRequest request, HttpHeaders headers, T body)
+            implements HttpResponse<T> {
+
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.cassette;
+
+import org.example.auth.Jwt;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Lookup key of an exchange: the scope it was sent in, method, path and query, who sent it, and a hash of the
+ * request body.
+ * <p>
+ * Values the suites make up per run would otherwise give every run new keys, so before hashing they are replaced
+ * with placeholders: UUIDs (fixture names, e-mails) and standalone runs of at least 8 hex digits containing a
+ * digit (random numbers in names and slugs, generated passwords). Ids the server generated need no treatment:
+ * on replay they come out of recorded responses, so later calls use the recorded ids again. The host is not
+ * part of the key, so a cassette recorded against one deployment replays under any base URL.
+ * <p>
+ * The same request can get different answers depending on who sends it (401 without a token, 403 as a user,
+ * 200 as an admin), so the caller is part of the key: a hash of the bearer token's {@code sub} and {@code role}
+ * claims, or of the whole token if it is not a JWT, and {@code -} without one. Claims are stable across a replay,
+ * since the tokens themselves come out of recorded logins. The scope (e.g. the running test) keeps the
+ * sequences of requests that normalize alike apart, so concurrent tests do not take each other's responses.
+ */
+public final class CassetteKey {
+
+    /** Scope and caller of requests that have none. */
+    public static final String NONE = "-";
+
+    private static final Pattern UUID = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Pattern RANDOM_NUMBER = Pattern.compile(
+            "(?<![A-Za-z0-9])(?=[0-9a-fA-F]{8,}(?![A-Za-z0-9]))[a-fA-F]*[0-9][0-9a-fA-F]*");
+
+    private CassetteKey() {
+    }
+
+    /**
+     * @param scope         what the request's responses are sequenced under, or null for {@link #NONE}
+     * @param authorization the request's {@code Authorization} header, or null
+     */
+    public static String of(String scope, String method, URI uri, String authorization, byte[] body) {
+        String target = uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        String normalizedBody = normalize(new String(body, StandardCharsets.UTF_8));
+        return (scope == null ? NONE : scope) + ' ' + method.toUpperCase() + ' ' + normalize(target) + ' '
+                + caller(authorization) + ' ' + Long.toHexString(hash(normalizedBody));
+    }
+
+    static String caller(String authorization) {
+        if (authorization == null || authorization.isBlank()) {
+            return NONE;
+        }
+        String token = authorization.regionMatches(true, 0, "Bearer ", 0, 7)
+                ? authorization.substring(7).trim() : authorization;
+        try {
+            Map<String, Object> claims = Jwt.claims(token);
+            if (claims.get("sub") != null || claims.get("role") != null) {
+                return Long.toHexString(hash(claims.get("sub") + "|" + claims.get("role")));
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a JWT; the token itself tells callers apart
+        }
+        return Long.toHexString(hash(token));
+    }
+
+    static String normalize(String text) {
+        return RANDOM_NUMBER.matcher(UUID.matcher(text).replaceAll("{uuid}")).replaceAll("{n}");
+    }
+
+    /** 64-bit FNV-1a. */
+    static long hash(String text) {
+        return hash(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.cassette;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects exchanges while the suites run and writes them as a cassette file (layout in {@link Cassette}).
+ * Responses to the same key are kept in the order they arrived, so replay hands them out in that order again.
+ */
+public class CassetteRecorder {
+
+    private final Map<String, List<Exchange>> exchanges = new ConcurrentHashMap<>();
+
+    public void record(String key, Exchange exchange) {
+        List<Exchange> sequence = exchanges.computeIfAbsent(key, k -> new ArrayList<>());
+        synchronized (sequence) {
+            sequence.add(exchange);
+        }
+    }
+
+    /** Number of distinct keys recorded so far. */
+    public int size() {
+        return exchanges.size();
+    }
+
+    /** Writes to a temporary file first, so an interrupted write never leaves a truncated cassette behind. */
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        List<String> keys = new ArrayList<>(exchanges.keySet());
+        int slotCount = Integer.highestOneBit(Math.max(2, keys.size() * 2) - 1) << 1;
+        long[] slots = new long[slotCount];
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(Cassette.MAGIC);
+            out.writeInt(keys.size());
+            out.writeInt(slotCount);
+            for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+                String key = keys.get(ordinal);
+                List<Exchange> sequence = exchanges.get(key);
+                List<Exchange> snapshot;
+                synchronized (sequence) {
+                    snapshot = new ArrayList<>(sequence);
+                }
+                // Exchanges first, so the entry after them can list their offsets
+                long[] offsets = new long[snapshot.size()];
+                for (int i = 0; i < snapshot.size(); i++) {
+                    offsets[i] = out.size();
+                    writeExchange(out, snapshot.get(i));
+                }
+                long entry = out.size();
+                byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                long hash = CassetteKey.hash(keyBytes);
+                out.writeLong(hash);
+                out.writeInt(ordinal);
+                out.writeInt(keyBytes.length);
+                out.write(keyBytes);
+                out.writeInt(offsets.length);
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+                int slot = (int) hash & (slotCount - 1);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & (slotCount - 1);
+                }
+                slots[slot] = entry;
+            }
+            for (long slot : slots) {
+                out.writeLong(slot);
+            }
+            if (out.size() < 0 || out.size() == Integer.MAX_VALUE) {
+                throw new IOException("Cassette is larger than 2 GB");
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeExchange(DataOutputStream out, Exchange exchange) throws IOException {
+        out.writeInt(exchange.status());
+        int headerCount = 0;
+        for (List<String> values : exchange.headers().values()) {
+            headerCount += values.size();
+        }
+        out.writeInt(headerCount);
+        for (Map.Entry<String, List<String>> header : exchange.headers().entrySet()) {
+            for (String value : header.getValue()) {
+                writeBytes(out, header.getKey().getBytes(StandardCharsets.UTF_8));
+                writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        writeBytes(out, exchange.body());
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
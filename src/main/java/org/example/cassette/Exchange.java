@@ -0,0 +1,10 @@
+package org.example.cassette;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One recorded response. Header names keep the case the server sent.
+ */
+public record Exchange(int status, Map<String, List<String>> headers, byte[] body) {
+}
@@ -0,0 +1,531 @@
+package org.example.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative ints in the style of Roaring bitmaps: values are split by their high 16 bits
+ * into chunks, and each chunk is stored as a sorted {@code char[]} while it holds at most 4096 values and as a
+ * 65536-bit bitset beyond that. Sparse and dense sets both stay small, and AND/OR/AND-NOT work chunk by chunk
+ * without decompressing. {@link #rank} and {@link #select} skip whole chunks by their counts, which is what
+ * makes paging through a filtered set cheap.
+ * <p>
+ * Not thread-safe; the binary operations return new bitmaps and leave their inputs alone.
+ */
+public final class Bitmap {
+
+    static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Object[] chunks = new Object[4];
+    private int[] counts = new int[4];
+    private int size;
+
+    public static Bitmap of(int... values) {
+        Bitmap bitmap = new Bitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /** Every value in {@code [0, end)}. */
+    public static Bitmap range(int end) {
+        Bitmap bitmap = new Bitmap();
+        for (int high = 0; high <= (end - 1) >>> 16 && end > 0; high++) {
+            int from = high << 16;
+            int to = Math.min(end, from + 65536);
+            if (to - from > ARRAY_LIMIT) {
+                long[] words = new long[WORDS];
+                int bits = to - from;
+                Arrays.fill(words, 0, bits >>> 6, -1L);
+                if ((bits & 63) != 0) {
+                    words[bits >>> 6] = (1L << (bits & 63)) - 1;
+                }
+                bitmap.append((char) high, words, bits);
+            } else {
+                char[] values = new char[to - from];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = (char) i;
+                }
+                bitmap.append((char) high, values, values.length);
+            }
+        }
+        return bitmap;
+    }
+
+    public boolean add(int value) {
+        checkValue(value);
+        char high = (char) (value >>> 16);
+        char low = (char) value;
+        int index = indexOf(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, high, new char[4], 0);
+        }
+        Object chunk = chunks[index];
+        int count = counts[index];
+        if (chunk instanceof long[] words) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0) {
+                return false;
+            }
+            words[low >>> 6] |= bit;
+            counts[index]++;
+            return true;
+        }
+        char[] values = (char[]) chunk;
+        int at = Arrays.binarySearch(values, 0, count, low);
+        if (at >= 0) {
+            return false;
+        }
+        at = -at - 1;
+        if (count == ARRAY_LIMIT) {
+            long[] words = toWords(values, count);
+            words[low >>> 6] |= 1L << low;
+            chunks[index] = words;
+        } else {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, count * 2));
+                chunks[index] = values;
+            }
+            System.arraycopy(values, at, values, at + 1, count - at);
+            values[at] = low;
+        }
+        counts[index]++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        Object chunk = chunks[index];
+        int count = counts[index];
+        if (chunk instanceof long[] words) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                return false;
+            }
+            words[low >>> 6] &= ~bit;
+            if (count - 1 <= ARRAY_LIMIT) {
+                chunks[index] = toValues(words, count - 1);
+            }
+        } else {
+            char[] values = (char[]) chunk;
+            int at = Arrays.binarySearch(values, 0, count, low);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(values, at + 1, values, at, count - at - 1);
+        }
+        if (--counts[index] == 0) {
+            removeChunk(index);
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && chunkContains(chunks[index], counts[index], (char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += counts[i];
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Number of values less than or equal to {@code value}. */
+    public int rank(int value) {
+        if (value < 0) {
+            return 0;
+        }
+        char high = (char) (value >>> 16);
+        char low = (char) value;
+        int rank = 0;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] < high) {
+                rank += counts[i];
+            } else {
+                if (keys[i] == high) {
+                    rank += chunkRank(chunks[i], counts[i], low);
+                }
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /** The value with the given zero-based rank in ascending order. */
+    public int select(int rank) {
+        if (rank < 0) {
+            throw new IndexOutOfBoundsException("rank " + rank);
+        }
+        int remaining = rank;
+        for (int i = 0; i < size; i++) {
+            if (remaining < counts[i]) {
+                return keys[i] << 16 | chunkSelect(chunks[i], remaining);
+            }
+            remaining -= counts[i];
+        }
+        throw new IndexOutOfBoundsException("rank " + rank + " of " + cardinality());
+    }
+
+    /** Up to {@code limit} values in ascending order, starting at the one with rank {@code fromRank}. */
+    public int[] slice(int fromRank, int limit) {
+        int[] out = new int[Math.max(0, Math.min(limit, cardinality() - fromRank))];
+        int filled = 0;
+        int remaining = fromRank;
+        for (int i = 0; i < size && filled < out.length; i++) {
+            if (remaining >= counts[i]) {
+                remaining -= counts[i];
+                continue;
+            }
+            int base = keys[i] << 16;
+            if (chunks[i] instanceof long[] words) {
+                int skipped = 0;
+                for (int w = 0; w < WORDS && filled < out.length; w++) {
+                    long word = words[w];
+                    int bits = Long.bitCount(word);
+                    if (skipped + bits <= remaining) {
+                        skipped += bits;
+                        continue;
+                    }
+                    while (word != 0 && filled < out.length) {
+                        int bit = Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                        if (skipped++ >= remaining) {
+                            out[filled++] = base | (w << 6 | bit);
+                        }
+                    }
+                }
+            } else {
+                char[] values = (char[]) chunks[i];
+                for (int v = remaining; v < counts[i] && filled < out.length; v++) {
+                    out[filled++] = base | values[v];
+                }
+            }
+            remaining = 0;
+        }
+        return out;
+    }
+
+    public int[] toArray() {
+        return slice(0, Integer.MAX_VALUE);
+    }
+
+    public Bitmap and(Bitmap other) {
+        Bitmap result = new Bitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendCompacted(keys[i], and(chunks[i], counts[i], other.chunks[j], other.counts[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public Bitmap or(Bitmap other) {
+        Bitmap result = new Bitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendCompacted(keys[i], copy(chunks[i], counts[i]));
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendCompacted(other.keys[j], copy(other.chunks[j], other.counts[j]));
+                j++;
+            } else {
+                result.appendCompacted(keys[i], or(chunks[i], counts[i], other.chunks[j], other.counts[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public Bitmap andNot(Bitmap other) {
+        Bitmap result = new Bitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.appendCompacted(keys[i], andNot(chunks[i], counts[i], other.chunks[j], other.counts[j]));
+            } else {
+                result.appendCompacted(keys[i], copy(chunks[i], counts[i]));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Bitmap other && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "Bitmap[" + cardinality() + " values in " + size + " chunks]";
+    }
+
+    // Chunk operations. A chunk is a sorted char[] (first count entries used) or a long[1024] bitset; results
+    // come back as (chunk, count) in a Chunk and are converted to the cheaper form on append.
+
+    private record Chunk(Object data, int count) {
+    }
+
+    private static Chunk and(Object a, int countA, Object b, int countB) {
+        if (a instanceof long[] wordsA && b instanceof long[] wordsB) {
+            long[] words = new long[WORDS];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                words[w] = wordsA[w] & wordsB[w];
+                count += Long.bitCount(words[w]);
+            }
+            return new Chunk(words, count);
+        }
+        if (a instanceof long[]) {
+            return and(b, countB, a, countA);
+        }
+        char[] valuesA = (char[]) a;
+        char[] out = new char[Math.min(countA, countB)];
+        int count = 0;
+        if (b instanceof long[] wordsB) {
+            for (int i = 0; i < countA; i++) {
+                char v = valuesA[i];
+                if ((wordsB[v >>> 6] & (1L << v)) != 0) {
+                    out[count++] = v;
+                }
+            }
+        } else {
+            char[] valuesB = (char[]) b;
+            int i = 0;
+            int j = 0;
+            while (i < countA && j < countB) {
+                if (valuesA[i] < valuesB[j]) {
+                    i++;
+                } else if (valuesA[i] > valuesB[j]) {
+                    j++;
+                } else {
+                    out[count++] = valuesA[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return new Chunk(out, count);
+    }
+
+    private static Chunk or(Object a, int countA, Object b, int countB) {
+        if (a instanceof char[] valuesA && b instanceof char[] valuesB) {
+            char[] out = new char[countA + countB];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < countA || j < countB) {
+                if (j == countB || (i < countA && valuesA[i] < valuesB[j])) {
+                    out[count++] = valuesA[i++];
+                } else if (i == countA || valuesA[i] > valuesB[j]) {
+                    out[count++] = valuesB[j++];
+                } else {
+                    out[count++] = valuesA[i++];
+                    j++;
+                }
+            }
+            return new Chunk(out, count);
+        }
+        long[] words = a instanceof long[] wordsA ? wordsA.clone() : toWords((char[]) a, countA);
+        if (b instanceof long[] wordsB) {
+            for (int w = 0; w < WORDS; w++) {
+                words[w] |= wordsB[w];
+            }
+        } else {
+            char[] valuesB = (char[]) b;
+            for (int j = 0; j < countB; j++) {
+                words[valuesB[j] >>> 6] |= 1L << valuesB[j];
+            }
+        }
+        return new Chunk(words, bitCount(words));
+    }
+
+    private static Chunk andNot(Object a, int countA, Object b, int countB) {
+        if (a instanceof long[] wordsA) {
+            long[] words = wordsA.clone();
+            if (b instanceof long[] wordsB) {
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] &= ~wordsB[w];
+                }
+            } else {
+                char[] valuesB = (char[]) b;
+                for (int j = 0; j < countB; j++) {
+                    words[valuesB[j] >>> 6] &= ~(1L << valuesB[j]);
+                }
+            }
+            return new Chunk(words, bitCount(words));
+        }
+        char[] valuesA = (char[]) a;
+        char[] out = new char[countA];
+        int count = 0;
+        for (int i = 0; i < countA; i++) {
+            if (!chunkContains(b, countB, valuesA[i])) {
+                out[count++] = valuesA[i];
+            }
+        }
+        return new Chunk(out, count);
+    }
+
+    private static Chunk copy(Object chunk, int count) {
+        return new Chunk(chunk instanceof long[] words ? words.clone() : Arrays.copyOf((char[]) chunk, count), count);
+    }
+
+    private static boolean chunkContains(Object chunk, int count, char low) {
+        if (chunk instanceof long[] words) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) chunk, 0, count, low) >= 0;
+    }
+
+    private static int chunkRank(Object chunk, int count, char low) {
+        if (chunk instanceof long[] words) {
+            int rank = 0;
+            int word = low >>> 6;
+            for (int w = 0; w < word; w++) {
+                rank += Long.bitCount(words[w]);
+            }
+            long mask = (low & 63) == 63 ? -1L : (1L << ((low & 63) + 1)) - 1;
+            return rank + Long.bitCount(words[word] & mask);
+        }
+        int at = Arrays.binarySearch((char[]) chunk, 0, count, low);
+        return at >= 0 ? at + 1 : -at - 1;
+    }
+
+    private static int chunkSelect(Object chunk, int rank) {
+        if (chunk instanceof long[] words) {
+            int remaining = rank;
+            for (int w = 0; w < WORDS; w++) {
+                int bits = Long.bitCount(words[w]);
+                if (remaining < bits) {
+                    long word = words[w];
+                    for (int k = 0; k < remaining; k++) {
+                        word &= word - 1;
+                    }
+                    return w << 6 | Long.numberOfTrailingZeros(word);
+                }
+                remaining -= bits;
+            }
+            throw new IllegalStateException("Chunk count out of sync");
+        }
+        return ((char[]) chunk)[rank];
+    }
+
+    private static long[] toWords(char[] values, int count) {
+        long[] words = new long[WORDS];
+        for (int i = 0; i < count; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return words;
+    }
+
+    private static char[] toValues(long[] words, int count) {
+        char[] values = new char[Math.max(count, 1)];
+        int n = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[n++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+
+    private static int bitCount(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // Structure maintenance
+
+    private void appendCompacted(char key, Chunk chunk) {
+        if (chunk.count() == 0) {
+            return;
+        }
+        Object data = chunk.data();
+        if (data instanceof long[] words && chunk.count() <= ARRAY_LIMIT) {
+            data = toValues(words, chunk.count());
+        } else if (data instanceof char[] values && chunk.count() > ARRAY_LIMIT) {
+            data = toWords(values, chunk.count());
+        }
+        append(key, data, chunk.count());
+    }
+
+    private void append(char key, Object chunk, int count) {
+        insertChunk(size, key, chunk, count);
+    }
+
+    private void insertChunk(int index, char key, Object chunk, int count) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            chunks = Arrays.copyOf(chunks, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(chunks, index, chunks, index + 1, size - index);
+        System.arraycopy(counts, index, counts, index + 1, size - index);
+        keys[index] = key;
+        chunks[index] = chunk;
+        counts[index] = count;
+        size++;
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(chunks, index + 1, chunks, index, size - index - 1);
+        System.arraycopy(counts, index + 1, counts, index, size - index - 1);
+        size--;
+        chunks[size] = null;
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Bitmaps hold non-negative ints, not " + value);
+        }
+    }
+}
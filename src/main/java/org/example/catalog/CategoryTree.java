@@ -0,0 +1,247 @@
+package org.example.catalog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Category hierarchy with an id and a slug index and parent-to-children adjacency, kept up to date one change at
+ * a time. Lookups by id or slug are O(1); ancestor queries are O(depth) and subtree queries O(subtree size), so
+ * checking one branch of {@code /categories/tree} never touches the rest of the catalog.
+ * <p>
+ * Built from the flat {@code /categories} list with {@link #fromJson}; {@link #diff} compares a
+ * {@code /categories/tree} response against it. All methods are synchronized.
+ */
+public class CategoryTree {
+
+    public record Node(String id, String parentId, String name, String slug) {
+    }
+
+    private final Map<String, Node> byId = new HashMap<>();
+    private final Map<String, String> idsBySlug = new HashMap<>();
+    private final Map<String, Set<String>> children = new HashMap<>();
+    private final Set<String> roots = new LinkedHashSet<>();
+
+    /** From the parsed flat list: objects with {@code id}, {@code parent_id}, {@code name} and {@code slug}. */
+    public static CategoryTree fromJson(List<?> categories) {
+        CategoryTree tree = new CategoryTree();
+        for (Object item : categories) {
+            Map<?, ?> category = (Map<?, ?>) item;
+            tree.put(new Node(string(category.get("id")), string(category.get("parent_id")),
+                    string(category.get("name")), string(category.get("slug"))));
+        }
+        return tree;
+    }
+
+    /**
+     * Adds a category. The parent may arrive later, as rows of a flat list come in any order; returns false
+     * if the id or the slug is already taken.
+     */
+    public synchronized boolean add(String id, String parentId, String name, String slug) {
+        if (byId.containsKey(id) || idsBySlug.containsKey(slug)) {
+            return false;
+        }
+        put(new Node(id, parentId, name, slug));
+        return true;
+    }
+
+    /** Applies a PUT; returns false if the id is unknown or the slug belongs to another category. */
+    public synchronized boolean rename(String id, String name, String slug) {
+        Node old = byId.get(id);
+        String owner = idsBySlug.get(slug);
+        if (old == null || (owner != null && !owner.equals(id))) {
+            return false;
+        }
+        idsBySlug.remove(old.slug());
+        idsBySlug.put(slug, id);
+        byId.put(id, new Node(id, old.parentId(), name, slug));
+        return true;
+    }
+
+    /** Removes a leaf; returns false if the id is unknown or still has children. */
+    public synchronized boolean remove(String id) {
+        Node old = byId.get(id);
+        if (old == null || !children.getOrDefault(id, Set.of()).isEmpty()) {
+            return false;
+        }
+        byId.remove(id);
+        idsBySlug.remove(old.slug());
+        children.remove(id);
+        if (old.parentId() == null) {
+            roots.remove(id);
+        } else {
+            Set<String> siblings = children.get(old.parentId());
+            if (siblings != null) {
+                siblings.remove(id);
+            }
+        }
+        return true;
+    }
+
+    public synchronized Node get(String id) {
+        return byId.get(id);
+    }
+
+    public synchronized Node bySlug(String slug) {
+        String id = idsBySlug.get(slug);
+        return id == null ? null : byId.get(id);
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public synchronized boolean hasChildren(String id) {
+        return !children.getOrDefault(id, Set.of()).isEmpty();
+    }
+
+    public synchronized List<Node> children(String id) {
+        return nodes(children.getOrDefault(id, Set.of()));
+    }
+
+    public synchronized List<Node> roots() {
+        return nodes(roots);
+    }
+
+    /** Parent first, up to the root. */
+    public synchronized List<Node> ancestors(String id) {
+        List<Node> ancestors = new ArrayList<>();
+        Node node = byId.get(id);
+        while (node != null && node.parentId() != null && ancestors.size() <= byId.size()) {
+            node = byId.get(node.parentId());
+            if (node != null) {
+                ancestors.add(node);
+            }
+        }
+        return ancestors;
+    }
+
+    /** The category and everything below it, depth first; empty if the id is unknown. */
+    public synchronized List<Node> subtree(String id) {
+        List<Node> subtree = new ArrayList<>();
+        if (!byId.containsKey(id)) {
+            return subtree;
+        }
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(id);
+        while (!pending.isEmpty()) {
+            String next = pending.pop();
+            subtree.add(byId.get(next));
+            List<String> below = new ArrayList<>(children.getOrDefault(next, Set.of()));
+            for (int i = below.size() - 1; i >= 0; i--) {
+                pending.push(below.get(i));
+            }
+        }
+        return subtree;
+    }
+
+    /**
+     * The nested form of {@code /categories/tree}: every category with its {@code sub_categories}, from the roots
+     * or from the category with {@code rootSlug} (an unknown slug gives an empty list).
+     */
+    public synchronized List<Map<String, Object>> toJson(String rootSlug) {
+        Collection<String> from = rootSlug == null ? roots
+                : idsBySlug.containsKey(rootSlug) ? List.of(idsBySlug.get(rootSlug)) : List.of();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (String id : from) {
+            result.add(toJson(byId.get(id)));
+        }
+        return result;
+    }
+
+    /**
+     * Differences between a parsed {@code /categories/tree} response and this tree, one line each; empty when they
+     * agree. Children are compared as sets, since the API does not promise an order. Only the branch the response
+     * covers is visited.
+     */
+    public synchronized List<String> diff(List<?> response, String rootSlug) {
+        List<String> differences = new ArrayList<>();
+        Set<String> expected = new LinkedHashSet<>();
+        if (rootSlug == null) {
+            expected.addAll(roots);
+        } else if (idsBySlug.containsKey(rootSlug)) {
+            expected.add(idsBySlug.get(rootSlug));
+        }
+        compareLevel("tree", response, expected, differences);
+        return differences;
+    }
+
+    private void compareLevel(String where, List<?> actual, Set<String> expectedIds, List<String> differences) {
+        Set<String> actualIds = new LinkedHashSet<>();
+        for (Object item : actual) {
+            if (!(item instanceof Map<?, ?> category)) {
+                differences.add(where + ": expected an object but got " + item);
+                continue;
+            }
+            String id = string(category.get("id"));
+            actualIds.add(id);
+            Node node = byId.get(id);
+            if (node == null || !expectedIds.contains(id)) {
+                differences.add(where + ": unexpected category " + id);
+                continue;
+            }
+            String at = where + " > " + node.slug();
+            compare(at, "name", node.name(), string(category.get("name")), differences);
+            compare(at, "slug", node.slug(), string(category.get("slug")), differences);
+            compare(at, "parent_id", node.parentId(), string(category.get("parent_id")), differences);
+            Object subCategories = category.get("sub_categories");
+            compareLevel(at, subCategories instanceof List<?> list ? list : List.of(),
+                    children.getOrDefault(id, Set.of()), differences);
+        }
+        for (String id : expectedIds) {
+            if (!actualIds.contains(id)) {
+                differences.add(where + ": missing category " + byId.get(id).slug());
+            }
+        }
+    }
+
+    private static void compare(String where, String field, String expected, String actual, List<String> differences) {
+        if (!Objects.equals(expected, actual)) {
+            differences.add(where + ": " + field + " is '" + actual + "', expected '" + expected + "'");
+        }
+    }
+
+    private Map<String, Object> toJson(Node node) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", node.id());
+        json.put("parent_id", node.parentId());
+        json.put("name", node.name());
+        json.put("slug", node.slug());
+        List<Map<String, Object>> subCategories = new ArrayList<>();
+        for (String child : children.getOrDefault(node.id(), Set.of())) {
+            subCategories.add(toJson(byId.get(child)));
+        }
+        json.put("sub_categories", subCategories);
+        return json;
+    }
+
+    private synchronized void put(Node node) {
+        byId.put(node.id(), node);
+        idsBySlug.put(node.slug(), node.id());
+        if (node.parentId() == null) {
+            roots.add(node.id());
+        } else {
+            children.computeIfAbsent(node.parentId(), p -> new LinkedHashSet<>()).add(node.id());
+        }
+    }
+
+    private List<Node> nodes(Collection<String> ids) {
+        List<Node> nodes = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            nodes.add(byId.get(id));
+        }
+        return nodes;
+    }
+
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.catalog;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The filterable columns of a product list (brand, category, rental flag) indexed by {@link Bitmap}s over row
+ * ordinals. Ordinals are handed out in insertion order, which is also listing order, and are never reused; a
+ * deleted row simply leaves the {@code live} set.
+ * <p>
+ * A filter query ORs the bitmaps of the accepted values within each column and ANDs the columns, and a page is
+ * cut out of the result by rank, so asking for page 50000 of a million rows costs no more than asking for page 1.
+ * The {@code /products} stand-in ({@code ProductStore}) answers from it. Tests do not use it as an oracle: they
+ * check the stand-in against a plain scan of the seed rows, so a bug in the index cannot agree with itself.
+ * <p>
+ * Not thread-safe: queries may run concurrently with each other, but not with changes.
+ */
+public class ProductCatalog {
+
+    private long[] brands = new long[16];
+    private long[] categories = new long[16];
+    private int next;
+
+    private final Bitmap live = new Bitmap();
+    private final Bitmap rentals = new Bitmap();
+    private final Map<Long, Bitmap> byBrand = new HashMap<>();
+    private final Map<Long, Bitmap> byCategory = new HashMap<>();
+
+    /** Adds a row and returns its ordinal. */
+    public int append(long brandId, long categoryId, boolean rental) {
+        if (next == brands.length) {
+            brands = Arrays.copyOf(brands, next * 2);
+            categories = Arrays.copyOf(categories, next * 2);
+        }
+        int ordinal = next++;
+        index(ordinal, brandId, categoryId, rental);
+        live.add(ordinal);
+        return ordinal;
+    }
+
+    /** Changes the columns of a live row; returns false if there is none with that ordinal. */
+    public boolean update(int ordinal, long brandId, long categoryId, boolean rental) {
+        if (!isLive(ordinal)) {
+            return false;
+        }
+        unindex(ordinal);
+        index(ordinal, brandId, categoryId, rental);
+        return true;
+    }
+
+    public boolean delete(int ordinal) {
+        if (!live.remove(ordinal)) {
+            return false;
+        }
+        unindex(ordinal);
+        return true;
+    }
+
+    public boolean isLive(int ordinal) {
+        return live.contains(ordinal);
+    }
+
+    /** Live rows. */
+    public int size() {
+        return live.cardinality();
+    }
+
+    /** Ordinals handed out so far, deleted rows included. */
+    public int capacity() {
+        return next;
+    }
+
+    /**
+     * Live rows with any of the given brands, any of the given categories and the given rental flag; a null
+     * argument leaves that column unfiltered.
+     */
+    public Bitmap select(Collection<Long> brandIds, Collection<Long> categoryIds, Boolean rental) {
+        Bitmap result = live;
+        if (brandIds != null) {
+            result = result.and(union(byBrand, brandIds));
+        }
+        if (categoryIds != null) {
+            result = result.and(union(byCategory, categoryIds));
+        }
+        if (rental != null) {
+            result = rental ? result.and(rentals) : result.andNot(rentals);
+        }
+        // Never hand out the live set itself
+        return result == live ? live.or(new Bitmap()) : result;
+    }
+
+    /** Single-value shorthand for {@link #select(Collection, Collection, Boolean)}, the way /products filters. */
+    public Bitmap select(Long brandId, Long categoryId, Boolean rental) {
+        return select(brandId == null ? null : List.of(brandId),
+                categoryId == null ? null : List.of(categoryId), rental);
+    }
+
+    /** The ordinals on a one-based page of a selection; empty past the last page. */
+    public static int[] page(Bitmap selection, int page, int perPage) {
+        long from = (long) (page - 1) * perPage;
+        if (page < 1 || from >= selection.cardinality()) {
+            return new int[0];
+        }
+        return selection.slice((int) from, perPage);
+    }
+
+    private static Bitmap union(Map<Long, Bitmap> index, Collection<Long> values) {
+        Bitmap union = new Bitmap();
+        for (Long value : values) {
+            Bitmap rows = index.get(value);
+            if (rows != null) {
+                union = union.or(rows);
+            }
+        }
+        return union;
+    }
+
+    private void index(int ordinal, long brandId, long categoryId, boolean rental) {
+        brands[ordinal] = brandId;
+        categories[ordinal] = categoryId;
+        byBrand.computeIfAbsent(brandId, id -> new Bitmap()).add(ordinal);
+        byCategory.computeIfAbsent(categoryId, id -> new Bitmap()).add(ordinal);
+        if (rental) {
+            rentals.add(ordinal);
+        }
+    }
+
+    private void unindex(int ordinal) {
+        remove(byBrand, brands[ordinal], ordinal);
+        remove(byCategory, categories[ordinal], ordinal);
+        rentals.remove(ordinal);
+    }
+
+    private static void remove(Map<Long, Bitmap> index, long value, int ordinal) {
+        Bitmap rows = index.get(value);
+        if (rows != null) {
+            rows.remove(ordinal);
+            if (rows.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.example.client;
+
+import org.example.Threads;
+import org.example.json.Json;
+import org.example.json.JsonSchema;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking client for the Toolshop API: every call returns a {@link CompletableFuture}, so a multi-step flow
+ * (create, read back, delete) is one chain of {@code thenCompose} stages and no thread waits between the steps.
+ * Many such chains overlap freely; at most {@code maxInFlight} requests are on the wire at once and the rest queue
+ * without blocking anyone.
+ * <p>
+ * Responses complete on the client's executor (virtual threads where available), never on the HTTP client's
+ * selector thread, so stages may do real work. A status is not an error: check it with
+ * {@link ApiResponse#expect}, which fails the chain with an {@link IllegalStateException}.
+ *
+ * <pre>
+ * client.createCategory("Clamps", "clamps-17", null)
+ *         .thenApply(created -> created.expect(201).string("id"))
+ *         .thenCompose(id -> client.getCategory(id).thenApply(got -> got.expect(200))
+ *                 .thenCompose(got -> admin.deleteCategory(id)))
+ *         .thenApply(deleted -> deleted.expect(204));
+ * </pre>
+ */
+public class AsyncToolshopClient {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    /** Status and body of a finished call. */
+    public record ApiResponse(String method, URI uri, int status, byte[] body) {
+
+        /**
+         * This response if it has the given status and its body matches the call's {@link ToolshopSchemas} schema,
+         * else an {@link IllegalStateException} naming the call.
+         */
+        public ApiResponse expect(int expectedStatus) {
+            if (status != expectedStatus) {
+                throw new IllegalStateException(method + " " + uri + " returned " + status + ", expected "
+                        + expectedStatus + ": " + new String(body, StandardCharsets.UTF_8));
+            }
+            JsonSchema schema = ToolshopSchemas.forResponse(method, uri.getRawPath(), status);
+            List<String> violations = schema == null ? List.of() : schema.validate(body);
+            if (!violations.isEmpty()) {
+                throw new IllegalStateException(method + " " + uri + " returned " + status + " with a body that is "
+                        + "not a valid " + schema + ": " + String.join("; ", violations));
+            }
+            return this;
+        }
+
+        public Object json() {
+            return Json.parse(body);
+        }
+
+        /** A top-level field of an object body, as a string; null if absent. */
+        public String string(String field) {
+            Object value = json() instanceof Map<?, ?> object ? object.get(field) : null;
+            return value == null ? null : value.toString();
+        }
+    }
+
+    // Shared by a client and the copies made with withToken
+    private static final class Dispatcher {
+        final HttpClient client;
+        final Executor executor;
+        final int maxInFlight;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+        Dispatcher(HttpClient client, Executor executor, int maxInFlight) {
+            this.client = client;
+            this.executor = executor;
+            this.maxInFlight = maxInFlight;
+        }
+
+        CompletableFuture<ApiResponse> send(HttpRequest request) {
+            CompletableFuture<ApiResponse> result = new CompletableFuture<>();
+            waiting.add(() -> {
+                CompletableFuture<HttpResponse<byte[]>> call;
+                try {
+                    call = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+                } catch (RuntimeException e) {
+                    call = CompletableFuture.failedFuture(e);
+                }
+                call.whenComplete((response, failure) -> {
+                    inFlight.decrementAndGet();
+                    drain();
+                    executor.execute(() -> {
+                        if (failure != null) {
+                            result.completeExceptionally(failure);
+                        } else {
+                            result.complete(new ApiResponse(request.method(), request.uri(),
+                                    response.statusCode(), response.body()));
+                        }
+                    });
+                });
+            });
+            drain();
+            return result;
+        }
+
+        // Takes a slot by incrementing first, so another thread draining at the same time can see the limit
+        // reached for a moment that is not; whoever backs off looks again, or a request could wait with a slot free
+        // and nothing left in flight to drain it
+        private void drain() {
+            while (!waiting.isEmpty()) {
+                if (inFlight.incrementAndGet() > maxInFlight) {
+                    if (inFlight.decrementAndGet() < maxInFlight) {
+                        continue;
+                    }
+                    return;
+                }
+                Runnable next = waiting.poll();
+                if (next == null) {
+                    inFlight.decrementAndGet();
+                } else {
+                    next.run();
+                }
+            }
+        }
+    }
+
+    private final String baseUrl;
+    private final Dispatcher dispatcher;
+    private final String token;
+
+    public AsyncToolshopClient(String baseUrl, HttpClient client) {
+        this(baseUrl, client, Threads.perTaskExecutor("toolshop-client"), DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public AsyncToolshopClient(String baseUrl, HttpClient client, Executor executor, int maxInFlight) {
+        this(baseUrl, new Dispatcher(client, executor, maxInFlight), null);
+    }
+
+    private AsyncToolshopClient(String baseUrl, Dispatcher dispatcher, String token) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.dispatcher = dispatcher;
+        this.token = token;
+    }
+
+    /** A client that sends {@code Authorization: Bearer token}, sharing this one's connections and limit. */
+    public AsyncToolshopClient withToken(String bearerToken) {
+        return new AsyncToolshopClient(baseUrl, dispatcher, bearerToken);
+    }
+
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    // Products
+
+    public CompletableFuture<ApiResponse> listProducts(Map<String, ?> query) {
+        return get("/products" + query(query));
+    }
+
+    public CompletableFuture<ApiResponse> getProduct(String id) {
+        return get("/products/" + id);
+    }
+
+    public CompletableFuture<ApiResponse> createProduct(Map<String, ?> fields) {
+        return send("POST", "/products", fields);
+    }
+
+    public CompletableFuture<ApiResponse> updateProduct(String id, Map<String, ?> fields) {
+        return send("PUT", "/products/" + id, fields);
+    }
+
+    public CompletableFuture<ApiResponse> deleteProduct(String id) {
+        return send("DELETE", "/products/" + id, null);
+    }
+
+    // Categories
+
+    public CompletableFuture<ApiResponse> listCategories() {
+        return get("/categories");
+    }
+
+    /** The nested hierarchy, optionally only the branch under {@code slug}. */
+    public CompletableFuture<ApiResponse> categoryTree(String slug) {
+        return get("/categories/tree" + (slug == null ? "" : query(Map.of("by_category_slug", slug))));
+    }
+
+    public CompletableFuture<ApiResponse> getCategory(String id) {
+        return get("/categories/" + id);
+    }
+
+    public CompletableFuture<ApiResponse> createCategory(String name, String slug, String parentId) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", name);
+        fields.put("slug", slug);
+        if (parentId != null) {
+            fields.put("parent_id", parentId);
+        }
+        return send("POST", "/categories", fields);
+    }
+
+    public CompletableFuture<ApiResponse> updateCategory(String id, Map<String, ?> fields) {
+        return send("PUT", "/categories/" + id, fields);
+    }
+
+    /** Needs an admin token, see {@link #withToken}. */
+    public CompletableFuture<ApiResponse> deleteCategory(String id) {
+        return send("DELETE", "/categories/" + id, null);
+    }
+
+    // Users
+
+    public CompletableFuture<ApiResponse> register(Map<String, ?> fields) {
+        return send("POST", "/users/register", fields);
+    }
+
+    /** Completes with the access token, or fails if the login is refused. */
+    public CompletableFuture<String> login(String email, String password) {
+        return send("POST", "/users/login", Map.of("email", email, "password", password))
+                .thenApply(response -> response.expect(200).string("access_token"));
+    }
+
+    public CompletableFuture<ApiResponse> me() {
+        return get("/users/me");
+    }
+
+    public CompletableFuture<ApiResponse> getUser(String id) {
+        return get("/users/" + id);
+    }
+
+    public CompletableFuture<ApiResponse> updateUser(String id, Map<String, ?> fields) {
+        return send("PUT", "/users/" + id, fields);
+    }
+
+    public CompletableFuture<ApiResponse> deleteUser(String id) {
+        return send("DELETE", "/users/" + id, null);
+    }
+
+    // Any endpoint
+
+    public CompletableFuture<ApiResponse> get(String path) {
+        return send("GET", path, null);
+    }
+
+    /** Sends {@code body} (serialized as JSON unless it is null) to a path relative to the base URL. */
+    public CompletableFuture<ApiResponse> send(String method, String path, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(Json.stringify(body)));
+        }
+        return dispatcher.send(request.build());
+    }
+
+    /** Completes when all of the given futures have, with their results in order; fails if any of them fails. */
+    public static <T> CompletableFuture<List<T>> all(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    /** Waits for the end of a chain and rethrows what failed it, rather than a {@link CompletionException}. */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String query(Map<String, ?> params) {
+        if (params == null || params.isEmpty()) {
+            return "";
+        }
+        StringBuilder query = new StringBuilder();
+        params.forEach((name, value) -> query.append(query.length() == 0 ? '?' : '&')
+                .append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                .append(URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8)));
+        return query.toString();
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.client;
+
+import org.example.json.JsonSchema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.json.JsonSchema.anyOf;
+import static org.example.json.JsonSchema.arrayOf;
+import static org.example.json.JsonSchema.bool;
+import static org.example.json.JsonSchema.integer;
+import static org.example.json.JsonSchema.number;
+import static org.example.json.JsonSchema.object;
+import static org.example.json.JsonSchema.string;
+
+/**
+ * Response shapes of the Toolshop API, as far as both the public API and the local stand-in agree on them: the
+ * fields the suites read, with their types. Everything else a payload carries is allowed, so a new field in a
+ * release does not fail a run. {@link #forResponse} picks the schema for a call.
+ */
+public final class ToolshopSchemas {
+
+    /** ULIDs on the public API; brand and category references are plain numbers on the stand-in. */
+    public static final JsonSchema ID = anyOf(string(1), integer(1));
+
+    // The public API leaves parent_id out of a created root category
+    public static final JsonSchema CATEGORY = object("category")
+            .required("id", ID)
+            .optional("parent_id", ID.orNull())
+            .required("name", string(1))
+            .required("slug", string(1))
+            .build();
+
+    /** A node of {@code /categories/tree}, with its children nested below it. */
+    public static final JsonSchema CATEGORY_TREE;
+
+    static {
+        JsonSchema.Forward node = JsonSchema.forward("category tree");
+        node.set(object("category tree")
+                .required("id", ID)
+                .required("parent_id", ID.orNull())
+                .required("name", string(1))
+                .required("slug", string(1))
+                .required("sub_categories", arrayOf(node))
+                .build());
+        CATEGORY_TREE = node;
+    }
+
+    // What a product embeds of its brand, category and image
+    private static final JsonSchema REFERENCE = object("reference")
+            .required("id", ID)
+            .build();
+
+    public static final JsonSchema PRODUCT = object("product")
+            .required("id", ID)
+            .required("name", string(1))
+            .optional("description", string(0).orNull())
+            .required("price", number())
+            .required("is_location_offer", bool())
+            .required("is_rental", bool())
+            .optional("in_stock", bool())
+            .required("brand", REFERENCE)
+            .required("category", REFERENCE)
+            .optional("product_image", REFERENCE.orNull())
+            .build();
+
+    public static final JsonSchema USER = object("user")
+            .required("id", ID)
+            .required("first_name", string(1))
+            .required("last_name", string(1))
+            .required("email", string(3))
+            .optional("phone", string(0).orNull())
+            .optional("dob", string(0).orNull())
+            .build();
+
+    public static final JsonSchema CATEGORIES = arrayOf(CATEGORY);
+    public static final JsonSchema CATEGORY_FOREST = arrayOf(CATEGORY_TREE);
+    public static final JsonSchema PRODUCT_PAGE = page(PRODUCT);
+    public static final JsonSchema USER_PAGE = page(USER);
+
+    private ToolshopSchemas() {
+    }
+
+    /** The Laravel paginator envelope around a page of {@code rows}. */
+    public static JsonSchema page(JsonSchema rows) {
+        return object("page of " + rows)
+                .required("current_page", integer(1))
+                .required("data", arrayOf(rows))
+                .optional("from", integer(1).orNull())
+                .required("last_page", integer(1))
+                .required("per_page", integer(1))
+                .optional("to", integer(1).orNull())
+                .required("total", integer(0))
+                .build();
+    }
+
+    /**
+     * The schema a successful response of {@code method path} has to match, or null for calls without a known
+     * body (errors, empty answers, endpoints not covered here). {@code path} may carry a query and a prefix before
+     * the resource, as in {@code /api/products?page=2}.
+     */
+    public static JsonSchema forResponse(String method, String path, int status) {
+        if (status < 200 || status >= 300) {
+            return null;
+        }
+        List<String> segments = segments(path);
+        int resource = 0;
+        while (resource < segments.size() && !isResource(segments.get(resource))) {
+            resource++;
+        }
+        if (resource == segments.size()) {
+            return null;
+        }
+        List<String> rest = segments.subList(resource + 1, segments.size());
+        String first = rest.isEmpty() ? null : rest.get(0);
+        boolean get = "GET".equals(method);
+        return switch (segments.get(resource)) {
+            case "products" -> {
+                if (rest.isEmpty()) {
+                    yield get ? PRODUCT_PAGE : "POST".equals(method) && status == 201 ? PRODUCT : null;
+                }
+                if (rest.size() == 1 && get) {
+                    yield "search".equals(first) ? PRODUCT_PAGE : PRODUCT;
+                }
+                yield null;
+            }
+            case "categories" -> {
+                if (rest.isEmpty()) {
+                    yield get ? CATEGORIES : "POST".equals(method) && status == 201 ? CATEGORY : null;
+                }
+                if (!get) {
+                    yield null;
+                }
+                if ("tree".equals(first)) {
+                    yield rest.size() == 1 ? CATEGORY_FOREST : rest.size() == 2 ? CATEGORY_TREE : null;
+                }
+                yield rest.size() == 1 && !"search".equals(first) ? CATEGORY : null;
+            }
+            case "users" -> {
+                if (rest.isEmpty()) {
+                    yield get ? USER_PAGE : null;
+                }
+                if (rest.size() != 1) {
+                    yield null;
+                }
+                if ("register".equals(first)) {
+                    yield "POST".equals(method) && status == 201 ? USER : null;
+                }
+                if ("search".equals(first)) {
+                    yield get ? USER_PAGE : null;
+                }
+                yield get && !"login".equals(first) && !"logout".equals(first) && !"refresh".equals(first)
+                        && !"change-password".equals(first) ? USER : null;
+            }
+            default -> null;
+        };
+    }
+
+    private static boolean isResource(String segment) {
+        return "products".equals(segment) || "categories".equals(segment) || "users".equals(segment);
+    }
+
+    private static List<String> segments(String path) {
+        int query = path.indexOf('?');
+        String clean = query < 0 ? path : path.substring(0, query);
+        List<String> segments = new ArrayList<>();
+        for (String segment : clean.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.crawl;
+
+import org.example.json.JsonPathExtractor;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Walks every page of a Laravel-paginated list endpoint ({@code ?page=N}, {@code last_page}).
+ * <p>
+ * The first page is fetched alone to learn {@code last_page}; after that up to {@code prefetch} pages are in
+ * flight at once, so a walk takes about one round trip per {@code prefetch} pages. Pages are still handed to the
+ * handler one at a time, in page order, on the calling thread, and no more than {@code prefetch} bodies are held
+ * in memory. A non-200 page or an exception from the handler stops the walk and cancels what is still in flight.
+ *
+ * <pre>
+ * new PageCrawler(client, 8).crawl(URI.create(url + "/products?by_brand=1"), Map.of(),
+ *         (page, body) -> ...);
+ * </pre>
+ */
+public class PageCrawler {
+
+    @FunctionalInterface
+    public interface PageHandler {
+        void accept(int page, byte[] body);
+    }
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final JsonPathExtractor LAST_PAGE = JsonPathExtractor.compile("last_page");
+
+    private final HttpClient client;
+    private final int prefetch;
+
+    public PageCrawler(HttpClient client, int prefetch) {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("prefetch must be at least 1");
+        }
+        this.client = client;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Fetches all pages of {@code first} (whose own {@code page} parameter, if any, is replaced) and returns the
+     * number of pages seen.
+     */
+    public int crawl(URI first, Map<String, String> headers, PageHandler handler) {
+        byte[] firstBody = join(fetch(first, 1, headers));
+        long[] lastPage = LAST_PAGE.longs(firstBody);
+        int pages = lastPage.length == 0 ? 1 : (int) lastPage[0];
+        handler.accept(1, firstBody);
+
+        Deque<CompletableFuture<byte[]>> window = new ArrayDeque<>(prefetch);
+        int nextRequest = 2;
+        try {
+            while (nextRequest <= pages && window.size() < prefetch) {
+                window.add(fetch(first, nextRequest++, headers));
+            }
+            for (int page = 2; page <= pages; page++) {
+                byte[] body = join(window.removeFirst());
+                if (nextRequest <= pages) {
+                    window.add(fetch(first, nextRequest++, headers));
+                }
+                handler.accept(page, body);
+            }
+        } finally {
+            window.forEach(future -> future.cancel(true));
+        }
+        return pages;
+    }
+
+    private CompletableFuture<byte[]> fetch(URI first, int page, Map<String, String> headers) {
+        URI uri = withPage(first, page);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json")
+                .GET();
+        headers.forEach(request::header);
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("GET " + uri + " returned " + response.statusCode());
+                    }
+                    return response.body();
+                });
+    }
+
+    static URI withPage(URI uri, int page) {
+        StringBuilder query = new StringBuilder();
+        if (uri.getRawQuery() != null) {
+            for (String pair : uri.getRawQuery().split("&")) {
+                if (!pair.isEmpty() && !pair.startsWith("page=") && !pair.equals("page")) {
+                    query.append(pair).append('&');
+                }
+            }
+        }
+        query.append("page=").append(URLEncoder.encode(String.valueOf(page), StandardCharsets.UTF_8));
+        String base = uri.toString();
+        int cut = base.indexOf('?');
+        return URI.create((cut < 0 ? base : base.substring(0, cut)) + '?' + query);
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.fuzz;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer that payloads are written into and sent from. Each fuzzing worker keeps one and
+ * {@link #reset}s it between cases, so once it has grown to the largest payload, generating a case allocates
+ * nothing: literals are pre-encoded, numbers and characters are encoded in place.
+ */
+public final class ByteSink {
+
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] bytes;
+    private int length;
+
+    public ByteSink(int initialCapacity) {
+        bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void reset() {
+        length = 0;
+    }
+
+    /** The backing array; only the first {@link #length()} bytes are the payload. */
+    public byte[] array() {
+        return bytes;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public byte byteAt(int index) {
+        return bytes[index];
+    }
+
+    public ByteSink put(byte b) {
+        ensure(1);
+        bytes[length++] = b;
+        return this;
+    }
+
+    public ByteSink put(char ascii) {
+        return put((byte) ascii);
+    }
+
+    public ByteSink put(byte[] literal) {
+        ensure(literal.length);
+        System.arraycopy(literal, 0, bytes, length, literal.length);
+        length += literal.length;
+        return this;
+    }
+
+    /** Decimal digits of {@code value}. */
+    public ByteSink putLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            return put(MIN_LONG);
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensure(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /** UTF-8 encoding of a character from the Basic Multilingual Plane, surrogates excluded. */
+    public ByteSink putChar(char c) {
+        if (c < 0x80) {
+            return put((byte) c);
+        }
+        ensure(3);
+        if (c < 0x800) {
+            bytes[length++] = (byte) (0xC0 | c >> 6);
+        } else {
+            bytes[length++] = (byte) (0xE0 | c >> 12);
+            bytes[length++] = (byte) (0x80 | (c >> 6 & 0x3F));
+        }
+        bytes[length++] = (byte) (0x80 | (c & 0x3F));
+        return this;
+    }
+
+    public void insert(int index, byte b) {
+        ensure(1);
+        System.arraycopy(bytes, index, bytes, index + 1, length - index);
+        bytes[index] = b;
+        length++;
+    }
+
+    public void set(int index, byte b) {
+        bytes[index] = b;
+    }
+
+    public void truncate(int newLength) {
+        length = Math.min(length, newLength);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /** The payload as text, for reports; not used on the sending path. */
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+}
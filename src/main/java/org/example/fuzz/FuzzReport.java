@@ -0,0 +1,211 @@
+package org.example.fuzz;
+
+import org.example.json.Json;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome of a fuzzing run: response clusters with their counts, the mutations that led to each and one example
+ * payload, failing clusters first. Cases the API kept throttling were never validated and are counted apart.
+ */
+public class FuzzReport {
+
+    static final int EXAMPLE_BYTES = 512;
+
+    /** Cases that got the same kind of answer. */
+    public static final class Cluster {
+
+        private final String signature;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder[] byKind = new LongAdder[Mutation.Kind.values().length];
+        private final AtomicReference<String[]> example = new AtomicReference<>();
+
+        Cluster(String signature) {
+            this.signature = signature;
+            for (int i = 0; i < byKind.length; i++) {
+                byKind[i] = new LongAdder();
+            }
+        }
+
+        void record(Mutation mutation, ByteSink payload, byte[] response) {
+            count.increment();
+            byKind[mutation.kind().ordinal()].increment();
+            if (example.get() == null) {
+                example.compareAndSet(null, new String[]{mutation.toString(), clip(payload.toString()),
+                        response == null ? null : clip(new String(response, StandardCharsets.UTF_8))});
+            }
+        }
+
+        public String signature() {
+            return signature;
+        }
+
+        public boolean failing() {
+            return signature.startsWith("FAIL ");
+        }
+
+        /** Whether the API answered 429 to every attempt, so the cases here tell nothing about validation. */
+        public boolean throttled() {
+            return signature.startsWith(Fuzzer.THROTTLED);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        /** Mutations that ended up here, most frequent first. */
+        public Map<String, Long> mutations() {
+            List<Mutation.Kind> kinds = new ArrayList<>(List.of(Mutation.Kind.values()));
+            kinds.sort(Comparator.comparingLong((Mutation.Kind kind) -> byKind[kind.ordinal()].sum()).reversed());
+            Map<String, Long> mutations = new LinkedHashMap<>();
+            for (Mutation.Kind kind : kinds) {
+                long n = byKind[kind.ordinal()].sum();
+                if (n > 0) {
+                    mutations.put(kind.name(), n);
+                }
+            }
+            return mutations;
+        }
+
+        /** The first case seen: its mutation, payload and response body, each clipped. */
+        public String[] example() {
+            return example.get();
+        }
+
+        private static String clip(String text) {
+            return text.length() <= EXAMPLE_BYTES ? text : text.substring(0, EXAMPLE_BYTES) + "...";
+        }
+    }
+
+    private final Fuzzer.Config config;
+    private final long elapsedNanos;
+    private final List<Cluster> clusters;
+
+    public FuzzReport(Fuzzer.Config config, long elapsedNanos, Collection<Cluster> clusters) {
+        this.config = config;
+        this.elapsedNanos = elapsedNanos;
+        this.clusters = new ArrayList<>(clusters);
+        this.clusters.sort(Comparator.comparing(Cluster::failing).reversed()
+                .thenComparing(Comparator.comparingLong(Cluster::count).reversed())
+                .thenComparing(Cluster::signature));
+    }
+
+    public List<Cluster> clusters() {
+        return clusters;
+    }
+
+    public List<Cluster> failures() {
+        List<Cluster> failures = new ArrayList<>();
+        for (Cluster cluster : clusters) {
+            if (cluster.failing()) {
+                failures.add(cluster);
+            }
+        }
+        return failures;
+    }
+
+    public long cases() {
+        long cases = 0;
+        for (Cluster cluster : clusters) {
+            cases += cluster.count();
+        }
+        return cases;
+    }
+
+    public long failedCases() {
+        long failed = 0;
+        for (Cluster cluster : failures()) {
+            failed += cluster.count();
+        }
+        return failed;
+    }
+
+    /** Cases that never got past the API's rate limit. */
+    public long throttledCases() {
+        long throttled = 0;
+        for (Cluster cluster : clusters) {
+            if (cluster.throttled()) {
+                throttled += cluster.count();
+            }
+        }
+        return throttled;
+    }
+
+    public boolean passed() {
+        return failures().isEmpty();
+    }
+
+    public double rate() {
+        return cases() / Math.max(elapsedNanos / 1e9, 1e-9);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%d cases in %.1fs (%.0f/s) from %d workers, seed %d: %d failed in %d clusters, %d throttled%n",
+                cases(), elapsedNanos / 1e9, rate(), config.concurrency(), config.seed(), failedCases(),
+                failures().size(), throttledCases());
+        out.printf("%9s  %-60s %s%n", "count", "signature", "mutations");
+        for (Cluster cluster : clusters) {
+            out.printf("%9d  %-60s %s%n", cluster.count(), cluster.signature(), cluster.mutations());
+        }
+        for (Cluster cluster : failures()) {
+            String[] example = cluster.example();
+            out.println();
+            out.println(cluster.signature() + ", e.g. " + example[0]);
+            out.println("  payload:  " + example[1]);
+            out.println("  response: " + example[2]);
+        }
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        List<Object> targets = new ArrayList<>();
+        for (Fuzzer.Target target : config.targets()) {
+            targets.add(Map.of("schema", target.schema().name(), "uri", target.uri().toString()));
+        }
+        json.put("targets", targets);
+        json.put("seed", config.seed());
+        json.put("concurrency", config.concurrency());
+        json.put("cases", cases());
+        json.put("failed_cases", failedCases());
+        json.put("throttled_cases", throttledCases());
+        json.put("elapsed_seconds", elapsedNanos / 1e9);
+        json.put("cases_per_second", rate());
+        List<Object> list = new ArrayList<>();
+        for (Cluster cluster : clusters) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("signature", cluster.signature());
+            entry.put("failing", cluster.failing());
+            entry.put("throttled", cluster.throttled());
+            entry.put("count", cluster.count());
+            entry.put("mutations", cluster.mutations());
+            String[] example = cluster.example();
+            Map<String, Object> first = new LinkedHashMap<>();
+            first.put("mutation", example[0]);
+            first.put("payload", example[1]);
+            first.put("response", example[2]);
+            entry.put("example", first);
+            list.add(entry);
+        }
+        json.put("clusters", list);
+        return json;
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, Json.stringify(toJson()), StandardCharsets.UTF_8);
+    }
+}
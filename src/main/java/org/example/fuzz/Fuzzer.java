@@ -0,0 +1,177 @@
+package org.example.fuzz;
+
+import org.example.Threads;
+import org.example.json.JsonReader;
+import org.example.limit.RetryAfter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends generated invalid payloads to the create endpoints from {@code concurrency} workers at once and groups
+ * the answers by response signature: schema, status and, for a 422, the set of fields it complains about. A case
+ * fails unless the API answers 422 naming the field that was broken, or 400 for a body that is not JSON at all;
+ * failures land in clusters of their own, so a thousand failing cases with one cause read as one finding.
+ * A 429 says nothing about validation: the case is sent again after the {@code Retry-After} wait, and if the API
+ * is still throttling after {@value #MAX_ATTEMPTS} attempts it is counted as throttled, not as passed or failed.
+ * <p>
+ * Each worker owns its buffer and generators and sends synchronously, so a buffer is only rewritten after the
+ * client is done with the request it backed. Case {@code i} draws from a random stream seeded with the run's seed
+ * and {@code i}, so a seed names the same payloads however the cases are spread over the workers.
+ */
+public class Fuzzer {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+    static final int MAX_ATTEMPTS = 4;
+    // Wait before sending a throttled case again when the 429 does not say how long
+    static final Duration THROTTLED_WAIT = Duration.ofSeconds(1);
+    static final String THROTTLED = "THROTTLED ";
+    // Odd, so consecutive cases get far-apart seeds
+    private static final long CASE_STRIDE = 0x9E3779B97F4A7C15L;
+
+    public record Target(PayloadSchema schema, URI uri) {
+
+        public static Target of(URI baseUrl, PayloadSchema schema) {
+            String base = baseUrl.toString();
+            return new Target(schema, URI.create((base.endsWith("/") ? base.substring(0, base.length() - 1) : base)
+                    + schema.path()));
+        }
+    }
+
+    public record Config(List<Target> targets, long cases, int concurrency, long seed) {
+    }
+
+    private final Config config;
+    private final HttpClient client;
+
+    public Fuzzer(Config config, HttpClient client) {
+        this.config = config;
+        this.client = client;
+    }
+
+    public FuzzReport run() throws InterruptedException {
+        Map<String, FuzzReport.Cluster> clusters = new ConcurrentHashMap<>();
+        AtomicLong next = new AtomicLong();
+        ExecutorService executor = Threads.perTaskExecutor("fuzz");
+        long start = System.nanoTime();
+        for (int i = 0; i < config.concurrency(); i++) {
+            executor.execute(() -> work(next, clusters));
+        }
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            // Keeps going until the last case has an answer or timed out
+        }
+        return new FuzzReport(config, System.nanoTime() - start, clusters.values());
+    }
+
+    private void work(AtomicLong next, Map<String, FuzzReport.Cluster> clusters) {
+        List<Target> targets = config.targets();
+        PayloadGenerator[] generators = new PayloadGenerator[targets.size()];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = new PayloadGenerator(targets.get(i).schema());
+        }
+        ByteSink payload = new ByteSink(2048);
+        for (long i = next.getAndIncrement(); i < config.cases(); i = next.getAndIncrement()) {
+            int t = (int) (i % targets.size());
+            Target target = targets.get(t);
+            payload.reset();
+            Mutation mutation = generators[t].generate(new SplittableRandom(config.seed() + i * CASE_STRIDE), payload);
+            HttpRequest request = HttpRequest.newBuilder(target.uri())
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(payload.array(), 0, payload.length()))
+                    .build();
+            String signature;
+            boolean failed;
+            byte[] body = null;
+            try {
+                HttpResponse<byte[]> response = send(request);
+                int status = response.statusCode();
+                body = response.body();
+                TreeSet<String> errorFields = status == 422 ? errorFields(body) : null;
+                if (status == 429) {
+                    signature = THROTTLED + target.schema().name();
+                    failed = false;
+                } else {
+                    signature = target.schema().name() + " " + status + (errorFields == null ? "" : " " + errorFields);
+                    failed = !expected(mutation, status, errorFields);
+                }
+            } catch (IOException e) {
+                signature = target.schema().name() + " " + e.getClass().getSimpleName();
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            String key = (failed ? "FAIL " : "") + signature;
+            FuzzReport.Cluster cluster = clusters.computeIfAbsent(key, k -> new FuzzReport.Cluster(k));
+            cluster.record(mutation, payload, body);
+        }
+    }
+
+    // The answer to the last attempt; a 429 only if every attempt was throttled
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 429 || attempt == MAX_ATTEMPTS) {
+                return response;
+            }
+            Thread.sleep(RetryAfter.parse(response.headers().firstValue("Retry-After").orElse(null),
+                    THROTTLED_WAIT).toMillis());
+        }
+    }
+
+    static boolean expected(Mutation mutation, int status, TreeSet<String> errorFields) {
+        if (mutation.kind().fieldScoped()) {
+            return status == 422 && errorFields.contains(mutation.field());
+        }
+        return status == 422 || (status == 400 && mutation.kind().malformed());
+    }
+
+    // Top-level keys of a Laravel validation answer; a 422 in the {"message": ..., "errors": {...}} shape is read
+    // from its errors object
+    static TreeSet<String> errorFields(byte[] body) {
+        TreeSet<String> fields = new TreeSet<>();
+        try {
+            JsonReader reader = new JsonReader(body);
+            if (reader.next() != JsonReader.Token.BEGIN_OBJECT) {
+                return fields;
+            }
+            while (reader.next() == JsonReader.Token.NAME) {
+                String name = reader.stringValue();
+                JsonReader.Token value = reader.next();
+                if (name.equals("errors") && value == JsonReader.Token.BEGIN_OBJECT) {
+                    fields.clear();
+                    while (reader.next() == JsonReader.Token.NAME) {
+                        fields.add(reader.stringValue());
+                        JsonReader.Token messages = reader.next();
+                        if (messages == JsonReader.Token.BEGIN_ARRAY || messages == JsonReader.Token.BEGIN_OBJECT) {
+                            reader.skipChildren();
+                        }
+                    }
+                    return fields;
+                }
+                fields.add(name);
+                if (value == JsonReader.Token.BEGIN_ARRAY || value == JsonReader.Token.BEGIN_OBJECT) {
+                    reader.skipChildren();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Not JSON; the status alone is the signature
+        }
+        return fields;
+    }
+}
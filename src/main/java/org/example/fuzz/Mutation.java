@@ -0,0 +1,46 @@
+package org.example.fuzz;
+
+/**
+ * How a generated payload was broken. Field mutations invalidate one field of an otherwise valid payload, and the
+ * 422 answer is expected to name that field; body mutations need a 422, or a 400 when the body is not JSON at all.
+ */
+public record Mutation(Kind kind, String field) {
+
+    public enum Kind {
+        MISSING(true, false),
+        NULL(true, false),
+        BLANK(true, false),
+        WRONG_TYPE(true, false),
+        TOO_LONG(true, false),
+        TOO_SHORT(true, false),
+        TRUNCATED(false, true),
+        TRAILING_COMMA(false, true),
+        SINGLE_QUOTED(false, true),
+        CONTROL_CHARACTER(false, true),
+        BAD_ESCAPE(false, true),
+        EMPTY_BODY(false, true),
+        NOT_AN_OBJECT(false, false);
+
+        private final boolean fieldScoped;
+        private final boolean malformed;
+
+        Kind(boolean fieldScoped, boolean malformed) {
+            this.fieldScoped = fieldScoped;
+            this.malformed = malformed;
+        }
+
+        public boolean fieldScoped() {
+            return fieldScoped;
+        }
+
+        /** Whether the body is no longer JSON, which an API may reject as a bad request before validating. */
+        public boolean malformed() {
+            return malformed;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return field == null ? kind.name() : kind + " " + field;
+    }
+}
@@ -0,0 +1,317 @@
+package org.example.fuzz;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Writes invalid payloads for one {@link PayloadSchema} straight into a {@link ByteSink}. Every payload carries
+ * exactly one {@link Mutation} that makes it invalid; everything else varies at random so no two cases look alike:
+ * field order, which optional fields are present, whitespace, unknown extra fields with nested values, escapes and
+ * multi-byte characters inside strings.
+ * <p>
+ * Keeps a little scratch state, so each worker thread uses its own generator.
+ */
+public class PayloadGenerator {
+
+    // One case in this many breaks the body rather than a field
+    private static final int BODY_MUTATION_ODDS = 4;
+
+    private static final byte[] TRUE = bytes("true");
+    private static final byte[] FALSE = bytes("false");
+    private static final byte[] NULL = bytes("null");
+    private static final byte[] EMAIL_DOMAIN = bytes("@fuzz.example");
+    private static final byte[][] WHITESPACE = {bytes(" "), bytes("\n"), bytes("\t"), bytes("\r\n  ")};
+    private static final byte[][] ESCAPES = {bytes("\\\""), bytes("\\\\"), bytes("\\/"), bytes("\\n"), bytes("\\t"),
+            bytes("\\u00e9"), bytes("\\u20ac")};
+    private static final byte[] BAD_ESCAPE = bytes("\\q");
+    private static final char[] LETTERS =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    // Two- and three-byte UTF-8 characters: e acute, sharp s, u umlaut, n tilde, omega, zhe, euro sign, two CJK
+    private static final char[] WIDE = {'\u00e9', '\u00df', '\u00fc', '\u00f1', '\u03a9', '\u0436', '\u20ac',
+            '\u6f22', '\u5b57'};
+    // No digits, and no letters that could spell NaN or Infinity
+    private static final char[] NOT_A_NUMBER = "bcghjkmpqrstvwxz".toCharArray();
+
+    private final PayloadSchema schema;
+    private final List<PayloadSchema.Field> fields;
+    private final Mutation[] fieldMutations;
+    private final Mutation[] bodyMutations;
+    private final int[] order;
+
+    // The body mutation to apply inside the next string value, if any
+    private Mutation.Kind pendingInString;
+
+    public PayloadGenerator(PayloadSchema schema) {
+        this.schema = schema;
+        this.fields = schema.fields();
+        this.order = new int[fields.size()];
+        List<Mutation> applicable = new ArrayList<>();
+        for (PayloadSchema.Field field : fields) {
+            applicable.add(new Mutation(Mutation.Kind.WRONG_TYPE, field.name()));
+            if (field.required()) {
+                applicable.add(new Mutation(Mutation.Kind.MISSING, field.name()));
+                applicable.add(new Mutation(Mutation.Kind.NULL, field.name()));
+                if (field.type() != PayloadSchema.Type.BOOLEAN) {
+                    applicable.add(new Mutation(Mutation.Kind.BLANK, field.name()));
+                }
+            }
+            if (field.isText() && field.maxLength() > 0) {
+                applicable.add(new Mutation(Mutation.Kind.TOO_LONG, field.name()));
+            }
+            if (field.minLength() > 1) {
+                applicable.add(new Mutation(Mutation.Kind.TOO_SHORT, field.name()));
+            }
+        }
+        this.fieldMutations = applicable.toArray(new Mutation[0]);
+        List<Mutation> body = new ArrayList<>();
+        for (Mutation.Kind kind : Mutation.Kind.values()) {
+            if (!kind.fieldScoped()) {
+                body.add(new Mutation(kind, null));
+            }
+        }
+        this.bodyMutations = body.toArray(new Mutation[0]);
+    }
+
+    public PayloadSchema schema() {
+        return schema;
+    }
+
+    /** Field mutations this schema allows; each is as likely as any other. */
+    public List<Mutation> fieldMutations() {
+        return List.of(fieldMutations);
+    }
+
+    /** Appends one payload to {@code out} and returns how it was broken. */
+    public Mutation generate(SplittableRandom random, ByteSink out) {
+        if (random.nextInt(BODY_MUTATION_ODDS) != 0) {
+            Mutation mutation = fieldMutations[random.nextInt(fieldMutations.length)];
+            writeObject(random, out, fieldIndex(mutation.field()), mutation.kind());
+            return mutation;
+        }
+        Mutation mutation = bodyMutations[random.nextInt(bodyMutations.length)];
+        int start = out.length();
+        switch (mutation.kind()) {
+            case EMPTY_BODY -> {
+            }
+            case NOT_AN_OBJECT -> {
+                out.put('[');
+                writeObject(random, out, -1, null);
+                out.put(']');
+            }
+            case CONTROL_CHARACTER, BAD_ESCAPE -> {
+                pendingInString = mutation.kind();
+                writeObject(random, out, -1, null);
+            }
+            default -> {
+                writeObject(random, out, -1, null);
+                breakSyntax(random, out, start, mutation.kind());
+            }
+        }
+        return mutation;
+    }
+
+    private void writeObject(SplittableRandom random, ByteSink out, int target, Mutation.Kind kind) {
+        shuffleOrder(random);
+        out.put('{');
+        boolean first = true;
+        for (int index : order) {
+            PayloadSchema.Field field = fields.get(index);
+            boolean mutated = index == target;
+            if ((mutated && kind == Mutation.Kind.MISSING)
+                    || (!mutated && !field.required() && random.nextBoolean())) {
+                continue;
+            }
+            if (!first) {
+                out.put(',');
+            }
+            first = false;
+            space(random, out);
+            out.put(schema.key(index));
+            space(random, out);
+            if (mutated) {
+                writeMutated(random, out, field, kind);
+            } else {
+                writeValid(random, out, field);
+            }
+            if (random.nextInt(10) == 0) {
+                out.put(',');
+                writeUnknownField(random, out);
+            }
+        }
+        space(random, out);
+        out.put('}');
+    }
+
+    private void writeValid(SplittableRandom random, ByteSink out, PayloadSchema.Field field) {
+        switch (field.type()) {
+            case STRING -> writeString(random, out, Math.max(1, field.minLength()),
+                    Math.max(Math.max(1, field.minLength()), Math.min(field.maxLength(), 24)));
+            case EMAIL -> {
+                out.put('"').put('u');
+                out.putLong(random.nextLong(1_000_000_000L, Long.MAX_VALUE));
+                out.put(EMAIL_DOMAIN).put('"');
+            }
+            case NUMBER -> {
+                if (field.name().endsWith("_id")) {
+                    out.putLong(1 + random.nextInt(3));
+                } else {
+                    out.putLong(random.nextInt(1, 1000)).put('.').putLong(10 + random.nextInt(90));
+                }
+            }
+            case BOOLEAN -> out.put(random.nextBoolean() ? TRUE : FALSE);
+        }
+    }
+
+    private void writeMutated(SplittableRandom random, ByteSink out, PayloadSchema.Field field, Mutation.Kind kind) {
+        switch (kind) {
+            case NULL -> out.put(NULL);
+            case BLANK -> {
+                out.put('"');
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    out.put(' ');
+                }
+                out.put('"');
+            }
+            case TOO_LONG -> {
+                // Mostly just over the limit, sometimes far over it
+                int over = random.nextInt(10) == 0 ? field.maxLength() * 10 : 1 + random.nextInt(64);
+                writeString(random, out, field.maxLength() + over, field.maxLength() + over);
+            }
+            case TOO_SHORT -> writeString(random, out, 1, field.minLength() - 1);
+            case WRONG_TYPE -> writeWrongType(random, out, field);
+            default -> throw new IllegalArgumentException(kind + " is not a field mutation");
+        }
+    }
+
+    private static void writeWrongType(SplittableRandom random, ByteSink out, PayloadSchema.Field field) {
+        int choice = random.nextInt(4);
+        if (choice == 0) {
+            out.put('[').put(']');
+        } else if (choice == 1) {
+            out.put('{').put('"').put('v').put('"').put(':').putLong(random.nextInt(100)).put('}');
+        } else if (field.type() == PayloadSchema.Type.NUMBER) {
+            out.put('"');
+            for (int i = 1 + random.nextInt(8); i > 0; i--) {
+                out.put(NOT_A_NUMBER[random.nextInt(NOT_A_NUMBER.length)]);
+            }
+            out.put('"');
+        } else if (field.type() == PayloadSchema.Type.BOOLEAN) {
+            out.putLong(2 + random.nextInt(1000));
+        } else {
+            if (choice == 2) {
+                out.putLong(random.nextLong());
+            } else {
+                out.put(random.nextBoolean() ? TRUE : FALSE);
+            }
+        }
+    }
+
+    // A JSON string of between min and max characters (escapes and multi-byte characters count as one). The first
+    // and last characters are plain letters, so the API's trimming never changes the length or blanks the value.
+    private void writeString(SplittableRandom random, ByteSink out, int min, int max) {
+        int length = min >= max ? min : min + random.nextInt(max - min + 1);
+        out.put('"');
+        for (int i = 0; i < length; i++) {
+            int dice = random.nextInt(40);
+            if (i == 0 || i == length - 1 || dice > 3) {
+                out.put(LETTERS[random.nextInt(LETTERS.length)]);
+            } else if (dice < 2) {
+                out.put(ESCAPES[random.nextInt(ESCAPES.length)]);
+            } else {
+                out.putChar(WIDE[random.nextInt(WIDE.length)]);
+            }
+        }
+        if (pendingInString == Mutation.Kind.CONTROL_CHARACTER) {
+            out.put((byte) (1 + random.nextInt(0x1F)));
+        } else if (pendingInString == Mutation.Kind.BAD_ESCAPE) {
+            out.put(BAD_ESCAPE);
+        }
+        pendingInString = null;
+        out.put('"');
+    }
+
+    private void writeUnknownField(SplittableRandom random, ByteSink out) {
+        out.put('"').put('x').put('_').putLong(random.nextInt(1000)).put('"').put(':');
+        writeAnyValue(random, out, 2);
+    }
+
+    private void writeAnyValue(SplittableRandom random, ByteSink out, int depth) {
+        switch (random.nextInt(depth > 0 ? 6 : 4)) {
+            case 0 -> writeString(random, out, 0, 12);
+            case 1 -> out.putLong(random.nextLong());
+            case 2 -> out.put(random.nextBoolean() ? TRUE : FALSE);
+            case 3 -> out.put(NULL);
+            case 4 -> {
+                out.put('[');
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    writeAnyValue(random, out, depth - 1);
+                    if (i > 1) {
+                        out.put(',');
+                    }
+                }
+                out.put(']');
+            }
+            default -> {
+                out.put('{');
+                for (int i = random.nextInt(3); i > 0; i--) {
+                    writeUnknownField(random, out);
+                    if (i > 1) {
+                        out.put(',');
+                    }
+                }
+                out.put('}');
+            }
+        }
+    }
+
+    private static void breakSyntax(SplittableRandom random, ByteSink out, int start, Mutation.Kind kind) {
+        int length = out.length() - start;
+        switch (kind) {
+            // Any proper prefix of an object lacks its closing brace
+            case TRUNCATED -> out.truncate(start + 1 + random.nextInt(length - 1));
+            case TRAILING_COMMA -> out.insert(out.length() - 1, (byte) ',');
+            case SINGLE_QUOTED -> {
+                for (int i = start; i < out.length(); i++) {
+                    if (out.byteAt(i) == '"') {
+                        out.set(i, (byte) '\'');
+                        return;
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException(kind + " is not a syntax mutation");
+        }
+    }
+
+    private void space(SplittableRandom random, ByteSink out) {
+        if (random.nextInt(5) == 0) {
+            out.put(WHITESPACE[random.nextInt(WHITESPACE.length)]);
+        }
+    }
+
+    private void shuffleOrder(SplittableRandom random) {
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    private int fieldIndex(String name) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No field " + name + " in " + schema.name());
+    }
+
+    private static byte[] bytes(String literal) {
+        return literal.getBytes(StandardCharsets.UTF_8);
+    }
+}
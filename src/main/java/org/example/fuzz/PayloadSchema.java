@@ -0,0 +1,95 @@
+package org.example.fuzz;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The fields an endpoint validates, with the rules the fuzzer needs to build a valid payload and to break it on
+ * purpose. Limits follow the validation of the real API (and of the stand-in, which copies it).
+ */
+public final class PayloadSchema {
+
+    public enum Type { STRING, EMAIL, NUMBER, BOOLEAN }
+
+    public record Field(String name, Type type, boolean required, int minLength, int maxLength) {
+
+        public boolean isText() {
+            return type == Type.STRING || type == Type.EMAIL;
+        }
+    }
+
+    public static final PayloadSchema PRODUCT = new PayloadSchema("product", "/products", List.of(
+            text("name", true, 0, 120),
+            text("description", false, 0, 1250),
+            new Field("price", Type.NUMBER, true, 0, 0),
+            new Field("category_id", Type.NUMBER, true, 0, 0),
+            new Field("brand_id", Type.NUMBER, true, 0, 0),
+            new Field("product_image_id", Type.NUMBER, true, 0, 0),
+            new Field("is_rental", Type.BOOLEAN, false, 0, 0),
+            new Field("is_location_offer", Type.BOOLEAN, false, 0, 0)));
+
+    public static final PayloadSchema CATEGORY = new PayloadSchema("category", "/categories", List.of(
+            text("name", true, 0, 120),
+            text("slug", true, 0, 120)));
+
+    public static final PayloadSchema USER = new PayloadSchema("user", "/users/register", List.of(
+            text("first_name", true, 0, 40),
+            text("last_name", true, 0, 20),
+            text("address", true, 0, 70),
+            text("city", true, 0, 40),
+            text("state", false, 0, 40),
+            text("country", true, 0, 40),
+            text("postcode", false, 0, 10),
+            text("phone", false, 0, 24),
+            new Field("email", Type.EMAIL, true, 0, 256),
+            text("password", true, 8, 256)));
+
+    public static final List<PayloadSchema> ALL = List.of(PRODUCT, CATEGORY, USER);
+
+    private final String name;
+    private final String path;
+    private final List<Field> fields;
+    // "name": for every field, encoded once
+    private final byte[][] keys;
+
+    public PayloadSchema(String name, String path, List<Field> fields) {
+        this.name = name;
+        this.path = path;
+        this.fields = List.copyOf(fields);
+        this.keys = new byte[fields.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ('"' + fields.get(i).name() + "\":").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public static PayloadSchema named(String name) {
+        for (PayloadSchema schema : ALL) {
+            if (schema.name.equals(name)) {
+                return schema;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payload schema '" + name
+                + "', expected one of product, category, user");
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Path of the endpoint that creates one, relative to the API base URL. */
+    public String path() {
+        return path;
+    }
+
+    public List<Field> fields() {
+        return fields;
+    }
+
+    byte[] key(int field) {
+        return keys[field];
+    }
+
+    private static Field text(String name, boolean required, int minLength, int maxLength) {
+        return new Field(name, Type.STRING, required, minLength, maxLength);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One API call, from the request being handed to the client to the response body being read. Committed on the
+ * calling thread, so in a recording it sits inside the {@link TestEvent} of the test that made it, next to that
+ * thread's allocation samples and socket reads.
+ * <p>
+ * Check {@link #isEnabled()} before filling one in: with no recording running that is all it costs.
+ */
+@Name("org.example.ApiCall")
+@Label("API Call")
+@Category({"Toolshop", "API"})
+@Description("A request to the Toolshop API and its response")
+@StackTrace(false)
+public class ApiCallEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Endpoint")
+    @Description("Path with ids replaced by {id}, e.g. /products/{id}")
+    public String endpoint;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Request Bytes")
+    @DataAmount
+    public long requestBytes;
+
+    @Label("Response Bytes")
+    @DataAmount
+    public long responseBytes;
+
+    @Label("Test")
+    @Description("Test that made the call, as Class#method, if any")
+    public String test;
+}
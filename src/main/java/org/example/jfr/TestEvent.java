@@ -0,0 +1,34 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One execution of a test method, on the thread that ran it. The {@link ApiCallEvent}s of that thread within its
+ * span are the test's calls; they also carry its name, for grouping by test across threads.
+ */
+@Name("org.example.Test")
+@Label("Test")
+@Category({"Toolshop", "Tests"})
+@Description("Execution of a test method")
+@StackTrace(false)
+public class TestEvent extends Event {
+
+    @Label("Test")
+    @Description("Class#method")
+    public String test;
+
+    @Label("Display Name")
+    public String displayName;
+
+    @Label("Outcome")
+    @Description("successful, failed or aborted")
+    public String outcome;
+
+    @Label("Failure")
+    public String failure;
+}
@@ -0,0 +1,385 @@
+package org.example.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashes of every value in a JSON document, each built from the hashes of the values inside it, computed in one
+ * pass of a {@link JsonReader} over the raw bytes. Two documents are equal if their root hashes are, and
+ * {@link #diff} only walks into the values whose hashes differ, so comparing two large listings that differ in a
+ * few places costs those few places, and reports only them:
+ *
+ * <pre>
+ * $.data[id=01HF0000000000000000000010].price: 19.99 -> 21.5
+ * $[id=3].sub_categories[id=42]: added {...} (5 properties)
+ * </pre>
+ *
+ * Property order does not matter; array order does. Arrays of objects that all have a string or number {@code id}
+ * are matched by it, so one created or deleted row shows up as one addition or removal instead of shifting every
+ * row after it, and rows that changed places are reported as out of order: the fewest that, put back, restore the
+ * order. Scalars compare as written: {@code 1} and {@code 1.0} differ, strings compare by value whatever their
+ * escapes. Instances are immutable and can be shared between threads.
+ */
+public final class JsonMerkleTree {
+
+    /** Differences reported per comparison; the rest are dropped. */
+    public static final int MAX_DIFFERENCES = 50;
+
+    /** Values shown in a difference are cut to this many characters. */
+    static final int MAX_SHOWN = 60;
+
+    private static final byte OBJECT = 0;
+    private static final byte ARRAY = 1;
+    private static final byte STRING = 2;
+    private static final byte NUMBER = 3;
+    private static final byte TRUE = 4;
+    private static final byte FALSE = 5;
+    private static final byte NULL = 6;
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final String[] NO_NAMES = new String[0];
+    private static final byte[] NO_BYTES = new byte[0];
+
+    // A value: containers have children (and names, for objects), scalars point at their bytes in the document
+    private static final class Node {
+        final byte kind;
+        final long hash;
+        final Node[] children;
+        final String[] names;
+        final int start;
+        final int end;
+
+        Node(byte kind, long hash, Node[] children, String[] names, int start, int end) {
+            this.kind = kind;
+            this.hash = hash;
+            this.children = children;
+            this.names = names;
+            this.start = start;
+            this.end = end;
+        }
+
+        // The id property of an object, without quotes, or null
+        String key(byte[] document) {
+            if (kind != OBJECT) {
+                return null;
+            }
+            for (int i = 0; i < names.length; i++) {
+                Node id = children[i];
+                if ("id".equals(names[i]) && (id.kind == STRING || id.kind == NUMBER)) {
+                    return new String(document, id.start, id.end - id.start, StandardCharsets.UTF_8);
+                }
+            }
+            return null;
+        }
+
+        String text(byte[] document) {
+            return switch (kind) {
+                case OBJECT -> "{...} (" + children.length + (children.length == 1 ? " property)" : " properties)");
+                case ARRAY -> "[...] (" + children.length + (children.length == 1 ? " item)" : " items)");
+                case TRUE -> "true";
+                case FALSE -> "false";
+                case NULL -> "null";
+                default -> {
+                    String text = new String(document, start, end - start, StandardCharsets.UTF_8);
+                    yield kind == STRING ? '"' + text + '"' : text;
+                }
+            };
+        }
+    }
+
+    // A container still being read
+    private static final class Open {
+        final byte kind;
+        final List<Node> children = new ArrayList<>();
+        final List<String> names;
+        String name;
+
+        Open(byte kind) {
+            this.kind = kind;
+            this.names = kind == OBJECT ? new ArrayList<>() : null;
+        }
+    }
+
+    private final byte[] document;
+    private final Node root;
+
+    private JsonMerkleTree(byte[] document, Node root) {
+        this.document = document;
+        this.root = root;
+    }
+
+    /** Hashes a whole document; the bytes are kept for showing values, so they must not change afterwards. */
+    public static JsonMerkleTree of(byte[] json) {
+        return of(json, 0, json.length);
+    }
+
+    public static JsonMerkleTree of(byte[] json, int offset, int length) {
+        JsonReader reader = new JsonReader(json, offset, length);
+        List<Open> stack = new ArrayList<>();
+        Node root = null;
+        for (JsonReader.Token token = reader.next(); token != JsonReader.Token.END; token = reader.next()) {
+            Node done;
+            switch (token) {
+                case BEGIN_OBJECT -> {
+                    stack.add(new Open(OBJECT));
+                    continue;
+                }
+                case BEGIN_ARRAY -> {
+                    stack.add(new Open(ARRAY));
+                    continue;
+                }
+                case NAME -> {
+                    stack.get(stack.size() - 1).name = reader.stringValue();
+                    continue;
+                }
+                case END_OBJECT, END_ARRAY -> done = close(stack.remove(stack.size() - 1));
+                case STRING -> done = scalar(STRING, reader);
+                case NUMBER -> done = scalar(NUMBER, reader);
+                case TRUE -> done = literal(TRUE);
+                case FALSE -> done = literal(FALSE);
+                default -> done = literal(NULL);
+            }
+            if (stack.isEmpty()) {
+                root = done;
+            } else {
+                Open parent = stack.get(stack.size() - 1);
+                parent.children.add(done);
+                if (parent.names != null) {
+                    parent.names.add(parent.name);
+                }
+            }
+        }
+        if (root == null) {
+            throw new IllegalArgumentException("Empty document");
+        }
+        return new JsonMerkleTree(json, root);
+    }
+
+    /** Hash of the whole document. */
+    public long hash() {
+        return root.hash;
+    }
+
+    /** Whether the two documents hold the same values, by their root hashes alone. */
+    public boolean sameAs(JsonMerkleTree other) {
+        return root.hash == other.root.hash;
+    }
+
+    /**
+     * Where {@code actual} differs from this document, at most {@value #MAX_DIFFERENCES} places, each as its path
+     * and what changed; empty if the two are the same.
+     */
+    public List<String> diff(JsonMerkleTree actual) {
+        List<String> differences = new ArrayList<>();
+        diff(root, actual.document, actual.root, "$", differences);
+        return differences;
+    }
+
+    private void diff(Node expected, byte[] actualDocument, Node actual, String path, List<String> out) {
+        if (out.size() >= MAX_DIFFERENCES || expected.hash == actual.hash) {
+            return;
+        }
+        if (expected.kind != actual.kind || expected.kind > ARRAY) {
+            report(out, path + ": " + shown(expected.text(document)) + " -> "
+                    + shown(actual.text(actualDocument)));
+            return;
+        }
+        if (expected.kind == OBJECT) {
+            Map<String, Integer> actualIndex = index(actual.names);
+            for (int i = 0; i < expected.names.length; i++) {
+                Integer match = actualIndex.remove(expected.names[i]);
+                String at = path + '.' + expected.names[i];
+                if (match == null) {
+                    report(out, at + ": removed " + shown(expected.children[i].text(document)));
+                } else {
+                    diff(expected.children[i], actualDocument, actual.children[match], at, out);
+                }
+            }
+            for (int i = 0; i < actual.names.length; i++) {
+                if (actualIndex.containsKey(actual.names[i])) {
+                    report(out, path + '.' + actual.names[i] + ": added "
+                            + shown(actual.children[i].text(actualDocument)));
+                }
+            }
+        } else {
+            String[] expectedKeys = keys(expected, document);
+            String[] actualKeys = expectedKeys == null ? null : keys(actual, actualDocument);
+            if (actualKeys == null) {
+                diffByIndex(expected, actualDocument, actual, path, out);
+            } else {
+                diffByKey(expected, expectedKeys, actualDocument, actual, actualKeys, path, out);
+            }
+        }
+    }
+
+    private void diffByKey(Node expected, String[] expectedKeys, byte[] actualDocument, Node actual,
+                           String[] actualKeys, String path, List<String> out) {
+        Map<String, Integer> actualIndex = index(actualKeys);
+        int[] expectedAt = new int[actualKeys.length];
+        Arrays.fill(expectedAt, -1);
+        for (int i = 0; i < expectedKeys.length; i++) {
+            Integer match = actualIndex.remove(expectedKeys[i]);
+            String at = path + "[id=" + expectedKeys[i] + ']';
+            if (match == null) {
+                report(out, at + ": removed " + shown(expected.children[i].text(document)));
+            } else {
+                expectedAt[match] = i;
+                diff(expected.children[i], actualDocument, actual.children[match], at, out);
+            }
+        }
+        for (int i = 0; i < actualKeys.length; i++) {
+            if (actualIndex.containsKey(actualKeys[i])) {
+                report(out, path + "[id=" + actualKeys[i] + "]: added "
+                        + shown(actual.children[i].text(actualDocument)));
+            }
+        }
+        // The array hash counts order, so a reordering has to be reported too or the two would differ silently
+        boolean[] inOrder = inOrder(expectedAt);
+        for (int i = 0; i < actualKeys.length; i++) {
+            if (expectedAt[i] >= 0 && !inOrder[i]) {
+                report(out, path + "[id=" + actualKeys[i] + "]: out of order, now at " + i + ", was at "
+                        + expectedAt[i]);
+            }
+        }
+    }
+
+    // Which elements of actual keep their order: a longest run of them whose places in expected increase
+    private static boolean[] inOrder(int[] expectedAt) {
+        int[] tails = new int[expectedAt.length];
+        int[] previous = new int[expectedAt.length];
+        int length = 0;
+        for (int i = 0; i < expectedAt.length; i++) {
+            if (expectedAt[i] < 0) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (expectedAt[tails[middle]] < expectedAt[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        boolean[] kept = new boolean[expectedAt.length];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            kept[i] = true;
+        }
+        return kept;
+    }
+
+    private void diffByIndex(Node expected, byte[] actualDocument, Node actual, String path, List<String> out) {
+        int common = Math.min(expected.children.length, actual.children.length);
+        for (int i = 0; i < common; i++) {
+            diff(expected.children[i], actualDocument, actual.children[i], path + '[' + i + ']', out);
+        }
+        for (int i = common; i < expected.children.length; i++) {
+            report(out, path + '[' + i + "]: removed " + shown(expected.children[i].text(document)));
+        }
+        for (int i = common; i < actual.children.length; i++) {
+            report(out, path + '[' + i + "]: added " + shown(actual.children[i].text(actualDocument)));
+        }
+    }
+
+    // The ids of an array's elements, or null unless every element is an object with its own id
+    private static String[] keys(Node array, byte[] document) {
+        if (array.children.length == 0) {
+            return null;
+        }
+        String[] keys = new String[array.children.length];
+        Map<String, Integer> seen = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = array.children[i].key(document);
+            if (keys[i] == null || seen.put(keys[i], i) != null) {
+                return null;
+            }
+        }
+        return keys;
+    }
+
+    private static Map<String, Integer> index(String[] names) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            index.putIfAbsent(names[i], i);
+        }
+        return index;
+    }
+
+    private static void report(List<String> out, String difference) {
+        if (out.size() < MAX_DIFFERENCES) {
+            out.add(difference);
+        }
+    }
+
+    private static String shown(String text) {
+        return text.length() <= MAX_SHOWN ? text : text.substring(0, MAX_SHOWN) + "...";
+    }
+
+    // Arrays hash their children in order; objects add up a hash per property, so their order does not count
+    private static Node close(Open open) {
+        Node[] children = open.children.toArray(NO_CHILDREN);
+        if (open.kind == ARRAY) {
+            long hash = mix(0x9e3779b97f4a7c15L ^ children.length);
+            for (Node child : children) {
+                hash = mix(hash * 31 + child.hash);
+            }
+            return new Node(ARRAY, hash, children, null, 0, 0);
+        }
+        String[] names = open.names.toArray(NO_NAMES);
+        long sum = 0;
+        for (int i = 0; i < children.length; i++) {
+            sum += mix(hash(names[i]) ^ Long.rotateLeft(children[i].hash, 29));
+        }
+        return new Node(OBJECT, mix(sum ^ 0xc2b2ae3d27d4eb4fL ^ children.length), children, names, 0, 0);
+    }
+
+    private static Node scalar(byte kind, JsonReader reader) {
+        long hash;
+        if (kind == STRING && reader.hasEscapes()) {
+            hash = hash(reader.stringValue());
+        } else {
+            hash = hash(reader.buffer(), reader.tokenStart(), reader.tokenEnd(), kind);
+        }
+        return new Node(kind, hash, NO_CHILDREN, null, reader.tokenStart(), reader.tokenEnd());
+    }
+
+    // Literals have no bytes of their own to point at; the kind alone tells them apart
+    private static Node literal(byte kind) {
+        return new Node(kind, hash(NO_BYTES, 0, 0, kind), NO_CHILDREN, null, 0, 0);
+    }
+
+    private static long hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return hash(bytes, 0, bytes.length, STRING);
+    }
+
+    // FNV-1a over the bytes, seeded with the kind so "1" and 1 differ, then finalized for a better spread
+    private static long hash(byte[] bytes, int from, int to, byte kind) {
+        long hash = 0xcbf29ce484222325L ^ kind;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ (bytes[i] & 0xff)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3's 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
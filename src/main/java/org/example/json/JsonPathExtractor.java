@@ -0,0 +1,162 @@
+package org.example.json;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Evaluates a dotted path such as {@code data.brand.id} in a single pass over a JSON document, collecting the
+ * matched values into primitive arrays. Arrays along the way are spread the way GPath does it, so
+ * {@code data.brand.id} yields one value per element of {@code data}. Branches off the path are skipped without
+ * being materialized.
+ *
+ * <pre>
+ * long[] brandIds = JsonPathExtractor.compile("data.brand.id").longs(response.asByteArray());
+ * </pre>
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public final class JsonPathExtractor {
+
+    private final String path;
+    private final byte[][] segments;
+
+    private JsonPathExtractor(String path, byte[][] segments) {
+        this.path = path;
+        this.segments = segments;
+    }
+
+    /** Compiles a path; the empty path selects the document itself. */
+    public static JsonPathExtractor compile(String path) {
+        if (path.isEmpty()) {
+            return new JsonPathExtractor(path, new byte[0][]);
+        }
+        String[] names = path.split("\\.", -1);
+        byte[][] segments = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].isEmpty()) {
+                throw new IllegalArgumentException("Empty segment in path '" + path + "'");
+            }
+            segments[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return new JsonPathExtractor(path, segments);
+    }
+
+    /** Every match must be an integer; anything else, including null, fails with the offending offset. */
+    public long[] longs(byte[] json) {
+        return longs(new JsonReader(json));
+    }
+
+    public long[] longs(InputStream json) {
+        return longs(new JsonReader(json));
+    }
+
+    /** Matches that are null are skipped, as optional flags such as {@code is_rental} may be absent. */
+    public boolean[] booleans(byte[] json) {
+        return booleans(new JsonReader(json));
+    }
+
+    public boolean[] booleans(InputStream json) {
+        return booleans(new JsonReader(json));
+    }
+
+    /** Number of values the path matches, of any type. */
+    public int count(byte[] json) {
+        Collector counter = new Collector();
+        evaluate(new JsonReader(json), counter);
+        return counter.size;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private long[] longs(JsonReader reader) {
+        Collector longs = new Collector() {
+            @Override
+            void accept(JsonReader reader, JsonReader.Token token) {
+                if (token != JsonReader.Token.NUMBER) {
+                    throw mismatch("an integer", reader);
+                }
+                add(reader.longValue());
+            }
+        };
+        evaluate(reader, longs);
+        return Arrays.copyOf(longs.values, longs.size);
+    }
+
+    private boolean[] booleans(JsonReader reader) {
+        Collector booleans = new Collector() {
+            @Override
+            void accept(JsonReader reader, JsonReader.Token token) {
+                switch (token) {
+                    case TRUE -> add(1);
+                    case FALSE -> add(0);
+                    case NULL -> {
+                    }
+                    default -> throw mismatch("a boolean", reader);
+                }
+            }
+        };
+        evaluate(reader, booleans);
+        boolean[] result = new boolean[booleans.size];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = booleans.values[i] != 0;
+        }
+        return result;
+    }
+
+    private void evaluate(JsonReader reader, Collector collector) {
+        JsonReader.Token token = reader.next();
+        if (token == JsonReader.Token.END) {
+            throw new IllegalArgumentException("Empty document");
+        }
+        match(reader, token, 0, collector);
+    }
+
+    private void match(JsonReader reader, JsonReader.Token token, int depth, Collector collector) {
+        if (depth == segments.length) {
+            collector.accept(reader, token);
+            reader.skipChildren();
+            return;
+        }
+        if (token == JsonReader.Token.BEGIN_ARRAY) {
+            while ((token = reader.next()) != JsonReader.Token.END_ARRAY) {
+                match(reader, token, depth, collector);
+            }
+        } else if (token == JsonReader.Token.BEGIN_OBJECT) {
+            while (reader.next() != JsonReader.Token.END_OBJECT) {
+                boolean hit = reader.nameEquals(segments[depth]);
+                JsonReader.Token value = reader.next();
+                if (hit) {
+                    match(reader, value, depth + 1, collector);
+                } else {
+                    reader.skipChildren();
+                }
+            }
+        }
+        // Scalars with path left over don't match anything
+    }
+
+    private IllegalStateException mismatch(String expected, JsonReader reader) {
+        return new IllegalStateException("Expected " + expected + " at '" + path + "' but was " + reader.token()
+                + " at offset " + reader.offset());
+    }
+
+    private static class Collector {
+        long[] values = new long[16];
+        int size;
+
+        void accept(JsonReader reader, JsonReader.Token token) {
+            size++;
+        }
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
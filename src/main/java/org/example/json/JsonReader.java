@@ -0,0 +1,480 @@
+package org.example.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pull tokenizer working directly on UTF-8 bytes, from an array or a stream read in chunks. Names and scalar
+ * values stay in the internal buffer until the next call, so callers can compare or parse them without creating
+ * Strings ({@link #nameEquals}, {@link #longValue}). Input is held to the JSON grammar the way {@link Json} holds
+ * it: numbers are {@code -?int frac? exp?}, and strings have no raw control characters and only the escapes JSON
+ * defines.
+ *
+ * <pre>
+ * JsonReader reader = new JsonReader(bytes);
+ * for (JsonReader.Token t = reader.next(); t != JsonReader.Token.END; t = reader.next()) { ... }
+ * </pre>
+ */
+public final class JsonReader {
+
+    public enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final InputStream in;
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    private long consumedBefore;
+
+    private int[] stack = new int[32];
+    private int depth;
+
+    private Token token;
+    private int start;
+    private int end;
+    private boolean escaped;
+    private int mark = -1;
+
+    public JsonReader(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public JsonReader(byte[] bytes, int offset, int length) {
+        this.in = null;
+        this.buf = bytes;
+        this.pos = offset;
+        this.limit = offset + length;
+        this.consumedBefore = -offset;
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    public JsonReader(InputStream in) {
+        this.in = in;
+        this.buf = new byte[8192];
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    public Token token() {
+        return token;
+    }
+
+    /** Nesting depth of the current position; 0 at top level. */
+    public int depth() {
+        return depth - 1;
+    }
+
+    /** Offset of the current token's first byte from the start of the input, for error messages. */
+    public long offset() {
+        return consumedBefore + start;
+    }
+
+    public Token next() {
+        int c = skipWhitespace();
+        int context = stack[depth - 1];
+        switch (context) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                if (c == ']') {
+                    pos++;
+                    return end(Token.END_ARRAY);
+                }
+                return value(c);
+            case NONEMPTY_ARRAY:
+                if (c == ']') {
+                    pos++;
+                    return end(Token.END_ARRAY);
+                }
+                expect(c, ',');
+                return value(skipWhitespace());
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                if (c == '}') {
+                    pos++;
+                    return end(Token.END_OBJECT);
+                }
+                if (context == NONEMPTY_OBJECT) {
+                    expect(c, ',');
+                    c = skipWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                stack[depth - 1] = DANGLING_NAME;
+                readString();
+                return token = Token.NAME;
+            case DANGLING_NAME:
+                expect(c, ':');
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                return value(skipWhitespace());
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                return value(c);
+            default:
+                if (c != -1) {
+                    throw syntaxError("Unexpected content after the document");
+                }
+                return token = Token.END;
+        }
+    }
+
+    /** After BEGIN_OBJECT or BEGIN_ARRAY, consumes everything up to and including the matching end token. */
+    public void skipChildren() {
+        if (token != Token.BEGIN_OBJECT && token != Token.BEGIN_ARRAY) {
+            return;
+        }
+        int target = depth - 1;
+        while (depth > target) {
+            if (next() == Token.END) {
+                throw syntaxError("Unexpected end of input");
+            }
+        }
+    }
+
+    /** Whether the current NAME or STRING equals the given UTF-8 bytes. */
+    public boolean nameEquals(byte[] name) {
+        if (escaped) {
+            return Arrays.equals(stringValue().getBytes(StandardCharsets.UTF_8), name);
+        }
+        return Arrays.equals(buf, start, end, name, 0, name.length);
+    }
+
+    /** Whether the current NAME or STRING is written with escapes, so its raw bytes are not its value. */
+    public boolean hasEscapes() {
+        return escaped;
+    }
+
+    public String stringValue() {
+        if (token == Token.NUMBER) {
+            return new String(buf, start, end - start, StandardCharsets.US_ASCII);
+        }
+        if (!escaped) {
+            return new String(buf, start, end - start, StandardCharsets.UTF_8);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        int runStart = start;
+        for (int i = start; i < end; i++) {
+            if (buf[i] == '\\') {
+                sb.append(new String(buf, runStart, i - runStart, StandardCharsets.UTF_8));
+                byte e = buf[++i];
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        sb.append((char) Integer.parseInt(new String(buf, i + 1, 4, StandardCharsets.US_ASCII), 16));
+                        i += 4;
+                    }
+                    default -> sb.append((char) e);
+                }
+                runStart = i + 1;
+            }
+        }
+        sb.append(new String(buf, runStart, end - runStart, StandardCharsets.UTF_8));
+        return sb.toString();
+    }
+
+    /** Parses the current NUMBER as a long without allocating; fails for fractions, exponents and overflow. */
+    public long longValue() {
+        if (token != Token.NUMBER) {
+            throw new IllegalStateException("Expected a number but was " + token + " at offset " + offset());
+        }
+        int i = start;
+        boolean negative = buf[i] == '-';
+        if (negative) {
+            i++;
+        }
+        // Accumulated negative, since Long.MIN_VALUE has no positive counterpart
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not an integer: " + stringValue());
+            }
+            if (value < Long.MIN_VALUE / 10 || value * 10 < Long.MIN_VALUE + digit) {
+                throw new NumberFormatException("Out of range for a long: " + stringValue());
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw new NumberFormatException("Out of range for a long: " + stringValue());
+        }
+        return negative ? value : -value;
+    }
+
+    public double doubleValue() {
+        if (token != Token.NUMBER) {
+            throw new IllegalStateException("Expected a number but was " + token + " at offset " + offset());
+        }
+        return Double.parseDouble(stringValue());
+    }
+
+    /** Raw bytes of the current NAME, STRING (without quotes, escapes untouched) or NUMBER token. */
+    public byte[] buffer() {
+        return buf;
+    }
+
+    public int tokenStart() {
+        return start;
+    }
+
+    public int tokenEnd() {
+        return end;
+    }
+
+    private Token value(int c) {
+        switch (c) {
+            case '{':
+                pos++;
+                push(EMPTY_OBJECT);
+                return token(Token.BEGIN_OBJECT);
+            case '[':
+                pos++;
+                push(EMPTY_ARRAY);
+                return token(Token.BEGIN_ARRAY);
+            case '"':
+                readString();
+                return token = Token.STRING;
+            case 't':
+                literal("true");
+                return token(Token.TRUE);
+            case 'f':
+                literal("false");
+                return token(Token.FALSE);
+            case 'n':
+                literal("null");
+                return token(Token.NULL);
+            case -1:
+                throw syntaxError("Unexpected end of input");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber();
+                    return token = Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private Token token(Token t) {
+        start = end = pos;
+        return token = t;
+    }
+
+    private Token end(Token t) {
+        depth--;
+        return token(t);
+    }
+
+    private void push(int context) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = context;
+    }
+
+    // Scans a chunk at a time with the position in a local; names and strings are most of the tokens
+    private void readString() {
+        pos++;
+        mark = pos;
+        escaped = false;
+        while (true) {
+            byte[] bytes = buf;
+            int p = pos;
+            int end = limit;
+            while (p < end) {
+                byte b = bytes[p];
+                if (b == '"') {
+                    this.start = mark;
+                    this.end = p;
+                    pos = p + 1;
+                    mark = -1;
+                    return;
+                }
+                if (b == '\\') {
+                    escaped = true;
+                    if (p + 1 == end || (bytes[p + 1] == 'u' && p + 6 > end)) {
+                        // The escape ends in the next chunk; read on from the backslash
+                        break;
+                    }
+                    p += escapeLength(bytes, p);
+                    continue;
+                }
+                if (b >= 0 && b < 0x20) {
+                    pos = p;
+                    throw syntaxError("Control character in string");
+                }
+                p++;
+            }
+            pos = p;
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    // Length of the escape at p, backslash included; the whole of it is in the buffer
+    private int escapeLength(byte[] bytes, int p) {
+        switch (bytes[p + 1]) {
+            case '"', '\\', '/', 'b', 'f', 'n', 'r', 't' -> {
+                return 2;
+            }
+            case 'u' -> {
+                for (int i = p + 2; i < p + 6; i++) {
+                    if (Character.digit(bytes[i], 16) < 0) {
+                        pos = p;
+                        throw syntaxError("Bad unicode escape");
+                    }
+                }
+                return 6;
+            }
+            default -> {
+                pos = p;
+                throw syntaxError("Bad escape '\\" + (char) (bytes[p + 1] & 0xff) + "'");
+            }
+        }
+    }
+
+    // Takes every byte that can be part of a number, then holds them to the grammar, so 1.2.3 is one bad number
+    // rather than 1.2 followed by something unexpected
+    private void readNumber() {
+        mark = pos;
+        while (true) {
+            if (pos >= limit && !fill()) {
+                break;
+            }
+            byte b = buf[pos];
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        start = mark;
+        end = pos;
+        mark = -1;
+        escaped = false;
+        if (!isNumber(buf, start, end)) {
+            pos = start;
+            throw syntaxError("Bad number '" + new String(buf, start, end - start, StandardCharsets.US_ASCII) + "'");
+        }
+    }
+
+    // -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?
+    private static boolean isNumber(byte[] bytes, int from, int to) {
+        int i = from;
+        if (i < to && bytes[i] == '-') {
+            i++;
+        }
+        if (i < to && bytes[i] == '0') {
+            i++;
+        } else {
+            int digits = digits(bytes, i, to);
+            if (digits == 0) {
+                return false;
+            }
+            i += digits;
+        }
+        if (i < to && bytes[i] == '.') {
+            int digits = digits(bytes, i + 1, to);
+            if (digits == 0) {
+                return false;
+            }
+            i += 1 + digits;
+        }
+        if (i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            if (i < to && (bytes[i] == '+' || bytes[i] == '-')) {
+                i++;
+            }
+            int digits = digits(bytes, i, to);
+            if (digits == 0) {
+                return false;
+            }
+            i += digits;
+        }
+        return i == to;
+    }
+
+    private static int digits(byte[] bytes, int from, int to) {
+        int i = from;
+        while (i < to && bytes[i] >= '0' && bytes[i] <= '9') {
+            i++;
+        }
+        return i - from;
+    }
+
+    private void literal(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if ((pos >= limit && !fill()) || buf[pos] != literal.charAt(i)) {
+                throw syntaxError("Expected '" + literal + "'");
+            }
+            pos++;
+        }
+    }
+
+    private void expect(int c, char expected) {
+        if (c != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+        pos++;
+    }
+
+    private int skipWhitespace() {
+        while (true) {
+            if (pos >= limit && !fill()) {
+                return -1;
+            }
+            byte b = buf[pos];
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                pos++;
+            } else {
+                return b;
+            }
+        }
+    }
+
+    // Reads more input, keeping the bytes of a token in progress (from mark) at the front of the buffer.
+    private boolean fill() {
+        if (in == null) {
+            return false;
+        }
+        int keepFrom = mark >= 0 ? mark : pos;
+        if (keepFrom > 0) {
+            System.arraycopy(buf, keepFrom, buf, 0, limit - keepFrom);
+            consumedBefore += keepFrom;
+            limit -= keepFrom;
+            pos -= keepFrom;
+            if (mark >= 0) {
+                mark = 0;
+            }
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        try {
+            int read = in.read(buf, limit, buf.length - limit);
+            if (read <= 0) {
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private IllegalArgumentException syntaxError(String message) {
+        return new IllegalArgumentException(message + " at offset " + (consumedBefore + pos));
+    }
+}
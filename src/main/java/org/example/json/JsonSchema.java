@@ -0,0 +1,434 @@
+package org.example.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shape of a JSON document, checked against raw UTF-8 bytes in one pass of a {@link JsonReader} without building
+ * a tree. Schemas are put together from the factories here and are ready to validate once built: object property
+ * names are pre-encoded and required properties become a bit mask, so a check is a walk over the tokens with a
+ * byte comparison per name.
+ *
+ * <pre>
+ * JsonSchema category = JsonSchema.object("category")
+ *         .required("id", JsonSchema.string(1))
+ *         .required("parent_id", JsonSchema.string(1).orNull())
+ *         .build();
+ * List&lt;String&gt; violations = category.validate(response.body());
+ * </pre>
+ *
+ * Properties a schema does not mention are allowed and skipped, and so are names spelled with escapes in the
+ * document. Violations name the place they were found, e.g. {@code $.data[3].price: expected number, got string}.
+ * Instances are immutable and can be shared between threads.
+ */
+public abstract class JsonSchema {
+
+    /** Violations reported per document; the rest are dropped. */
+    public static final int MAX_VIOLATIONS = 20;
+
+    static final int STRING = 1;
+    static final int INTEGER = 2;
+    static final int FRACTION = 4;
+    static final int BOOLEAN = 8;
+
+    final String description;
+
+    JsonSchema(String description) {
+        this.description = description;
+    }
+
+    /** Any string of at least {@code minLength} characters. */
+    public static JsonSchema string(int minLength) {
+        return new Scalar(minLength > 0 ? "non-empty string" : "string", STRING, minLength, Long.MIN_VALUE);
+    }
+
+    public static JsonSchema integer() {
+        return integer(Long.MIN_VALUE);
+    }
+
+    public static JsonSchema integer(long minimum) {
+        return new Scalar(minimum == Long.MIN_VALUE ? "integer" : "integer >= " + minimum, INTEGER, 0, minimum);
+    }
+
+    /** Any number, with or without a fraction. */
+    public static JsonSchema number() {
+        return new Scalar("number", INTEGER | FRACTION, 0, Long.MIN_VALUE);
+    }
+
+    public static JsonSchema bool() {
+        return new Scalar("boolean", BOOLEAN, 0, Long.MIN_VALUE);
+    }
+
+    /** A value matching any of the given scalar schemas, e.g. an id that is a string on one API, a number elsewhere. */
+    public static JsonSchema anyOf(JsonSchema... scalars) {
+        int types = 0;
+        int minLength = 0;
+        long minimum = Long.MIN_VALUE;
+        StringBuilder description = new StringBuilder();
+        for (JsonSchema schema : scalars) {
+            if (!(schema instanceof Scalar scalar)) {
+                throw new IllegalArgumentException("anyOf takes scalar schemas, not " + schema);
+            }
+            types |= scalar.types;
+            minLength = Math.max(minLength, scalar.minLength);
+            minimum = Math.max(minimum, scalar.minimum);
+            description.append(description.length() == 0 ? "" : " or ").append(scalar.description);
+        }
+        return new Scalar(description.toString(), types, minLength, minimum);
+    }
+
+    public static JsonSchema arrayOf(JsonSchema items) {
+        return new Array(items);
+    }
+
+    public static ObjectBuilder object(String description) {
+        return new ObjectBuilder(description);
+    }
+
+    /** A placeholder for a schema that contains itself, such as a tree node; {@link Forward#set} it once built. */
+    public static Forward forward(String description) {
+        return new Forward(description);
+    }
+
+    /** This schema, or JSON null. */
+    public JsonSchema orNull() {
+        return this instanceof Nullable ? this : new Nullable(this);
+    }
+
+    /** Violations found in the document, at most {@value #MAX_VIOLATIONS}; empty if it matches. */
+    public List<String> validate(byte[] document) {
+        return validate(document, 0, document.length);
+    }
+
+    public List<String> validate(byte[] document, int offset, int length) {
+        Run run = new Run();
+        try {
+            JsonReader reader = new JsonReader(document, offset, length);
+            check(reader, reader.next(), run);
+            reader.next();
+        } catch (IllegalArgumentException e) {
+            run.fail("not JSON (" + e.getMessage() + ")");
+        }
+        return run.violations == null ? List.of() : run.violations;
+    }
+
+    public boolean matches(byte[] document) {
+        return validate(document).isEmpty();
+    }
+
+    /** Checks the value starting at {@code token}, leaving the reader on its last token. */
+    abstract void check(JsonReader reader, JsonReader.Token token, Run run);
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    static void mismatch(JsonSchema schema, JsonReader reader, JsonReader.Token token, Run run) {
+        run.fail("expected " + schema.description + ", got " + kind(reader, token));
+        reader.skipChildren();
+    }
+
+    private static String kind(JsonReader reader, JsonReader.Token token) {
+        return switch (token) {
+            case BEGIN_OBJECT -> "object";
+            case BEGIN_ARRAY -> "array";
+            case STRING -> "string";
+            case NUMBER -> isInteger(reader) ? "integer" : "number";
+            case TRUE, FALSE -> "boolean";
+            case NULL -> "null";
+            default -> token.name();
+        };
+    }
+
+    static boolean isInteger(JsonReader reader) {
+        byte[] bytes = reader.buffer();
+        for (int i = reader.tokenStart(); i < reader.tokenEnd(); i++) {
+            byte b = bytes[i];
+            if (b == '.' || b == 'e' || b == 'E') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Characters of the current string token, counting escapes and UTF-8 sequences as one
+    static int stringLength(JsonReader reader) {
+        byte[] bytes = reader.buffer();
+        int length = 0;
+        for (int i = reader.tokenStart(); i < reader.tokenEnd(); i++) {
+            byte b = bytes[i];
+            if (b == '\\') {
+                i += bytes[i + 1] == 'u' ? 5 : 1;
+                length++;
+            } else if ((b & 0xC0) != 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    /** Where a check is in the document, and what it found so far. */
+    static final class Run {
+
+        private String[] names = new String[16];
+        private int[] indices = new int[16];
+        private int depth;
+        List<String> violations;
+
+        void enter(String name) {
+            grow();
+            names[depth] = name;
+            indices[depth++] = -1;
+        }
+
+        void enter(int index) {
+            grow();
+            names[depth] = null;
+            indices[depth++] = index;
+        }
+
+        void leave() {
+            depth--;
+        }
+
+        void fail(String message) {
+            if (violations == null) {
+                violations = new ArrayList<>();
+            }
+            if (violations.size() < MAX_VIOLATIONS) {
+                violations.add(path() + ": " + message);
+            }
+        }
+
+        private String path() {
+            StringBuilder path = new StringBuilder("$");
+            for (int i = 0; i < depth; i++) {
+                if (names[i] != null) {
+                    path.append('.').append(names[i]);
+                } else {
+                    path.append('[').append(indices[i]).append(']');
+                }
+            }
+            return path.toString();
+        }
+
+        private void grow() {
+            if (depth == names.length) {
+                names = Arrays.copyOf(names, depth * 2);
+                indices = Arrays.copyOf(indices, depth * 2);
+            }
+        }
+    }
+
+    private static final class Scalar extends JsonSchema {
+
+        final int types;
+        final int minLength;
+        final long minimum;
+
+        Scalar(String description, int types, int minLength, long minimum) {
+            super(description);
+            this.types = types;
+            this.minLength = minLength;
+            this.minimum = minimum;
+        }
+
+        @Override
+        void check(JsonReader reader, JsonReader.Token token, Run run) {
+            switch (token) {
+                case STRING -> {
+                    if ((types & STRING) == 0) {
+                        mismatch(this, reader, token, run);
+                    } else if (minLength > 0 && stringLength(reader) < minLength) {
+                        run.fail("expected " + description + ", got a shorter one");
+                    }
+                }
+                case NUMBER -> {
+                    boolean integer = isInteger(reader);
+                    if ((types & (integer ? INTEGER : FRACTION)) == 0) {
+                        mismatch(this, reader, token, run);
+                    } else if (integer && minimum != Long.MIN_VALUE && belowMinimum(reader)) {
+                        run.fail("expected " + description + ", got " + reader.stringValue());
+                    }
+                }
+                case TRUE, FALSE -> {
+                    if ((types & BOOLEAN) == 0) {
+                        mismatch(this, reader, token, run);
+                    }
+                }
+                default -> mismatch(this, reader, token, run);
+            }
+        }
+
+        // An integer too long for a long is past any minimum, on the side of its sign
+        private boolean belowMinimum(JsonReader reader) {
+            try {
+                return reader.longValue() < minimum;
+            } catch (NumberFormatException e) {
+                return reader.buffer()[reader.tokenStart()] == '-';
+            }
+        }
+    }
+
+    private static final class Nullable extends JsonSchema {
+
+        private final JsonSchema schema;
+
+        Nullable(JsonSchema schema) {
+            super(schema + " or null");
+            this.schema = schema;
+        }
+
+        @Override
+        void check(JsonReader reader, JsonReader.Token token, Run run) {
+            if (token != JsonReader.Token.NULL) {
+                schema.check(reader, token, run);
+            }
+        }
+    }
+
+    private static final class Array extends JsonSchema {
+
+        private final JsonSchema items;
+
+        Array(JsonSchema items) {
+            super("array of " + items);
+            this.items = items;
+        }
+
+        @Override
+        void check(JsonReader reader, JsonReader.Token token, Run run) {
+            if (token != JsonReader.Token.BEGIN_ARRAY) {
+                mismatch(this, reader, token, run);
+                return;
+            }
+            int index = 0;
+            for (JsonReader.Token item = reader.next(); item != JsonReader.Token.END_ARRAY; item = reader.next()) {
+                run.enter(index++);
+                items.check(reader, item, run);
+                run.leave();
+            }
+        }
+    }
+
+    private static final class ObjectSchema extends JsonSchema {
+
+        private final String[] names;
+        private final byte[][] encodedNames;
+        private final JsonSchema[] schemas;
+        private final long required;
+
+        ObjectSchema(String description, List<String> names, List<JsonSchema> schemas, long required) {
+            super(description);
+            this.names = names.toArray(new String[0]);
+            this.encodedNames = new byte[this.names.length][];
+            for (int i = 0; i < this.names.length; i++) {
+                encodedNames[i] = this.names[i].getBytes(StandardCharsets.UTF_8);
+            }
+            this.schemas = schemas.toArray(new JsonSchema[0]);
+            this.required = required;
+        }
+
+        @Override
+        void check(JsonReader reader, JsonReader.Token token, Run run) {
+            if (token != JsonReader.Token.BEGIN_OBJECT) {
+                mismatch(this, reader, token, run);
+                return;
+            }
+            long seen = 0;
+            for (JsonReader.Token name = reader.next(); name != JsonReader.Token.END_OBJECT; name = reader.next()) {
+                int property = property(reader);
+                JsonReader.Token value = reader.next();
+                if (property < 0) {
+                    reader.skipChildren();
+                    continue;
+                }
+                seen |= 1L << property;
+                run.enter(names[property]);
+                schemas[property].check(reader, value, run);
+                run.leave();
+            }
+            for (long missing = required & ~seen; missing != 0; missing &= missing - 1) {
+                run.fail("missing " + names[Long.numberOfTrailingZeros(missing)]);
+            }
+        }
+
+        private int property(JsonReader reader) {
+            int length = reader.tokenEnd() - reader.tokenStart();
+            byte first = reader.buffer()[reader.tokenStart()];
+            for (int i = 0; i < encodedNames.length; i++) {
+                byte[] name = encodedNames[i];
+                if (name.length == length && (length == 0 || name[0] == first) && reader.nameEquals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /** Collects the properties of an object schema. */
+    public static final class ObjectBuilder {
+
+        // Required properties are tracked in the bits of a long
+        static final int MAX_PROPERTIES = 64;
+
+        private final String description;
+        private final List<String> names = new ArrayList<>();
+        private final List<JsonSchema> schemas = new ArrayList<>();
+        private long required;
+
+        private ObjectBuilder(String description) {
+            this.description = description;
+        }
+
+        public ObjectBuilder required(String name, JsonSchema schema) {
+            required |= 1L << names.size();
+            return optional(name, schema);
+        }
+
+        /** A property that may be missing; when present it has to match. */
+        public ObjectBuilder optional(String name, JsonSchema schema) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Property '" + name + "' appears twice in " + description);
+            }
+            if (names.size() == MAX_PROPERTIES) {
+                throw new IllegalArgumentException("More than " + MAX_PROPERTIES + " properties in " + description);
+            }
+            names.add(name);
+            schemas.add(schema);
+            return this;
+        }
+
+        public JsonSchema build() {
+            return new ObjectSchema(description, names, schemas, required);
+        }
+    }
+
+    /** Stands in for a schema that is only built later. */
+    public static final class Forward extends JsonSchema {
+
+        private JsonSchema target;
+
+        private Forward(String description) {
+            super(description);
+        }
+
+        public void set(JsonSchema target) {
+            if (this.target != null) {
+                throw new IllegalStateException(this + " is already set");
+            }
+            this.target = target;
+        }
+
+        @Override
+        void check(JsonReader reader, JsonReader.Token token, Run run) {
+            if (target == null) {
+                throw new IllegalStateException(this + " was never set");
+            }
+            target.check(reader, token, run);
+        }
+    }
+}
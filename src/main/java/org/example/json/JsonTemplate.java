@@ -0,0 +1,488 @@
+package org.example.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A JSON request body with typed slots, parsed once and then rendered straight to UTF-8 bytes. Slots are written
+ * {@code {{name:type}}} with the types {@code string} (the default), {@code long}, {@code number} and
+ * {@code boolean}; in value position a slot becomes a whole JSON value, inside a string literal it becomes part of
+ * the text:
+ *
+ * <pre>
+ * static final JsonTemplate CATEGORY =
+ *         JsonTemplate.compile("{\"name\": \"new category {{n:long}}\", \"slug\": {{slug}}}");
+ *
+ * ByteBuffer body = CATEGORY.renderer().with("n", 42).with("slug", slug).render();
+ * </pre>
+ *
+ * Each thread renders into a {@link Renderer} of its own, so once its buffer has grown to the largest body,
+ * rendering allocates nothing: the literal parts are pre-encoded, strings are escaped and encoded character by
+ * character and numbers are written digit by digit. A slot may appear more than once (a password and its
+ * confirmation) and then takes one value.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class JsonTemplate {
+
+    public enum Type {
+        STRING, LONG, NUMBER, BOOLEAN
+    }
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final long[] POWERS_OF_TEN = new long[10];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final String source;
+    private final String[] names;
+    private final Type[] types;
+    private final Map<String, Integer> slots;
+    // literals[i] comes before occurrence i, the last one after all of them
+    private final byte[][] literals;
+    private final int[] occurrences;
+    private final boolean[] inString;
+    private final int literalLength;
+    private final ThreadLocal<Renderer> renderers = ThreadLocal.withInitial(() -> new Renderer(this));
+
+    private JsonTemplate(String source, List<String> names, List<Type> types, List<byte[]> literals,
+                         List<Integer> occurrences, List<Boolean> inString) {
+        this.source = source;
+        this.names = names.toArray(new String[0]);
+        this.types = types.toArray(new Type[0]);
+        this.slots = new LinkedHashMap<>();
+        for (int i = 0; i < this.names.length; i++) {
+            slots.put(this.names[i], i);
+        }
+        this.literals = literals.toArray(new byte[0][]);
+        this.occurrences = occurrences.stream().mapToInt(Integer::intValue).toArray();
+        this.inString = new boolean[inString.size()];
+        for (int i = 0; i < this.inString.length; i++) {
+            this.inString[i] = inString.get(i);
+        }
+        int length = 0;
+        for (byte[] literal : this.literals) {
+            length += literal.length;
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses a template. The template has to be well-formed JSON with its slots filled in, and a slot used twice
+     * has to have the same type both times.
+     */
+    public static JsonTemplate compile(String template) {
+        List<String> names = new ArrayList<>();
+        List<Type> types = new ArrayList<>();
+        List<byte[]> literals = new ArrayList<>();
+        List<Integer> occurrences = new ArrayList<>();
+        List<Boolean> inString = new ArrayList<>();
+        // The template with a sample value in every slot, to check that it is JSON
+        StringBuilder sample = new StringBuilder();
+        int literalStart = 0;
+        boolean quoted = false;
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (quoted && c == '\\') {
+                sample.append(template, i, Math.min(i + 2, template.length()));
+                i += 2;
+                continue;
+            }
+            if (c == '{' && template.startsWith("{{", i)) {
+                int end = template.indexOf("}}", i + 2);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed slot at " + i + " in template: " + template);
+                }
+                String slot = template.substring(i + 2, end).trim();
+                int colon = slot.indexOf(':');
+                String name = (colon < 0 ? slot : slot.substring(0, colon)).trim();
+                Type type = colon < 0 ? Type.STRING : type(slot.substring(colon + 1).trim(), template);
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Slot without a name at " + i + " in template: " + template);
+                }
+                int index = names.indexOf(name);
+                if (index < 0) {
+                    index = names.size();
+                    names.add(name);
+                    types.add(type);
+                } else if (types.get(index) != type) {
+                    throw new IllegalArgumentException("Slot '" + name + "' is both " + typeName(types.get(index))
+                            + " and " + typeName(type) + " in template: " + template);
+                }
+                literals.add(template.substring(literalStart, i).getBytes(StandardCharsets.UTF_8));
+                occurrences.add(index);
+                inString.add(quoted);
+                sample.append(quoted ? "" : type == Type.STRING ? "\"\"" : type == Type.BOOLEAN ? "true" : "0");
+                i = end + 2;
+                literalStart = i;
+                continue;
+            }
+            if (c == '"') {
+                quoted = !quoted;
+            }
+            sample.append(c);
+            i++;
+        }
+        literals.add(template.substring(literalStart).getBytes(StandardCharsets.UTF_8));
+        try {
+            Json.parse(sample.toString());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Template is not JSON (" + e.getMessage() + "): " + template, e);
+        }
+        return new JsonTemplate(template, names, types, literals, occurrences, inString);
+    }
+
+    private static Type type(String name, String template) {
+        return switch (name) {
+            case "string" -> Type.STRING;
+            case "long" -> Type.LONG;
+            case "number" -> Type.NUMBER;
+            case "boolean" -> Type.BOOLEAN;
+            default -> throw new IllegalArgumentException("Unknown slot type '" + name + "' in template: "
+                    + template);
+        };
+    }
+
+    private static String typeName(Type type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Index of a slot, for callers that set values by index on the hot path. */
+    public int slot(String name) {
+        Integer index = slots.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No slot '" + name + "' in template: " + source);
+        }
+        return index;
+    }
+
+    public List<String> slotNames() {
+        return List.of(names);
+    }
+
+    public Type type(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * This thread's renderer, with every slot unset. Its buffer is reused by the next render on the same thread,
+     * so a rendered body has to be sent (or copied) before that.
+     */
+    public Renderer renderer() {
+        return renderers.get().clear();
+    }
+
+    /**
+     * A renderer of the caller's own, for threads that live for a single task (where a per-thread one would be
+     * thrown away with the thread) or for bodies that have to outlive the next render.
+     */
+    public Renderer newRenderer() {
+        return new Renderer(this);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /** Slot values and the buffer they are rendered into. Not thread-safe. */
+    public static final class Renderer {
+
+        private final JsonTemplate template;
+        private final String[] strings;
+        private final long[] longs;
+        private final double[] numbers;
+        private final boolean[] set;
+        private byte[] bytes;
+        private ByteBuffer buffer;
+        private int length;
+
+        private Renderer(JsonTemplate template) {
+            this.template = template;
+            int slots = template.names.length;
+            this.strings = new String[slots];
+            this.longs = new long[slots];
+            this.numbers = new double[slots];
+            this.set = new boolean[slots];
+            this.bytes = new byte[Math.max(64, template.literalLength * 2)];
+            this.buffer = ByteBuffer.wrap(bytes);
+        }
+
+        /** Unsets every slot. */
+        public Renderer clear() {
+            Arrays.fill(set, false);
+            Arrays.fill(strings, null);
+            return this;
+        }
+
+        public Renderer with(String name, String value) {
+            return with(template.slot(name), value);
+        }
+
+        public Renderer with(String name, long value) {
+            return with(template.slot(name), value);
+        }
+
+        public Renderer with(String name, double value) {
+            return with(template.slot(name), value);
+        }
+
+        public Renderer with(String name, boolean value) {
+            return with(template.slot(name), value);
+        }
+
+        /** Sets a string slot; {@code null} renders as JSON null. */
+        public Renderer with(int slot, String value) {
+            check(slot, Type.STRING);
+            strings[slot] = value;
+            set[slot] = true;
+            return this;
+        }
+
+        /** Sets a long slot, or a number slot to a whole number. */
+        public Renderer with(int slot, long value) {
+            if (template.types[slot] == Type.NUMBER) {
+                return with(slot, (double) value);
+            }
+            check(slot, Type.LONG);
+            longs[slot] = value;
+            set[slot] = true;
+            return this;
+        }
+
+        public Renderer with(int slot, double value) {
+            check(slot, Type.NUMBER);
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new IllegalArgumentException("JSON has no " + value + " for slot '" + template.names[slot]
+                        + "'");
+            }
+            numbers[slot] = value;
+            set[slot] = true;
+            return this;
+        }
+
+        public Renderer with(int slot, boolean value) {
+            check(slot, Type.BOOLEAN);
+            longs[slot] = value ? 1 : 0;
+            set[slot] = true;
+            return this;
+        }
+
+        private void check(int slot, Type type) {
+            if (template.types[slot] != type) {
+                throw new IllegalArgumentException("Slot '" + template.names[slot] + "' takes a "
+                        + typeName(template.types[slot]) + ", not a " + typeName(type));
+            }
+        }
+
+        /**
+         * Renders the body. The returned buffer is this renderer's own: position 0, limit at the end of the body,
+         * backed by an array ({@code buffer.array()}, length {@code buffer.limit()}) and overwritten by the next
+         * render.
+         */
+        public ByteBuffer render() {
+            length = 0;
+            byte[][] literals = template.literals;
+            int[] occurrences = template.occurrences;
+            for (int i = 0; i < occurrences.length; i++) {
+                put(literals[i]);
+                int slot = occurrences[i];
+                if (!set[slot]) {
+                    throw new IllegalStateException("Slot '" + template.names[slot] + "' is not set in template: "
+                            + template.source);
+                }
+                boolean inString = template.inString[i];
+                switch (template.types[slot]) {
+                    case STRING -> {
+                        String value = strings[slot];
+                        if (value == null) {
+                            if (inString) {
+                                throw new IllegalStateException("Slot '" + template.names[slot]
+                                        + "' is inside a string and cannot be null");
+                            }
+                            put(NULL);
+                        } else {
+                            if (!inString) {
+                                put((byte) '"');
+                            }
+                            putEscaped(value);
+                            if (!inString) {
+                                put((byte) '"');
+                            }
+                        }
+                    }
+                    case LONG -> putLong(longs[slot]);
+                    case NUMBER -> putNumber(numbers[slot]);
+                    case BOOLEAN -> put(longs[slot] != 0 ? TRUE : FALSE);
+                }
+            }
+            put(literals[occurrences.length]);
+            buffer.clear();
+            buffer.limit(length);
+            return buffer;
+        }
+
+        /** Renders into a new array of exactly the body's length, e.g. for RestAssured's {@code body(byte[])}. */
+        public byte[] toByteArray() {
+            render();
+            return Arrays.copyOf(bytes, length);
+        }
+
+        /** The rendered body as text; for messages and tests, not for the sending path. */
+        public String text() {
+            render();
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void put(byte b) {
+            ensure(1);
+            bytes[length++] = b;
+        }
+
+        private void put(byte[] literal) {
+            ensure(literal.length);
+            System.arraycopy(literal, 0, bytes, length, literal.length);
+            length += literal.length;
+        }
+
+        private void putLong(long value) {
+            if (value == Long.MIN_VALUE) {
+                put(MIN_LONG);
+                return;
+            }
+            if (value < 0) {
+                put((byte) '-');
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            ensure(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+        }
+
+        // Whole numbers and decimals with up to 9 places (prices, ratings) are written from a scaled long and read
+        // back as the same double; anything else falls back to Double.toString, which allocates.
+        private void putNumber(double value) {
+            double magnitude = Math.abs(value);
+            if (magnitude < 1e15) {
+                for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+                    double scaled = value * POWERS_OF_TEN[scale];
+                    if (Math.abs(scaled) >= 1e17) {
+                        break;
+                    }
+                    long unscaled = Math.round(scaled);
+                    if ((double) unscaled / POWERS_OF_TEN[scale] == value) {
+                        putDecimal(unscaled, scale, value);
+                        return;
+                    }
+                }
+            }
+            put(Double.toString(value).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private void putDecimal(long unscaled, int scale, double value) {
+            if (scale == 0) {
+                putLong(unscaled);
+                return;
+            }
+            if (value < 0) {
+                put((byte) '-');
+                unscaled = -unscaled;
+            }
+            long whole = unscaled / POWERS_OF_TEN[scale];
+            long fraction = unscaled % POWERS_OF_TEN[scale];
+            putLong(whole);
+            put((byte) '.');
+            ensure(scale);
+            for (int i = length + scale - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            length += scale;
+        }
+
+        // JSON string escaping straight to UTF-8; a lone surrogate is escaped rather than replaced
+        private void putEscaped(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    if (c >= 0x20 && c != '"' && c != '\\') {
+                        put((byte) c);
+                        continue;
+                    }
+                    put((byte) '\\');
+                    switch (c) {
+                        case '"' -> put((byte) '"');
+                        case '\\' -> put((byte) '\\');
+                        case '\n' -> put((byte) 'n');
+                        case '\r' -> put((byte) 'r');
+                        case '\t' -> put((byte) 't');
+                        case '\b' -> put((byte) 'b');
+                        case '\f' -> put((byte) 'f');
+                        default -> putUnicodeEscape(c);
+                    }
+                } else if (c < 0x800) {
+                    ensure(2);
+                    bytes[length++] = (byte) (0xC0 | c >> 6);
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    ensure(4);
+                    bytes[length++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[length++] = (byte) (0x80 | (codePoint >> 12 & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (codePoint >> 6 & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    put((byte) '\\');
+                    putUnicodeEscape(c);
+                } else {
+                    ensure(3);
+                    bytes[length++] = (byte) (0xE0 | c >> 12);
+                    bytes[length++] = (byte) (0x80 | (c >> 6 & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        // The part after the backslash: u and four hex digits
+        private void putUnicodeEscape(char c) {
+            ensure(5);
+            bytes[length++] = 'u';
+            bytes[length++] = HEX[c >> 12];
+            bytes[length++] = HEX[c >> 8 & 0xF];
+            bytes[length++] = HEX[c >> 4 & 0xF];
+            bytes[length++] = HEX[c & 0xF];
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+                buffer = ByteBuffer.wrap(bytes);
+            }
+        }
+    }
+}
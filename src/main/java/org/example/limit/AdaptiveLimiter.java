@@ -0,0 +1,247 @@
+package org.example.limit;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that finds out how much the server takes instead of being told (AIMD). Every answered call
+ * that was sent while the limit was in use raises the limit by {@code 1/limit}, so about one per round of calls.
+ * A throttled or failed call cuts it by {@code backoff}, and so does an answer that leaves the recent round trip
+ * above {@code tolerance} times the usual one: the server is queueing. Calls sent before the last cut can't cut it
+ * again, so a burst of slow answers to one round costs one cut, not one per answer.
+ * <p>
+ * Recent and usual round trips are moving averages over about {@value #SMOOTHING} and {@value #WINDOW} answers.
+ * A {@code Retry-After} holds back every new call until it has passed, whichever caller saw it.
+ */
+public class AdaptiveLimiter {
+
+    static final int SMOOTHING = 8;
+    static final int WINDOW = 256;
+
+    /**
+     * @param tolerance how many times the usual round trip the recent one may be before it counts as congestion
+     * @param backoff   factor the limit is multiplied by on congestion, below 1
+     */
+    public record Config(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoff) {
+
+        public Config {
+            if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit, got "
+                        + minLimit + ", " + initialLimit + ", " + maxLimit);
+            }
+            if (tolerance <= 1 || backoff <= 0 || backoff >= 1) {
+                throw new IllegalArgumentException("Expected tolerance > 1 and 0 < backoff < 1, got " + tolerance
+                        + " and " + backoff);
+            }
+        }
+
+        /** Starts low and may grow up to {@code maxLimit}. */
+        public static Config upTo(int maxLimit) {
+            return new Config(Math.min(4, maxLimit), 1, maxLimit, 2.0, 0.7);
+        }
+    }
+
+    /** One call's slot; release it exactly once, with what became of the call. */
+    public final class Permit {
+
+        private final long acquiredAt;
+        private final long generation;
+        private final boolean limited;
+        private boolean released;
+
+        private Permit(long acquiredAt, long generation, boolean limited) {
+            this.acquiredAt = acquiredAt;
+            this.generation = generation;
+            this.limited = limited;
+        }
+
+        /** The server answered, whatever the status, unless it was throttling. */
+        public void success() {
+            release(Outcome.SUCCESS, null);
+        }
+
+        /** The server asked us to slow down (a 429 or 503); nothing new is sent until {@code retryAfter} is up. */
+        public void throttled(Duration retryAfter) {
+            release(Outcome.THROTTLED, retryAfter);
+        }
+
+        /** No answer: a timeout or a dropped connection. */
+        public void dropped() {
+            release(Outcome.DROPPED, null);
+        }
+
+        /** The call says nothing about the server, e.g. it was never sent. */
+        public void ignore() {
+            release(Outcome.IGNORED, null);
+        }
+
+        private void release(Outcome outcome, Duration retryAfter) {
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                if (released) {
+                    throw new IllegalStateException("Permit released twice");
+                }
+                released = true;
+                AdaptiveLimiter.this.release(this, outcome, now - acquiredAt, now, retryAfter);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private enum Outcome { SUCCESS, THROTTLED, DROPPED, IGNORED }
+
+    private final Config config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private double limit;
+    private double peakLimit;
+    private int inFlight;
+    private long generation;
+    private long pausedUntil;
+    private double recentRtt;
+    private double usualRtt;
+    private long throttled;
+    private long cuts;
+
+    public AdaptiveLimiter(Config config) {
+        this.config = config;
+        this.limit = config.initialLimit();
+        this.peakLimit = limit;
+        this.pausedUntil = System.nanoTime();
+    }
+
+    /** Waits for a free slot (and for any {@code Retry-After} to pass), then takes it. */
+    public Permit acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                long pause = pausedUntil - now;
+                if (pause > 0) {
+                    changed.awaitNanos(pause);
+                } else if (inFlight >= (int) limit) {
+                    changed.await();
+                } else {
+                    inFlight++;
+                    return new Permit(now, generation, inFlight >= (int) limit);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit, Outcome outcome, long rttNanos, long now, Duration retryAfter) {
+        inFlight--;
+        switch (outcome) {
+            case SUCCESS -> {
+                sample(rttNanos);
+                if (recentRtt > config.tolerance() * usualRtt) {
+                    cut(permit);
+                } else if (permit.limited) {
+                    limit = Math.min(config.maxLimit(), limit + 1 / limit);
+                    peakLimit = Math.max(peakLimit, limit);
+                }
+            }
+            case THROTTLED -> {
+                throttled++;
+                cut(permit);
+                pausedUntil = Math.max(pausedUntil, now + retryAfter.toNanos());
+            }
+            case DROPPED -> cut(permit);
+            case IGNORED -> {
+            }
+        }
+        changed.signalAll();
+    }
+
+    private void cut(Permit permit) {
+        if (permit.generation == generation) {
+            limit = Math.max(config.minLimit(), limit * config.backoff());
+            generation++;
+            cuts++;
+        }
+    }
+
+    private void sample(long rttNanos) {
+        if (usualRtt == 0) {
+            recentRtt = rttNanos;
+            usualRtt = rttNanos;
+        } else {
+            recentRtt += (rttNanos - recentRtt) / SMOOTHING;
+            usualRtt += (rttNanos - usualRtt) / WINDOW;
+        }
+    }
+
+    public double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double peakLimit() {
+        lock.lock();
+        try {
+            return peakLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Usual round trip, what congestion is measured against; zero before the first answer. */
+    public Duration usualRtt() {
+        lock.lock();
+        try {
+            return Duration.ofNanos((long) usualRtt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Calls released as throttled. */
+    public long throttled() {
+        lock.lock();
+        try {
+            return throttled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Times the limit was cut. */
+    public long cuts() {
+        lock.lock();
+        try {
+            return cuts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format("limit %.1f (peak %.1f), %d in flight, usual round trip %.1fms, %d cuts, %d throttled",
+                    limit, peakLimit, inFlight, usualRtt / 1e6, cuts, throttled);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads a {@code Retry-After} header, which is either a number of seconds or an HTTP date.
+ */
+public final class RetryAfter {
+
+    // Nobody should be told to stall a run for longer than this by one header
+    static final Duration MAX = Duration.ofMinutes(2);
+
+    private RetryAfter() {
+    }
+
+    /** The wait the header asks for, capped at two minutes; {@code fallback} if it is absent or unreadable. */
+    public static Duration parse(String value, Duration fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        String trimmed = value.trim();
+        Duration wait;
+        try {
+            wait = Duration.ofSeconds(Long.parseLong(trimmed));
+        } catch (NumberFormatException e) {
+            try {
+                Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                wait = Duration.between(Instant.now(), at);
+            } catch (DateTimeParseException notADate) {
+                return fallback;
+            }
+        }
+        if (wait.isNegative()) {
+            return Duration.ZERO;
+        }
+        return wait.compareTo(MAX) > 0 ? MAX : wait;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.limit;
+
+/**
+ * Caps retries at a share of calls, so retrying cannot multiply the load on a server that is already throttling.
+ * Every first attempt earns {@code ratio} of a retry, every retry spends one; the balance never goes above
+ * {@code reserve}, which is also what it starts with, so a quiet start can still retry a few times.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double reserve;
+
+    private double balance;
+    private long retried;
+    private long refused;
+
+    public RetryBudget(double ratio, int reserve) {
+        if (ratio < 0 || ratio > 1 || reserve < 0) {
+            throw new IllegalArgumentException("Expected 0 <= ratio <= 1 and reserve >= 0, got " + ratio + " and "
+                    + reserve);
+        }
+        this.ratio = ratio;
+        this.reserve = reserve;
+        this.balance = reserve;
+    }
+
+    /** Counts a first attempt. */
+    public synchronized void deposit() {
+        balance = Math.min(reserve, balance + ratio);
+    }
+
+    /** Takes one retry from the budget; false, and counted as refused, if none is left. */
+    public synchronized boolean withdraw() {
+        if (balance < 1) {
+            refused++;
+            return false;
+        }
+        balance--;
+        retried++;
+        return true;
+    }
+
+    public synchronized long retried() {
+        return retried;
+    }
+
+    /** Retries that were wanted but not made. */
+    public synchronized long refused() {
+        return refused;
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.limit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+/**
+ * Client-side rate control for calls that share one server: an {@link AdaptiveLimiter} decides how many may be in
+ * flight, and a call the server throttles (429 or 503) is sent again after its {@code Retry-After}, as long as
+ * the {@link RetryBudget} allows. Calls that fail without an answer are not repeated, since a POST may have
+ * gone through. A throttled call that is out of attempts or budget is handed back as it is.
+ * <p>
+ * Works on any client: the {@link Exchange} says how to send one attempt and read its status.
+ */
+public class Throttle {
+
+    /** One call through some HTTP client. */
+    public interface Exchange<R> {
+
+        /** Sends one attempt. */
+        R send() throws IOException, InterruptedException;
+
+        int status(R response);
+
+        /** The first value of header {@code name}, or null. */
+        String header(R response, String name);
+
+        /** False if the request cannot be sent twice, e.g. its body is a stream; it is then never retried. */
+        default boolean repeatable() {
+            return true;
+        }
+
+        /** Lets go of a throttled response that is about to be retried, e.g. frees its connection. */
+        default void discard(R response) {
+        }
+    }
+
+    /**
+     * @param maxAttempts       attempts per call, the first one included
+     * @param defaultRetryAfter wait after a throttled answer without a readable {@code Retry-After}
+     */
+    public record Config(AdaptiveLimiter.Config limits, int maxAttempts, double retryRatio, int retryReserve,
+                         Duration defaultRetryAfter) {
+
+        public Config {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("Need at least one attempt, got " + maxAttempts);
+            }
+        }
+
+        /**
+         * Up to {@code maxConcurrency} calls in flight, four attempts per call and retries worth a tenth of the
+         * calls, with ten to spare.
+         */
+        public static Config upTo(int maxConcurrency) {
+            return new Config(AdaptiveLimiter.Config.upTo(maxConcurrency), 4, 0.1, 10, Duration.ofSeconds(1));
+        }
+    }
+
+    private final Config config;
+    private final AdaptiveLimiter limiter;
+    private final RetryBudget budget;
+
+    public Throttle(Config config) {
+        this.config = config;
+        this.limiter = new AdaptiveLimiter(config.limits());
+        this.budget = new RetryBudget(config.retryRatio(), config.retryReserve());
+    }
+
+    public <R> R call(Exchange<R> exchange) throws IOException, InterruptedException {
+        budget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            AdaptiveLimiter.Permit permit = limiter.acquire();
+            R response;
+            try {
+                response = exchange.send();
+            } catch (InterruptedException e) {
+                permit.ignore();
+                throw e;
+            } catch (IOException e) {
+                // A read timeout is an InterruptedIOException too, but one the server caused
+                if (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException)) {
+                    permit.ignore();
+                } else {
+                    permit.dropped();
+                }
+                throw e;
+            } catch (RuntimeException e) {
+                permit.ignore();
+                throw e;
+            }
+            int status = exchange.status(response);
+            if (status != 429 && status != 503) {
+                permit.success();
+                return response;
+            }
+            permit.throttled(RetryAfter.parse(exchange.header(response, "Retry-After"), config.defaultRetryAfter()));
+            if (attempt >= config.maxAttempts() || !exchange.repeatable() || !budget.withdraw()) {
+                return response;
+            }
+            exchange.discard(response);
+        }
+    }
+
+    public AdaptiveLimiter limiter() {
+        return limiter;
+    }
+
+    public RetryBudget budget() {
+        return budget;
+    }
+
+    @Override
+    public String toString() {
+        return limiter + ", " + budget.retried() + " retried, " + budget.refused() + " left throttled for lack of"
+                + " budget";
+    }
+}
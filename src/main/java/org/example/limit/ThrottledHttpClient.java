@@ -0,0 +1,122 @@
+package org.example.limit;
+
+import org.example.Threads;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link HttpClient} that sends every request through a {@link Throttle}, for code that takes a plain client
+ * (token logins, page crawls, the async client) but shares a server with calls that are throttled already.
+ * Waiting for a turn blocks, so {@code sendAsync} waits on a thread of its own, a virtual one where there are.
+ */
+public final class ThrottledHttpClient extends HttpClient {
+
+    private final HttpClient delegate;
+    private final Throttle throttle;
+    private final Executor waiting = Threads.perTaskExecutor("throttled-http");
+
+    public ThrottledHttpClient(HttpClient delegate, Throttle throttle) {
+        this.delegate = delegate;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        return throttle.call(new Throttle.Exchange<HttpResponse<T>>() {
+            @Override
+            public HttpResponse<T> send() throws IOException, InterruptedException {
+                return delegate.send(request, handler);
+            }
+
+            @Override
+            public int status(HttpResponse<T> response) {
+                return response.statusCode();
+            }
+
+            @Override
+            public String header(HttpResponse<T> response, String name) {
+                return response.headers().firstValue(name).orElse(null);
+            }
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        waiting.execute(() -> {
+            try {
+                result.complete(send(request, handler));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        return sendAsync(request, handler);
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+}
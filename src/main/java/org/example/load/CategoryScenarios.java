@@ -0,0 +1,149 @@
+package org.example.load;
+
+import org.example.auth.TokenBroker;
+import org.example.json.Json;
+import org.example.json.JsonTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.load.ProductScenarios.TIMEOUT;
+import static org.example.load.ProductScenarios.at;
+import static org.example.load.ProductScenarios.get;
+import static org.example.load.ProductScenarios.json;
+
+/**
+ * The calls CategoryTest makes, as load operations. Created categories get a name no other process uses, so
+ * several workers can load one API at once; PUT and DELETE only touch categories the scenario created itself, and
+ * whatever the deletes did not get to is deleted when the run is over. Deleting needs an admin token, which a
+ * {@link TokenBroker} logs in for once and keeps fresh.
+ */
+public final class CategoryScenarios {
+
+    // e.g. "Load 3f2a9c1e 17" with the slug "load-3f2a9c1e-17"
+    private static final JsonTemplate CATEGORY = JsonTemplate.compile(
+            "{\"name\": \"{{prefix}} {{run}} {{n:long}}\", \"slug\": \"{{slug}}-{{run}}-{{n:long}}\"}");
+
+    private CategoryScenarios() {
+    }
+
+    /** Read-heavy mix: 70% listings, trees and single reads, 12% create, 6% update, 12% delete. */
+    public static Scenario crud(URI baseUrl, HttpClient client, TokenBroker.Credentials admin) {
+        if (admin == null) {
+            throw new IllegalArgumentException("The categories scenario deletes what it creates and needs admin"
+                    + " credentials for that");
+        }
+        String root = baseUrl.toString();
+        TokenBroker broker = new TokenBroker(root.endsWith("/") ? root.substring(0, root.length() - 1) : root,
+                client);
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        AtomicLong counter = new AtomicLong();
+        ConcurrentLinkedDeque<String> created = new ConcurrentLinkedDeque<>();
+        // Created and not known to be deleted; a DELETE that fails or times out leaves its id here for the clean-up
+        Set<String> live = ConcurrentHashMap.newKeySet();
+        List<Operation> operations = List.of(
+                get("GET /categories", "/categories"),
+                get("GET /categories/tree", "/categories/tree"),
+                get("GET /categories/tree?slug", "/categories/tree?by_category_slug=hand-tools"),
+                new Operation("POST /categories") {
+                    @Override
+                    public HttpRequest request(URI base) {
+                        byte[] body = body("Load", "load", run, counter.incrementAndGet());
+                        return json(at(base, "/categories")).POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                                .build();
+                    }
+
+                    @Override
+                    public void completed(HttpResponse<byte[]> response) {
+                        if (response.statusCode() == 201) {
+                            String id = String.valueOf(((Map<?, ?>) Json.parse(response.body())).get("id"));
+                            live.add(id);
+                            created.addLast(id);
+                        }
+                    }
+                },
+                new Operation("GET /categories/{id}") {
+                    @Override
+                    public HttpRequest request(URI base) {
+                        String id = created.peekFirst();
+                        return HttpRequest.newBuilder(at(base, "/categories/" + (id == null ? "1" : id)))
+                                .timeout(TIMEOUT).GET().build();
+                    }
+                },
+                new Operation("PUT /categories/{id}") {
+                    @Override
+                    public HttpRequest request(URI base) {
+                        String id = created.peekLast();
+                        byte[] body = body("Updated", "updated", run, counter.incrementAndGet());
+                        return json(at(base, "/categories/" + (id == null ? "non-existing-id" : id)))
+                                .PUT(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+                    }
+                },
+                new Operation("DELETE /categories/{id}") {
+                    @Override
+                    public HttpRequest request(URI base) {
+                        String id = created.pollFirst();
+                        return HttpRequest.newBuilder(at(base, "/categories/" + (id == null ? "999" : id)))
+                                .timeout(TIMEOUT)
+                                .header("Authorization", "Bearer " + broker.token(admin))
+                                .DELETE().build();
+                    }
+
+                    @Override
+                    public void completed(HttpResponse<byte[]> response) {
+                        if (response.statusCode() == 204 || response.statusCode() == 404) {
+                            String path = response.request().uri().getPath();
+                            live.remove(path.substring(path.lastIndexOf('/') + 1));
+                        }
+                    }
+                });
+        return new Scenario(operations, new int[]{25, 20, 10, 12, 15, 6, 12},
+                () -> deleteAll(baseUrl, client, broker, admin, live));
+    }
+
+    // Even with creates and deletes balanced, a run ends with some of its categories still there
+    private static void deleteAll(URI baseUrl, HttpClient client, TokenBroker broker, TokenBroker.Credentials admin,
+                                  Set<String> live) {
+        List<String> ids = new ArrayList<>(live);
+        List<String> failed = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            try {
+                HttpRequest request = HttpRequest.newBuilder(at(baseUrl, "/categories/" + id))
+                        .timeout(TIMEOUT)
+                        .header("Authorization", "Bearer " + broker.token(admin))
+                        .DELETE().build();
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status != 204 && status != 404) {
+                    failed.add(id + " (" + status + ")");
+                }
+            } catch (IOException | RuntimeException e) {
+                failed.add(id + " (" + e + ")");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.addAll(ids.subList(i, ids.size()));
+                break;
+            }
+        }
+        if (!failed.isEmpty()) {
+            System.err.println("Could not delete " + failed.size() + " categories created by the load run: "
+                    + String.join(", ", failed));
+        }
+    }
+
+    private static byte[] body(String prefix, String slug, String run, long n) {
+        return CATEGORY.newRenderer().with("prefix", prefix).with("slug", slug).with("run", run).with("n", n)
+                .toByteArray();
+    }
+}
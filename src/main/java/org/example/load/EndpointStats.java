@@ -0,0 +1,152 @@
+package org.example.load;
+
+import org.example.stats.Histogram;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation results. Response time is measured from the time the request was <em>scheduled</em> to be sent,
+ * so queueing behind a slow server shows up in the percentiles (coordinated omission correction); service time is
+ * measured from the time it was actually sent.
+ */
+public class EndpointStats {
+
+    /** 1 microsecond to 1 minute, 3 significant digits. */
+    public static final long HIGHEST_MICROS = 60_000_000L;
+    public static final int PRECISION = 3;
+
+    private final String name;
+    private final Histogram responseTime = new Histogram(HIGHEST_MICROS, PRECISION);
+    private final Histogram serviceTime = new Histogram(HIGHEST_MICROS, PRECISION);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final AtomicReference<String> firstViolation = new AtomicReference<>();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Histogram responseTime() {
+        return responseTime;
+    }
+
+    public Histogram serviceTime() {
+        return serviceTime;
+    }
+
+    public void recordStatus(int status) {
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    /** Counts a successful response whose body did not match its schema. */
+    public void recordInvalid(String violation) {
+        invalid.increment();
+        firstViolation.compareAndSet(null, violation);
+    }
+
+    public long invalid() {
+        return invalid.sum();
+    }
+
+    /** What was wrong with the first invalid body, or null. */
+    public String firstViolation() {
+        return firstViolation.get();
+    }
+
+    /** Transport failures plus 5xx responses. */
+    public long errors() {
+        long errors = failures.sum();
+        for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+            if (entry.getKey() >= 500) {
+                errors += entry.getValue().sum();
+            }
+        }
+        return errors;
+    }
+
+    public Map<Integer, Long> statuses() {
+        Map<Integer, Long> copy = new TreeMap<>();
+        statuses.forEach((status, count) -> copy.put(status, count.sum()));
+        return copy;
+    }
+
+    /** Wire form for sending a worker's results to its coordinator; histograms go in full, so nothing is lost. */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        writeHistogram(out, responseTime);
+        writeHistogram(out, serviceTime);
+        Map<Integer, Long> counts = statuses();
+        out.writeInt(counts.size());
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+        out.writeLong(failures.sum());
+        out.writeLong(invalid.sum());
+        String violation = firstViolation.get();
+        out.writeBoolean(violation != null);
+        if (violation != null) {
+            out.writeUTF(violation.length() > 1000 ? violation.substring(0, 1000) : violation);
+        }
+    }
+
+    public static EndpointStats readFrom(DataInput in) throws IOException {
+        EndpointStats stats = new EndpointStats(in.readUTF());
+        stats.responseTime.add(readHistogram(in));
+        stats.serviceTime.add(readHistogram(in));
+        for (int i = in.readInt(); i > 0; i--) {
+            int status = in.readInt();
+            stats.statuses.computeIfAbsent(status, s -> new LongAdder()).add(in.readLong());
+        }
+        stats.failures.add(in.readLong());
+        stats.invalid.add(in.readLong());
+        if (in.readBoolean()) {
+            stats.firstViolation.set(in.readUTF());
+        }
+        return stats;
+    }
+
+    private static void writeHistogram(DataOutput out, Histogram histogram) throws IOException {
+        byte[] bytes = histogram.encode();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Histogram readHistogram(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return Histogram.decode(bytes);
+    }
+
+    public void add(EndpointStats other) {
+        responseTime.add(other.responseTime);
+        serviceTime.add(other.serviceTime);
+        other.statuses.forEach((status, count) ->
+                statuses.computeIfAbsent(status, s -> new LongAdder()).add(count.sum()));
+        failures.add(other.failures.sum());
+        invalid.add(other.invalid.sum());
+        if (other.firstViolation() != null) {
+            firstViolation.compareAndSet(null, other.firstViolation());
+        }
+    }
+}
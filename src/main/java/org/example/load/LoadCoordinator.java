@@ -0,0 +1,208 @@
+package org.example.load;
+
+import org.example.auth.TokenBroker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one load test from several JVMs on this host, for rates a single generator process cannot keep on schedule.
+ * Workers are either started here ({@code spawn}) or started by hand and pointed at the coordinator's port
+ * ({@code attach}); they all connect over a loopback socket.
+ * <p>
+ * Each worker gets an equal share of the rate and an offset into the schedule, so the requests of all workers
+ * still arrive evenly spaced instead of in bursts of N. Once every worker is ready, all of them are told to start
+ * at once; when they are done, each sends back its full histograms, and the report is built from their sum, so the
+ * percentiles are the same as if one process had recorded every request.
+ */
+public class LoadCoordinator {
+
+    // Wire protocol, over DataInput/DataOutputStream: the worker says HELLO, gets an ASSIGN and answers READY;
+    // the coordinator sends GO to all workers and each answers with RESULT or FAILED
+    static final int MAGIC = 0x544c4f44;
+    static final int VERSION = 1;
+    static final byte ASSIGN = 1;
+    static final byte READY = 2;
+    static final byte GO = 3;
+    static final byte RESULT = 4;
+    static final byte FAILED = 5;
+
+    /** How long workers get to connect and to set up their scenario. */
+    static final long CONNECT_TIMEOUT_MILLIS = 60_000;
+
+    /** Time past the end of the schedule for a worker's last requests to finish (the generator waits a minute). */
+    static final long DRAIN_MILLIS = 90_000;
+
+    /** Time on top of that for the scenario to delete what the run left behind. */
+    static final long CLEAN_UP_MILLIS = 120_000;
+
+    /**
+     * {@code load} is the whole run, its rate the total over all workers. {@code admin} may be null if the
+     * scenario does not need it; {@code port} 0 picks a free one, which only works for spawned workers.
+     */
+    public record Config(LoadGenerator.Config load, String scenario, TokenBroker.Credentials admin, int spawn,
+                         int attach, int port) {
+
+        public Config {
+            if (spawn < 0 || attach < 0 || spawn + attach < 1) {
+                throw new IllegalArgumentException("Need at least one worker, got " + spawn + " to start and "
+                        + attach + " to attach");
+            }
+            if (attach > 0 && port == 0) {
+                throw new IllegalArgumentException("Workers started elsewhere need a fixed coordinator port");
+            }
+        }
+
+        public int workers() {
+            return spawn + attach;
+        }
+    }
+
+    private record Worker(Socket socket, DataInputStream in, DataOutputStream out, long pid) {
+    }
+
+    private final Config config;
+
+    public LoadCoordinator(Config config) {
+        this.config = config;
+    }
+
+    /** The command that starts a worker for a coordinator on {@code port}, with this JVM's class path. */
+    public static List<String> workerCommand(int port) {
+        return List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "org.example.Main", "load-worker", "--coordinator", "127.0.0.1:" + port);
+    }
+
+    public LoadResult run() throws IOException, InterruptedException {
+        List<Process> processes = new ArrayList<>();
+        List<Worker> workers = new ArrayList<>();
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (ServerSocket server = new ServerSocket(config.port(), config.workers(), loopback)) {
+            for (int i = 0; i < config.spawn(); i++) {
+                processes.add(new ProcessBuilder(workerCommand(server.getLocalPort())).inheritIO().start());
+            }
+            connect(server, processes, workers);
+
+            LoadGenerator.Config load = config.load();
+            double share = load.rate() / workers.size();
+            double intervalNanos = 1_000_000_000.0 / load.rate();
+            for (int k = 0; k < workers.size(); k++) {
+                assign(workers.get(k), share, (long) (k * intervalNanos));
+            }
+            for (Worker worker : workers) {
+                expect(worker, READY);
+            }
+            // Back to back, so the workers' schedules start within a few microseconds of each other
+            for (Worker worker : workers) {
+                worker.out().writeByte(GO);
+                worker.out().flush();
+            }
+
+            int resultTimeout = (int) Math.min(Integer.MAX_VALUE,
+                    load.warmup().toMillis() + load.duration().toMillis() + DRAIN_MILLIS + CLEAN_UP_MILLIS);
+            Map<String, EndpointStats> merged = new LinkedHashMap<>();
+            long scheduled = 0;
+            long elapsedNanos = 1;
+            for (Worker worker : workers) {
+                worker.socket().setSoTimeout(resultTimeout);
+                expect(worker, RESULT);
+                scheduled += worker.in().readLong();
+                elapsedNanos = Math.max(elapsedNanos, worker.in().readLong());
+                for (int i = worker.in().readInt(); i > 0; i--) {
+                    EndpointStats stats = EndpointStats.readFrom(worker.in());
+                    merged.computeIfAbsent(stats.name(), EndpointStats::new).add(stats);
+                }
+            }
+            return new LoadResult(load, scheduled, elapsedNanos, workers.size(), merged.values());
+        } finally {
+            for (Worker worker : workers) {
+                worker.socket().close();
+            }
+            for (Process process : processes) {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    // Accepts until every worker said HELLO, failing early if a worker started here exits before it connects
+    private void connect(ServerSocket server, List<Process> processes, List<Worker> workers) throws IOException {
+        server.setSoTimeout(1000);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS);
+        while (workers.size() < config.workers()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketTimeoutException e) {
+                for (Process process : processes) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException("Load worker " + process.pid() + " exited with "
+                                + process.exitValue() + " before it connected");
+                    }
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Only " + workers.size() + " of " + config.workers()
+                            + " load workers connected within " + CONNECT_TIMEOUT_MILLIS / 1000 + "s");
+                }
+                continue;
+            }
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout((int) CONNECT_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                socket.close();
+                throw new IllegalStateException("Unexpected connection from " + socket.getRemoteSocketAddress()
+                        + ": not a load worker of protocol version " + VERSION);
+            }
+            workers.add(new Worker(socket, in, out, in.readLong()));
+        }
+    }
+
+    private void assign(Worker worker, double rate, long offsetNanos) throws IOException {
+        LoadGenerator.Config load = config.load();
+        DataOutputStream out = worker.out();
+        out.writeByte(ASSIGN);
+        out.writeUTF(load.baseUrl().toString());
+        out.writeUTF(config.scenario());
+        out.writeUTF(config.admin() == null ? "" : config.admin().email());
+        out.writeUTF(config.admin() == null ? "" : config.admin().password());
+        out.writeDouble(rate);
+        out.writeLong(load.duration().toNanos());
+        out.writeLong(load.warmup().toNanos());
+        out.writeLong(offsetNanos);
+        out.flush();
+    }
+
+    private static void expect(Worker worker, byte message) throws IOException {
+        byte received;
+        try {
+            received = worker.in().readByte();
+        } catch (EOFException e) {
+            throw new IllegalStateException("Load worker " + worker.pid() + " disconnected", e);
+        }
+        if (received == FAILED) {
+            throw new IllegalStateException("Load worker " + worker.pid() + " failed: " + worker.in().readUTF());
+        }
+        if (received != message) {
+            throw new IllegalStateException("Load worker " + worker.pid() + " sent message " + received
+                    + " where " + message + " was expected");
+        }
+    }
+}
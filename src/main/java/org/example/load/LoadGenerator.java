@@ -0,0 +1,112 @@
+package org.example.load;
+
+import org.example.Threads;
+import org.example.client.ToolshopSchemas;
+import org.example.json.JsonSchema;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule ({@code rate} per second) regardless of
+ * how many earlier ones are still outstanding, each on its own thread. Latency is taken from the scheduled start,
+ * so a stalled server cannot hide its stall by slowing the generator down. Successful responses are checked against
+ * their {@link ToolshopSchemas} schema and counted as invalid when they do not match.
+ */
+public class LoadGenerator {
+
+    public record Config(URI baseUrl, double rate, Duration duration, Duration warmup) {
+    }
+
+    private final Config config;
+    private final Scenario scenario;
+    private final HttpClient client;
+
+    public LoadGenerator(Config config, Scenario scenario, HttpClient client) {
+        this.config = config;
+        this.scenario = scenario;
+        this.client = client;
+    }
+
+    public LoadResult run() throws InterruptedException {
+        return run(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    /**
+     * Runs with the first request scheduled at {@code start}, a {@link System#nanoTime} value; workers of one
+     * run use it to start together and to interleave their schedules.
+     */
+    public LoadResult run(long start) throws InterruptedException {
+        Map<Operation, EndpointStats> stats = new LinkedHashMap<>();
+        for (Operation operation : scenario.operations()) {
+            stats.put(operation, new EndpointStats(operation.name()));
+        }
+        ExecutorService executor = Threads.perTaskExecutor("load");
+        double intervalNanos = 1_000_000_000.0 / config.rate();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        long scheduled = 0;
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = scenario.next();
+            EndpointStats target = intended >= measureFrom ? stats.get(operation) : null;
+            executor.execute(() -> call(operation, intended, target));
+            if (target != null) {
+                scheduled++;
+            }
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = Math.max(System.nanoTime() - measureFrom, 1);
+        scenario.cleanUp();
+        return new LoadResult(config, scheduled, elapsedNanos, stats.values());
+    }
+
+    private void call(Operation operation, long intended, EndpointStats target) {
+        long sent = System.nanoTime();
+        try {
+            HttpRequest request = operation.request(config.baseUrl());
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long done = System.nanoTime();
+            operation.completed(response);
+            if (target != null) {
+                target.recordStatus(response.statusCode());
+                JsonSchema schema = ToolshopSchemas.forResponse(request.method(), request.uri().getRawPath(),
+                        response.statusCode());
+                List<String> violations = schema == null ? List.of() : schema.validate(response.body());
+                if (!violations.isEmpty()) {
+                    target.recordInvalid(violations.get(0));
+                }
+                target.responseTime().record((done - intended) / 1000);
+                target.serviceTime().record((done - sent) / 1000);
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (target != null) {
+                target.recordFailure();
+                target.responseTime().record((System.nanoTime() - intended) / 1000);
+            }
+        }
+    }
+}
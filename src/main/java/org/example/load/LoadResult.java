@@ -0,0 +1,130 @@
+package org.example.load;
+
+import org.example.json.Json;
+import org.example.stats.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a load run: a console summary and a JSON document meant for comparing runs between API releases. A run
+ * spread over several worker processes is reported as one, with the workers' histograms added together.
+ */
+public class LoadResult {
+
+    static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadGenerator.Config config;
+    private final long scheduled;
+    private final long elapsedNanos;
+    private final int workers;
+    private final List<EndpointStats> endpoints;
+
+    public LoadResult(LoadGenerator.Config config, long scheduled, long elapsedNanos,
+                      Collection<EndpointStats> endpoints) {
+        this(config, scheduled, elapsedNanos, 1, endpoints);
+    }
+
+    public LoadResult(LoadGenerator.Config config, long scheduled, long elapsedNanos, int workers,
+                      Collection<EndpointStats> endpoints) {
+        this.config = config;
+        this.scheduled = scheduled;
+        this.elapsedNanos = elapsedNanos;
+        this.workers = workers;
+        this.endpoints = new ArrayList<>(endpoints);
+    }
+
+    public long scheduled() {
+        return scheduled;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public List<EndpointStats> endpoints() {
+        return endpoints;
+    }
+
+    public long completed() {
+        long completed = 0;
+        for (EndpointStats endpoint : endpoints) {
+            completed += endpoint.responseTime().count();
+        }
+        return completed;
+    }
+
+    public double achievedRate() {
+        return completed() / (elapsedNanos / 1e9);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("target %.0f req/s, achieved %.1f req/s, %d scheduled, %d completed%s%n",
+                config.rate(), achievedRate(), scheduled, completed(),
+                workers > 1 ? ", from " + workers + " worker processes" : "");
+        out.printf("%-26s %9s %7s %7s %10s %10s %10s %10s %10s  %s%n", "endpoint", "count", "errors", "invalid",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        for (EndpointStats endpoint : endpoints) {
+            Histogram h = endpoint.responseTime();
+            out.printf("%-26s %9d %7d %7d %10.3f %10.3f %10.3f %10.3f %10.3f  %s%n", endpoint.name(), h.count(),
+                    endpoint.errors(), endpoint.invalid(), h.percentile(50) / 1000.0, h.percentile(90) / 1000.0,
+                    h.percentile(99) / 1000.0, h.percentile(99.9) / 1000.0, h.max() / 1000.0, endpoint.statuses());
+        }
+        for (EndpointStats endpoint : endpoints) {
+            if (endpoint.firstViolation() != null) {
+                out.println(endpoint.name() + " first returned an invalid body with: " + endpoint.firstViolation());
+            }
+        }
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("base_url", config.baseUrl().toString());
+        json.put("target_rate", config.rate());
+        json.put("duration_seconds", config.duration().toMillis() / 1000.0);
+        json.put("warmup_seconds", config.warmup().toMillis() / 1000.0);
+        json.put("workers", workers);
+        json.put("scheduled", scheduled);
+        json.put("completed", completed());
+        json.put("achieved_rate", achievedRate());
+        Map<String, Object> perEndpoint = new LinkedHashMap<>();
+        for (EndpointStats endpoint : endpoints) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", endpoint.responseTime().count());
+            entry.put("errors", endpoint.errors());
+            entry.put("invalid", endpoint.invalid());
+            entry.put("first_violation", endpoint.firstViolation());
+            Map<String, Object> statuses = new LinkedHashMap<>();
+            endpoint.statuses().forEach((status, count) -> statuses.put(String.valueOf(status), count));
+            entry.put("statuses", statuses);
+            entry.put("response_time_us", summary(endpoint.responseTime()));
+            entry.put("service_time_us", summary(endpoint.serviceTime()));
+            perEndpoint.put(endpoint.name(), entry);
+        }
+        json.put("endpoints", perEndpoint);
+        return json;
+    }
+
+    public void write(Path file) throws IOException {
+        Files.write(file, Json.stringify(toJson()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Map<String, Object> summary(Histogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            summary.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile)
+                    : String.valueOf(percentile)), histogram.percentile(percentile));
+        }
+        summary.put("max", histogram.max());
+        summary.put("mean", histogram.mean());
+        return summary;
+    }
+}
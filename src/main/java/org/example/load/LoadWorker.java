@@ -0,0 +1,92 @@
+package org.example.load;
+
+import org.example.auth.TokenBroker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One process of a {@link LoadCoordinator} run: takes its share of the rate from the coordinator, runs a
+ * {@link LoadGenerator} once the coordinator says go and sends the results back.
+ */
+public class LoadWorker {
+
+    // Between GO and the first request, so every worker has received GO before any of them sends
+    static final long LEAD_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final String host;
+    private final int port;
+
+    public LoadWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public void run() throws IOException, InterruptedException {
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(LoadCoordinator.MAGIC);
+            out.writeInt(LoadCoordinator.VERSION);
+            out.writeLong(ProcessHandle.current().pid());
+            out.flush();
+
+            expect(in, LoadCoordinator.ASSIGN);
+            URI base = URI.create(in.readUTF());
+            String scenarioName = in.readUTF();
+            String email = in.readUTF();
+            String password = in.readUTF();
+            double rate = in.readDouble();
+            Duration duration = Duration.ofNanos(in.readLong());
+            Duration warmup = Duration.ofNanos(in.readLong());
+            long offsetNanos = in.readLong();
+
+            LoadResult result;
+            try {
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                Scenario scenario = Scenario.named(scenarioName, base, client,
+                        email.isEmpty() ? null : new TokenBroker.Credentials(email, password));
+                LoadGenerator generator = new LoadGenerator(new LoadGenerator.Config(base, rate, duration, warmup),
+                        scenario, client);
+                out.writeByte(LoadCoordinator.READY);
+                out.flush();
+                expect(in, LoadCoordinator.GO);
+                result = generator.run(System.nanoTime() + LEAD_NANOS + offsetNanos);
+            } catch (RuntimeException e) {
+                out.writeByte(LoadCoordinator.FAILED);
+                out.writeUTF(String.valueOf(e));
+                out.flush();
+                throw e;
+            }
+
+            out.writeByte(LoadCoordinator.RESULT);
+            out.writeLong(result.scheduled());
+            out.writeLong(result.elapsedNanos());
+            out.writeInt(result.endpoints().size());
+            for (EndpointStats endpoint : result.endpoints()) {
+                endpoint.writeTo(out);
+            }
+            out.flush();
+        }
+    }
+
+    private static void expect(DataInputStream in, byte message) throws IOException {
+        byte received = in.readByte();
+        if (received != message) {
+            throw new IllegalStateException("Coordinator sent message " + received + " where " + message
+                    + " was expected");
+        }
+    }
+}
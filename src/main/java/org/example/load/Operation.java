@@ -0,0 +1,28 @@
+package org.example.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * One kind of call in a load scenario, e.g. {@code GET /products?by_brand}. The name is the key results are
+ * reported under.
+ */
+public abstract class Operation {
+
+    private final String name;
+
+    protected Operation(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public abstract HttpRequest request(URI base);
+
+    /** Called with every response, e.g. to remember ids created by a POST. */
+    public void completed(HttpResponse<byte[]> response) {
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.load;
+
+import org.example.json.Json;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * The calls ProductsTest makes, as load operations. PUT and DELETE work on products the scenario created itself
+ * so a run never touches the seeded catalog.
+ */
+public final class ProductScenarios {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    // Encoded once; ofString would encode the body again for every request
+    private static final byte[] PRODUCT_BODY = ("{\n" +
+            "  \"name\": \"New Product\",\n" +
+            "  \"description\": \"Product description\",\n" +
+            "  \"price\": 19.99,\n" +
+            "  \"category_id\": 1,\n" +
+            "  \"brand_id\": 1,\n" +
+            "  \"product_image_id\": 1\n" +
+            "}").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] UPDATE_BODY = ("{\n" +
+            "  \"name\": \"Updated Product\",\n" +
+            "  \"description\": \"Updated description\",\n" +
+            "  \"price\": 29.99,\n" +
+            "  \"category_id\": 2,\n" +
+            "  \"brand_id\": 2,\n" +
+            "  \"product_image_id\": 2\n" +
+            "}").getBytes(StandardCharsets.UTF_8);
+
+    private ProductScenarios() {
+    }
+
+    /** Read-heavy CRUD mix: 60% filtered listings, 15% create, 10% update, 15% delete. */
+    public static Scenario crud() {
+        ConcurrentLinkedDeque<String> created = new ConcurrentLinkedDeque<>();
+        List<Operation> operations = List.of(
+                get("GET /products?by_brand", "/products?by_brand=1"),
+                get("GET /products?by_category", "/products?by_category=1"),
+                get("GET /products?is_rental", "/products?is_rental=true"),
+                new Operation("POST /products") {
+                    @Override
+                    public HttpRequest request(URI base) {
+                        return json(at(base, "/products"))
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(PRODUCT_BODY)).build();
+                    }
+
+                    @Override
+                    public void completed(HttpResponse<byte[]> response) {
+                        if (response.statusCode() == 201) {
+                            Object id = ((Map<?, ?>) Json.parse(response.body())).get("id");
+                            created.addLast(String.valueOf(id));
+                        }
+                    }
+                },
+                new Operation("PUT /products/{id}") {
+                    @Override
+                    public HttpRequest request(URI base) {
+                        String id = created.peekLast();
+                        return json(at(base, "/products/" + (id == null ? "1111" : id)))
+                                .PUT(HttpRequest.BodyPublishers.ofByteArray(UPDATE_BODY)).build();
+                    }
+                },
+                new Operation("DELETE /products/{id}") {
+                    @Override
+                    public HttpRequest request(URI base) {
+                        String id = created.pollFirst();
+                        return HttpRequest.newBuilder(at(base, "/products/" + (id == null ? "999" : id)))
+                                .timeout(TIMEOUT).DELETE().build();
+                    }
+                });
+        return new Scenario(operations, new int[]{20, 20, 20, 15, 10, 15});
+    }
+
+    static Operation get(String name, String pathAndQuery) {
+        return new Operation(name) {
+            @Override
+            public HttpRequest request(URI base) {
+                return HttpRequest.newBuilder(at(base, pathAndQuery)).timeout(TIMEOUT).GET().build();
+            }
+        };
+    }
+
+    // The path below the base URL; URI.resolve would replace whatever path the base has, such as an /api prefix
+    static URI at(URI base, String pathAndQuery) {
+        String root = base.toString();
+        return URI.create((root.endsWith("/") ? root.substring(0, root.length() - 1) : root) + pathAndQuery);
+    }
+
+    static HttpRequest.Builder json(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(TIMEOUT).header("Content-Type", "application/json");
+    }
+}
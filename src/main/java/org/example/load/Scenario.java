@@ -0,0 +1,71 @@
+package org.example.load;
+
+import org.example.auth.TokenBroker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of operations. Each scheduled request draws one operation according to the weights. A scenario
+ * that leaves data behind can clean it up once its run is over.
+ */
+public class Scenario {
+
+    private final List<Operation> operations;
+    private final int[] cumulativeWeights;
+    private final Runnable cleanUp;
+
+    public Scenario(List<Operation> operations, int[] weights) {
+        this(operations, weights, () -> {
+        });
+    }
+
+    /** A mix whose {@code cleanUp} runs after the last request of a run has been answered. */
+    public Scenario(List<Operation> operations, int[] weights, Runnable cleanUp) {
+        if (operations.size() != weights.length || operations.isEmpty()) {
+            throw new IllegalArgumentException("Every operation needs exactly one weight");
+        }
+        this.operations = List.copyOf(operations);
+        this.cumulativeWeights = new int[weights.length];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        this.cleanUp = cleanUp;
+    }
+
+    /**
+     * The mix called {@code name}: {@code products} for {@link ProductScenarios#crud()} or {@code categories} for
+     * {@link CategoryScenarios#crud}, which needs {@code admin} to delete what it creates.
+     */
+    public static Scenario named(String name, URI baseUrl, HttpClient client, TokenBroker.Credentials admin) {
+        return switch (name) {
+            case "products" -> ProductScenarios.crud();
+            case "categories" -> CategoryScenarios.crud(baseUrl, client, admin);
+            default -> throw new IllegalArgumentException("Unknown scenario '" + name
+                    + "', expected products or categories");
+        };
+    }
+
+    public List<Operation> operations() {
+        return operations;
+    }
+
+    /** Removes what the run left behind; not measured. */
+    public void cleanUp() {
+        cleanUp.run();
+    }
+
+    public Operation next() {
+        int draw = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+}
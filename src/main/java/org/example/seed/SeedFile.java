@@ -0,0 +1,232 @@
+package org.example.seed;
+
+import org.example.fuzz.PayloadSchema;
+import org.example.json.Json;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows of a seed file, read one at a time so the file can be far bigger than the heap. Two formats, told apart by
+ * the extension:
+ * <ul>
+ *   <li>{@code .csv}: a header row naming the columns, then one row per record. Quoted cells may hold commas,
+ *   doubled quotes and line breaks; empty cells are left out of the payload.</li>
+ *   <li>{@code .ndjson} or {@code .jsonl}: one JSON object per line.</li>
+ * </ul>
+ * Every record has a {@code type}, {@code category} or {@code product}, and may have a {@code key} that later rows
+ * refer to (its line number otherwise). A category's {@code parent_key} and a product's {@code category_key} name
+ * an earlier category row, whose id is sent as {@code parent_id} or {@code category_id}. All other fields are sent
+ * as they are; CSV cells of number and boolean product fields are converted first.
+ */
+public final class SeedFile implements Closeable {
+
+    public enum Kind {
+        CATEGORY("/categories", "parent_key", "parent_id"),
+        PRODUCT("/products", "category_key", "category_id");
+
+        private final String path;
+        private final String referenceField;
+        private final String idField;
+
+        Kind(String path, String referenceField, String idField) {
+            this.path = path;
+            this.referenceField = referenceField;
+            this.idField = idField;
+        }
+
+        /** Path of the endpoint that creates one, relative to the API base URL. */
+        public String path() {
+            return path;
+        }
+
+        /** Field that takes the id of the category named by the row's reference. */
+        public String idField() {
+            return idField;
+        }
+    }
+
+    /** One record; {@code reference} is the key of the category it hangs under, or null. */
+    public record Row(long line, Kind kind, String key, String reference, Map<String, Object> fields) {
+    }
+
+    private final Path path;
+    private final BufferedReader reader;
+    private final boolean csv;
+    private List<String> header;
+    private long line;
+
+    private SeedFile(Path path, BufferedReader reader, boolean csv) {
+        this.path = path;
+        this.reader = reader;
+        this.csv = csv;
+    }
+
+    public static SeedFile open(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase();
+        boolean csv = name.endsWith(".csv");
+        if (!csv && !name.endsWith(".ndjson") && !name.endsWith(".jsonl")) {
+            throw new IllegalArgumentException("Expected a .csv, .ndjson or .jsonl seed file, got " + path);
+        }
+        return new SeedFile(path, Files.newBufferedReader(path, StandardCharsets.UTF_8), csv);
+    }
+
+    /** The next record, or null at the end of the file. */
+    public Row next() throws IOException {
+        if (csv) {
+            if (header == null) {
+                header = readCsvRecord();
+                if (header == null) {
+                    return null;
+                }
+            }
+            long start = line + 1;
+            List<String> cells = readCsvRecord();
+            while (cells != null && cells.size() == 1 && cells.get(0).isEmpty()) {
+                start = line + 1;
+                cells = readCsvRecord();
+            }
+            if (cells == null) {
+                return null;
+            }
+            if (cells.size() != header.size()) {
+                throw invalid(start, "expected " + header.size() + " cells, got " + cells.size());
+            }
+            Map<String, Object> fields = new LinkedHashMap<>();
+            for (int i = 0; i < cells.size(); i++) {
+                if (!cells.get(i).isEmpty()) {
+                    fields.put(header.get(i), cells.get(i));
+                }
+            }
+            return row(start, fields, true);
+        }
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+        if (text == null) {
+            return null;
+        }
+        Object parsed;
+        try {
+            parsed = Json.parse(text);
+        } catch (IllegalArgumentException e) {
+            throw invalid(line, e.getMessage());
+        }
+        if (!(parsed instanceof Map<?, ?> object)) {
+            throw invalid(line, "expected a JSON object");
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        object.forEach((name, value) -> fields.put(name.toString(), value));
+        return row(line, fields, false);
+    }
+
+    private Row row(long at, Map<String, Object> fields, boolean fromCsv) {
+        Object type = fields.remove("type");
+        Kind kind;
+        if ("category".equals(type)) {
+            kind = Kind.CATEGORY;
+        } else if ("product".equals(type)) {
+            kind = Kind.PRODUCT;
+        } else {
+            throw invalid(at, "expected type category or product, got " + type);
+        }
+        Object key = fields.remove("key");
+        Object reference = fields.remove(kind.referenceField);
+        String keyText = key == null ? "line " + at : key.toString();
+        if (keyText.indexOf('\t') >= 0 || keyText.indexOf('\n') >= 0 || keyText.indexOf('\r') >= 0) {
+            throw invalid(at, "key must not contain tabs or line breaks");
+        }
+        if (fromCsv && kind == Kind.PRODUCT) {
+            convert(fields);
+        }
+        return new Row(at, kind, keyText, reference == null ? null : reference.toString(), fields);
+    }
+
+    // Numbers stay text when they don't parse, so the API gets to reject them
+    private static void convert(Map<String, Object> fields) {
+        for (PayloadSchema.Field field : PayloadSchema.PRODUCT.fields()) {
+            Object value = fields.get(field.name());
+            if (!(value instanceof String text)) {
+                continue;
+            }
+            if (field.type() == PayloadSchema.Type.NUMBER) {
+                try {
+                    double number = Double.parseDouble(text);
+                    fields.put(field.name(), number == Math.rint(number) && Math.abs(number) < 1e15
+                            ? (Object) (long) number : (Object) number);
+                } catch (NumberFormatException e) {
+                    // Sent as is
+                }
+            } else if (field.type() == PayloadSchema.Type.BOOLEAN) {
+                if (text.equals("true") || text.equals("1")) {
+                    fields.put(field.name(), true);
+                } else if (text.equals("false") || text.equals("0")) {
+                    fields.put(field.name(), false);
+                }
+            }
+        }
+    }
+
+    // RFC 4180; null at the end of the file
+    private List<String> readCsvRecord() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        line++;
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw invalid(line, "unterminated quoted cell");
+                }
+                if (c == '"') {
+                    c = reader.read();
+                    if (c == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    cell.append((char) c);
+                }
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n' || c < 0) {
+                cells.add(cell.toString());
+                return cells;
+            } else if (c == '"' && cell.length() == 0) {
+                quoted = true;
+            } else if (c != '\r') {
+                cell.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private IllegalArgumentException invalid(long at, String message) {
+        return new IllegalArgumentException(path + ":" + at + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
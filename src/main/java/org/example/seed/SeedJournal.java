@@ -0,0 +1,94 @@
+package org.example.seed;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which rows of a seed file exist on the server already: one {@code key<TAB>id} line per created record, written
+ * as soon as the API has answered. A resumed run skips those rows and refers to their ids. A line cut short by a
+ * crash is ignored, so the worst a crash costs is creating that one record twice.
+ */
+public final class SeedJournal implements Closeable {
+
+    private final Map<String, String> ids = new HashMap<>();
+    private final BufferedWriter writer;
+
+    private SeedJournal(BufferedWriter writer) {
+        this.writer = writer;
+    }
+
+    /** Continues the journal in {@code file} if {@code resume} is set, else starts it over. */
+    public static SeedJournal open(Path file, boolean resume) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Map<String, String> done = new HashMap<>();
+        boolean complete = !resume || !Files.exists(file) || endsWithNewline(file);
+        if (resume && Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String next = reader.readLine();
+                while (next != null) {
+                    String line = next;
+                    next = reader.readLine();
+                    int tab = line.indexOf('\t');
+                    if (tab > 0 && tab < line.length() - 1 && (next != null || complete)) {
+                        done.put(line.substring(0, tab), line.substring(tab + 1));
+                    }
+                }
+            }
+        }
+        BufferedWriter writer = resume
+                ? Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND)
+                : Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        if (!complete) {
+            // Ends the cut-short line, so the next entry starts on a line of its own
+            writer.write('\n');
+        }
+        SeedJournal journal = new SeedJournal(writer);
+        journal.ids.putAll(done);
+        return journal;
+    }
+
+    /** The id the row with this key was created with, or null if it wasn't. */
+    public synchronized String id(String key) {
+        return ids.get(key);
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    public synchronized void record(String key, String id) throws IOException {
+        ids.put(key, id);
+        writer.write(key);
+        writer.write('\t');
+        writer.write(id);
+        writer.write('\n');
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (raf.length() == 0) {
+                return true;
+            }
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.seed;
+
+import org.example.json.Json;
+import org.example.limit.AdaptiveLimiter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome of a seeding run: what was created, skipped as already there and failed, per kind, how hard the API
+ * pushed back, and the first failures with the rows they came from.
+ */
+public class SeedResult {
+
+    static final int MAX_FAILURES = 50;
+
+    /** Counters filled in while the run goes on. */
+    static final class Tally {
+
+        private final LongAdder[] created = adders();
+        private final LongAdder[] resumed = adders();
+        private final LongAdder[] failed = adders();
+        private final LongAdder retried = new LongAdder();
+        private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger failuresKept = new AtomicInteger();
+
+        void created(SeedFile.Kind kind) {
+            created[kind.ordinal()].increment();
+        }
+
+        void resumed(SeedFile.Kind kind) {
+            resumed[kind.ordinal()].increment();
+        }
+
+        void retried() {
+            retried.increment();
+        }
+
+        void failed(SeedFile.Row row, String message) {
+            failed[row.kind().ordinal()].increment();
+            if (failuresKept.getAndIncrement() < MAX_FAILURES) {
+                failures.add("line " + row.line() + " (" + row.key() + "): " + message);
+            }
+        }
+
+        private static LongAdder[] adders() {
+            LongAdder[] adders = new LongAdder[SeedFile.Kind.values().length];
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+
+    private final Seeder.Config config;
+    private final long elapsedNanos;
+    private final Tally tally;
+    private final double finalLimit;
+    private final double peakLimit;
+    private final long throttled;
+    private final long cuts;
+
+    SeedResult(Seeder.Config config, long elapsedNanos, Tally tally, AdaptiveLimiter limiter) {
+        this.config = config;
+        this.elapsedNanos = elapsedNanos;
+        this.tally = tally;
+        this.finalLimit = limiter.limit();
+        this.peakLimit = limiter.peakLimit();
+        this.throttled = limiter.throttled();
+        this.cuts = limiter.cuts();
+    }
+
+    public long created(SeedFile.Kind kind) {
+        return tally.created[kind.ordinal()].sum();
+    }
+
+    public long resumed(SeedFile.Kind kind) {
+        return tally.resumed[kind.ordinal()].sum();
+    }
+
+    public long failed(SeedFile.Kind kind) {
+        return tally.failed[kind.ordinal()].sum();
+    }
+
+    public long created() {
+        return sum(tally.created);
+    }
+
+    public long failed() {
+        return sum(tally.failed);
+    }
+
+    public boolean passed() {
+        return failed() == 0;
+    }
+
+    /** Records created per second. */
+    public double rate() {
+        return created() / Math.max(elapsedNanos / 1e9, 1e-9);
+    }
+
+    public List<String> failures() {
+        return new ArrayList<>(tally.failures);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%d records created in %.1fs (%.0f/s), %d failed%n", created(), elapsedNanos / 1e9, rate(),
+                failed());
+        out.printf("%-10s %10s %10s %10s%n", "kind", "created", "resumed", "failed");
+        for (SeedFile.Kind kind : SeedFile.Kind.values()) {
+            out.printf("%-10s %10d %10d %10d%n", kind.name().toLowerCase(), created(kind), resumed(kind),
+                    failed(kind));
+        }
+        out.printf("concurrency limit %.1f at the end, %.1f at most (of %d); %d cuts, %d throttled, %d retries%n",
+                finalLimit, peakLimit, config.maxConcurrency(), cuts, throttled, tally.retried.sum());
+        List<String> failures = failures();
+        if (!failures.isEmpty()) {
+            out.println();
+            out.println("First failures:");
+            for (String failure : failures) {
+                out.println("  " + failure);
+            }
+        }
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("base_url", config.baseUrl().toString());
+        json.put("file", config.file().toString());
+        json.put("journal", config.journal().toString());
+        json.put("elapsed_seconds", elapsedNanos / 1e9);
+        json.put("created_per_second", rate());
+        for (SeedFile.Kind kind : SeedFile.Kind.values()) {
+            Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("created", created(kind));
+            counts.put("resumed", resumed(kind));
+            counts.put("failed", failed(kind));
+            json.put(kind.name().toLowerCase(), counts);
+        }
+        Map<String, Object> limit = new LinkedHashMap<>();
+        limit.put("max", config.maxConcurrency());
+        limit.put("peak", peakLimit);
+        limit.put("final", finalLimit);
+        limit.put("cuts", cuts);
+        limit.put("throttled", throttled);
+        limit.put("retries", tally.retried.sum());
+        json.put("concurrency", limit);
+        json.put("failures", failures());
+        return json;
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, Json.stringify(toJson()), StandardCharsets.UTF_8);
+    }
+
+    private static long sum(LongAdder[] adders) {
+        long sum = 0;
+        for (LongAdder adder : adders) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.seed;
+
+import org.example.Threads;
+import org.example.json.Json;
+import org.example.limit.AdaptiveLimiter;
+import org.example.limit.RetryAfter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the records of a {@link SeedFile} through the API, as many at once as an {@link AdaptiveLimiter} lets
+ * through: it grows while the API keeps up, backs off when answers slow down or come back 429 or 503, and waits
+ * out any {@code Retry-After}. A row that hangs under a category is sent once that category exists, with its id;
+ * unrelated rows don't wait for each other. Throttled and unanswered calls are retried, other errors fail the row
+ * and every row under it.
+ * <p>
+ * Reading runs at most a few rows per permitted call ahead of the answers, so the file is streamed rather than
+ * loaded. Created rows go to a {@link SeedJournal}; a resumed run skips them.
+ */
+public class Seeder {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+    static final int MAX_ATTEMPTS = 8;
+    // Wait after a 429 or 503 that came without a Retry-After
+    static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+    static final int READ_AHEAD_PER_CALL = 4;
+
+    public record Config(URI baseUrl, Path file, Path journal, boolean resume, int maxConcurrency, String token) {
+    }
+
+    private final Config config;
+    private final HttpClient client;
+
+    public Seeder(Config config, HttpClient client) {
+        this.config = config;
+        this.client = client;
+    }
+
+    public SeedResult run() throws IOException, InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(AdaptiveLimiter.Config.upTo(config.maxConcurrency()));
+        int readAhead = config.maxConcurrency() * READ_AHEAD_PER_CALL;
+        Semaphore pending = new Semaphore(readAhead);
+        Map<String, CompletableFuture<String>> ids = new ConcurrentHashMap<>();
+        SeedResult.Tally tally = new SeedResult.Tally();
+        ExecutorService executor = Threads.perTaskExecutor("seed");
+        long start = System.nanoTime();
+        try (SeedFile file = SeedFile.open(config.file());
+             SeedJournal journal = SeedJournal.open(config.journal(), config.resume())) {
+            for (SeedFile.Row row = file.next(); row != null; row = file.next()) {
+                String done = journal.id(row.key());
+                if (done != null) {
+                    ids.putIfAbsent(row.key(), CompletableFuture.completedFuture(done));
+                    tally.resumed(row.kind());
+                    continue;
+                }
+                CompletableFuture<String> created = new CompletableFuture<>();
+                if (ids.putIfAbsent(row.key(), created) != null) {
+                    tally.failed(row, "key " + row.key() + " is used by an earlier row");
+                    continue;
+                }
+                CompletableFuture<String> parent = row.reference() == null
+                        ? CompletableFuture.completedFuture(null)
+                        : ids.get(row.reference());
+                if (parent == null) {
+                    fail(row, created, tally, "category " + row.reference() + " is not defined above this row");
+                    continue;
+                }
+                pending.acquire();
+                SeedFile.Row current = row;
+                parent.whenComplete((parentId, failure) -> executor.execute(() -> {
+                    try {
+                        if (failure != null) {
+                            fail(current, created, tally, "category " + current.reference() + " was not created");
+                        } else {
+                            create(current, parentId, created, limiter, journal, tally);
+                        }
+                    } catch (RuntimeException e) {
+                        // Rows under this one wait for it, so it has to end one way or the other
+                        fail(current, created, tally, e.toString());
+                    } finally {
+                        pending.release();
+                    }
+                }));
+            }
+            // Every row has been sent off once all the slots are back
+            pending.acquire(readAhead);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return new SeedResult(config, System.nanoTime() - start, tally, limiter);
+    }
+
+    private void create(SeedFile.Row row, String parentId, CompletableFuture<String> created,
+                        AdaptiveLimiter limiter, SeedJournal journal, SeedResult.Tally tally) {
+        Map<String, Object> fields = new LinkedHashMap<>(row.fields());
+        if (parentId != null) {
+            fields.put(row.kind().idField(), parentId);
+        }
+        String base = config.baseUrl().toString();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(
+                        (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + row.kind().path()))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(Json.stringify(fields)));
+        if (config.token() != null) {
+            builder.header("Authorization", "Bearer " + config.token());
+        }
+        HttpRequest request = builder.build();
+        String problem = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (attempt > 1) {
+                tally.retried();
+            }
+            AdaptiveLimiter.Permit permit;
+            try {
+                permit = limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(row, created, tally, "interrupted");
+                return;
+            }
+            HttpResponse<byte[]> response;
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException e) {
+                permit.dropped();
+                problem = e.getClass().getSimpleName() + ": " + e.getMessage();
+                continue;
+            } catch (InterruptedException e) {
+                permit.ignore();
+                Thread.currentThread().interrupt();
+                fail(row, created, tally, "interrupted");
+                return;
+            } catch (RuntimeException e) {
+                permit.ignore();
+                throw e;
+            }
+            int status = response.statusCode();
+            String body = new String(response.body(), StandardCharsets.UTF_8);
+            if (status == 429 || status == 503) {
+                permit.throttled(RetryAfter.parse(response.headers().firstValue("Retry-After").orElse(null),
+                        DEFAULT_RETRY_AFTER));
+                problem = "POST " + request.uri() + " returned " + status;
+                continue;
+            }
+            if (status >= 500) {
+                permit.dropped();
+                problem = "POST " + request.uri() + " returned " + status + ": " + body;
+                continue;
+            }
+            permit.success();
+            Object id = status == 200 || status == 201 ? Json.parseObjectOrEmpty(response.body()).get("id") : null;
+            if (id == null) {
+                fail(row, created, tally, "POST " + request.uri() + " returned " + status + ": " + body);
+                return;
+            }
+            try {
+                journal.record(row.key(), id.toString());
+                tally.created(row.kind());
+            } catch (IOException e) {
+                // Exists all the same, so rows under it go ahead; only a resume would post it again
+                tally.failed(row, "created as " + id + " but not journaled: " + e.getMessage());
+            }
+            created.complete(id.toString());
+            return;
+        }
+        fail(row, created, tally, "gave up after " + MAX_ATTEMPTS + " attempts, last: " + problem);
+    }
+
+    private static void fail(SeedFile.Row row, CompletableFuture<String> created, SeedResult.Tally tally,
+                             String message) {
+        tally.failed(row, message);
+        created.completeExceptionally(new IllegalStateException(message));
+    }
+}
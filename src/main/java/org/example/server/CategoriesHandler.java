@@ -0,0 +1,120 @@
+package org.example.server;
+
+import org.example.auth.JwtAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /categories, /categories/tree and /categories/{id}. Deleting needs an admin token.
+ */
+class CategoriesHandler extends ApiHandler {
+
+    private final CategoryStore store;
+    private final UserStore users;
+
+    CategoriesHandler(CategoryStore store, UserStore users) {
+        this.store = store;
+        this.users = users;
+    }
+
+    @Override
+    Reply handle(Request request) {
+        List<String> segments = request.segments();
+        if (segments.size() == 1) {
+            return switch (request.method()) {
+                case "GET" -> list();
+                case "POST" -> create(request);
+                default -> Reply.methodNotAllowed();
+            };
+        }
+        if (segments.size() == 2 && "tree".equals(segments.get(1))) {
+            return "GET".equals(request.method())
+                    ? Reply.json(200, store.tree(request.query("by_category_slug")))
+                    : Reply.methodNotAllowed();
+        }
+        if (segments.size() == 2) {
+            String id = segments.get(1);
+            return switch (request.method()) {
+                case "GET" -> {
+                    CategoryStore.Category category = store.get(id);
+                    yield category == null ? Reply.notFound() : Reply.json(200, CategoryStore.toJson(category));
+                }
+                case "PUT" -> update(id, request);
+                case "DELETE" -> delete(id, request);
+                default -> Reply.methodNotAllowed();
+            };
+        }
+        return Reply.notFound();
+    }
+
+    private Reply list() {
+        List<Object> rows = new ArrayList<>();
+        for (CategoryStore.Category category : store.all()) {
+            rows.add(CategoryStore.toJson(category));
+        }
+        return Reply.json(200, rows);
+    }
+
+    private Reply create(Request request) {
+        Map<String, Object> fields = request.fields();
+        Validation validation = validate(fields);
+        if (validation.failed()) {
+            return validation.reply();
+        }
+        Object parent = fields.get("parent_id");
+        String parentId = Validation.isBlank(parent) ? null : parent.toString();
+        CategoryStore.Created created = store.create((String) fields.get("name"), (String) fields.get("slug"),
+                parentId);
+        return switch (created.outcome()) {
+            case OK -> Reply.json(201, CategoryStore.toJson(created.category()));
+            case DUPLICATE_SLUG -> Reply.invalid("slug", "A category already exists with this slug.");
+            case UNKNOWN_PARENT -> Reply.invalid("parent_id", "The selected parent id is invalid.");
+            default -> throw new IllegalStateException("Unexpected outcome of create: " + created.outcome());
+        };
+    }
+
+    // Like the real API, PUT only validates the fields it is given and answers success=false when nothing changed
+    private Reply update(String id, Request request) {
+        Map<String, Object> fields = request.fields();
+        Validation validation = new Validation(fields)
+                .optionalString("name", 120)
+                .optionalString("slug", 120);
+        if (validation.failed()) {
+            return validation.reply();
+        }
+        CategoryStore.Category current = store.get(id);
+        if (current == null || (Validation.isBlank(fields.get("name")) && Validation.isBlank(fields.get("slug")))) {
+            return Reply.success(false);
+        }
+        String name = Validation.isBlank(fields.get("name")) ? current.name() : (String) fields.get("name");
+        String slug = Validation.isBlank(fields.get("slug")) ? current.slug() : (String) fields.get("slug");
+        CategoryStore.Outcome outcome = store.update(id, name, slug);
+        if (outcome == CategoryStore.Outcome.DUPLICATE_SLUG) {
+            return Reply.invalid("slug", "A category already exists with this slug.");
+        }
+        return Reply.success(outcome == CategoryStore.Outcome.OK);
+    }
+
+    private Reply delete(String id, Request request) {
+        JwtAuthority.Claims caller = users.authenticate(request.bearerToken());
+        if (caller == null) {
+            return Reply.unauthorized();
+        }
+        if (!caller.isAdmin()) {
+            return Reply.forbidden();
+        }
+        return switch (store.delete(id)) {
+            case OK -> Reply.noContent();
+            case HAS_CHILDREN -> Reply.message(409, "Seems like this category is used elsewhere.");
+            default -> Reply.invalid("id", "The selected id is invalid.");
+        };
+    }
+
+    private static Validation validate(Map<String, Object> fields) {
+        return new Validation(fields)
+                .requiredString("name", 120)
+                .requiredString("slug", 120);
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.server;
+
+import org.example.catalog.CategoryTree;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory /categories table. Writes are serialized so slug uniqueness and parent checks stay atomic;
+ * reads go straight to the concurrent maps. The hierarchy is kept in a {@link CategoryTree} updated with every
+ * write, so /categories/tree and the children check on delete don't scan the table.
+ */
+public class CategoryStore {
+
+    public record Category(String id, String parentId, String name, String slug) {
+    }
+
+    public enum Outcome { OK, NOT_FOUND, DUPLICATE_SLUG, UNKNOWN_PARENT, HAS_CHILDREN }
+
+    /** What {@link #create} did: the new category when {@code outcome} is {@code OK}, otherwise null. */
+    public record Created(Outcome outcome, Category category) {
+    }
+
+    private final ConcurrentNavigableMap<String, Category> categories = new ConcurrentSkipListMap<>();
+    private final Map<String, String> idsBySlug = new ConcurrentHashMap<>();
+    private final CategoryTree hierarchy = new CategoryTree();
+
+    public CategoryStore() {
+        seed("Hand Tools", "hammer", "hand-saw", "wrench", "screwdriver", "pliers", "chisels", "measures");
+        seed("Power Tools", "grinder", "sander", "saw", "drill");
+        seed("Other", "tool-belts", "storage-solutions", "workbench", "safety-gear", "fasteners");
+    }
+
+    public Category get(String id) {
+        return categories.get(id);
+    }
+
+    public Category bySlug(String slug) {
+        String id = idsBySlug.get(slug);
+        return id == null ? null : categories.get(id);
+    }
+
+    public List<Category> all() {
+        return new ArrayList<>(categories.values());
+    }
+
+    public synchronized Created create(String name, String slug, String parentId) {
+        if (idsBySlug.containsKey(slug)) {
+            return new Created(Outcome.DUPLICATE_SLUG, null);
+        }
+        if (parentId != null && !categories.containsKey(parentId)) {
+            return new Created(Outcome.UNKNOWN_PARENT, null);
+        }
+        Category category = new Category(Ids.next(), parentId, name, slug);
+        categories.put(category.id(), category);
+        idsBySlug.put(slug, category.id());
+        hierarchy.add(category.id(), parentId, name, slug);
+        return new Created(Outcome.OK, category);
+    }
+
+    public synchronized Outcome update(String id, String name, String slug) {
+        Category old = categories.get(id);
+        if (old == null) {
+            return Outcome.NOT_FOUND;
+        }
+        String owner = idsBySlug.get(slug);
+        if (owner != null && !owner.equals(id)) {
+            return Outcome.DUPLICATE_SLUG;
+        }
+        idsBySlug.remove(old.slug());
+        idsBySlug.put(slug, id);
+        categories.put(id, new Category(id, old.parentId(), name, slug));
+        hierarchy.rename(id, name, slug);
+        return Outcome.OK;
+    }
+
+    public synchronized Outcome delete(String id) {
+        Category old = categories.get(id);
+        if (old == null) {
+            return Outcome.NOT_FOUND;
+        }
+        if (hierarchy.hasChildren(id)) {
+            return Outcome.HAS_CHILDREN;
+        }
+        categories.remove(id);
+        idsBySlug.remove(old.slug());
+        hierarchy.remove(id);
+        return Outcome.OK;
+    }
+
+    /** Nested view used by /categories/tree, optionally rooted at the category with the given slug. */
+    public List<Map<String, Object>> tree(String rootSlug) {
+        return hierarchy.toJson(rootSlug);
+    }
+
+    public static Map<String, Object> toJson(Category category) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", category.id());
+        json.put("parent_id", category.parentId());
+        json.put("name", category.name());
+        json.put("slug", category.slug());
+        return json;
+    }
+
+    private void seed(String name, String... childSlugs) {
+        Category parent = create(name, name.toLowerCase().replace(' ', '-'), null).category();
+        for (String childSlug : childSlugs) {
+            String childName = Character.toUpperCase(childSlug.charAt(0)) + childSlug.substring(1).replace('-', ' ');
+            create(childName, childSlug, parent.id());
+        }
+    }
+}
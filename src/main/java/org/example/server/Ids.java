@@ -0,0 +1,57 @@
+package org.example.server;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates 26 character, lexicographically increasing ids shaped like the ULIDs the real API hands out.
+ */
+public final class Ids {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private Ids() {
+    }
+
+    public static String next() {
+        char[] id = new char[26];
+        encode(System.currentTimeMillis(), id, 0, 10);
+        encode(SEQUENCE.incrementAndGet(), id, 10, 16);
+        return new String(id);
+    }
+
+    /** Stable id for seed data, e.g. {@code seeded(7)} is always the same string. */
+    public static String seeded(long number) {
+        char[] id = new char[26];
+        id[0] = '0';
+        id[1] = '1';
+        id[2] = 'H';
+        id[3] = 'F';
+        encode(number, id, 4, 22);
+        return new String(id);
+    }
+
+    /** The number behind a {@link #seeded} id, or -1 if the id was not made by it. */
+    public static long seededNumber(String id) {
+        if (id == null || id.length() != 26 || !id.startsWith("01HF")) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = 4; i < 26; i++) {
+            int digit = Arrays.binarySearch(ALPHABET, id.charAt(i));
+            if (digit < 0 || (i < 13 && digit != 0)) {
+                return -1;
+            }
+            number = number << 5 | digit;
+        }
+        return number;
+    }
+
+    private static void encode(long value, char[] target, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            target[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.server;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Laravel paginator envelope: {@code current_page}, {@code data}, {@code last_page}, {@code total}, ...
+ */
+final class Page {
+
+    private Page() {
+    }
+
+    static Map<String, Object> of(List<?> rows, int total, int page, int perPage) {
+        int lastPage = Math.max(1, (total + perPage - 1) / perPage);
+        int from = (page - 1) * perPage + 1;
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("current_page", page);
+        envelope.put("data", rows);
+        envelope.put("from", rows.isEmpty() ? null : from);
+        envelope.put("last_page", lastPage);
+        envelope.put("per_page", perPage);
+        envelope.put("to", rows.isEmpty() ? null : from + rows.size() - 1);
+        envelope.put("total", total);
+        return envelope;
+    }
+
+    static <T> Map<String, Object> slice(List<T> all, int page, int perPage) {
+        int start = Math.min(all.size(), Math.max(0, (page - 1) * perPage));
+        int end = Math.min(all.size(), start + perPage);
+        return of(all.subList(start, end), all.size(), page, perPage);
+    }
+}
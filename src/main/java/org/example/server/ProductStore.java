@@ -0,0 +1,197 @@
+package org.example.server;
+
+import org.example.catalog.Bitmap;
+import org.example.catalog.ProductCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory /products table. Ids increase with creation time, so iteration order matches the real listing.
+ * <p>
+ * Rows live at ordinals of a {@link ProductCatalog}, which answers the filter queries from bitmap indexes and cuts
+ * pages by rank. Seed rows are derived from their ordinal by {@link #seed} instead of being stored, so a store
+ * with a million products costs little more than its indexes; created and updated rows are kept as objects.
+ */
+public class ProductStore {
+
+    static final String[] BRANDS = {"ForgeFlex Tools", "MightyCraft Hardware", "Toolshop Basics"};
+    static final String[] CATEGORIES = {"Hammer", "Hand Saw", "Wrench", "Screwdriver", "Pliers", "Grinder", "Drill"};
+
+    static final long FIRST_SEED = 1000;
+
+    public record Product(String id, String name, String description, double price, long categoryId, long brandId,
+                          long productImageId, boolean rental, boolean locationOffer, boolean inStock) {
+    }
+
+    /** One page of a filtered listing and the number of rows across all pages. */
+    public record Slice(List<Product> rows, int total) {
+    }
+
+    private final int seedCount;
+    private final ProductCatalog catalog = new ProductCatalog();
+    private final Map<String, Integer> createdOrdinals = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Null at a seed ordinal that still holds its seeded values
+    private Product[] rows;
+
+    public ProductStore(int seedCount) {
+        this.seedCount = seedCount;
+        this.rows = new Product[Math.max(16, seedCount)];
+        for (int i = 0; i < seedCount; i++) {
+            catalog.append(1 + i % BRANDS.length, 1 + i % CATEGORIES.length, i % 6 == 0);
+        }
+    }
+
+    /** The seed product at the given ordinal, the same for every store. */
+    public static Product seed(int i) {
+        return new Product(Ids.seeded(FIRST_SEED + i), "Product " + (i + 1), "Seeded product " + (i + 1),
+                5 + (i * 7 % 90) + 0.99, 1 + i % CATEGORIES.length, 1 + i % BRANDS.length,
+                1 + i % 20, i % 6 == 0, i % 9 == 0, i % 11 != 0);
+    }
+
+    public Product get(String id) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinal(id);
+            return ordinal < 0 ? null : row(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Product create(Map<String, Object> fields) {
+        lock.writeLock().lock();
+        try {
+            Product product = fromFields(Ids.next(), fields);
+            int ordinal = catalog.append(product.brandId(), product.categoryId(), product.rental());
+            if (ordinal == rows.length) {
+                rows = Arrays.copyOf(rows, ordinal * 2);
+            }
+            rows[ordinal] = product;
+            createdOrdinals.put(product.id(), ordinal);
+            return product;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean update(String id, Map<String, Object> fields) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinal(id);
+            if (ordinal < 0) {
+                return false;
+            }
+            Product product = fromFields(id, fields);
+            catalog.update(ordinal, product.brandId(), product.categoryId(), product.rental());
+            rows[ordinal] = product;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean delete(String id) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinal(id);
+            if (ordinal < 0) {
+                return false;
+            }
+            catalog.delete(ordinal);
+            createdOrdinals.remove(id);
+            rows[ordinal] = null;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return catalog.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Filters the way /products does; a null argument means the filter is absent. */
+    public List<Product> find(Long brandId, Long categoryId, Boolean rental) {
+        lock.readLock().lock();
+        try {
+            return rows(catalog.select(brandId, categoryId, rental).toArray());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** One page of {@link #find}, without materializing the rows of the other pages. */
+    public Slice page(Long brandId, Long categoryId, Boolean rental, int page, int perPage) {
+        lock.readLock().lock();
+        try {
+            Bitmap matches = catalog.select(brandId, categoryId, rental);
+            return new Slice(rows(ProductCatalog.page(matches, page, perPage)), matches.cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static Map<String, Object> toJson(Product product) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", product.id());
+        json.put("name", product.name());
+        json.put("description", product.description());
+        json.put("price", product.price());
+        json.put("is_location_offer", product.locationOffer());
+        json.put("is_rental", product.rental());
+        json.put("in_stock", product.inStock());
+        json.put("brand", Map.of("id", product.brandId(), "name", name(BRANDS, product.brandId())));
+        json.put("category", Map.of("id", product.categoryId(), "name", name(CATEGORIES, product.categoryId())));
+        json.put("product_image", Map.of("id", product.productImageId(),
+                "file_name", "image-" + product.productImageId() + ".avif"));
+        return json;
+    }
+
+    // Live ordinal of the id, or -1
+    private int ordinal(String id) {
+        Integer created = createdOrdinals.get(id);
+        long ordinal = created != null ? created : Ids.seededNumber(id) - FIRST_SEED;
+        if (created == null && (ordinal < 0 || ordinal >= seedCount)) {
+            return -1;
+        }
+        return catalog.isLive((int) ordinal) ? (int) ordinal : -1;
+    }
+
+    private Product row(int ordinal) {
+        Product product = rows[ordinal];
+        return product != null ? product : seed(ordinal);
+    }
+
+    private List<Product> rows(int[] ordinals) {
+        List<Product> result = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            result.add(row(ordinal));
+        }
+        return result;
+    }
+
+    private static Product fromFields(String id, Map<String, Object> fields) {
+        return new Product(id, (String) fields.get("name"), (String) fields.getOrDefault("description", ""),
+                Validation.number(fields.get("price")), Validation.number(fields.get("category_id")).longValue(),
+                Validation.number(fields.get("brand_id")).longValue(),
+                Validation.number(fields.get("product_image_id")).longValue(),
+                Validation.bool(fields.get("is_rental")), Validation.bool(fields.get("is_location_offer")), true);
+    }
+
+    private static String name(String[] names, long id) {
+        return id >= 1 && id <= names.length ? names[(int) id - 1] : "Unknown";
+    }
+}
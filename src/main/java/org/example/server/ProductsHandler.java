@@ -0,0 +1,99 @@
+package org.example.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /products and /products/{id}.
+ */
+class ProductsHandler extends ApiHandler {
+
+    static final int PER_PAGE = 9;
+
+    private final ProductStore store;
+
+    ProductsHandler(ProductStore store) {
+        this.store = store;
+    }
+
+    @Override
+    Reply handle(Request request) {
+        List<String> segments = request.segments();
+        if (segments.size() == 1) {
+            return switch (request.method()) {
+                case "GET" -> list(request);
+                case "POST" -> create(request);
+                default -> Reply.methodNotAllowed();
+            };
+        }
+        if (segments.size() == 2) {
+            String id = segments.get(1);
+            return switch (request.method()) {
+                case "GET" -> {
+                    ProductStore.Product product = store.get(id);
+                    yield product == null ? Reply.notFound() : Reply.json(200, ProductStore.toJson(product));
+                }
+                case "PUT" -> update(id, request);
+                case "DELETE" -> store.delete(id) ? Reply.noContent() : Reply.invalid("id", "The selected id is invalid.");
+                default -> Reply.methodNotAllowed();
+            };
+        }
+        return Reply.notFound();
+    }
+
+    private Reply list(Request request) {
+        Long brand = parseLong(request.query("by_brand"));
+        Long category = parseLong(request.query("by_category"));
+        String rental = request.query("is_rental");
+        int page = Math.max(1, request.queryInt("page", 1));
+        ProductStore.Slice slice = store.page(brand, category, rental == null ? null : Validation.bool(rental),
+                page, PER_PAGE);
+        List<Object> rows = new ArrayList<>(slice.rows().size());
+        for (ProductStore.Product product : slice.rows()) {
+            rows.add(ProductStore.toJson(product));
+        }
+        return Reply.json(200, Page.of(rows, slice.total(), page, PER_PAGE));
+    }
+
+    private Reply create(Request request) {
+        Map<String, Object> fields = request.fields();
+        Validation validation = validate(fields);
+        if (validation.failed()) {
+            return validation.reply();
+        }
+        return Reply.json(201, ProductStore.toJson(store.create(fields)));
+    }
+
+    private Reply update(String id, Request request) {
+        Map<String, Object> fields = request.fields();
+        Validation validation = validate(fields);
+        if (validation.failed()) {
+            return validation.reply();
+        }
+        return Reply.success(store.update(id, fields));
+    }
+
+    private static Validation validate(Map<String, Object> fields) {
+        return new Validation(fields)
+                .requiredString("name", 120)
+                .optionalString("description", 1250)
+                .requiredNumber("price")
+                .requiredNumber("category_id")
+                .requiredNumber("brand_id")
+                .requiredNumber("product_image_id")
+                .optionalBoolean("is_rental")
+                .optionalBoolean("is_location_offer");
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
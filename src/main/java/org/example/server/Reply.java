@@ -0,0 +1,59 @@
+package org.example.server;
+
+import org.example.json.Json;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Status and JSON body written back by a handler.
+ */
+public record Reply(int status, String body) {
+
+    public static Reply json(int status, Object value) {
+        return new Reply(status, Json.stringify(value));
+    }
+
+    public static Reply noContent() {
+        return new Reply(204, null);
+    }
+
+    public static Reply message(int status, String message) {
+        return json(status, Map.of("message", message));
+    }
+
+    public static Reply error(int status, String error) {
+        return json(status, Map.of("error", error));
+    }
+
+    public static Reply success(boolean success) {
+        return json(200, Map.of("success", success));
+    }
+
+    public static Reply unauthorized() {
+        return message(401, "Unauthorized");
+    }
+
+    public static Reply forbidden() {
+        return message(403, "Forbidden");
+    }
+
+    public static Reply notFound() {
+        return message(404, "Requested item not found");
+    }
+
+    public static Reply methodNotAllowed() {
+        return message(405, "Method is not allowed for the requested route");
+    }
+
+    public static Reply invalid(Map<String, List<String>> errors) {
+        return json(422, errors);
+    }
+
+    public static Reply invalid(String field, String message) {
+        Map<String, List<String>> errors = new LinkedHashMap<>();
+        errors.put(field, List.of(message));
+        return invalid(errors);
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.server;
+
+import org.example.json.Json;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An incoming call as seen by the resource handlers, with the path already split into segments
+ * (e.g. {@code /categories/tree} becomes {@code ["categories", "tree"]}).
+ */
+public final class Request {
+
+    private final String method;
+    private final List<String> segments;
+    private final Map<String, String> query;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+
+    public Request(String method, String path, String rawQuery, Map<String, List<String>> headers, byte[] body) {
+        this.method = method;
+        this.segments = splitPath(path);
+        this.query = parseUrlEncoded(rawQuery);
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public List<String> segments() {
+        return segments;
+    }
+
+    public String segment(int index) {
+        return index < segments.size() ? segments.get(index) : null;
+    }
+
+    public String query(String name) {
+        return query.get(name);
+    }
+
+    public int queryInt(String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public String header(String name) {
+        // HttpServer normalizes header names to "First-letter-uppercase"
+        List<String> values = headers.get(name);
+        if (values == null) {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                if (entry.getKey() != null && entry.getKey().equalsIgnoreCase(name)) {
+                    values = entry.getValue();
+                    break;
+                }
+            }
+        }
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    public String bearerToken() {
+        String authorization = header("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return authorization.substring(7).trim();
+    }
+
+    public byte[] body() {
+        return body;
+    }
+
+    /**
+     * Reads the body as a field map, accepting both JSON and form-urlencoded payloads like the real API does.
+     */
+    public Map<String, Object> fields() {
+        String contentType = header("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            return new LinkedHashMap<>(parseUrlEncoded(new String(body, StandardCharsets.UTF_8)));
+        }
+        return Json.parseObjectOrEmpty(body);
+    }
+
+    private static List<String> splitPath(String path) {
+        if (path == null || path.isEmpty() || "/".equals(path)) {
+            return Collections.emptyList();
+        }
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return Arrays.asList(trimmed.split("/"));
+    }
+
+    private static Map<String, String> parseUrlEncoded(String raw) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return values;
+        }
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            values.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+}
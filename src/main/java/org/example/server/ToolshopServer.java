@@ -0,0 +1,97 @@
+package org.example.server;
+
+import com.sun.net.httpserver.HttpServer;
+import org.example.Threads;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Embeddable stand-in for the Toolshop API (/products, /categories, /users) backed by in-memory stores.
+ * Every request is handled on its own thread (virtual when the runtime supports it).
+ *
+ * <pre>
+ * ToolshopServer server = ToolshopServer.start(0);
+ * String base = server.baseUrl();   // e.g. http://127.0.0.1:53021
+ * ...
+ * server.stop();
+ * </pre>
+ */
+public class ToolshopServer implements AutoCloseable {
+
+    public static final int DEFAULT_PRODUCTS = 48;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ProductStore products;
+    private final CategoryStore categories;
+    private final UserStore users;
+
+    private ToolshopServer(HttpServer server, ExecutorService executor, ProductStore products,
+                           CategoryStore categories, UserStore users) {
+        this.server = server;
+        this.executor = executor;
+        this.products = products;
+        this.categories = categories;
+        this.users = users;
+    }
+
+    /** Starts a server on the loopback interface; port 0 picks a free port. */
+    public static ToolshopServer start(int port) throws IOException {
+        return start(port, DEFAULT_PRODUCTS);
+    }
+
+    /** Same, seeded with {@code productCount} products instead of the default few pages. */
+    public static ToolshopServer start(int port, int productCount) throws IOException {
+        // Headers and body go out in separate writes; without TCP_NODELAY every keep-alive call waits ~40ms
+        // for the delayed ACK. The property is read once, when the first HttpServer is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+        ExecutorService executor = Threads.perTaskExecutor("toolshop-server");
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        ProductStore products = new ProductStore(productCount);
+        CategoryStore categories = new CategoryStore();
+        UserStore users = new UserStore(baseUrl + "/users/login", 37);
+        server.createContext("/products", new ProductsHandler(products));
+        server.createContext("/categories", new CategoriesHandler(categories, users));
+        server.createContext("/users", new UsersHandler(users));
+        server.setExecutor(executor);
+        server.start();
+        return new ToolshopServer(server, executor, products, categories, users);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    public ProductStore products() {
+        return products;
+    }
+
+    public CategoryStore categories() {
+        return categories;
+    }
+
+    public UserStore users() {
+        return users;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+}
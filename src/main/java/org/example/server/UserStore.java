@@ -0,0 +1,149 @@
+package org.example.server;
+
+import org.example.auth.JwtAuthority;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory /users table plus the {@link JwtAuthority} that signs and checks the bearer tokens handed out by
+ * /users/login. Seed accounts use the public demo credentials (password {@code welcome01}).
+ */
+public class UserStore {
+
+    public static final String DEFAULT_PASSWORD = "welcome01";
+    public static final long TOKEN_TTL_SECONDS = 300;
+
+    public record User(String id, String firstName, String lastName, String address, String city, String state,
+                       String country, String postcode, String phone, String dob, String email, String password,
+                       String role) {
+    }
+
+    public enum PasswordChange { OK, WRONG_CURRENT, SAME_AS_CURRENT }
+
+    private final ConcurrentNavigableMap<String, User> users = new ConcurrentSkipListMap<>();
+    private final Map<String, String> idsByEmail = new ConcurrentHashMap<>();
+    private final JwtAuthority tokens;
+
+    public UserStore(String issuer, int extraCustomers) {
+        this.tokens = JwtAuthority.withRandomKey(issuer, TOKEN_TTL_SECONDS);
+        put(new User(Ids.seeded(1), "John", "Doe", "Test street 98", "Vienna", null, "Austria", "1234AA", null,
+                "1980-01-01", "admin@practicesoftwaretesting.com", DEFAULT_PASSWORD, "admin"));
+        put(new User(Ids.seeded(2), "Jane", "Doe", "Test street 98", "Vienna", null, "Austria", "1234AA", null,
+                "1980-02-02", "customer@practicesoftwaretesting.com", DEFAULT_PASSWORD, "user"));
+        put(new User(Ids.seeded(3), "Jack", "Howe", "Test street 654", "Utrecht", null, "The Netherlands", "3521",
+                null, "1990-03-03", "customer2@practicesoftwaretesting.com", DEFAULT_PASSWORD, "user"));
+        for (int i = 3; i < 3 + extraCustomers; i++) {
+            put(new User(Ids.seeded(i + 1), "Customer", "No. " + i, "Test street " + i, "Vienna", null, "Austria",
+                    "1010", null, "1990-01-01", "customer" + i + "@practicesoftwaretesting.com", DEFAULT_PASSWORD,
+                    "user"));
+        }
+    }
+
+    public User get(String id) {
+        return users.get(id);
+    }
+
+    public String idByEmail(String email) {
+        return email == null ? null : idsByEmail.get(email);
+    }
+
+    public List<User> all() {
+        return new ArrayList<>(users.values());
+    }
+
+    /** Returns a bearer token, or {@code null} when the credentials do not match. */
+    public String login(String email, String password) {
+        String id = email == null ? null : idsByEmail.get(email);
+        User user = id == null ? null : users.get(id);
+        if (user == null || !user.password().equals(password)) {
+            return null;
+        }
+        return tokens.issue(user.id(), user.role());
+    }
+
+    /**
+     * The claims of a valid bearer token whose user still exists, or {@code null}. Role rules go by
+     * {@link JwtAuthority.Claims#isAdmin()}, the role the token was issued with, as on the real API.
+     */
+    public JwtAuthority.Claims authenticate(String token) {
+        JwtAuthority.Claims claims = tokens.verify(token);
+        return claims == null || !users.containsKey(claims.subject()) ? null : claims;
+    }
+
+    /** Creates a customer account; returns {@code null} when the email is taken. */
+    public synchronized User register(Map<String, Object> fields) {
+        String email = (String) fields.get("email");
+        if (idsByEmail.containsKey(email)) {
+            return null;
+        }
+        User user = new User(Ids.next(), (String) fields.get("first_name"), (String) fields.get("last_name"),
+                (String) fields.get("address"), (String) fields.get("city"), (String) fields.get("state"),
+                (String) fields.get("country"), (String) fields.get("postcode"), (String) fields.get("phone"),
+                (String) fields.get("dob"), email, (String) fields.get("password"), "user");
+        put(user);
+        return user;
+    }
+
+    public synchronized boolean update(String id, Map<String, Object> fields) {
+        User old = users.get(id);
+        if (old == null) {
+            return false;
+        }
+        String email = (String) fields.get("email");
+        idsByEmail.remove(old.email());
+        put(new User(id, (String) fields.get("first_name"), (String) fields.get("last_name"),
+                (String) fields.get("address"), (String) fields.get("city"), (String) fields.get("state"),
+                (String) fields.get("country"), (String) fields.get("postcode"), (String) fields.get("phone"),
+                old.dob(), email, old.password(), old.role()));
+        return true;
+    }
+
+    public synchronized PasswordChange changePassword(String id, String current, String replacement) {
+        User user = users.get(id);
+        if (user == null || !user.password().equals(current)) {
+            return PasswordChange.WRONG_CURRENT;
+        }
+        if (user.password().equals(replacement)) {
+            return PasswordChange.SAME_AS_CURRENT;
+        }
+        put(new User(user.id(), user.firstName(), user.lastName(), user.address(), user.city(), user.state(),
+                user.country(), user.postcode(), user.phone(), user.dob(), user.email(), replacement, user.role()));
+        return PasswordChange.OK;
+    }
+
+    public synchronized boolean delete(String id) {
+        User removed = users.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        idsByEmail.remove(removed.email());
+        return true;
+    }
+
+    public static Map<String, Object> toJson(User user) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", user.id());
+        json.put("first_name", user.firstName());
+        json.put("last_name", user.lastName());
+        json.put("address", user.address());
+        json.put("city", user.city());
+        json.put("state", user.state());
+        json.put("country", user.country());
+        json.put("postcode", user.postcode());
+        json.put("phone", user.phone());
+        json.put("dob", user.dob());
+        json.put("email", user.email());
+        return json;
+    }
+
+    private void put(User user) {
+        users.put(user.id(), user);
+        idsByEmail.put(user.email(), user.id());
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.server;
+
+import org.example.auth.JwtAuthority;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /users: register, login, me, change-password, listing (admin only) and per-user update/delete.
+ */
+class UsersHandler extends ApiHandler {
+
+    static final int PER_PAGE = 15;
+
+    private final UserStore store;
+
+    UsersHandler(UserStore store) {
+        this.store = store;
+    }
+
+    @Override
+    Reply handle(Request request) {
+        List<String> segments = request.segments();
+        String action = request.segment(1);
+        if (segments.size() == 2 && "login".equals(action)) {
+            return "POST".equals(request.method()) ? login(request) : Reply.methodNotAllowed();
+        }
+        if (segments.size() == 2 && "register".equals(action)) {
+            return "POST".equals(request.method()) ? register(request) : Reply.methodNotAllowed();
+        }
+        if (segments.size() > 2) {
+            return Reply.notFound();
+        }
+
+        JwtAuthority.Claims caller = store.authenticate(request.bearerToken());
+        if (caller == null) {
+            return Reply.unauthorized();
+        }
+        if (segments.size() == 1) {
+            if (!"GET".equals(request.method())) {
+                return Reply.methodNotAllowed();
+            }
+            return caller.isAdmin() ? list(request) : Reply.forbidden();
+        }
+        if ("me".equals(action)) {
+            return "GET".equals(request.method()) ? me(caller) : Reply.methodNotAllowed();
+        }
+        if ("change-password".equals(action)) {
+            return "POST".equals(request.method()) ? changePassword(caller, request) : Reply.methodNotAllowed();
+        }
+        return switch (request.method()) {
+            case "GET" -> show(caller, action);
+            case "PUT" -> update(caller, action, request);
+            case "DELETE" -> delete(caller, action);
+            default -> Reply.methodNotAllowed();
+        };
+    }
+
+    private Reply login(Request request) {
+        Map<String, Object> fields = request.fields();
+        Object email = fields.get("email");
+        Object password = fields.get("password");
+        String token = email instanceof String && password instanceof String
+                ? store.login((String) email, (String) password) : null;
+        if (token == null) {
+            return Reply.error(401, "Unauthorized");
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("access_token", token);
+        json.put("token_type", "bearer");
+        json.put("expires_in", UserStore.TOKEN_TTL_SECONDS);
+        return Reply.json(200, json);
+    }
+
+    // Deleted between the token check and here: the token no longer stands for anyone
+    private Reply me(JwtAuthority.Claims caller) {
+        UserStore.User user = store.get(caller.subject());
+        return user == null ? Reply.unauthorized() : Reply.json(200, UserStore.toJson(user));
+    }
+
+    private Reply register(Request request) {
+        Map<String, Object> fields = request.fields();
+        Validation validation = profileValidation(fields)
+                .requiredString("password", 256)
+                .optionalString("dob", 10);
+        if (fields.get("password") instanceof String && ((String) fields.get("password")).length() < 8) {
+            validation.add("password", "The password field must be at least 8 characters.");
+        }
+        if (validation.failed()) {
+            return validation.reply();
+        }
+        UserStore.User user = store.register(fields);
+        if (user == null) {
+            return Reply.invalid("email", "A customer with this email address already exists.");
+        }
+        return Reply.json(201, UserStore.toJson(user));
+    }
+
+    private Reply list(Request request) {
+        List<Object> rows = new ArrayList<>();
+        for (UserStore.User user : store.all()) {
+            rows.add(UserStore.toJson(user));
+        }
+        return Reply.json(200, Page.slice(rows, Math.max(1, request.queryInt("page", 1)), PER_PAGE));
+    }
+
+    private Reply show(JwtAuthority.Claims caller, String id) {
+        if (!caller.isAdmin() && !caller.subject().equals(id)) {
+            return Reply.forbidden();
+        }
+        UserStore.User user = store.get(id);
+        return user == null ? Reply.notFound() : Reply.json(200, UserStore.toJson(user));
+    }
+
+    private Reply update(JwtAuthority.Claims caller, String id, Request request) {
+        if (!caller.isAdmin() && !caller.subject().equals(id)) {
+            return Reply.error(403, "You can only update your own data.");
+        }
+        Map<String, Object> fields = request.fields();
+        Validation validation = profileValidation(fields);
+        String owner = fields.get("email") instanceof String ? store.idByEmail((String) fields.get("email")) : null;
+        if (owner != null && !owner.equals(id)) {
+            validation.add("email", "A customer with this email address already exists.");
+        }
+        if (validation.failed()) {
+            return validation.reply();
+        }
+        return store.update(id, fields) ? Reply.success(true) : Reply.invalid("id", "The selected id is invalid.");
+    }
+
+    private static Validation profileValidation(Map<String, Object> fields) {
+        return new Validation(fields)
+                .requiredString("first_name", 40)
+                .requiredString("last_name", 20)
+                .requiredString("address", 70)
+                .requiredString("city", 40)
+                .requiredString("country", 40)
+                .requiredString("email", 256)
+                .optionalString("state", 40)
+                .optionalString("postcode", 10)
+                .optionalString("phone", 24);
+    }
+
+    private Reply delete(JwtAuthority.Claims caller, String id) {
+        if (!caller.isAdmin()) {
+            return Reply.forbidden();
+        }
+        return store.delete(id) ? Reply.noContent() : Reply.invalid("id", "The selected id is invalid.");
+    }
+
+    private Reply changePassword(JwtAuthority.Claims caller, Request request) {
+        Map<String, Object> fields = request.fields();
+        Validation validation = new Validation(fields)
+                .requiredString("current_password", 256)
+                .requiredString("new_password", 256)
+                .requiredString("new_password_confirmation", 256);
+        if (!validation.failed() && !fields.get("new_password").equals(fields.get("new_password_confirmation"))) {
+            validation.add("new_password", "The new password field confirmation does not match.");
+        }
+        if (validation.failed()) {
+            return validation.reply();
+        }
+        return switch (store.changePassword(caller.subject(), (String) fields.get("current_password"),
+                (String) fields.get("new_password"))) {
+            case OK -> Reply.success(true);
+            case SAME_AS_CURRENT -> passwordFailure("New Password cannot be same as your current password.");
+            case WRONG_CURRENT -> passwordFailure("Your current password does not matches with the password.");
+        };
+    }
+
+    private static Reply passwordFailure(String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("success", false);
+        json.put("message", message);
+        return Reply.json(400, json);
+    }
+}
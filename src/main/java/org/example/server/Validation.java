@@ -0,0 +1,99 @@
+package org.example.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects Laravel-style field errors, e.g. {@code {"name": ["The name field is required."]}}.
+ */
+final class Validation {
+
+    private final Map<String, Object> fields;
+    private final Map<String, List<String>> errors = new LinkedHashMap<>();
+
+    Validation(Map<String, Object> fields) {
+        this.fields = fields;
+    }
+
+    Validation requiredString(String field, int maxLength) {
+        Object value = fields.get(field);
+        if (isBlank(value)) {
+            add(field, "The " + label(field) + " field is required.");
+        } else if (!(value instanceof String)) {
+            add(field, "The " + label(field) + " must be a string.");
+        } else if (((String) value).length() > maxLength) {
+            add(field, "The " + label(field) + " must not be greater than " + maxLength + " characters.");
+        }
+        return this;
+    }
+
+    Validation requiredNumber(String field) {
+        Object value = fields.get(field);
+        if (isBlank(value)) {
+            add(field, "The " + label(field) + " field is required.");
+        } else if (number(value) == null) {
+            add(field, "The " + label(field) + " must be a number.");
+        }
+        return this;
+    }
+
+    Validation optionalString(String field, int maxLength) {
+        Object value = fields.get(field);
+        if (value != null && !(value instanceof String)) {
+            add(field, "The " + label(field) + " must be a string.");
+        } else if (value != null && ((String) value).length() > maxLength) {
+            add(field, "The " + label(field) + " must not be greater than " + maxLength + " characters.");
+        }
+        return this;
+    }
+
+    Validation optionalBoolean(String field) {
+        Object value = fields.get(field);
+        if (value != null && !(value instanceof Boolean)
+                && !"true".equals(value) && !"false".equals(value) && !"1".equals(value) && !"0".equals(value)) {
+            add(field, "The " + label(field) + " field must be true or false.");
+        }
+        return this;
+    }
+
+    Validation add(String field, String message) {
+        errors.computeIfAbsent(field, f -> new ArrayList<>()).add(message);
+        return this;
+    }
+
+    boolean failed() {
+        return !errors.isEmpty();
+    }
+
+    Reply reply() {
+        return Reply.invalid(errors);
+    }
+
+    static Double number(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    static boolean bool(Object value) {
+        return Boolean.TRUE.equals(value) || "true".equals(value) || "1".equals(value);
+    }
+
+    static boolean isBlank(Object value) {
+        return value == null || (value instanceof String && ((String) value).isBlank());
+    }
+
+    private static String label(String field) {
+        return field.replace('_', ' ');
+    }
+}
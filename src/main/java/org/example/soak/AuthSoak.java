@@ -0,0 +1,264 @@
+package org.example.soak;
+
+import org.example.Threads;
+import org.example.auth.TokenBroker;
+import org.example.json.Json;
+import org.example.json.JsonTemplate;
+import org.example.stats.Histogram;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The UsersTest auth flows on a loop, for as long as a soak lasts: each simulated account logs in through a
+ * {@link TokenBroker}, reads /users/me and changes its password, which also drops its cached token the way
+ * UsersTest does. Accounts are registered up front and split between the workers, so no two workers ever change
+ * the same account's password.
+ * <p>
+ * Everything runs on one {@link HttpClient} with a cookie store and one broker, the long-lived client state a test
+ * run builds up; both are watched by the {@link SoakMonitor} next to the JVM's own figures.
+ */
+public class AuthSoak {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    // Workers live for the whole run, so each renders into its own buffer over and over
+    private static final JsonTemplate CHANGE_PASSWORD = JsonTemplate.compile("{\"current_password\":{{current}},"
+            + "\"new_password\":{{new}},\"new_password_confirmation\":{{new}}}");
+
+    public record Config(URI baseUrl, int accounts, int concurrency, Duration duration, Duration warmup,
+                         Duration interval) {
+
+        public Config {
+            if (concurrency < 1 || accounts < concurrency) {
+                throw new IllegalArgumentException("Need at least one account per worker, got " + accounts
+                        + " accounts for " + concurrency + " workers");
+            }
+        }
+    }
+
+    /** Latencies and failures of one step of the flow. */
+    public static final class Step {
+
+        private final String name;
+        private final Histogram micros = new Histogram(60_000_000L, 3);
+        private final LongAdder failures = new LongAdder();
+        private final AtomicReference<String> firstFailure = new AtomicReference<>();
+
+        Step(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /** Latencies in microseconds. */
+        public Histogram micros() {
+            return micros;
+        }
+
+        public long failures() {
+            return failures.sum();
+        }
+
+        public String firstFailure() {
+            return firstFailure.get();
+        }
+
+        void failed(String message) {
+            failures.increment();
+            firstFailure.compareAndSet(null, message);
+        }
+    }
+
+    private static final class Account {
+        final String email;
+        final String[] passwords;
+        int current;
+
+        Account(String email, String password) {
+            this.email = email;
+            this.passwords = new String[]{password, password + "b"};
+        }
+
+        TokenBroker.Credentials credentials() {
+            return new TokenBroker.Credentials(email, passwords[current]);
+        }
+    }
+
+    private final Config config;
+    private final CookieManager cookies = new CookieManager();
+    private final HttpClient client;
+    private final TokenBroker broker;
+    private final Step login = new Step("login");
+    private final Step me = new Step("GET /users/me");
+    private final Step changePassword = new Step("POST /users/change-password");
+
+    public AuthSoak(Config config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .cookieHandler(cookies)
+                .build();
+        this.broker = new TokenBroker(base(), client);
+    }
+
+    public SoakReport run() throws IOException, InterruptedException {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < config.accounts(); i++) {
+            accounts.add(register());
+        }
+        SoakMonitor monitor = new SoakMonitor(config.interval())
+                .probe("cached tokens", 1, broker::size)
+                .probe("cookies", 1, () -> cookies.getCookieStore().getCookies().size());
+        ExecutorService workers = Threads.perTaskExecutor("soak");
+        long end = System.nanoTime() + config.warmup().toNanos() + config.duration().toNanos();
+        monitor.start();
+        try {
+            for (int w = 0; w < config.concurrency(); w++) {
+                List<Account> own = new ArrayList<>();
+                for (int i = w; i < accounts.size(); i += config.concurrency()) {
+                    own.add(accounts.get(i));
+                }
+                workers.execute(() -> {
+                    for (long i = 0; System.nanoTime() < end && !Thread.currentThread().isInterrupted(); i++) {
+                        monitor.operation(flow(own.get((int) (i % own.size()))));
+                    }
+                });
+            }
+            workers.shutdown();
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Flows end by themselves at the deadline
+            }
+        } finally {
+            monitor.stop();
+        }
+        return new SoakReport(config, monitor, List.of(login, me, changePassword));
+    }
+
+    // One pass: log in, read the profile, change the password; false if any step failed
+    private boolean flow(Account account) {
+        TokenBroker.Credentials credentials = account.credentials();
+        long start = System.nanoTime();
+        String token;
+        try {
+            token = broker.token(credentials);
+        } catch (IllegalStateException e) {
+            login.failed(e.getMessage() + (e.getCause() == null ? "" : ": " + e.getCause().getMessage()));
+            return false;
+        }
+        login.micros().record((System.nanoTime() - start) / 1000);
+
+        HttpResponse<byte[]> profile = call(me, request("/users/me", token).GET());
+        if (profile == null) {
+            return false;
+        }
+        Object email = Json.parseObjectOrEmpty(profile.body()).get("email");
+        if (profile.statusCode() != 200 || !account.email.equals(email)) {
+            me.failed("GET /users/me returned " + profile.statusCode() + ": " + text(profile));
+            return false;
+        }
+
+        String next = account.passwords[1 - account.current];
+        ByteBuffer change = CHANGE_PASSWORD.renderer().with("current", credentials.password()).with("new", next)
+                .render();
+        // Sent before this thread renders again
+        HttpResponse<byte[]> changed = call(changePassword, request("/users/change-password", token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(change.array(), 0, change.limit())));
+        if (changed == null) {
+            return false;
+        }
+        if (changed.statusCode() != 200 || !Boolean.TRUE.equals(Json.parseObjectOrEmpty(changed.body())
+                .get("success"))) {
+            changePassword.failed("POST /users/change-password returned " + changed.statusCode() + ": "
+                    + text(changed));
+            return false;
+        }
+        account.current = 1 - account.current;
+        // The cached login for this account now holds a stale password
+        broker.invalidate(credentials);
+        return true;
+    }
+
+    private HttpResponse<byte[]> call(Step step, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            step.micros().record((System.nanoTime() - start) / 1000);
+            return response;
+        } catch (IOException e) {
+            step.failed(e.getClass().getSimpleName() + ": " + e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            step.failed("interrupted");
+            return null;
+        }
+    }
+
+    // Same profile as UsersTest's registerAccount
+    private Account register() throws IOException, InterruptedException {
+        String email = "soak-" + UUID.randomUUID() + "@practicesoftwaretesting.com";
+        String password = "Soak-" + UUID.randomUUID().toString().substring(0, 8) + "1!";
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("first_name", "Soak");
+        fields.put("last_name", "User");
+        fields.put("address", "Test street 1");
+        fields.put("city", "Vienna");
+        fields.put("state", "Vienna");
+        fields.put("country", "Austria");
+        fields.put("postcode", "1010");
+        fields.put("phone", "0123456789");
+        fields.put("dob", "1990-01-01");
+        fields.put("email", email);
+        fields.put("password", password);
+        HttpResponse<byte[]> response = client.send(request("/users/register", null)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(Json.stringify(fields))).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("POST /users/register returned " + response.statusCode() + ": "
+                    + text(response));
+        }
+        return new Account(email, password);
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base() + path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+
+    private String base() {
+        String base = config.baseUrl().toString();
+        return base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    }
+
+    private static String text(HttpResponse<byte[]> response) {
+        String body = new String(response.body(), StandardCharsets.UTF_8);
+        return body.length() <= 200 ? body : body.substring(0, 200) + "...";
+    }
+}
@@ -0,0 +1,196 @@
+package org.example.soak;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.example.Threads;
+import org.example.stats.Histogram;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Samples this JVM at a fixed interval while a soak runs: heap use from the {@link MemoryMXBean}, collections and
+ * their time from the {@link GarbageCollectorMXBean}s, and any number of probes on client state (cached tokens,
+ * cookies, threads). Every collection is also seen as it ends, through the collectors' notifications; that gives
+ * each pause's length, the live heap it left behind and the bytes it reclaimed, and with those the allocation rate:
+ * what was allocated between two samples is the growth in heap use plus whatever was collected in between.
+ * <p>
+ * Collections of concurrent collectors (G1's concurrent cycle, ZGC's cycles) are counted but not taken as pauses.
+ */
+public class SoakMonitor {
+
+    /** Pause lengths in microseconds, up to a minute. */
+    static final long HIGHEST_PAUSE_MICROS = 60_000_000L;
+
+    /** Client state to watch for growth; {@code minGrowth} is the least increase over a run that counts. */
+    public record Probe(String name, long minGrowth, LongSupplier value) {
+    }
+
+    /**
+     * One reading. Counters ({@code gc*}, {@code allocatedBytes}, {@code operations}, {@code failures}) are totals
+     * since the monitor started; {@code heapAfterGc} is what the latest collection left, {@code probes} are in the
+     * order they were added.
+     */
+    public record Sample(long elapsedNanos, long heapUsed, long heapCommitted, long heapAfterGc, long nonHeapUsed,
+                         long gcCount, long gcMillis, long allocatedBytes, long operations, long failures,
+                         long[] probes) {
+    }
+
+    private final Duration interval;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final Set<String> heapPools = new HashSet<>();
+    private final List<Probe> probes = new ArrayList<>();
+    private final List<Sample> samples = new ArrayList<>();
+    private final Histogram pauses = new Histogram(HIGHEST_PAUSE_MICROS, 3);
+    private final AtomicLong reclaimed = new AtomicLong();
+    private final AtomicLong heapAfterGc = new AtomicLong(-1);
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final NotificationListener listener = this::collected;
+    private final ScheduledExecutorService sampler =
+            Executors.newSingleThreadScheduledExecutor(Threads.daemonFactory("soak-monitor"));
+    private long start;
+
+    public SoakMonitor(Duration interval) {
+        this.interval = interval;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+            }
+        }
+        probe("threads", 1, () -> ManagementFactory.getThreadMXBean().getThreadCount());
+        probe("loaded classes", 1, () -> ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+    }
+
+    /** Adds a probe; only before {@link #start()}. */
+    public SoakMonitor probe(String name, long minGrowth, LongSupplier value) {
+        if (start != 0) {
+            throw new IllegalStateException("Probes have to be added before the monitor starts");
+        }
+        probes.add(new Probe(name, minGrowth, value));
+        return this;
+    }
+
+    public void start() {
+        start = System.nanoTime();
+        for (GarbageCollectorMXBean collector : collectors) {
+            if (collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(listener, null, null);
+            }
+        }
+        sample();
+        long nanos = interval.toNanos();
+        sampler.scheduleAtFixedRate(this::sample, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Counts one finished flow of the soak. */
+    public void operation(boolean succeeded) {
+        operations.increment();
+        if (!succeeded) {
+            failures.increment();
+        }
+    }
+
+    public List<Probe> probes() {
+        return List.copyOf(probes);
+    }
+
+    public synchronized List<Sample> samples() {
+        return List.copyOf(samples);
+    }
+
+    /** Pause lengths in microseconds. */
+    public Histogram pauses() {
+        return pauses;
+    }
+
+    public Duration interval() {
+        return interval;
+    }
+
+    /** Stops sampling after one last reading. */
+    public void stop() throws InterruptedException {
+        sampler.shutdown();
+        sampler.awaitTermination(1, TimeUnit.MINUTES);
+        for (GarbageCollectorMXBean collector : collectors) {
+            if (collector instanceof NotificationEmitter emitter) {
+                try {
+                    emitter.removeNotificationListener(listener);
+                } catch (ListenerNotFoundException e) {
+                    // Was never added
+                }
+            }
+        }
+        sample();
+    }
+
+    private void sample() {
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        long[] values = new long[probes.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = probes.get(i).value().getAsLong();
+        }
+        long afterGc = heapAfterGc.get();
+        Sample sample = new Sample(System.nanoTime() - start, heap.getUsed(), heap.getCommitted(),
+                afterGc < 0 ? heap.getUsed() : afterGc, memory.getNonHeapMemoryUsage().getUsed(), gcCount, gcMillis,
+                heap.getUsed() + reclaimed.get(), operations.sum(), failures.sum(), values);
+        synchronized (this) {
+            samples.add(sample);
+        }
+    }
+
+    private void collected(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        GcInfo gc = info.getGcInfo();
+        long before = heapUsed(gc.getMemoryUsageBeforeGc());
+        long after = heapUsed(gc.getMemoryUsageAfterGc());
+        reclaimed.addAndGet(Math.max(0, before - after));
+        heapAfterGc.set(after);
+        String name = info.getGcName();
+        if (!name.contains("Concurrent") && !name.contains("Cycles")) {
+            pauses.record(gc.getDuration() * 1000);
+        }
+    }
+
+    private long heapUsed(Map<String, MemoryUsage> pools) {
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> pool : pools.entrySet()) {
+            if (heapPools.contains(pool.getKey())) {
+                used += pool.getValue().getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,246 @@
+package org.example.soak;
+
+import org.example.json.Json;
+import org.example.stats.Histogram;
+import org.example.stats.Trend;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a soak: per-step latencies, collections and allocation, and the findings. A finding is a series that
+ * keeps rising past warmup by a meaningful amount (live heap, cached tokens, cookies, threads, loaded classes) or
+ * a throughput that drifts by more than {@value #DRIFT_LIMIT_PERCENT}% from the first quarter of the run to the
+ * last. Both are judged with a {@link Trend}, so a sawtooth or a few bad samples don't count.
+ */
+public class SoakReport {
+
+    static final double GROWTH_LIMIT = 0.10;
+    static final int DRIFT_LIMIT_PERCENT = 10;
+    // Live heap has to grow by more than this as well before it counts
+    static final long HEAP_MIN_GROWTH = 4L << 20;
+
+    private final AuthSoak.Config config;
+    private final List<AuthSoak.Step> steps;
+    private final List<SoakMonitor.Probe> probes;
+    private final List<SoakMonitor.Sample> samples;
+    private final Histogram pauses;
+    // Index of the first sample after warmup
+    private final int measured;
+    private final List<String> findings = new ArrayList<>();
+    private final Map<String, Trend> trends = new LinkedHashMap<>();
+
+    SoakReport(AuthSoak.Config config, SoakMonitor monitor, List<AuthSoak.Step> steps) {
+        this.config = config;
+        this.steps = steps;
+        this.probes = monitor.probes();
+        this.samples = monitor.samples();
+        this.pauses = monitor.pauses();
+        int first = 0;
+        while (first < samples.size() - 1 && samples.get(first).elapsedNanos() < config.warmup().toNanos()) {
+            first++;
+        }
+        this.measured = first;
+        judge();
+    }
+
+    private void judge() {
+        growth("live heap (bytes)", HEAP_MIN_GROWTH, series(s -> s.heapAfterGc()));
+        for (int i = 0; i < probes.size(); i++) {
+            int probe = i;
+            growth(probes.get(i).name(), probes.get(i).minGrowth(), series(s -> s.probes()[probe]));
+        }
+        double[] rates = rates(s -> s.operations());
+        Trend throughput = Trend.of(rates);
+        trends.put("flows per second", throughput);
+        double early = mean(rates, 0, rates.length / 4);
+        double late = mean(rates, rates.length - rates.length / 4, rates.length);
+        if (rates.length >= 8 && early > 0 && (throughput.rising() || throughput.falling())
+                && Math.abs(late - early) / early * 100 > DRIFT_LIMIT_PERCENT) {
+            findings.add(String.format("throughput drifted from %.1f to %.1f flows/s (%+.0f%%, z %.1f)", early,
+                    late, (late - early) / early * 100, throughput.z()));
+        }
+        trends.put("allocation (bytes per second)", Trend.of(rates(s -> s.allocatedBytes())));
+    }
+
+    private void growth(String name, long minGrowth, double[] values) {
+        Trend trend = Trend.of(values);
+        trends.put(name, trend);
+        double growth = trend.last() - trend.first();
+        if (trend.rising() && growth >= minGrowth && growth > GROWTH_LIMIT * Math.abs(trend.first())) {
+            findings.add(String.format("%s keeps growing: %.0f to %.0f over the run (z %.1f)", name, trend.first(),
+                    trend.last(), trend.z()));
+        }
+    }
+
+    private interface Field {
+        long of(SoakMonitor.Sample sample);
+    }
+
+    private double[] series(Field field) {
+        double[] values = new double[samples.size() - measured];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = field.of(samples.get(measured + i));
+        }
+        return values;
+    }
+
+    // Per-second rate of a counter between consecutive samples
+    private double[] rates(Field counter) {
+        int n = Math.max(0, samples.size() - measured - 1);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            SoakMonitor.Sample from = samples.get(measured + i);
+            SoakMonitor.Sample to = samples.get(measured + i + 1);
+            double seconds = Math.max((to.elapsedNanos() - from.elapsedNanos()) / 1e9, 1e-9);
+            values[i] = (counter.of(to) - counter.of(from)) / seconds;
+        }
+        return values;
+    }
+
+    public List<String> findings() {
+        return findings;
+    }
+
+    public long flows() {
+        return measuredDelta(s -> s.operations());
+    }
+
+    public long failedFlows() {
+        return samples.isEmpty() ? 0 : samples.get(samples.size() - 1).failures();
+    }
+
+    public boolean passed() {
+        return findings.isEmpty() && failedFlows() == 0;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = measuredSeconds();
+        out.printf("%d flows in %.0fs after %ds warmup (%.1f/s) on %d accounts from %d workers, %d failed%n",
+                flows(), seconds, config.warmup().toSeconds(), flows() / Math.max(seconds, 1e-9), config.accounts(),
+                config.concurrency(), failedFlows());
+        out.printf("%-30s %10s %9s %10s %10s %10s%n", "step", "count", "failed", "p50 ms", "p99 ms", "max ms");
+        for (AuthSoak.Step step : steps) {
+            Histogram micros = step.micros();
+            out.printf("%-30s %10d %9d %10.1f %10.1f %10.1f%n", step.name(), micros.count(), step.failures(),
+                    micros.percentile(50) / 1000.0, micros.percentile(99) / 1000.0, micros.max() / 1000.0);
+        }
+        out.printf("GC: %d collections, %.1fs in total (%.1f%% of the run), pauses p99 %.1fms, max %.1fms%n",
+                measuredDelta(s -> s.gcCount()), measuredDelta(s -> s.gcMillis()) / 1000.0,
+                measuredDelta(s -> s.gcMillis()) / 10.0 / Math.max(seconds, 1e-9),
+                pauses.percentile(99) / 1000.0, pauses.max() / 1000.0);
+        out.printf("Allocation: %.1f MB/s on average%n", measuredDelta(s -> s.allocatedBytes()) / 1e6
+                / Math.max(seconds, 1e-9));
+        out.printf("%-30s %14s %14s %8s%n", "series", "start", "end", "trend z");
+        trends.forEach((name, trend) -> out.printf("%-30s %14.1f %14.1f %8.1f%n", name, trend.first(),
+                trend.last(), trend.z()));
+        for (AuthSoak.Step step : steps) {
+            if (step.firstFailure() != null) {
+                out.println(step.name() + " first failed with: " + step.firstFailure());
+            }
+        }
+        if (findings.isEmpty()) {
+            out.println("No growth or drift found");
+        } else {
+            out.println("Findings:");
+            for (String finding : findings) {
+                out.println("  " + finding);
+            }
+        }
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("base_url", config.baseUrl().toString());
+        json.put("accounts", config.accounts());
+        json.put("concurrency", config.concurrency());
+        json.put("warmup_seconds", config.warmup().toSeconds());
+        json.put("measured_seconds", measuredSeconds());
+        json.put("flows", flows());
+        json.put("failed_flows", failedFlows());
+        List<Object> stepList = new ArrayList<>();
+        for (AuthSoak.Step step : steps) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", step.name());
+            entry.put("count", step.micros().count());
+            entry.put("failures", step.failures());
+            entry.put("first_failure", step.firstFailure());
+            entry.put("p50_ms", step.micros().percentile(50) / 1000.0);
+            entry.put("p99_ms", step.micros().percentile(99) / 1000.0);
+            entry.put("max_ms", step.micros().max() / 1000.0);
+            stepList.add(entry);
+        }
+        json.put("steps", stepList);
+        Map<String, Object> gc = new LinkedHashMap<>();
+        gc.put("collections", measuredDelta(s -> s.gcCount()));
+        gc.put("millis", measuredDelta(s -> s.gcMillis()));
+        gc.put("pause_p99_ms", pauses.percentile(99) / 1000.0);
+        gc.put("pause_max_ms", pauses.max() / 1000.0);
+        gc.put("allocated_bytes", measuredDelta(s -> s.allocatedBytes()));
+        json.put("gc", gc);
+        Map<String, Object> trendJson = new LinkedHashMap<>();
+        trends.forEach((name, trend) -> trendJson.put(name, Map.of("start", trend.first(), "end", trend.last(),
+                "slope_per_sample", trend.slope(), "z", trend.z())));
+        json.put("trends", trendJson);
+        json.put("findings", findings);
+        List<Object> timeline = new ArrayList<>();
+        for (SoakMonitor.Sample sample : samples) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("seconds", sample.elapsedNanos() / 1e9);
+            entry.put("heap_used", sample.heapUsed());
+            entry.put("heap_committed", sample.heapCommitted());
+            entry.put("heap_after_gc", sample.heapAfterGc());
+            entry.put("non_heap_used", sample.nonHeapUsed());
+            entry.put("gc_count", sample.gcCount());
+            entry.put("gc_millis", sample.gcMillis());
+            entry.put("allocated_bytes", sample.allocatedBytes());
+            entry.put("flows", sample.operations());
+            entry.put("failed_flows", sample.failures());
+            for (int i = 0; i < probes.size(); i++) {
+                entry.put(probes.get(i).name(), sample.probes()[i]);
+            }
+            timeline.add(entry);
+        }
+        json.put("samples", timeline);
+        return json;
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, Json.stringify(toJson()), StandardCharsets.UTF_8);
+    }
+
+    private long measuredDelta(Field counter) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        return counter.of(samples.get(samples.size() - 1)) - counter.of(samples.get(measured));
+    }
+
+    private double measuredSeconds() {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        return (samples.get(samples.size() - 1).elapsedNanos() - samples.get(measured).elapsedNanos()) / 1e9;
+    }
+
+    private static double mean(double[] values, int from, int to) {
+        if (to <= from) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+}
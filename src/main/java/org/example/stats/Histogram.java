@@ -0,0 +1,175 @@
+package org.example.stats;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * High-dynamic-range histogram with the same log-linear bucket layout as HdrHistogram: values are kept to a fixed
+ * number of significant decimal digits across the whole range, so p99.9 of a microsecond-to-minutes distribution
+ * is exact to within that precision. Recording is lock-free and safe from any number of threads.
+ * Histograms with the same range and precision merge losslessly.
+ */
+public class Histogram {
+
+    private final long highestTrackableValue;
+    private final int significantDigits;
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final int leadingZeroCountBase;
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public Histogram(long highestTrackableValue, int significantDigits) {
+        if (significantDigits < 1 || significantDigits > 5) {
+            throw new IllegalArgumentException("significantDigits must be between 1 and 5");
+        }
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException("highestTrackableValue must be at least 2");
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+        long largestSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = (int) Math.ceil(Math.log(largestSingleUnitResolution) / Math.log(2));
+        this.subBucketHalfCountMagnitude = Math.max(subBucketCountMagnitude, 1) - 1;
+        int subBucketCount = 1 << (subBucketHalfCountMagnitude + 1);
+        this.subBucketHalfCount = subBucketCount / 2;
+        this.subBucketMask = subBucketCount - 1;
+        this.leadingZeroCountBase = 64 - subBucketHalfCountMagnitude - 1;
+
+        int bucketCount = 1;
+        long smallestUntrackable = subBucketCount;
+        while (smallestUntrackable <= highestTrackableValue) {
+            if (smallestUntrackable > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackable <<= 1;
+            bucketCount++;
+        }
+        this.counts = new AtomicLongArray((bucketCount + 1) * subBucketHalfCount);
+    }
+
+    /** Records a value; values above the trackable range are clamped to it. Negative values count as zero. */
+    public void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), highestTrackableValue);
+        counts.incrementAndGet(countsIndex(clamped));
+        totalCount.increment();
+        sum.add(clamped);
+    }
+
+    public long count() {
+        return totalCount.sum();
+    }
+
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    public long max() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return 0;
+    }
+
+    /** Value at the given percentile (0-100), reported as the highest value equivalent to the bucket it falls in. */
+    public long percentile(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), highestTrackableValue);
+            }
+        }
+        return max();
+    }
+
+    /** Adds all counts of {@code other}, which must have the same range and precision. */
+    public void add(Histogram other) {
+        checkCompatible(other);
+        for (int i = 0; i < other.counts.length(); i++) {
+            long value = other.counts.get(i);
+            if (value != 0) {
+                counts.addAndGet(i, value);
+            }
+        }
+        totalCount.add(other.count());
+        sum.add(other.sum.sum());
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        sum.reset();
+    }
+
+    /** Sparse binary form: header, then (index, count) pairs for the non-empty buckets. */
+    public byte[] encode() {
+        int nonEmpty = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) != 0) {
+                nonEmpty++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 4 + 8 + 4 + nonEmpty * 12);
+        buffer.putLong(highestTrackableValue).putInt(significantDigits).putLong(sum.sum()).putInt(nonEmpty);
+        for (int i = 0; i < counts.length() && nonEmpty > 0; i++) {
+            long value = counts.get(i);
+            if (value != 0) {
+                buffer.putInt(i).putLong(value);
+                nonEmpty--;
+            }
+        }
+        return buffer.array();
+    }
+
+    public static Histogram decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Histogram histogram = new Histogram(buffer.getLong(), buffer.getInt());
+        histogram.sum.add(buffer.getLong());
+        int entries = buffer.getInt();
+        for (int i = 0; i < entries; i++) {
+            int index = buffer.getInt();
+            long value = buffer.getLong();
+            histogram.counts.addAndGet(index, value);
+            histogram.totalCount.add(value);
+        }
+        return histogram;
+    }
+
+    private void checkCompatible(Histogram other) {
+        if (other.highestTrackableValue != highestTrackableValue || other.significantDigits != significantDigits) {
+            throw new IllegalArgumentException("Histograms have different range or precision");
+        }
+    }
+
+    private int countsIndex(long value) {
+        int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    private long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        long lowest = (long) subBucketIndex << bucketIndex;
+        return lowest + (1L << bucketIndex) - 1;
+    }
+}
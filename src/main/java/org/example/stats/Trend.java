@@ -0,0 +1,94 @@
+package org.example.stats;
+
+import java.util.Arrays;
+
+/**
+ * Whether a series of samples keeps going one way: the Mann-Kendall test, which only looks at the order of the
+ * values and so is not fooled by a few outliers or by a sawtooth, and the Theil-Sen slope, the median of the
+ * slopes between all pairs of samples.
+ *
+ * @param z     standardized Mann-Kendall statistic; beyond about 2.6 either way the trend is significant at 1%
+ * @param slope change per sample interval
+ * @param first Theil-Sen line's value at the first sample
+ * @param last  Theil-Sen line's value at the last sample
+ */
+public record Trend(int samples, double z, double slope, double first, double last) {
+
+    /** |z| above this means the trend holds with 99% confidence. */
+    public static final double SIGNIFICANT_Z = 2.576;
+
+    // The test is quadratic in the number of samples; longer series are averaged down to this many points first
+    static final int MAX_POINTS = 1000;
+
+    public static Trend of(double[] series) {
+        int group = (series.length + MAX_POINTS - 1) / MAX_POINTS;
+        double[] values = series;
+        if (group > 1) {
+            values = new double[(series.length + group - 1) / group];
+            for (int i = 0; i < values.length; i++) {
+                int from = i * group;
+                int to = Math.min(series.length, from + group);
+                double sum = 0;
+                for (int j = from; j < to; j++) {
+                    sum += series[j];
+                }
+                values[i] = sum / (to - from);
+            }
+        }
+        int n = values.length;
+        if (n < 3) {
+            double only = n == 0 ? 0 : values[0];
+            return new Trend(n, 0, 0, only, n == 0 ? 0 : values[n - 1]);
+        }
+        long s = 0;
+        double[] slopes = new double[n * (n - 1) / 2];
+        int k = 0;
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                s += Double.compare(values[j], values[i]);
+                slopes[k++] = (values[j] - values[i]) / (j - i);
+            }
+        }
+        // Variance with the correction for runs of equal values, which counters like thread counts have plenty of
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double variance = n * (n - 1.0) * (2 * n + 5);
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && sorted[j] == sorted[i]) {
+                j++;
+            }
+            long t = j - i;
+            variance -= t * (t - 1.0) * (2 * t + 5);
+            i = j;
+        }
+        variance /= 18;
+        double z = variance <= 0 ? 0 : (s - Long.signum(s)) / Math.sqrt(variance);
+        double slope = median(slopes);
+        double[] intercepts = new double[n];
+        for (int i = 0; i < n; i++) {
+            intercepts[i] = values[i] - slope * i;
+        }
+        double intercept = median(intercepts);
+        return new Trend(series.length, z, slope / Math.max(group, 1), intercept, intercept + slope * (n - 1));
+    }
+
+    public boolean rising() {
+        return z > SIGNIFICANT_Z && slope > 0;
+    }
+
+    public boolean falling() {
+        return z < -SIGNIFICANT_Z && slope < 0;
+    }
+
+    /** Change over the whole series relative to where it started, e.g. 0.25 for a quarter more. */
+    public double relativeChange() {
+        return first == 0 ? (last == 0 ? 0 : Double.POSITIVE_INFINITY) : (last - first) / Math.abs(first);
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        int mid = values.length / 2;
+        return values.length % 2 == 1 ? values[mid] : (values[mid - 1] + values[mid]) / 2;
+    }
+}
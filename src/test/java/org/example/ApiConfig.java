@@ -0,0 +1,164 @@
+package org.example;
+
+import io.restassured.RestAssured;
+import io.restassured.config.HttpClientConfig;
+import org.example.auth.TokenBroker;
+import org.example.client.AsyncToolshopClient;
+import org.example.crawl.PageCrawler;
+import org.example.limit.Throttle;
+import org.example.limit.ThrottledHttpClient;
+import org.example.server.ToolshopServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which API the suites talk to.
+ * <ul>
+ *     <li>no {@code toolshop.api} property: the public host given by the test class</li>
+ *     <li>{@code -Dtoolshop.api=local}: the in-memory stand-in from {@code org.example.server}, started once per JVM</li>
+ *     <li>{@code -Dtoolshop.api=http://host:port}: any other deployment</li>
+ * </ul>
+ * {@code -Dtoolshop.transport=java} sends the suites' requests through {@link JavaHttpTransport};
+ * {@code -Dtoolshop.cassette=record|replay} records them or serves them from a file ({@link CassetteFilter}).
+ * Phase timings of every call are written to {@code target/phase-timings.prom} and {@code .json} at exit
+ * ({@code -Dtoolshop.timings.dir} moves them). Under a Flight Recorder recording every call is also an
+ * {@code org.example.ApiCall} event inside its test's {@code org.example.Test} event ({@link JfrEventFilter}).
+ * Successful responses have to match their schema ({@link SchemaValidationFilter}, off with
+ * {@code -Dtoolshop.schemas=off}).
+ * <p>
+ * All suites' requests share one {@link Throttle}, on either transport and from {@link #httpClient()}: it keeps as
+ * many in flight as the API answers without slowing down or throttling (at most {@code -Dtoolshop.concurrency},
+ * default 32), and sends a request the API throttled again after its {@code Retry-After}, within a budget of
+ * retries. It is off with {@code -Dtoolshop.throttle=off}.
+ */
+public final class ApiConfig {
+
+    public static final String PROPERTY = "toolshop.api";
+
+    /** Admin account of the public demo data, also seeded by the local stand-in. */
+    public static final TokenBroker.Credentials ADMIN =
+            new TokenBroker.Credentials("admin@practicesoftwaretesting.com", "welcome01");
+
+    /** Pages a crawl keeps in flight at once. */
+    static final int CRAWL_PREFETCH = 8;
+
+    private static final CassetteFilter CASSETTE = CassetteFilter.fromProperties();
+    private static final PhaseTimingFilter TIMINGS = new PhaseTimingFilter()
+            .writeOnExit(Path.of(System.getProperty("toolshop.timings.dir", "target")));
+
+    private static final Throttle THROTTLE = "off".equals(System.getProperty("toolshop.throttle")) ? null
+            : new Throttle(Throttle.Config.upTo(Integer.getInteger("toolshop.concurrency", 32)));
+
+    private static final Map<String, AsyncToolshopClient> ASYNC_CLIENTS = new ConcurrentHashMap<>();
+
+    private static ToolshopServer localServer;
+    private static HttpClient httpClient;
+    private static PageCrawler crawler;
+
+    // Filters all suites' calls go through. Every test class reads its URL from here during class
+    // initialization, so they are in place before the first request. Schema validation comes first so it sees the
+    // response every other filter has seen, and fails the call only after the tracking filter took note of it.
+    // Cassette replay and the transport answer requests themselves and have to stay last, in this order.
+    static {
+        RestAssured.config = RestAssured.config()
+                .httpClient(HttpClientConfig.httpClientConfig()
+                        .httpClientFactory(new TimingHttpClientFactory(THROTTLE)));
+        if (SchemaValidationFilter.enabled()) {
+            RestAssured.filters(new SchemaValidationFilter());
+        }
+        RestAssured.filters(new CategoryTrackingFilter());
+        RestAssured.filters(new JfrEventFilter());
+        RestAssured.filters(TIMINGS);
+        if (CASSETTE != null) {
+            RestAssured.filters(CASSETTE);
+        }
+        if (JavaHttpTransport.enabled()) {
+            RestAssured.filters(new JavaHttpTransport(JavaHttpTransport.sharedClient(), THROTTLE));
+        }
+        if (THROTTLE != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (THROTTLE.limiter().throttled() > 0) {
+                    System.err.println("API throttled the suites: " + THROTTLE);
+                }
+            }));
+        }
+    }
+
+    private ApiConfig() {
+    }
+
+    /** Whether calls are recorded into or replayed from a cassette ({@link CassetteFilter}). */
+    public static boolean usesCassette() {
+        return CASSETTE != null;
+    }
+
+    public static boolean isLocal() {
+        return "local".equals(System.getProperty(PROPERTY));
+    }
+
+    public static String baseUrl(String defaultBaseUrl) {
+        String configured = System.getProperty(PROPERTY);
+        if (configured == null || configured.isBlank()) {
+            return defaultBaseUrl;
+        }
+        if (isLocal()) {
+            return localServer().baseUrl();
+        }
+        return configured.endsWith("/") ? configured.substring(0, configured.length() - 1) : configured;
+    }
+
+    /** A current admin bearer token for the API at {@code baseUrl}, shared by all suites. */
+    public static String adminToken(String baseUrl) {
+        return broker(baseUrl).token(ADMIN);
+    }
+
+    public static TokenBroker broker(String baseUrl) {
+        return TokenBroker.shared(baseUrl, httpClient());
+    }
+
+    /**
+     * Client for helpers that call the API without RestAssured; records and replays along with the suites, and
+     * waits its turn with them. A replayed call is never throttled, since it never reaches the API.
+     */
+    public static synchronized HttpClient httpClient() {
+        if (httpClient == null) {
+            HttpClient network = THROTTLE == null ? JavaHttpTransport.sharedClient()
+                    : new ThrottledHttpClient(JavaHttpTransport.sharedClient(), THROTTLE);
+            httpClient = CASSETTE != null ? CASSETTE.wrap(network) : network;
+        }
+        return httpClient;
+    }
+
+    /**
+     * Non-blocking client for the API at {@code baseUrl}, shared by all suites. Its calls do not pass the RestAssured
+     * filters, so flows run through it delete what they create themselves.
+     */
+    public static AsyncToolshopClient asyncClient(String baseUrl) {
+        return ASYNC_CLIENTS.computeIfAbsent(baseUrl, url -> new AsyncToolshopClient(url, httpClient()));
+    }
+
+    /** Crawler for walking whole paginated lists, shared by all suites. */
+    public static synchronized PageCrawler crawler() {
+        if (crawler == null) {
+            crawler = new PageCrawler(httpClient(), CRAWL_PREFETCH);
+        }
+        return crawler;
+    }
+
+    public static synchronized ToolshopServer localServer() {
+        if (localServer == null) {
+            try {
+                localServer = ToolshopServer.start(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start the local Toolshop stand-in", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(localServer::stop));
+        }
+        return localServer;
+    }
+}
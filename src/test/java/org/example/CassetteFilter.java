@@ -0,0 +1,135 @@
+package org.example;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.example.cassette.Cassette;
+import org.example.cassette.CassetteHttpClient;
+import org.example.cassette.CassetteKey;
+import org.example.cassette.CassetteRecorder;
+import org.example.cassette.Exchange;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Records the suites' exchanges into a cassette file, or answers them from one without a backend.
+ * <ul>
+ *     <li>{@code -Dtoolshop.cassette=record}: calls go to the API as usual; the cassette is written when the JVM
+ *     exits</li>
+ *     <li>{@code -Dtoolshop.cassette=replay}: responses come from the memory-mapped cassette, nothing is sent</li>
+ *     <li>{@code -Dtoolshop.cassette.file=...}: the file, {@value #DEFAULT_FILE} by default</li>
+ * </ul>
+ * Calls that bypass RestAssured (token logins, page crawls) are covered by the client from {@link #wrap}.
+ * <p>
+ * RestAssured calls are sequenced per test ({@link JfrTestExtension#currentTest()}), so under parallel execution
+ * each test gets back its own responses in its own order, whatever the other tests do meanwhile.
+ */
+public class CassetteFilter implements Filter {
+
+    public static final String PROPERTY = "toolshop.cassette";
+    public static final String FILE_PROPERTY = "toolshop.cassette.file";
+    static final String DEFAULT_FILE = "target/cassettes/suites.cassette";
+
+    private final CassetteRecorder recorder;
+    private final Cassette cassette;
+
+    private CassetteFilter(CassetteRecorder recorder, Cassette cassette) {
+        this.recorder = recorder;
+        this.cassette = cassette;
+    }
+
+    /** The filter the system properties ask for, or null when cassettes are off. */
+    public static CassetteFilter fromProperties() {
+        String mode = System.getProperty(PROPERTY);
+        if (mode == null || mode.isBlank()) {
+            return null;
+        }
+        Path file = Path.of(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+        switch (mode) {
+            case "record":
+                CassetteRecorder recorder = new CassetteRecorder();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        recorder.write(file);
+                    } catch (IOException e) {
+                        System.err.println("Could not write cassette " + file + ": " + e);
+                    }
+                }));
+                return new CassetteFilter(recorder, null);
+            case "replay":
+                try {
+                    return new CassetteFilter(null, Cassette.open(file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not open cassette " + file, e);
+                }
+            default:
+                throw new IllegalArgumentException(PROPERTY + " must be 'record' or 'replay', not '" + mode + "'");
+        }
+    }
+
+    /** A client that records into or replays from the same cassette. */
+    public HttpClient wrap(HttpClient client) {
+        return cassette != null
+                ? CassetteHttpClient.replaying(client, cassette)
+                : CassetteHttpClient.recording(client, recorder);
+    }
+
+    /**
+     * Makes a call whose response all tests share, e.g. a lazily loaded oracle, outside of the calling test's
+     * sequence: which test gets to load it first differs from run to run.
+     */
+    public static <T> T shared(Supplier<T> call) {
+        return JfrTestExtension.outsideTest(call);
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        String key = CassetteKey.of(JfrTestExtension.currentTest(), requestSpec.getMethod(),
+                URI.create(requestSpec.getURI()), requestSpec.getHeaders().getValue("Authorization"),
+                body(requestSpec));
+        if (cassette != null) {
+            Exchange exchange = cassette.next(key);
+            if (exchange == null) {
+                throw new IllegalStateException("No recorded response for " + key);
+            }
+            return JavaHttpTransport.response(exchange.status(), "HTTP/1.1", exchange.headers(), exchange.body());
+        }
+        Response response = ctx.next(requestSpec, responseSpec);
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (Header header : response.getHeaders()) {
+            headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+        }
+        recorder.record(key, new Exchange(response.getStatusCode(), headers, response.asByteArray()));
+        return response;
+    }
+
+    private static byte[] body(FilterableRequestSpecification requestSpec) {
+        Object body = requestSpec.getBody();
+        if (body instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (body != null) {
+            return body.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        StringBuilder form = new StringBuilder();
+        requestSpec.getFormParams().forEach((name, value) -> form.append(form.length() > 0 ? "&" : "")
+                .append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                .append(URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        return form.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,139 @@
+package org.example;
+
+import org.example.client.AsyncToolshopClient;
+import org.example.json.JsonMerkleTree;
+import org.example.server.ToolshopServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.example.client.AsyncToolshopClient.all;
+import static org.example.client.AsyncToolshopClient.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mass creates and deletes against the category tree and the product listing, checked by a structural diff of
+ * the whole responses: while the rows exist only they may show up as differences, and once they are gone the
+ * responses must hash the same as before. Runs on its own stand-in, so other suites' rows stay out of the diff.
+ */
+public class CatalogConsistencyTest {
+
+    // Below JsonMerkleTree.MAX_DIFFERENCES, so every added row is listed
+    static final int CATEGORIES = 40;
+    static final int PRODUCTS = 30;
+
+    private static ToolshopServer server;
+    private static AsyncToolshopClient client;
+
+    @BeforeAll
+    public static void startServer() throws IOException {
+        server = ToolshopServer.start(0);
+        client = new AsyncToolshopClient(server.baseUrl(), HttpClient.newHttpClient());
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private static JsonMerkleTree snapshot(String path) {
+        return JsonMerkleTree.of(await(client.get(path)).expect(200).body());
+    }
+
+    // Every page of the product listing, as long as the first page says it is
+    private static List<JsonMerkleTree> productPages() {
+        AsyncToolshopClient.ApiResponse first = await(client.get("/products?page=1")).expect(200);
+        int lastPage = ((Number) ((Map<?, ?>) first.json()).get("last_page")).intValue();
+        List<JsonMerkleTree> pages = new ArrayList<>();
+        pages.add(JsonMerkleTree.of(first.body()));
+        for (int page = 2; page <= lastPage; page++) {
+            pages.add(snapshot("/products?page=" + page));
+        }
+        return pages;
+    }
+
+    @Test
+    public void testTreeShowsOnlyCreatedCategoriesAndIsRestoredByDeletes() {
+        AsyncToolshopClient.ApiResponse tree = await(client.get("/categories/tree")).expect(200);
+        JsonMerkleTree golden = JsonMerkleTree.of(tree.body());
+        String parentId = (String) ((Map<?, ?>) ((List<?>) tree.json()).get(0)).get("id");
+
+        List<CompletableFuture<String>> creates = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            creates.add(client.createCategory("Consistency " + i, "consistency-" + i, parentId)
+                    .thenApply(created -> created.expect(201).string("id")));
+        }
+        List<String> ids = await(all(creates));
+
+        List<String> expected = ids.stream()
+                .map(id -> "$[id=" + parentId + "].sub_categories[id=" + id + "]: added")
+                .sorted()
+                .toList();
+        List<String> differences = golden.diff(snapshot("/categories/tree")).stream()
+                .map(difference -> difference.substring(0, difference.indexOf(": added") + ": added".length()))
+                .sorted()
+                .toList();
+        assertEquals(expected, differences, "Category tree differs in more than the created categories");
+
+        AsyncToolshopClient admin = client.withToken(await(client.login(ApiConfig.ADMIN.email(),
+                ApiConfig.ADMIN.password())));
+        List<CompletableFuture<Void>> deletes = new ArrayList<>();
+        for (String id : ids) {
+            deletes.add(admin.deleteCategory(id).thenAccept(deleted -> deleted.expect(204)));
+        }
+        await(all(deletes));
+
+        JsonMerkleTree after = snapshot("/categories/tree");
+        assertEquals(List.of(), golden.diff(after), "Category tree not restored after deleting");
+        assertTrue(golden.sameAs(after));
+    }
+
+    @Test
+    public void testListingShowsOnlyNewTotalsAndIsRestoredByDeletes() {
+        List<JsonMerkleTree> golden = productPages();
+
+        List<CompletableFuture<String>> creates = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            creates.add(client.createProduct(Map.of(
+                            "name", "Consistency " + i,
+                            "description", "Created and deleted again",
+                            "price", 9.99,
+                            "category_id", 1,
+                            "brand_id", 1,
+                            "product_image_id", 1))
+                    .thenApply(created -> created.expect(201).string("id")));
+        }
+        List<String> ids = await(all(creates));
+
+        int total = ToolshopServer.DEFAULT_PRODUCTS + PRODUCTS;
+        int perPage = 9;
+        assertEquals(List.of(
+                        "$.last_page: " + golden.size() + " -> " + (total + perPage - 1) / perPage,
+                        "$.total: " + ToolshopServer.DEFAULT_PRODUCTS + " -> " + total),
+                golden.get(0).diff(snapshot("/products?page=1")),
+                "First page differs in more than the totals");
+
+        List<CompletableFuture<Void>> deletes = new ArrayList<>();
+        for (String id : ids) {
+            deletes.add(client.deleteProduct(id).thenAccept(deleted -> deleted.expect(204)));
+        }
+        await(all(deletes));
+
+        List<JsonMerkleTree> after = productPages();
+        assertEquals(golden.size(), after.size(), "Number of pages not restored after deleting");
+        for (int page = 0; page < golden.size(); page++) {
+            assertEquals(List.of(), golden.get(page).diff(after.get(page)),
+                    "Page " + (page + 1) + " not restored after deleting");
+        }
+    }
+}
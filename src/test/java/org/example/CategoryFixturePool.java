@@ -0,0 +1,194 @@
+package org.example;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.example.json.JsonTemplate;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Throwaway categories for CategoryTest, created ahead of time on background threads.
+ * <p>
+ * Every category created against the pool's URL is tracked, whether it came from the pool or from a test's own
+ * POST (see {@link ApiConfig}'s tracking filter), and all of them are deleted with concurrent calls once the
+ * whole test run is over, so tests neither wait for cleanup nor leak rows when an assertion fails first.
+ * <p>
+ * With a cassette ({@link ApiConfig#usesCassette()}) nothing is created ahead of time: each test creates its
+ * fixture itself, so it gets the same recorded id on replay that it got while recording, whatever order the
+ * tests run in.
+ *
+ * <pre>
+ * &#64;RegisterExtension
+ * static final CategoryFixturePool POOL = CategoryFixturePool.forUrl(URL, CategoryTest::adminToken);
+ * ...
+ * CategoryFixturePool.Fixture category = POOL.take();
+ * </pre>
+ */
+public class CategoryFixturePool implements BeforeAllCallback {
+
+    public record Fixture(String id, String name, String slug) {
+    }
+
+    static final JsonTemplate CATEGORY_BODY = JsonTemplate.compile("{\"name\": {{name}}, \"slug\": {{slug}}}");
+
+    static final int PREWARM = 8;
+    static final int DELETE_CONCURRENCY = 16;
+    // Cleanup rounds before the ids still left are reported as leaked
+    static final int MAX_DELETE_ROUNDS = 8;
+
+    private static final Map<String, CategoryFixturePool> POOLS = new ConcurrentHashMap<>();
+
+    private final String url;
+    private final Supplier<String> adminToken;
+    private final BlockingQueue<Fixture> ready = new LinkedBlockingQueue<>();
+    private final Set<String> created = ConcurrentHashMap.newKeySet();
+    private final ExecutorService background = Executors.newFixedThreadPool(4, Threads.daemonFactory("category-fixtures"));
+    private final boolean prewarms = !ApiConfig.usesCassette();
+    private volatile boolean closed;
+
+    private CategoryFixturePool(String url, Supplier<String> adminToken) {
+        this.url = url;
+        this.adminToken = adminToken;
+    }
+
+    public static CategoryFixturePool forUrl(String categoriesUrl, Supplier<String> adminToken) {
+        return POOLS.computeIfAbsent(categoriesUrl, url -> new CategoryFixturePool(url, adminToken));
+    }
+
+    /** Records a category created outside the pool so it is removed at the end of the run. */
+    static void track(String requestUri, String id) {
+        for (CategoryFixturePool pool : POOLS.values()) {
+            if (requestUri.startsWith(pool.url)) {
+                pool.created.add(id);
+            }
+        }
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        // The root store is closed after the last test class, which is when the pool cleans up
+        context.getRoot().getStore(ExtensionContext.Namespace.GLOBAL)
+                .computeIfAbsent(CategoryFixturePool.class.getName() + url, key -> {
+                    for (int i = 0; i < PREWARM && prewarms; i++) {
+                        background.execute(this::refill);
+                    }
+                    return (AutoCloseable) this::close;
+                });
+    }
+
+    /** Hands out a category nobody else uses; tests may rename or delete it. */
+    public Fixture take() {
+        if (!prewarms) {
+            return create();
+        }
+        background.execute(this::refill);
+        try {
+            Fixture fixture = ready.poll(5, TimeUnit.SECONDS);
+            return fixture != null ? fixture : create();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return create();
+        }
+    }
+
+    private void refill() {
+        if (!closed) {
+            try {
+                ready.add(create());
+            } catch (RuntimeException e) {
+                // take() creates its own when the queue stays empty; leave a trace of why it did
+                System.err.println("Could not pre-create a fixture category for " + url + ": " + e);
+            }
+        }
+    }
+
+    private Fixture create() {
+        String suffix = UUID.randomUUID().toString();
+        String name = "fixture category " + suffix;
+        String slug = "fixture-category-" + suffix;
+        Response response = RestAssured.given()
+                .contentType("application/json")
+                .body(CATEGORY_BODY.renderer().with("name", name).with("slug", slug).toByteArray())
+                .post(url);
+        if (response.getStatusCode() != 201) {
+            throw new IllegalStateException("Could not create fixture category: " + response.getStatusCode());
+        }
+        // As the server stored them, which on replay are the recorded ones rather than this run's
+        String id = response.jsonPath().getString("id");
+        created.add(id);
+        return new Fixture(id, response.jsonPath().getString("name"), response.jsonPath().getString("slug"));
+    }
+
+    // Deletes everything in concurrent rounds. A parent can only go once its children are gone (409), and a
+    // throttled (429), failing (5xx) or unanswered delete may go through later, so whatever was not deleted is
+    // retried in the next round. Gone already (404, or 422 for an unknown id) counts as deleted. Whatever is still
+    // left after MAX_DELETE_ROUNDS, or after a round that deleted nothing and hit no transient failure, fails the
+    // run with its ids.
+    private void close() throws InterruptedException {
+        closed = true;
+        background.shutdownNow();
+        ExecutorService deleters = Executors.newFixedThreadPool(DELETE_CONCURRENCY, Threads.daemonFactory("category-cleanup"));
+        List<String> remaining = new ArrayList<>(created);
+        try {
+            for (int round = 1; round <= MAX_DELETE_ROUNDS && !remaining.isEmpty(); round++) {
+                String token = adminToken.get();
+                List<Future<Integer>> statuses = new ArrayList<>();
+                for (String id : remaining) {
+                    statuses.add(deleters.submit(() -> RestAssured.given()
+                            .header("Authorization", "Bearer " + token)
+                            .delete(url + '/' + id)
+                            .getStatusCode()));
+                }
+                List<String> left = new ArrayList<>();
+                boolean transientFailures = false;
+                for (int i = 0; i < remaining.size(); i++) {
+                    int status = status(statuses.get(i));
+                    if (status == 429 || status >= 500 || status < 0) {
+                        left.add(remaining.get(i));
+                        transientFailures = true;
+                    } else if (status != 204 && status != 404 && status != 422) {
+                        left.add(remaining.get(i));
+                    }
+                }
+                if (!transientFailures && left.size() == remaining.size()) {
+                    break;
+                }
+                remaining = left;
+                if (transientFailures) {
+                    Thread.sleep(250L * round);
+                }
+            }
+            if (!remaining.isEmpty()) {
+                throw new IllegalStateException("Could not delete " + remaining.size() + " fixture categories at "
+                        + url + ": " + remaining);
+            }
+            created.clear();
+        } finally {
+            deleters.shutdown();
+            deleters.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static int status(Future<Integer> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return -1;
+        }
+    }
+}
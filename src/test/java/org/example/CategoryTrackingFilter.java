@@ -0,0 +1,28 @@
+package org.example;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Hands the id of every category a POST created to {@link CategoryFixturePool}, including ones a test did not
+ * expect to be created, so they are deleted at the end of the run.
+ */
+public class CategoryTrackingFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        if ("POST".equals(requestSpec.getMethod()) && response.getStatusCode() == 201
+                && requestSpec.getURI().contains("/categories")) {
+            String id = response.jsonPath().getString("id");
+            if (id != null) {
+                CategoryFixturePool.track(requestSpec.getURI(), id);
+            }
+        }
+        return response;
+    }
+}
@@ -0,0 +1,215 @@
+package org.example;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.example.limit.Throttle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends RestAssured requests through {@link java.net.http.HttpClient} instead of the default Apache client, so
+ * test call sites stay as they are while every suite shares one connection pool: keep-alive connections, HTTP/2
+ * multiplexing where the server offers it (ALPN over TLS) and TLS session reuse from the client's SSL context.
+ * <p>
+ * Enabled with {@code -Dtoolshop.transport=java}; {@link ApiConfig} then installs it as the last filter, because
+ * it answers the request itself instead of passing it down the chain. Requests it cannot express (multipart,
+ * bodies that are not yet serialized) still go through the default transport. With a {@link Throttle}, requests
+ * wait for their turn and throttled ones are sent again.
+ */
+public class JavaHttpTransport implements Filter {
+
+    public static final String PROPERTY = "toolshop.transport";
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    // Set by the client itself; java.net.http refuses them
+    private static final Set<String> RESTRICTED = Set.of("host", "connection", "content-length", "expect", "upgrade");
+
+    private static HttpClient shared;
+
+    private final HttpClient client;
+    private final Throttle throttle;
+
+    public JavaHttpTransport(HttpClient client) {
+        this(client, null);
+    }
+
+    /** Sends every request through {@code throttle}, unless it is null. */
+    public JavaHttpTransport(HttpClient client, Throttle throttle) {
+        this.client = client;
+        this.throttle = throttle;
+    }
+
+    public static boolean enabled() {
+        return "java".equals(System.getProperty(PROPERTY));
+    }
+
+    /** The client behind the transport, also used by other helpers that talk to the API directly. */
+    public static synchronized HttpClient sharedClient() {
+        if (shared == null) {
+            shared = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+        }
+        return shared;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        HttpRequest.BodyPublisher body = body(requestSpec);
+        if (body == null) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(requestSpec.getURI()))
+                .timeout(TIMEOUT)
+                .method(requestSpec.getMethod(), body);
+        for (Header header : requestSpec.getHeaders()) {
+            if (!RESTRICTED.contains(header.getName().toLowerCase())
+                    && !header.getName().equalsIgnoreCase("Content-Type")) {
+                request.header(header.getName(), header.getValue());
+            }
+        }
+        String contentType = contentType(requestSpec);
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+
+        HttpRequest built = request.build();
+        HttpResponse<byte[]> response;
+        try {
+            response = throttle == null ? client.send(built, HttpResponse.BodyHandlers.ofByteArray())
+                    : throttle.call(new Throttle.Exchange<HttpResponse<byte[]>>() {
+                        @Override
+                        public HttpResponse<byte[]> send() throws IOException, InterruptedException {
+                            return client.send(built, HttpResponse.BodyHandlers.ofByteArray());
+                        }
+
+                        @Override
+                        public int status(HttpResponse<byte[]> answer) {
+                            return answer.statusCode();
+                        }
+
+                        @Override
+                        public String header(HttpResponse<byte[]> answer, String name) {
+                            return answer.headers().firstValue(name).orElse(null);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(requestSpec.getMethod() + " " + requestSpec.getURI() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during " + requestSpec.getMethod() + " " + requestSpec.getURI(), e);
+        }
+        return toResponse(response);
+    }
+
+    // Null when the request needs the default transport
+    private static HttpRequest.BodyPublisher body(FilterableRequestSpecification requestSpec) {
+        if (!requestSpec.getMultiPartParams().isEmpty()) {
+            return null;
+        }
+        Object body = requestSpec.getBody();
+        if (body instanceof byte[] bytes) {
+            return HttpRequest.BodyPublishers.ofByteArray(bytes);
+        }
+        if (body instanceof String text) {
+            return HttpRequest.BodyPublishers.ofString(text, charset(requestSpec));
+        }
+        if (body != null) {
+            return null;
+        }
+        Map<String, Object> form = formParams(requestSpec);
+        if (form.isEmpty()) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        StringBuilder encoded = new StringBuilder();
+        form.forEach((name, value) -> {
+            if (encoded.length() > 0) {
+                encoded.append('&');
+            }
+            encoded.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8));
+        });
+        return HttpRequest.BodyPublishers.ofString(encoded.toString());
+    }
+
+    // RestAssured sends param() as form data on everything but GET
+    private static Map<String, Object> formParams(FilterableRequestSpecification requestSpec) {
+        Map<String, Object> form = new LinkedHashMap<>(requestSpec.getFormParams());
+        if (!"GET".equals(requestSpec.getMethod())) {
+            form.putAll(requestSpec.getRequestParams());
+        }
+        return form;
+    }
+
+    private static String contentType(FilterableRequestSpecification requestSpec) {
+        String contentType = requestSpec.getContentType();
+        if (contentType == null && !formParams(requestSpec).isEmpty()) {
+            return "application/x-www-form-urlencoded";
+        }
+        return contentType;
+    }
+
+    private static Charset charset(FilterableRequestSpecification requestSpec) {
+        String contentType = requestSpec.getContentType();
+        if (contentType != null) {
+            int at = contentType.toLowerCase().indexOf("charset=");
+            if (at >= 0) {
+                return Charset.forName(contentType.substring(at + "charset=".length()).trim());
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static Response toResponse(HttpResponse<byte[]> response) {
+        String version = response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+        return response(response.statusCode(), version, response.headers().map(), response.body());
+    }
+
+    /** A RestAssured response that was not produced by RestAssured's own transport. */
+    static Response response(int status, String protocol, Map<String, List<String>> headerMap, byte[] body) {
+        List<Header> headers = new ArrayList<>();
+        String contentType = "";
+        for (Map.Entry<String, List<String>> header : headerMap.entrySet()) {
+            // HTTP/2 pseudo-headers are not real headers
+            if (header.getKey().startsWith(":")) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                headers.add(new Header(header.getKey(), value));
+                if (contentType.isEmpty() && header.getKey().equalsIgnoreCase("Content-Type")) {
+                    contentType = value;
+                }
+            }
+        }
+        return new ResponseBuilder()
+                .setStatusCode(status)
+                .setStatusLine(protocol + " " + status)
+                .setHeaders(new Headers(headers))
+                .setContentType(contentType)
+                .setBody(body)
+                .build();
+    }
+}
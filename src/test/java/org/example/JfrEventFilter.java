@@ -0,0 +1,44 @@
+package org.example;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.example.jfr.ApiCallEvent;
+
+import java.net.URI;
+
+/**
+ * Emits an {@link ApiCallEvent} for every call the suites make, carrying the endpoint template (as in
+ * {@link PhaseTimings}) and the test that made it ({@link JfrTestExtension}). Without a recording the filter
+ * only asks whether the event is enabled.
+ */
+public class JfrEventFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        ApiCallEvent event = new ApiCallEvent();
+        if (!event.isEnabled()) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        event.begin();
+        Response response = ctx.next(requestSpec, responseSpec);
+        // Reading the body is part of the call
+        byte[] body = response.asByteArray();
+        event.end();
+        if (event.shouldCommit()) {
+            String path = URI.create(requestSpec.getURI()).getRawPath();
+            event.method = requestSpec.getMethod();
+            event.path = path;
+            event.endpoint = PhaseTimings.template(path);
+            event.status = response.getStatusCode();
+            event.requestBytes = PhaseTimingFilter.bodyLength(requestSpec);
+            event.responseBytes = body.length;
+            event.test = JfrTestExtension.currentTest();
+            event.commit();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import org.example.jfr.TestEvent;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.DynamicTestInvocationContext;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.opentest4j.TestAbortedException;
+
+import java.util.function.Supplier;
+
+/**
+ * Wraps every test method in a {@link TestEvent} for Flight Recorder, so the API calls it makes
+ * ({@link JfrEventFilter}) nest under it. Registered for all tests through
+ * {@code META-INF/services/org.junit.jupiter.api.extension.Extension}; costs nothing without a recording.
+ * <pre>
+ * mvn test -DargLine="-XX:StartFlightRecording=filename=target/suite.jfr,settings=profile"
+ * </pre>
+ * Also tracks which test runs on each thread, for {@link #currentTest()}. A worker thread blocked in one test may
+ * run another one meanwhile, so the previous name is put back when the inner test ends.
+ */
+public class JfrTestExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback,
+        InvocationInterceptor {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(JfrTestExtension.class);
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    private static final String PREVIOUS = "previousTest";
+
+    /** Class#method of the test running on this thread, followed by the display name for dynamic tests, or null. */
+    static String currentTest() {
+        return CURRENT.get();
+    }
+
+    /** Runs {@code action} as if no test were running on this thread. */
+    static <T> T outsideTest(Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.remove();
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    @Override
+    public void interceptDynamicTest(Invocation<Void> invocation, DynamicTestInvocationContext invocationContext,
+                                     ExtensionContext context) throws Throwable {
+        String previous = CURRENT.get();
+        CURRENT.set(context.getParent().map(JfrTestExtension::name).orElse("") + ' ' + context.getDisplayName());
+        try {
+            invocation.proceed();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        String test = name(context);
+        context.getStore(NAMESPACE).put(PREVIOUS, CURRENT.get());
+        CURRENT.set(test);
+        TestEvent event = new TestEvent();
+        if (event.isEnabled()) {
+            event.test = test;
+            event.displayName = context.getDisplayName();
+            event.begin();
+            context.getStore(NAMESPACE).put(TestEvent.class, event);
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        restore(context.getStore(NAMESPACE).remove(PREVIOUS, String.class));
+        TestEvent event = context.getStore(NAMESPACE).remove(TestEvent.class, TestEvent.class);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            Throwable failure = context.getExecutionException().orElse(null);
+            event.outcome = failure == null ? "successful"
+                    : failure instanceof TestAbortedException ? "aborted" : "failed";
+            event.failure = failure == null ? null : failure.toString();
+            event.commit();
+        }
+    }
+
+    private static String name(ExtensionContext context) {
+        return context.getRequiredTestClass().getSimpleName() + '#' + context.getRequiredTestMethod().getName();
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
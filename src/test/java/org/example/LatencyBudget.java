@@ -0,0 +1,37 @@
+package org.example;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the test method {@link #warmup()} times unmeasured, then {@link #samples()} times measured, and fails if
+ * a percentile of the measured durations goes over its budget. Budgets are durations like {@code "150ms"}; empty
+ * means unchecked. The whole method body is timed, so it should make just the call under test.
+ *
+ * <pre>
+ * &#64;Test
+ * &#64;LatencyBudget(p99 = "150ms", samples = 200, warmup = 20)
+ * public void productsList() { ... }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(LatencyBudgetExtension.class)
+public @interface LatencyBudget {
+
+    String p50() default "";
+
+    String p90() default "";
+
+    String p99() default "";
+
+    String max() default "";
+
+    int samples() default 100;
+
+    int warmup() default 10;
+}
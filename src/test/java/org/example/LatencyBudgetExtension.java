@@ -0,0 +1,99 @@
+package org.example;
+
+import org.example.stats.Histogram;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executes {@link LatencyBudget} test methods repeatedly and checks the distribution of their durations.
+ * Each run's percentiles are published as a report entry, whether the budget holds or not.
+ */
+public class LatencyBudgetExtension implements InvocationInterceptor {
+
+    static final long HIGHEST_MICROS = 60_000_000;
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                    ExtensionContext extensionContext) throws Throwable {
+        LatencyBudget budget = AnnotationSupport.findAnnotation(invocationContext.getExecutable(), LatencyBudget.class)
+                .orElse(null);
+        if (budget == null) {
+            invocation.proceed();
+            return;
+        }
+        if (budget.samples() < 1 || budget.warmup() < 0) {
+            throw new IllegalArgumentException("@LatencyBudget needs samples >= 1 and warmup >= 0");
+        }
+
+        Method method = invocationContext.getExecutable();
+        method.setAccessible(true);
+        Object target = invocationContext.getTarget().orElse(null);
+        Object[] arguments = invocationContext.getArguments().toArray();
+        for (int i = 0; i < budget.warmup(); i++) {
+            call(method, target, arguments);
+        }
+        Histogram micros = new Histogram(HIGHEST_MICROS, 3);
+        for (int i = 0; i < budget.samples(); i++) {
+            long start = System.nanoTime();
+            call(method, target, arguments);
+            micros.record((System.nanoTime() - start) / 1000);
+        }
+        // The method already ran as often as it should
+        invocation.skip();
+
+        extensionContext.publishReportEntry(distribution(micros));
+        List<String> exceeded = new ArrayList<>();
+        check(exceeded, "p50", budget.p50(), micros.percentile(50));
+        check(exceeded, "p90", budget.p90(), micros.percentile(90));
+        check(exceeded, "p99", budget.p99(), micros.percentile(99));
+        check(exceeded, "max", budget.max(), micros.max());
+        if (!exceeded.isEmpty()) {
+            throw new AssertionFailedError("Latency budget exceeded: " + String.join(", ", exceeded)
+                    + " (" + budget.samples() + " samples: " + distribution(micros) + ")");
+        }
+    }
+
+    private static void call(Method method, Object target, Object[] arguments) throws Throwable {
+        try {
+            method.invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void check(List<String> exceeded, String name, String budget, long measuredMicros) {
+        if (budget.isEmpty()) {
+            return;
+        }
+        Duration limit = Options.parseDuration(budget);
+        if (measuredMicros > limit.toNanos() / 1000) {
+            exceeded.add(name + " " + millis(measuredMicros) + " > " + budget);
+        }
+    }
+
+    private static Map<String, String> distribution(Histogram micros) {
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("p50", millis(micros.percentile(50)));
+        summary.put("p90", millis(micros.percentile(90)));
+        summary.put("p99", millis(micros.percentile(99)));
+        summary.put("p99.9", millis(micros.percentile(99.9)));
+        summary.put("max", millis(micros.max()));
+        summary.put("mean", millis((long) micros.mean()));
+        return summary;
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2fms", micros / 1000.0);
+    }
+}
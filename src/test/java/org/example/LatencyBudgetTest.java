@@ -0,0 +1,44 @@
+package org.example;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Release gates on how fast the most used lists answer, not only whether they answer. Runs isolated, so the
+ * other suites' parallel traffic does not end up in the distribution.
+ * <p>
+ * Against the public API the budgets would measure the network between here and there, so the gates only run
+ * against the local stand-in, or anywhere with {@code -Dtoolshop.latency=on}.
+ */
+@Isolated
+@EnabledIf("enabled")
+public class LatencyBudgetTest {
+
+    public static final String PRODUCTS_URL = ApiConfig.baseUrl("https://api-v2.practicesoftwaretesting.com") + "/products";
+    public static final String CATEGORY_TREE_URL = ApiConfig.baseUrl("https://api.practicesoftwaretesting.com") + "/categories/tree";
+
+    static boolean enabled() {
+        return ApiConfig.isLocal() || "on".equals(System.getProperty("toolshop.latency"));
+    }
+
+    @Test
+    @LatencyBudget(p99 = "150ms", samples = 200, warmup = 20)
+    public void testProductsLatency() {
+        Response response = RestAssured.get(PRODUCTS_URL);
+
+        assertEquals(200, response.getStatusCode());
+    }
+
+    @Test
+    @LatencyBudget(p99 = "150ms", samples = 200, warmup = 20)
+    public void testCategoryTreeLatency() {
+        Response response = RestAssured.get(CATEGORY_TREE_URL);
+
+        assertEquals(200, response.getStatusCode());
+    }
+}
@@ -0,0 +1,35 @@
+package org.example;
+
+/**
+ * Phase marks of the request the current thread is sending. {@link PhaseTimingFilter} starts a clock around
+ * each call; the socket factories and request executor of {@link TimingHttpClientFactory} fill it in, which
+ * works because RestAssured sends on the calling thread.
+ */
+final class PhaseClock {
+
+    private static final ThreadLocal<PhaseClock> CURRENT = new ThreadLocal<>();
+
+    long connectNanos;
+    long tlsNanos;
+    long sendStart;
+    long firstByte;
+    long bytesSent;
+
+    private PhaseClock() {
+    }
+
+    static PhaseClock start() {
+        PhaseClock clock = new PhaseClock();
+        CURRENT.set(clock);
+        return clock;
+    }
+
+    /** The running clock, or null for calls made outside the filter. */
+    static PhaseClock current() {
+        return CURRENT.get();
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Times every call the suites make: connect, TLS handshake, time to first byte and body read, plus the bytes
+ * sent and received, aggregated per endpoint template in {@link PhaseTimings}.
+ * <p>
+ * Connect, TLS and first byte come from {@link TimingHttpClientFactory}, so they are only known on RestAssured's
+ * own transport; other transports and cassette replay report the total. Body read runs from the response head
+ * to the end of the call, which includes RestAssured buffering the body.
+ */
+public class PhaseTimingFilter implements Filter {
+
+    private final PhaseTimings timings = new PhaseTimings();
+
+    public PhaseTimings timings() {
+        return timings;
+    }
+
+    /** Writes {@code phase-timings.prom} and {@code phase-timings.json} into {@code directory} when the JVM exits. */
+    public PhaseTimingFilter writeOnExit(Path directory) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                timings.writePrometheus(directory.resolve("phase-timings.prom"));
+                timings.writeJson(directory.resolve("phase-timings.json"));
+            } catch (IOException e) {
+                System.err.println("Could not write phase timings to " + directory + ": " + e);
+            }
+        }));
+        return this;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long start = System.nanoTime();
+        PhaseClock clock = PhaseClock.start();
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } finally {
+            PhaseClock.stop();
+        }
+        long end = System.nanoTime();
+
+        long[] phases = new long[PhaseTimings.Phase.values().length];
+        phases[PhaseTimings.Phase.CONNECT.ordinal()] = clock.sendStart > 0 ? clock.connectNanos : -1;
+        phases[PhaseTimings.Phase.TLS.ordinal()] = clock.sendStart > 0 && requestSpec.getURI().startsWith("https")
+                ? clock.tlsNanos : -1;
+        phases[PhaseTimings.Phase.TTFB.ordinal()] = clock.firstByte > 0 ? clock.firstByte - clock.sendStart : -1;
+        phases[PhaseTimings.Phase.BODY.ordinal()] = clock.firstByte > 0 ? end - clock.firstByte : -1;
+        phases[PhaseTimings.Phase.TOTAL.ordinal()] = end - start;
+
+        long sent = clock.bytesSent > 0 ? clock.bytesSent : bodyLength(requestSpec);
+        long received = response.asByteArray().length + headLength(response);
+        timings.record(requestSpec.getMethod(), URI.create(requestSpec.getURI()).getRawPath(), phases, sent, received);
+        return response;
+    }
+
+    static long bodyLength(FilterableRequestSpecification requestSpec) {
+        Object body = requestSpec.getBody();
+        if (body instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        return body == null ? 0 : body.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    // Status line and headers as they appear on the wire in HTTP/1.1
+    private static long headLength(Response response) {
+        long length = response.getStatusLine().length() + 2 + 2;
+        for (Header header : response.getHeaders()) {
+            length += header.getName().length() + 2 + header.getValue().length() + 2;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,162 @@
+package org.example;
+
+import org.example.json.Json;
+import org.example.stats.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-endpoint phase durations and byte counts of a test run, keyed by method and path template
+ * ({@code GET /categories/{id}}). Recording is lock-free; {@link #writePrometheus} and {@link #writeJson} export
+ * a snapshot.
+ */
+public class PhaseTimings {
+
+    enum Phase { CONNECT, TLS, TTFB, BODY, TOTAL }
+
+    static final long HIGHEST_MICROS = 60_000_000;
+    static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    // Numbers, ULIDs and UUIDs in a path are ids
+    private static final Pattern ID = Pattern.compile(
+            "\\d+|[0-9A-HJKMNP-TV-Za-hjkmnp-tv-z]{26}|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    static final class Endpoint {
+        final LongAdder requests = new LongAdder();
+        final LongAdder bytesSent = new LongAdder();
+        final LongAdder bytesReceived = new LongAdder();
+        final Histogram[] phases = new Histogram[Phase.values().length];
+
+        Endpoint() {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new Histogram(HIGHEST_MICROS, 3);
+            }
+        }
+
+        Histogram phase(Phase phase) {
+            return phases[phase.ordinal()];
+        }
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    static String template(String path) {
+        StringBuilder template = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/').append(ID.matcher(segment).matches() ? "{id}" : segment);
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    /** Phase durations in nanoseconds; a negative duration means the phase was not observed. */
+    void record(String method, String path, long[] phaseNanos, long bytesSent, long bytesReceived) {
+        Endpoint endpoint = endpoints.computeIfAbsent(method + ' ' + template(path), key -> new Endpoint());
+        endpoint.requests.increment();
+        endpoint.bytesSent.add(bytesSent);
+        endpoint.bytesReceived.add(bytesReceived);
+        for (Phase phase : Phase.values()) {
+            long nanos = phaseNanos[phase.ordinal()];
+            if (nanos >= 0) {
+                endpoint.phase(phase).record(nanos / 1000);
+            }
+        }
+    }
+
+    public void writePrometheus(Path file) throws IOException {
+        StringBuilder out = new StringBuilder();
+        Map<String, Endpoint> sorted = new TreeMap<>(endpoints);
+        out.append("# HELP toolshop_http_phase_seconds Duration of each phase of a request.\n");
+        out.append("# TYPE toolshop_http_phase_seconds summary\n");
+        sorted.forEach((name, endpoint) -> {
+            for (Phase phase : Phase.values()) {
+                Histogram histogram = endpoint.phase(phase);
+                if (histogram.count() == 0) {
+                    continue;
+                }
+                String labels = "endpoint=\"" + escape(name) + "\",phase=\"" + phase.name().toLowerCase(Locale.ROOT) + "\"";
+                for (double quantile : QUANTILES) {
+                    out.append("toolshop_http_phase_seconds{").append(labels).append(",quantile=\"").append(quantile)
+                            .append("\"} ").append(seconds(histogram.percentile(quantile * 100))).append('\n');
+                }
+                out.append("toolshop_http_phase_seconds_sum{").append(labels).append("} ")
+                        .append(seconds((long) (histogram.mean() * histogram.count()))).append('\n');
+                out.append("toolshop_http_phase_seconds_count{").append(labels).append("} ")
+                        .append(histogram.count()).append('\n');
+            }
+        });
+        counter(out, sorted, "toolshop_http_requests_total", "Requests sent.", e -> e.requests.sum());
+        counter(out, sorted, "toolshop_http_request_bytes_total", "Bytes sent, head and body.", e -> e.bytesSent.sum());
+        counter(out, sorted, "toolshop_http_response_bytes_total", "Bytes received, head and body.", e -> e.bytesReceived.sum());
+        write(file, out.toString());
+    }
+
+    public void writeJson(Path file) throws IOException {
+        List<Object> list = new ArrayList<>();
+        new TreeMap<>(endpoints).forEach((name, endpoint) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("endpoint", name);
+            entry.put("requests", endpoint.requests.sum());
+            entry.put("request_bytes", endpoint.bytesSent.sum());
+            entry.put("response_bytes", endpoint.bytesReceived.sum());
+            Map<String, Object> phases = new LinkedHashMap<>();
+            for (Phase phase : Phase.values()) {
+                Histogram histogram = endpoint.phase(phase);
+                if (histogram.count() > 0) {
+                    Map<String, Object> summary = new LinkedHashMap<>();
+                    summary.put("count", histogram.count());
+                    summary.put("p50", histogram.percentile(50));
+                    summary.put("p90", histogram.percentile(90));
+                    summary.put("p99", histogram.percentile(99));
+                    summary.put("max", histogram.max());
+                    summary.put("mean", histogram.mean());
+                    phases.put(phase.name().toLowerCase(Locale.ROOT) + "_us", summary);
+                }
+            }
+            entry.put("phases", phases);
+            list.add(entry);
+        });
+        write(file, Json.stringify(Map.of("endpoints", list)));
+    }
+
+    private interface Counter {
+        long value(Endpoint endpoint);
+    }
+
+    private static void counter(StringBuilder out, Map<String, Endpoint> endpoints, String metric, String help,
+                                Counter counter) {
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(" counter\n");
+        endpoints.forEach((name, endpoint) -> out.append(metric).append("{endpoint=\"").append(escape(name))
+                .append("\"} ").append(counter.value(endpoint)).append('\n'));
+    }
+
+    private static String seconds(long micros) {
+        return String.valueOf(micros / 1e6);
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import org.example.json.JsonPathExtractor;
+import org.example.server.ProductStore;
+import org.example.server.ToolshopServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every combination of the /products filters, absent ones included, paged, against a stand-in of its own seeded
+ * with a million products. Expected totals and pages come from a plain scan over the same seed rows, so they do
+ * not share the stand-in's bitmap index and cannot share its mistakes either.
+ */
+public class ProductFilterCombinationTest {
+
+    static final int PRODUCTS = 1_000_000;
+    static final int PER_PAGE = 9;
+
+    // 4 is a brand no product has
+    private static final Long[] BRANDS = {null, 1L, 2L, 3L, 4L};
+    private static final Long[] CATEGORIES = {null, 1L, 2L, 3L, 4L, 5L, 6L, 7L};
+    private static final Boolean[] RENTALS = {null, true, false};
+
+    private static final JsonPathExtractor BRAND_IDS = JsonPathExtractor.compile("data.brand.id");
+    private static final JsonPathExtractor CATEGORY_IDS = JsonPathExtractor.compile("data.category.id");
+    private static final JsonPathExtractor RENTAL_FLAGS = JsonPathExtractor.compile("data.is_rental");
+
+    private static ToolshopServer server;
+    // Columns of the seed rows, by ordinal
+    private static long[] brandIds;
+    private static long[] categoryIds;
+    private static boolean[] rentalFlags;
+
+    @BeforeAll
+    public static void startServer() throws IOException {
+        server = ToolshopServer.start(0, PRODUCTS);
+        brandIds = new long[PRODUCTS];
+        categoryIds = new long[PRODUCTS];
+        rentalFlags = new boolean[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductStore.Product product = ProductStore.seed(i);
+            brandIds[i] = product.brandId();
+            categoryIds[i] = product.categoryId();
+            rentalFlags[i] = product.rental();
+        }
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @TestFactory
+    public List<DynamicTest> testEveryFilterCombination() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Long brand : BRANDS) {
+            for (Long category : CATEGORIES) {
+                for (Boolean rental : RENTALS) {
+                    String query = query(brand, category, rental);
+                    tests.add(DynamicTest.dynamicTest(query, () -> checkCombination(query, brand, category, rental)));
+                }
+            }
+        }
+        return tests;
+    }
+
+    private static void checkCombination(String query, Long brand, Long category, Boolean rental) {
+        int[] expected = matching(brand, category, rental);
+        int total = expected.length;
+        int lastPage = Math.max(1, (total + PER_PAGE - 1) / PER_PAGE);
+
+        // First, middle, last and one past the last page
+        for (int page : new TreeSet<>(List.of(1, (lastPage + 1) / 2, lastPage, lastPage + 1))) {
+            Response response = RestAssured.get(server.baseUrl() + "/products" + query
+                    + (query.length() > 1 ? "&" : "") + "page=" + page);
+            assertEquals(200, response.getStatusCode());
+            byte[] body = response.asByteArray();
+            JsonPath json = response.jsonPath();
+
+            assertEquals(total, json.getInt("total"), "total of " + query);
+            assertEquals(lastPage, json.getInt("last_page"), "last_page of " + query);
+            assertEquals(page, json.getInt("current_page"), "current_page of " + query);
+            assertEquals(expectedIds(expected, page), json.getList("data.id"), "ids on page " + page + " of " + query);
+            for (long brandId : BRAND_IDS.longs(body)) {
+                assertTrue(brand == null || brandId == brand, "brand " + brandId + " on page " + page + " of " + query);
+            }
+            for (long categoryId : CATEGORY_IDS.longs(body)) {
+                assertTrue(category == null || categoryId == category,
+                        "category " + categoryId + " on page " + page + " of " + query);
+            }
+            for (boolean isRental : RENTAL_FLAGS.booleans(body)) {
+                assertTrue(rental == null || isRental == rental, "is_rental on page " + page + " of " + query);
+            }
+        }
+    }
+
+    // Ordinals of the seed rows the filters accept, in listing order
+    private static int[] matching(Long brand, Long category, Boolean rental) {
+        int[] ordinals = new int[PRODUCTS];
+        int count = 0;
+        for (int i = 0; i < PRODUCTS; i++) {
+            if ((brand == null || brandIds[i] == brand) && (category == null || categoryIds[i] == category)
+                    && (rental == null || rentalFlags[i] == rental)) {
+                ordinals[count++] = i;
+            }
+        }
+        return Arrays.copyOf(ordinals, count);
+    }
+
+    private static List<String> expectedIds(int[] matching, int page) {
+        List<String> ids = new ArrayList<>();
+        for (int i = (page - 1) * PER_PAGE; i < Math.min(matching.length, page * PER_PAGE); i++) {
+            ids.add(ProductStore.seed(matching[i]).id());
+        }
+        return ids;
+    }
+
+    private static String query(Long brand, Long category, Boolean rental) {
+        List<String> params = new ArrayList<>();
+        if (brand != null) {
+            params.add("by_brand=" + brand);
+        }
+        if (category != null) {
+            params.add("by_category=" + category);
+        }
+        if (rental != null) {
+            params.add("is_rental=" + rental);
+        }
+        return "?" + String.join("&", params);
+    }
+}
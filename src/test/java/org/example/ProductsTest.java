@@ -1,19 +1,45 @@
 package org.example;
 
 import io.restassured.RestAssured;
-import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
+import org.example.json.JsonPathExtractor;
 import org.junit.jupiter.api.Test;
 
-import java.util.List;
-import java.util.Objects;
+import java.net.URI;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ProductsTest {
 
     public static final String ENDPOINT = "/products";
-    public static final String URL = "https://api-v2.practicesoftwaretesting.com" + ENDPOINT;
+    public static final String URL = ApiConfig.baseUrl("https://api-v2.practicesoftwaretesting.com") + ENDPOINT;
+
+    // Read straight from the response bytes, without building a document tree
+    private static final JsonPathExtractor PRODUCT_IDS = JsonPathExtractor.compile("data.id");
+    private static final JsonPathExtractor BRAND_IDS = JsonPathExtractor.compile("data.brand.id");
+    private static final JsonPathExtractor CATEGORY_IDS = JsonPathExtractor.compile("data.category.id");
+    private static final JsonPathExtractor RENTAL_FLAGS = JsonPathExtractor.compile("data.is_rental");
+
+    // Creates a product that only the calling test touches and returns its id
+    private static String createProduct() {
+        String requestBody = "{\n" +
+                "  \"name\": \"Fixture Product\",\n" +
+                "  \"description\": \"Product description\",\n" +
+                "  \"price\": 19.99,\n" +
+                "  \"category_id\": 1,\n" +
+                "  \"brand_id\": 1,\n" +
+                "  \"product_image_id\": 1\n" +
+                "}";
+
+        Response response = RestAssured.given()
+                .contentType("application/json")
+                .body(requestBody)
+                .post(URL);
+
+        assertEquals(201, response.getStatusCode(), "Could not create fixture product");
+        return response.jsonPath().getString("id");
+    }
 
     // TESTING GET
 
@@ -23,49 +49,37 @@ public class ProductsTest {
         Response response = RestAssured.get(URL);
 
         assertEquals(200, response.getStatusCode());
-        JsonPath jsonPath = response.jsonPath();
-        int numberOfElements = jsonPath.getMap("").size();
+        int numberOfElements = PRODUCT_IDS.count(response.asByteArray());
         assertTrue(numberOfElements > 0, "Number of products was not greater than 0");
     }
 
     @Test
     public void testFilterProductsByBrand() {
-        Response response = RestAssured.given().param("by_brand", 1).get(URL);
-
-        assertEquals(200, response.getStatusCode());
-
-        JsonPath jsonPath = response.jsonPath();
-
-        List<Integer> brandIds = jsonPath.getList("data.brand.id");
-
-        brandIds.forEach(brandId -> assertEquals(1, brandId, "Not all products have brand id equal to 1"));
+        // Every page of the filtered list, not just the first one
+        ApiConfig.crawler().crawl(URI.create(URL + "?by_brand=1"), Map.of(), (page, body) -> {
+            for (long brandId : BRAND_IDS.longs(body)) {
+                assertEquals(1, brandId, "Not all products on page " + page + " have brand id equal to 1");
+            }
+        });
     }
 
     @Test
     public void testFilterProductsByCategory() {
-
-        Response response = RestAssured.given().param("by_category", 1).get(URL);
-
-        assertEquals(200, response.getStatusCode());
-
-        JsonPath jsonPath = response.jsonPath();
-
-        List<Integer> brandIds = jsonPath.getList("data.category.id");
-
-        brandIds.forEach(brandId -> assertEquals(1, brandId, "Not all products have category id equal to 1"));
+        ApiConfig.crawler().crawl(URI.create(URL + "?by_category=1"), Map.of(), (page, body) -> {
+            for (long categoryId : CATEGORY_IDS.longs(body)) {
+                assertEquals(1, categoryId, "Not all products on page " + page + " have category id equal to 1");
+            }
+        });
     }
 
     @Test
     public void testRetrieveRentalProducts() {
-        Response response = RestAssured.given().param("is_rental", "true").get(URL);
-
-        assertEquals(200, response.getStatusCode());
-
-        JsonPath jsonPath = response.jsonPath();
-
-        List<Boolean> isRentalValues = jsonPath.getList("data.is_rental");
-
-        isRentalValues.stream().filter(Objects::nonNull).forEach(isRental -> assertTrue(isRental, "Not all products are marked as rental"));
+        // Products without the flag are skipped
+        ApiConfig.crawler().crawl(URI.create(URL + "?is_rental=true"), Map.of(), (page, body) -> {
+            for (boolean isRental : RENTAL_FLAGS.booleans(body)) {
+                assertTrue(isRental, "Not all products on page " + page + " are marked as rental");
+            }
+        });
     }
 
     // TESTING POST
@@ -119,7 +133,7 @@ public class ProductsTest {
     // Test a successful product deletion (status code 204)
     @Test
     public void testDeleteProduct() {
-        int productIdToDelete = 1;
+        String productIdToDelete = createProduct();
 
         Response response = RestAssured.delete(URL + "/" + productIdToDelete);
 
@@ -161,7 +175,7 @@ public class ProductsTest {
     // Test a successful product update (status code 200)
     @Test
     public void testUpdateProduct() {
-        int productIdToUpdate = 2;
+        String productIdToUpdate = createProduct();
         String requestBody = "{\n" +
                 "  \"name\": \"Updated Product\",\n" +
                 "  \"description\": \"Updated description\",\n" +
@@ -0,0 +1,16 @@
+package org.example;
+
+/**
+ * Keys for {@link org.junit.jupiter.api.parallel.ResourceLock}. Tests that write a shared row take it
+ * READ_WRITE, tests that only depend on it take it READ.
+ */
+final class Resources {
+
+    // Accounts from users_env
+    static final String USER = "toolshop.user.USER_ID";
+    static final String ADMIN = "toolshop.user.ADMIN_ID";
+    static final String USER_TO_CHANGE = "toolshop.user.USER_TO_CHANGE";
+
+    private Resources() {
+    }
+}
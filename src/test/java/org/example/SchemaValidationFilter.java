@@ -0,0 +1,40 @@
+package org.example;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.example.client.ToolshopSchemas;
+import org.example.json.JsonSchema;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Checks the body of every successful response the suites get against its schema from {@link ToolshopSchemas},
+ * so a test that only asserts a status or one field still fails on a malformed payload. The check streams over
+ * the bytes RestAssured already holds and takes microseconds. {@code -Dtoolshop.schemas=off} turns it off.
+ */
+public class SchemaValidationFilter implements Filter {
+
+    static boolean enabled() {
+        return !"off".equals(System.getProperty("toolshop.schemas"));
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        String path = URI.create(requestSpec.getURI()).getRawPath();
+        JsonSchema schema = ToolshopSchemas.forResponse(requestSpec.getMethod(), path, response.getStatusCode());
+        if (schema != null) {
+            List<String> violations = schema.validate(response.asByteArray());
+            if (!violations.isEmpty()) {
+                throw new AssertionError(requestSpec.getMethod() + " " + path + " returned " + response.getStatusCode()
+                        + " with a body that is not a valid " + schema + ":\n  " + String.join("\n  ", violations));
+            }
+        }
+        return response;
+    }
+}
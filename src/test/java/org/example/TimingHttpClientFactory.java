@@ -0,0 +1,235 @@
+package org.example;
+
+import io.restassured.config.HttpClientConfig;
+import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.util.EntityUtils;
+import org.example.limit.Throttle;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * RestAssured's Apache client, instrumented to report connect and TLS handshake time, when the request went out and
+ * when the response head came back to the thread's {@link PhaseClock}. With a {@link Throttle}, every request waits
+ * for its turn and a throttled one is sent again; the phases are then those of the last attempt, the connect time
+ * that of all of them.
+ * <p>
+ * RestAssured asks for a client per request; all of them send through one pooled client, so connect and TLS time
+ * show up on the requests that opened a connection, as they would for any client that keeps connections alive.
+ */
+public class TimingHttpClientFactory implements HttpClientConfig.HttpClientFactory {
+
+    // Connections kept per host; more than the throttle lets through, so requests never queue for one
+    static final int MAX_CONNECTIONS = 64;
+
+    private final Throttle throttle;
+    private final CloseableHttpClient client;
+
+    public TimingHttpClientFactory() {
+        this(null);
+    }
+
+    /** The throttle is shared by all requests. */
+    public TimingHttpClientFactory(Throttle throttle) {
+        this.throttle = throttle;
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", new TimedPlainSocketFactory())
+                        .register("https", new TimedSslSocketFactory())
+                        .build());
+        connections.setDefaultMaxPerRoute(MAX_CONNECTIONS);
+        connections.setMaxTotal(4 * MAX_CONNECTIONS);
+        this.client = HttpClientBuilder.create()
+                .useSystemProperties()
+                .setConnectionManager(connections)
+                .setRequestExecutor(new TimedRequestExecutor())
+                // RestAssured's default config ignores cookies too
+                .disableCookieManagement()
+                .build();
+    }
+
+    @Override
+    public HttpClient createHttpClient() {
+        return new RestAssuredAdapter(this);
+    }
+
+    CloseableHttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
+        if (throttle == null) {
+            return client.execute(request, context);
+        }
+        try {
+            return throttle.call(exchange(request, context));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted while throttled");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+    }
+
+    private Throttle.Exchange<CloseableHttpResponse> exchange(HttpUriRequest request, HttpContext context) {
+        return new Throttle.Exchange<>() {
+            @Override
+            public CloseableHttpResponse send() throws IOException {
+                return client.execute(request, context);
+            }
+
+            @Override
+            public int status(CloseableHttpResponse response) {
+                return response.getStatusLine().getStatusCode();
+            }
+
+            @Override
+            public String header(CloseableHttpResponse response, String name) {
+                Header header = response.getFirstHeader(name);
+                return header == null ? null : header.getValue();
+            }
+
+            // A body that can only be streamed once is sent once
+            @Override
+            public boolean repeatable() {
+                return !(request instanceof HttpEntityEnclosingRequest enclosing)
+                        || enclosing.getEntity() == null || enclosing.getEntity().isRepeatable();
+            }
+
+            @Override
+            public void discard(CloseableHttpResponse response) {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
+        };
+    }
+
+    // RestAssured 5 only accepts AbstractHttpClient subclasses, all of them deprecated, and sends every request
+    // through execute(HttpUriRequest, HttpContext); this one hands those calls to the factory's client.
+    @SuppressWarnings("deprecation")
+    static final class RestAssuredAdapter extends DefaultHttpClient {
+
+        private final TimingHttpClientFactory factory;
+
+        RestAssuredAdapter(TimingHttpClientFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public CloseableHttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
+            return factory.execute(request, context);
+        }
+    }
+
+    static final class TimedPlainSocketFactory extends PlainConnectionSocketFactory {
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                PhaseClock clock = PhaseClock.current();
+                if (clock != null) {
+                    clock.connectNanos += System.nanoTime() - start;
+                }
+            }
+        }
+    }
+
+    // The TCP connect and the handshake happen in one connectSocket call; the handshake part is timed on its own
+    // in createLayeredSocket and taken out of the connect time.
+    static final class TimedSslSocketFactory extends SSLConnectionSocketFactory {
+
+        TimedSslSocketFactory() {
+            super(defaultContext(), SSLConnectionSocketFactory.getDefaultHostnameVerifier());
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            PhaseClock clock = PhaseClock.current();
+            long tlsBefore = clock != null ? clock.tlsNanos : 0;
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                if (clock != null) {
+                    clock.connectNanos += System.nanoTime() - start - (clock.tlsNanos - tlsBefore);
+                }
+            }
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+                throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.createLayeredSocket(socket, target, port, context);
+            } finally {
+                PhaseClock clock = PhaseClock.current();
+                if (clock != null) {
+                    clock.tlsNanos += System.nanoTime() - start;
+                }
+            }
+        }
+
+        private static SSLContext defaultContext() {
+            try {
+                return SSLContext.getDefault();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("No default SSL context", e);
+            }
+        }
+    }
+
+    static final class TimedRequestExecutor extends HttpRequestExecutor {
+
+        @Override
+        protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+                throws IOException, HttpException {
+            PhaseClock clock = PhaseClock.current();
+            if (clock == null) {
+                return super.doSendRequest(request, conn, context);
+            }
+            HttpConnectionMetrics metrics = conn.getMetrics();
+            long sentBefore = metrics.getSentBytesCount();
+            clock.sendStart = System.nanoTime();
+            HttpResponse response = super.doSendRequest(request, conn, context);
+            clock.bytesSent += metrics.getSentBytesCount() - sentBefore;
+            return response;
+        }
+
+        @Override
+        protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+                throws IOException, HttpException {
+            PhaseClock clock = PhaseClock.current();
+            if (clock == null) {
+                return super.doReceiveResponse(request, conn, context);
+            }
+            HttpResponse response = super.doReceiveResponse(request, conn, context);
+            clock.firstByte = System.nanoTime();
+            return response;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.specification.RequestSpecification;
+import org.example.server.ToolshopServer;
+import org.example.stats.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Side-by-side comparison of RestAssured's default Apache transport and {@link JavaHttpTransport} on the calls
+ * the suites make most. Run the main method; without arguments it targets a local stand-in started in this JVM,
+ * otherwise the base URL given as the first argument.
+ * <p>
+ * Each transport makes {@value #CALLS} calls per path from {@value #THREADS} threads after {@value #WARMUP}
+ * warmup calls; the table shows throughput and latency percentiles in milliseconds.
+ */
+public final class TransportBenchmark {
+
+    static final int WARMUP = 200;
+    static final int CALLS = 2000;
+    static final int THREADS = 8;
+
+    private TransportBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ToolshopServer local = args.length == 0 ? ToolshopServer.start(0) : null;
+        String baseUrl = local != null ? local.baseUrl() : args[0];
+        try {
+            System.out.printf("%-10s %-18s %10s %8s %8s %8s%n", "transport", "path", "calls/s", "p50", "p99", "max");
+            for (String path : List.of("/products", "/products/" + firstProductId(baseUrl), "/categories/tree")) {
+                run("apache", baseUrl + path, null);
+                run("java.net", baseUrl + path, new JavaHttpTransport(JavaHttpTransport.sharedClient()));
+            }
+        } finally {
+            if (local != null) {
+                local.stop();
+            }
+        }
+    }
+
+    private static String firstProductId(String baseUrl) {
+        return RestAssured.get(baseUrl + "/products").jsonPath().getString("data[0].id");
+    }
+
+    private static void run(String name, String url, Filter transport) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            call(url, transport);
+        }
+        Histogram latency = new Histogram(60_000_000, 3);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS, Threads.daemonFactory("transport-benchmark"));
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(threads.submit(() -> {
+                    for (int i = 0; i < CALLS / THREADS; i++) {
+                        long begin = System.nanoTime();
+                        call(url, transport);
+                        latency.record((System.nanoTime() - begin) / 1000);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-10s %-18s %10.0f %8.2f %8.2f %8.2f%n", name, url.substring(url.indexOf('/', 8)),
+                latency.count() / seconds, latency.percentile(50) / 1000.0, latency.percentile(99) / 1000.0,
+                latency.max() / 1000.0);
+    }
+
+    private static void call(String url, Filter transport) {
+        RequestSpecification request = RestAssured.given();
+        if (transport != null) {
+            request.filter(transport);
+        }
+        int status = request.get(url).getStatusCode();
+        if (status != 200) {
+            throw new IllegalStateException("GET " + url + " returned " + status);
+        }
+    }
+}
@@ -1,60 +1,100 @@
-package org.example.Brands;
+package org.example;
 import io.github.cdimascio.dotenv.Dotenv;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
-import io.restassured.response.Response;
-import org.testng.annotations.BeforeClass;
-import org.testng.annotations.Test;
+import org.example.auth.TokenBroker;
+import org.example.json.JsonPathExtractor;
+import org.example.json.JsonTemplate;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.parallel.ResourceAccessMode.READ;
 
 
 public class UsersTest {
 
     static Dotenv dotenv = Dotenv.configure()
             .directory("src/test/assets")
-            .filename("users_env")
+            .filename(ApiConfig.isLocal() ? "users_env_local" : "users_env")
             .load();
 
     //-------------------------------------
 
     private static String userToken;
-    private static String secondUserToken;
     private static String adminToken;
     public static final String ENDPOINT = "/users";
-    public static final String URL = dotenv.get("API_URL");
+    public static final String URL = ApiConfig.baseUrl(dotenv.get("API_URL"));
+
+    private static final TokenBroker.Credentials USER =
+            new TokenBroker.Credentials(dotenv.get("USER_EMAIL"), dotenv.get("USER_PASSWORD"));
+    private static final TokenBroker.Credentials ADMIN =
+            new TokenBroker.Credentials(dotenv.get("ADMIN_EMAIL"), dotenv.get("ADMIN_PASSWORD"));
 
     //-------------------------------------
 
-    @BeforeClass
+    @BeforeAll
     public static void tokenSetUp() {
 
         RestAssured.baseURI = URL;
 
-        Response resUser = given()
-                .contentType("application/json")
-                .body("{\"email\":\"" + dotenv.get("USER_EMAIL") + "\",\"password\":\"" + dotenv.get("USER_PASSWORD") + "\"}")
-                .when()
-                .post("/users/login");
+        // The broker logs in once per account and run (both at once) and refreshes before expiry
+        TokenBroker broker = ApiConfig.broker(URL);
+        broker.prefetch(USER, ADMIN);
 
-        Response resSecUser = given()
-                .contentType("application/json")
-                .body("{\"email\":\"" + dotenv.get("SECOND_USER_EMAIL") + "\",\"password\":\"" + dotenv.get("SECOND_USER_PASSWORD") + "\"}")
-                .when()
-                .post("/users/login");
+        userToken = broker.token(USER);
+        adminToken = broker.token(ADMIN);
 
-        Response resAdmin = given()
-                .contentType("application/json")
-                .body("{\"email\":\"" + dotenv.get("ADMIN_EMAIL") + "\",\"password\":\"" + dotenv.get("ADMIN_PASSWORD") + "\"}")
-                .when()
-                .post("/users/login");
+        }
 
+    private static final JsonTemplate REGISTER = JsonTemplate.compile("{\"first_name\":\"Fixture\","
+            + "\"last_name\":\"User\",\"address\":\"Test street 1\",\"city\":\"Vienna\",\"state\":\"Vienna\","
+            + "\"country\":\"Austria\",\"postcode\":\"1010\",\"phone\":\"0123456789\",\"dob\":\"1990-01-01\","
+            + "\"email\":{{email}},\"password\":{{password}}}");
+    private static final JsonTemplate LOGIN = JsonTemplate.compile("{\"email\":{{email}},\"password\":{{password}}}");
+    // The confirmation always matches the new password
+    private static final JsonTemplate CHANGE_PASSWORD = JsonTemplate.compile("{\"current_password\":{{current}},"
+            + "\"new_password\":{{new}},\"new_password_confirmation\":{{new}}}");
+
+    private static byte[] login(String email, String password) {
+        return LOGIN.renderer().with("email", email).with("password", password).toByteArray();
+    }
 
-        userToken = resUser.jsonPath().getString("access_token");
-        secondUserToken = resSecUser.jsonPath().getString("access_token");
-        adminToken = resAdmin.jsonPath().getString("access_token");
+    private static byte[] changePassword(String current, String next) {
+        return CHANGE_PASSWORD.renderer().with("current", current).with("new", next).toByteArray();
+    }
 
-        }
+    // Registers an account that only the calling test touches
+    private static Account registerAccount() {
+        String email = "fixture-" + UUID.randomUUID() + "@practicesoftwaretesting.com";
+        String password = "Fixture-" + UUID.randomUUID().toString().substring(0, 8) + "1!";
+        String id = given()
+                .contentType(ContentType.JSON)
+                .body(REGISTER.renderer().with("email", email).with("password", password).toByteArray())
+                .when()
+                .post(ENDPOINT + "/register")
+                .then()
+                .statusCode(201)
+                .extract()
+                .path("id");
+        return new Account(id, new TokenBroker.Credentials(email, password));
+    }
+
+    private record Account(String id, TokenBroker.Credentials credentials) {
+    }
+
+    private static final JsonPathExtractor CURRENT_PAGE = JsonPathExtractor.compile("current_page");
+    private static final JsonPathExtractor LAST_PAGE = JsonPathExtractor.compile("last_page");
+    private static final JsonPathExtractor PER_PAGE = JsonPathExtractor.compile("per_page");
+    private static final JsonPathExtractor USER_IDS = JsonPathExtractor.compile("data.id");
 
 
 
@@ -107,6 +147,21 @@ public class UsersTest {
                 .then()
                 .statusCode(200)
                 .body("current_page", equalTo(2));
+
+        // Every page reports its own number and is full unless it is the last one. Each page is checked against
+        // its own envelope only: other tests, and other clients of the public API, register and delete users
+        // while the crawl runs, so a total read on one page need not match the rows on the others.
+        ApiConfig.crawler().crawl(URI.create(URL + ENDPOINT), Map.of("Authorization", "Bearer " + adminToken),
+                (page, body) -> {
+                    assertEquals(page, CURRENT_PAGE.longs(body)[0], "Wrong current_page");
+                    long perPage = PER_PAGE.longs(body)[0];
+                    int rows = USER_IDS.count(body);
+                    if (page < LAST_PAGE.longs(body)[0]) {
+                        assertEquals(perPage, rows, "Page " + page + " is not full but is not the last page");
+                    } else {
+                        assertTrue(rows <= perPage, "Last page " + page + " holds more than per_page users");
+                    }
+                });
     }
 
     // test of GET user details as an unlogged user
@@ -122,6 +177,7 @@ public class UsersTest {
 
     // test of GET user details as a logged user
     @Test
+    @ResourceLock(value = Resources.USER, mode = READ)
     public void testGetUserDetailsAsUser() {
         given()
                 .header("Authorization", "Bearer " + userToken)
@@ -164,10 +220,11 @@ public class UsersTest {
     // test of DELETE user as an admin user
     @Test
     public void testDeleteUserAsAdmin() {
+        Account account = registerAccount();
         given()
                 .header("Authorization", "Bearer " + adminToken)
                 .when()
-                .delete(ENDPOINT+"/" + dotenv.get("USER_TO_DELETE"))
+                .delete(ENDPOINT+"/" + account.id())
                 .then()
                 .statusCode(204);
     }
@@ -210,6 +267,7 @@ public class UsersTest {
 
     // test of UPDATE own account details as an admin user
     @Test
+    @ResourceLock(value = Resources.ADMIN)
     public void testUpdateOwnAccountAsAdmin() {
         given()
                 .header("Authorization", "Bearer " + adminToken)
@@ -229,6 +287,7 @@ public class UsersTest {
 
     // test of UPDATE other account details as an admin user
     @Test
+    @ResourceLock(value = Resources.USER_TO_CHANGE)
     public void testUpdateOtherAccountAsAdmin() {
         given()
                 .header("Authorization", "Bearer " + adminToken)
@@ -249,6 +308,7 @@ public class UsersTest {
 
     // test of UPDATE user with wrong body request
     @Test
+    @ResourceLock(value = Resources.USER, mode = READ)
     public void testUpdateUserWithWrongBody() {
         given()
                 .header("Authorization", "Bearer " + userToken)
@@ -267,6 +327,7 @@ public class UsersTest {
 
     // test of UPDATE own account details as a logged user
     @Test
+    @ResourceLock(value = Resources.USER)
     public void testUpdateOwnAccountAsUser() {
         given()
                 .header("Authorization", "Bearer " + userToken)
@@ -314,11 +375,12 @@ public class UsersTest {
 
     // test of POST login user
     @Test
+    @ResourceLock(value = Resources.USER, mode = READ)
     public void testPostUserLogin() {
 
         given()
                 .contentType(ContentType.JSON)
-                .body("{\"email\":\"" + dotenv.get("USER_EMAIL") + "\",\"password\":\"" + dotenv.get("USER_PASSWORD") + "\"}")
+                .body(login(dotenv.get("USER_EMAIL"), dotenv.get("USER_PASSWORD")))
                 .when()
                 .post(ENDPOINT+"/login")
                 .then()
@@ -334,7 +396,7 @@ public class UsersTest {
 
         given()
                 .contentType(ContentType.JSON)
-                .body("{\"email\":\"" + dotenv.get("WRONG_EMAIL") + "\",\"password\":\"" + dotenv.get("WRONG_PASSWORD") + "\"}")
+                .body(login(dotenv.get("WRONG_EMAIL"), dotenv.get("WRONG_PASSWORD")))
                 .when()
                 .post(ENDPOINT+"/login")
                 .then()
@@ -348,7 +410,7 @@ public class UsersTest {
     public void testPostChangePasswordAsUnlogged() {
         given()
                 .contentType(ContentType.JSON)
-                .body("{\"current_password\":\"abc\",\"new_password\":\"aaa\",\"new_password_confirmation\":\"aaa\"}")
+                .body(changePassword("abc", "aaa"))
                 .when()
                 .post(ENDPOINT+"/change-password")
                 .then()
@@ -360,24 +422,31 @@ public class UsersTest {
     // test of POST change password as a logged user
     @Test
     public void testPostChangePasswordAsUser() {
+        Account account = registerAccount();
+        TokenBroker broker = ApiConfig.broker(URL);
+        String newPassword = account.credentials().password() + "2";
         given()
                 .contentType(ContentType.JSON)
-                .header("Authorization", "Bearer " + secondUserToken)
-                .body("{\"current_password\":\""+ dotenv.get("SECOND_USER_PASSWORD") +"\",\"new_password\":\""+ dotenv.get("NEW_SECOND_USER_PASSWORD") +"\",\"new_password_confirmation\":\""+dotenv.get("NEW_SECOND_USER_PASSWORD")+"\"}")
+                .header("Authorization", "Bearer " + broker.token(account.credentials()))
+                .body(changePassword(account.credentials().password(), newPassword))
                 .when()
                 .post(ENDPOINT+"/change-password")
                 .then()
                 .statusCode(200)
                 .body("success", equalTo(true));
+
+        // The cached login for this account now holds a stale password
+        broker.invalidate(account.credentials());
     }
 
     // test of POST change password to the same as now
     @Test
+    @ResourceLock(value = Resources.USER, mode = READ)
     public void testPostChangePasswordSame() {
         given()
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + userToken)
-                .body("{\"current_password\":\""+ dotenv.get("USER_PASSWORD") +"\",\"new_password\":\""+ dotenv.get("USER_PASSWORD") +"\",\"new_password_confirmation\":\""+dotenv.get("USER_PASSWORD")+"\"}")
+                .body(changePassword(dotenv.get("USER_PASSWORD"), dotenv.get("USER_PASSWORD")))
                 .when()
                 .post(ENDPOINT+"/change-password")
                 .then()
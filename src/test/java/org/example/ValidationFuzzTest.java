@@ -0,0 +1,55 @@
+package org.example;
+
+import org.example.fuzz.FuzzReport;
+import org.example.fuzz.Fuzzer;
+import org.example.fuzz.PayloadSchema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The 422 paths by volume: thousands of generated invalid product, category and user payloads (missing fields,
+ * wrong types, oversized strings, malformed JSON), each of which has to be rejected, with the broken field named
+ * when there is one. The seed is fixed, so a failure can be reproduced with {@code Main fuzz --seed}.
+ * <p>
+ * Thousands of requests are a load test for whoever hosts the API, so this only runs against the local stand-in,
+ * or anywhere with {@code -Dtoolshop.fuzz=on}.
+ */
+@EnabledIf("enabled")
+public class ValidationFuzzTest {
+
+    static final long SEED = 422;
+    static final int CASES = 3000;
+    static final int CONCURRENCY = 16;
+
+    static boolean enabled() {
+        return ApiConfig.isLocal() || "on".equals(System.getProperty("toolshop.fuzz"));
+    }
+
+    @Test
+    public void testInvalidPayloadsAreRejected() throws InterruptedException {
+        List<Fuzzer.Target> targets = List.of(
+                Fuzzer.Target.of(URI.create(ApiConfig.baseUrl("https://api-v2.practicesoftwaretesting.com")),
+                        PayloadSchema.PRODUCT),
+                Fuzzer.Target.of(URI.create(CategoryTest.BASE_URL), PayloadSchema.CATEGORY),
+                Fuzzer.Target.of(URI.create(UsersTest.URL), PayloadSchema.USER));
+
+        FuzzReport report = new Fuzzer(new Fuzzer.Config(targets, CASES, CONCURRENCY, SEED), ApiConfig.httpClient())
+                .run();
+
+        ByteArrayOutputStream summary = new ByteArrayOutputStream();
+        report.print(new PrintStream(summary, true, StandardCharsets.UTF_8));
+        assertEquals(CASES, report.cases());
+        assertTrue(report.passed(), summary.toString(StandardCharsets.UTF_8));
+        assertEquals(0, report.throttledCases(), "Cases never validated because of throttling\n"
+                + summary.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.auth;
+
+import org.example.Threads;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link JwtAuthority} refusing every token it did not issue or that no longer holds: tampered payloads and
+ * signatures, {@code alg: none} and other headers, other keys and issuers, expired and not-yet-valid tokens.
+ * Forged tokens are signed here with the authority's own key where that is the point, so only the one thing
+ * wrong with each is what gets it refused.
+ */
+public class JwtAuthorityTest {
+
+    private static final String ISSUER = "http://localhost/users/login";
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final String HEADER = base64("{\"typ\":\"JWT\",\"alg\":\"HS256\"}");
+
+    private final JwtAuthority authority = new JwtAuthority(ISSUER, KEY, 300);
+
+    private static String base64(String json) {
+        return BASE64.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hs256(byte[] key, String headerAndPayload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return BASE64.encodeToString(mac.doFinal(headerAndPayload.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String payload(String issuer, long issuedAt, long expiresAt, String role) {
+        return base64("{\"iss\":\"" + issuer + "\",\"iat\":" + issuedAt + ",\"exp\":" + expiresAt + ",\"nbf\":"
+                + issuedAt + ",\"jti\":\"j1\",\"sub\":\"u1\",\"role\":\"" + role + "\"}");
+    }
+
+    private static String signed(String header, String payload) {
+        return header + '.' + payload + '.' + hs256(KEY, header + '.' + payload);
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Test
+    public void testIssuedTokenVerifies() {
+        String token = authority.issue("u1", "user");
+        JwtAuthority.Claims claims = authority.verify(token);
+        assertEquals("u1", claims.subject());
+        assertEquals("user", claims.role());
+        assertFalse(claims.isAdmin());
+        assertTrue(claims.expiresAt() > now());
+        assertEquals(claims, authority.verify(token), "Cached");
+        assertTrue(authority.verify(authority.issue("u2", "admin")).isAdmin());
+
+        // The forging helpers agree with the authority, so the refusals below are down to what each changes
+        assertNotNull(authority.verify(signed(HEADER, payload(ISSUER, now(), now() + 60, "user"))));
+    }
+
+    @Test
+    public void testTamperedTokensAreRefused() {
+        String token = authority.issue("u1", "user");
+        String[] parts = token.split("\\.");
+        String admin = payload(ISSUER, now(), now() + 300, "admin");
+        assertNull(authority.verify(parts[0] + '.' + admin + '.' + parts[2]), "Payload swapped, signature kept");
+
+        char last = parts[2].charAt(0);
+        String flipped = (last == 'A' ? 'B' : 'A') + parts[2].substring(1);
+        assertNull(authority.verify(parts[0] + '.' + parts[1] + '.' + flipped), "Signature changed");
+        assertNull(authority.verify(parts[0] + '.' + parts[1] + '.'), "Signature dropped");
+        assertNull(authority.verify(parts[0] + '.' + parts[1]), "Two parts");
+        assertNull(authority.verify(parts[0] + '.' + parts[1] + '.' + parts[2] + ".x"), "Four parts");
+        assertNull(authority.verify(parts[0] + '.' + parts[1] + '.' + "!!!"), "Signature not base64");
+        assertNull(authority.verify(""));
+        assertNull(authority.verify(null));
+        assertNotNull(authority.verify(token), "The original still verifies");
+    }
+
+    @Test
+    public void testOtherAlgorithmsAreRefused() {
+        String admin = payload(ISSUER, now(), now() + 300, "admin");
+        assertNull(authority.verify(base64("{\"typ\":\"JWT\",\"alg\":\"none\"}") + '.' + admin + '.'));
+        assertNull(authority.verify(base64("{\"alg\":\"none\"}") + '.' + admin + '.'));
+        assertNull(authority.verify(base64("{\"typ\":\"JWT\",\"alg\":\"None\"}") + '.' + admin + '.'
+                + hs256(KEY, base64("{\"typ\":\"JWT\",\"alg\":\"None\"}") + '.' + admin)));
+        // Correctly signed with the key, under a header this authority never writes
+        assertNull(authority.verify(signed(base64("{\"alg\":\"HS256\",\"typ\":\"JWT\"}"), admin)));
+        assertNull(authority.verify(signed(base64("{\"typ\":\"JWT\",\"alg\":\"HS512\"}"), admin)));
+    }
+
+    @Test
+    public void testTokensOfAnotherKeyOrIssuerAreRefused() {
+        JwtAuthority foreign = JwtAuthority.withRandomKey(ISSUER, 300);
+        assertNotNull(foreign.verify(foreign.issue("u1", "admin")));
+        assertNull(authority.verify(foreign.issue("u1", "admin")));
+        assertNull(foreign.verify(authority.issue("u1", "user")));
+
+        String payload = payload(ISSUER, now(), now() + 300, "admin");
+        byte[] otherKey = KEY.clone();
+        otherKey[0] ^= 1;
+        assertNull(authority.verify(HEADER + '.' + payload + '.' + hs256(otherKey, HEADER + '.' + payload)),
+                "Key one bit off");
+
+        assertNull(authority.verify(new JwtAuthority("http://elsewhere/users/login", KEY, 300).issue("u1", "user")),
+                "Same key, other issuer");
+    }
+
+    @Test
+    public void testExpiredAndNotYetValidTokensAreRefused() {
+        assertNull(authority.verify(new JwtAuthority(ISSUER, KEY, 0).issue("u1", "user")), "Expires now");
+        assertNull(authority.verify(new JwtAuthority(ISSUER, KEY, -60).issue("u1", "user")));
+        assertNull(authority.verify(signed(HEADER, payload(ISSUER, now() - 600, now() - 300, "user"))));
+        assertNull(authority.verify(signed(HEADER, payload(ISSUER, now() + 60, now() + 360, "user"))),
+                "Not before a minute from now");
+        assertNull(authority.verify(signed(HEADER, base64("{\"iss\":\"" + ISSUER + "\",\"sub\":\"u1\","
+                + "\"role\":\"user\"}"))), "No exp");
+    }
+
+    // Far more threads than pooled Macs, each checking fresh tokens, so Macs are borrowed, cloned and dropped
+    @Test
+    public void testConcurrentChecksFromManyThreads() throws Exception {
+        List<Future<Boolean>> results = new ArrayList<>();
+        ExecutorService executor = Threads.perTaskExecutor("jwt-check");
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                String subject = "u" + i;
+                results.add(executor.submit(() -> {
+                    String token = authority.issue(subject, "user");
+                    JwtAuthority.Claims claims = authority.verify(token);
+                    String forged = token.substring(0, token.lastIndexOf('.') + 1)
+                            + hs256(KEY, "x" + token.substring(0, token.lastIndexOf('.')));
+                    return claims != null && subject.equals(claims.subject()) && authority.verify(forged) == null;
+                }));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.auth;
+
+import org.example.StubHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * How long {@link TokenBroker} keeps a token, told apart by how many logins a {@link StubHttpClient} answers:
+ * the JWT {@code exp} claim when there is one, then {@code expires_in}, then
+ * {@value TokenBroker#FALLBACK_TTL_SECONDS} seconds for opaque and already expired tokens.
+ */
+public class TokenBrokerTest {
+
+    private static final TokenBroker.Credentials CUSTOMER = new TokenBroker.Credentials("customer@example.com",
+            "welcome01");
+
+    private final AtomicInteger logins = new AtomicInteger();
+
+    private TokenBroker broker(String body) {
+        return new TokenBroker("http://toolshop.invalid", new StubHttpClient(request -> {
+            logins.incrementAndGet();
+            return CompletableFuture.completedFuture(StubHttpClient.response(request, 200, body));
+        }));
+    }
+
+    private static String jwt(long expiresAt) {
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        return base64.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + '.'
+                + base64.encodeToString(("{\"sub\":\"u1\",\"exp\":" + expiresAt + "}").getBytes(StandardCharsets.UTF_8))
+                + ".c2ln";
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Test
+    public void testJwtIsKeptUntilItsExpiry() {
+        String token = jwt(now() + 3600);
+        TokenBroker broker = broker("{\"access_token\": \"" + token + "\", \"expires_in\": 1}");
+        assertEquals(token, broker.token(CUSTOMER));
+        assertEquals(token, broker.token(CUSTOMER));
+        assertEquals(1, logins.get(), "exp wins over expires_in");
+    }
+
+    @Test
+    public void testOpaqueTokenIsKeptForTheFallbackTtl() {
+        TokenBroker broker = broker("{\"access_token\": \"opaque-token\", \"token_type\": \"bearer\"}");
+        assertEquals("opaque-token", broker.token(CUSTOMER));
+        assertEquals("opaque-token", broker.token(CUSTOMER));
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    public void testOpaqueTokenExpiresAfterExpiresIn() {
+        TokenBroker longLived = broker("{\"access_token\": \"opaque.token\", \"expires_in\": 3600}");
+        assertEquals("opaque.token", longLived.token(CUSTOMER));
+        assertEquals("opaque.token", longLived.token(CUSTOMER));
+        assertEquals(1, logins.get());
+
+        // Good for one more second: already too close to expiry to hand out, so the caller logs in again at once
+        logins.set(0);
+        TokenBroker shortLived = broker("{\"access_token\": \"opaque-token\", \"expires_in\": 1}");
+        assertEquals("opaque-token", shortLived.token(CUSTOMER));
+        assertEquals(2, logins.get(), "expires_in was read");
+    }
+
+    @Test
+    public void testExpiredTokenIsKeptForTheFallbackTtl() {
+        // As replayed from a cassette recorded earlier
+        String token = jwt(now() - 600);
+        TokenBroker broker = broker("{\"access_token\": \"" + token + "\", \"expires_in\": 300}");
+        assertEquals(token, broker.token(CUSTOMER));
+        assertEquals(token, broker.token(CUSTOMER));
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    public void testLoginWithoutAnAccessTokenFails() {
+        for (String body : new String[] {"{\"token_type\": \"bearer\"}", "{\"access_token\": 42}", "[]"}) {
+            TokenBroker broker = broker(body);
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> broker.token(CUSTOMER), body);
+            assertEquals("Login failed for customer@example.com", e.getMessage());
+            assertEquals("/users/login answered without an access_token", e.getCause().getMessage(), body);
+            assertEquals(0, broker.size(), "The failed login is not cached");
+        }
+    }
+}
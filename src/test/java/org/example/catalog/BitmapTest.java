@@ -0,0 +1,180 @@
+package org.example.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Bitmap} against a {@link TreeSet} holding the same values, around the places its layout changes: a chunk
+ * turning from a sorted array into a bitset and back at {@value Bitmap#ARRAY_LIMIT} values, and values on either
+ * side of a 65536 chunk boundary.
+ */
+public class BitmapTest {
+
+    // Checks every query the catalog relies on against the reference set
+    private static void assertSame(TreeSet<Integer> expected, Bitmap actual) {
+        int[] values = expected.stream().mapToInt(Integer::intValue).toArray();
+        assertArrayEquals(values, actual.toArray());
+        assertEquals(values.length, actual.cardinality());
+        assertEquals(values.length == 0, actual.isEmpty());
+        for (int rank = 0; rank < values.length; rank += Math.max(1, values.length / 97)) {
+            assertEquals(values[rank], actual.select(rank), "select " + rank);
+            assertEquals(rank + 1, actual.rank(values[rank]), "rank of " + values[rank]);
+            assertTrue(actual.contains(values[rank]));
+            if (values[rank] > 0 && !expected.contains(values[rank] - 1)) {
+                assertFalse(actual.contains(values[rank] - 1));
+                assertEquals(rank, actual.rank(values[rank] - 1), "rank of " + (values[rank] - 1));
+            }
+        }
+        if (values.length > 0) {
+            assertThrows(IndexOutOfBoundsException.class, () -> actual.select(values.length));
+        }
+    }
+
+    private static TreeSet<Integer> set(Bitmap bitmap) {
+        TreeSet<Integer> set = new TreeSet<>();
+        for (int value : bitmap.toArray()) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    @Test
+    public void testChunkTurnsIntoBitsetPastArrayLimitAndBack() {
+        Bitmap bitmap = new Bitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        // Every other value, so the bitset is not simply a prefix
+        for (int i = 0; i < Bitmap.ARRAY_LIMIT; i++) {
+            assertTrue(bitmap.add(2 * i));
+            expected.add(2 * i);
+        }
+        assertSame(expected, bitmap);
+
+        assertTrue(bitmap.add(1));
+        expected.add(1);
+        assertEquals(Bitmap.ARRAY_LIMIT + 1, bitmap.cardinality());
+        assertSame(expected, bitmap);
+        assertFalse(bitmap.add(1), "Value added twice to the bitset");
+
+        assertTrue(bitmap.remove(0));
+        expected.remove(0);
+        assertEquals(Bitmap.ARRAY_LIMIT, bitmap.cardinality());
+        assertSame(expected, bitmap);
+        assertFalse(bitmap.remove(0), "Value removed twice from the array");
+
+        assertTrue(bitmap.add(0));
+        expected.add(0);
+        assertSame(expected, bitmap);
+    }
+
+    @Test
+    public void testValuesOnEitherSideOfChunkBoundaries() {
+        List<Integer> values = List.of(0, 65535, 65536, 65537, 131071, 131072, 3 * 65536 - 1, Integer.MAX_VALUE);
+        Bitmap bitmap = new Bitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        TreeSet<Integer> expected = new TreeSet<>(values);
+        assertSame(expected, bitmap);
+        assertEquals(2, bitmap.rank(65535));
+        assertEquals(3, bitmap.rank(65536));
+        assertArrayEquals(new int[] {65536, 65537, 131071}, bitmap.slice(2, 3));
+
+        for (int value : List.of(65536, 65537, 131071)) {
+            assertTrue(bitmap.remove(value));
+            expected.remove(value);
+        }
+        assertSame(expected, bitmap);
+        assertEquals("Bitmap[5 values in 3 chunks]", bitmap.toString(), "Empty chunk left behind");
+    }
+
+    @Test
+    public void testRangeEndsOnAndAcrossChunkBoundaries() {
+        for (int end : new int[] {0, 1, Bitmap.ARRAY_LIMIT, Bitmap.ARRAY_LIMIT + 1, 65535, 65536, 65537, 200_000}) {
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < end; i++) {
+                expected.add(i);
+            }
+            Bitmap range = Bitmap.range(end);
+            assertSame(expected, range);
+            assertEquals(Math.max(0, end - 65536), range.slice(65536, Integer.MAX_VALUE).length, "slice of " + end);
+        }
+    }
+
+    @Test
+    public void testAndNotOfEveryChunkLayout() {
+        // Chunk 0 array minus array, chunk 1 bitset minus array, chunk 2 array minus bitset, chunk 3 bitset minus
+        // bitset, chunk 4 only on the left, chunk 5 only on the right
+        Bitmap left = new Bitmap();
+        Bitmap right = new Bitmap();
+        for (int i = 0; i < 3000; i++) {
+            left.add(i * 3);
+            right.add(i * 2);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            left.add(65536 + i);
+            right.add(2 * 65536 + i);
+            left.add(3 * 65536 + i);
+            right.add(3 * 65536 + i * 2);
+        }
+        for (int i = 0; i < 100; i++) {
+            right.add(65536 + i * 7);
+            left.add(2 * 65536 + i * 5);
+            left.add(4 * 65536 + i);
+            right.add(5 * 65536 + i);
+        }
+        TreeSet<Integer> expected = set(left);
+        expected.removeAll(set(right));
+        TreeSet<Integer> leftBefore = set(left);
+        TreeSet<Integer> rightBefore = set(right);
+
+        assertSame(expected, left.andNot(right));
+        assertSame(leftBefore, left);
+        assertSame(rightBefore, right);
+    }
+
+    @Test
+    public void testAndNotDropsChunksItEmpties() {
+        Bitmap bitset = Bitmap.range(65536 + 10);
+        Bitmap difference = bitset.andNot(Bitmap.range(65536));
+        assertSame(new TreeSet<>(List.of(65536, 65537, 65538, 65539, 65540, 65541, 65542, 65543, 65544, 65545)),
+                difference);
+        assertEquals("Bitmap[10 values in 1 chunks]", difference.toString());
+        assertTrue(bitset.andNot(bitset).isEmpty());
+        assertTrue(new Bitmap().andNot(bitset).isEmpty());
+        assertEquals(bitset, bitset.andNot(new Bitmap()));
+    }
+
+    // Results that drop to the array limit or just past it change layout on the way out
+    @Test
+    public void testOperationsAroundArrayLimitMatchReferenceSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            Bitmap a = new Bitmap();
+            Bitmap b = new Bitmap();
+            int spread = 65536 * (1 + random.nextInt(3));
+            int sizeA = Bitmap.ARRAY_LIMIT - 50 + random.nextInt(100) + (round % 2) * 20_000;
+            int sizeB = Bitmap.ARRAY_LIMIT - 50 + random.nextInt(100);
+            for (int i = 0; i < sizeA; i++) {
+                a.add(random.nextInt(spread));
+            }
+            for (int i = 0; i < sizeB; i++) {
+                b.add(random.nextInt(spread));
+            }
+            TreeSet<Integer> and = set(a);
+            and.retainAll(set(b));
+            TreeSet<Integer> or = set(a);
+            or.addAll(set(b));
+            TreeSet<Integer> andNot = set(a);
+            andNot.removeAll(set(b));
+
+            assertSame(and, a.and(b));
+            assertSame(or, a.or(b));
+            assertSame(andNot, a.andNot(b));
+        }
+    }
+}
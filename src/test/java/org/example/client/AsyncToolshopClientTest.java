@@ -0,0 +1,152 @@
+package org.example.client;
+
+import org.example.StubHttpClient;
+import org.example.Threads;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code maxInFlight} limit of {@link AsyncToolshopClient}, against a {@link StubHttpClient} whose responses
+ * the test completes by hand: never more requests on the wire than the limit, every queued request sent once
+ * responses come back, also when they come back on many threads at once, and no slot lost to a send that throws.
+ */
+public class AsyncToolshopClientTest {
+
+    private record Call(HttpRequest request, CompletableFuture<HttpResponse<byte[]>> response) {
+    }
+
+    // Sent calls not yet answered; counts as on the wire from sendAsync until the test completes the response
+    private static final class Wire {
+        final BlockingQueue<Call> calls = new LinkedBlockingQueue<>();
+        final AtomicInteger onWire = new AtomicInteger();
+        final AtomicInteger mostOnWire = new AtomicInteger();
+        final AtomicInteger sent = new AtomicInteger();
+
+        AsyncToolshopClient client(int maxInFlight) {
+            StubHttpClient http = new StubHttpClient(request -> {
+                if (request.uri().getPath().endsWith("/boom")) {
+                    throw new IllegalStateException("boom");
+                }
+                sent.incrementAndGet();
+                mostOnWire.accumulateAndGet(onWire.incrementAndGet(), Math::max);
+                CompletableFuture<HttpResponse<byte[]>> response = new CompletableFuture<>();
+                calls.add(new Call(request, response));
+                return response;
+            });
+            return new AsyncToolshopClient("http://toolshop.invalid", http, Runnable::run, maxInFlight);
+        }
+
+        void answer(Call call) {
+            onWire.decrementAndGet();
+            call.response().complete(StubHttpClient.response(call.request(), 200, "{}"));
+        }
+
+        Call next() throws InterruptedException {
+            Call call = calls.poll(10, TimeUnit.SECONDS);
+            assertNotNull(call, "No request was sent");
+            return call;
+        }
+    }
+
+    @Test
+    public void testQueuedRequestsWaitForASlot() throws InterruptedException {
+        for (int maxInFlight = 1; maxInFlight <= 2; maxInFlight++) {
+            Wire wire = new Wire();
+            AsyncToolshopClient client = wire.client(maxInFlight);
+            List<CompletableFuture<AsyncToolshopClient.ApiResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(client.get("/products/" + i));
+            }
+            assertEquals(maxInFlight, wire.sent.get(), "Sent before any response");
+
+            for (int i = 0; i < 20; i++) {
+                Call call = wire.next();
+                assertEquals("/products/" + i, call.request().uri().getPath(), "Sent in order");
+                wire.answer(call);
+                assertTrue(results.get(i).isDone());
+                assertEquals(Math.min(20, i + 1 + maxInFlight), wire.sent.get(), "One more sent per response");
+            }
+            assertEquals(maxInFlight, wire.mostOnWire.get());
+            for (CompletableFuture<AsyncToolshopClient.ApiResponse> result : results) {
+                assertEquals(200, result.join().status());
+            }
+        }
+    }
+
+    // Responses arrive on several threads at once while more requests are queued, the case a lost wakeup in the
+    // drain would leave a request waiting forever with nothing in flight
+    @Test
+    public void testEveryRequestIsSentWhenResponsesCompleteConcurrently() throws Exception {
+        for (int maxInFlight = 1; maxInFlight <= 2; maxInFlight++) {
+            Wire wire = new Wire();
+            AsyncToolshopClient client = wire.client(maxInFlight);
+            int requests = 5_000;
+            ThreadFactory threads = Threads.daemonFactory("answering");
+            List<Thread> answering = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                answering.add(threads.newThread(() -> {
+                    try {
+                        while (!Thread.currentThread().isInterrupted()) {
+                            Call call = wire.calls.poll(100, TimeUnit.MILLISECONDS);
+                            if (call != null) {
+                                wire.answer(call);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+            answering.forEach(Thread::start);
+            List<CompletableFuture<AsyncToolshopClient.ApiResponse>> results = new ArrayList<>();
+            try {
+                for (int i = 0; i < requests; i++) {
+                    results.add(client.get("/products/" + i));
+                }
+                CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+            } finally {
+                answering.forEach(Thread::interrupt);
+            }
+            assertEquals(requests, wire.sent.get());
+            assertTrue(wire.mostOnWire.get() <= maxInFlight, "Limit " + maxInFlight + " exceeded: "
+                    + wire.mostOnWire.get());
+        }
+    }
+
+    @Test
+    public void testSendThatThrowsFreesItsSlot() throws InterruptedException {
+        Wire wire = new Wire();
+        AsyncToolshopClient client = wire.client(1);
+        List<CompletableFuture<AsyncToolshopClient.ApiResponse>> failed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            failed.add(client.get("/boom"));
+        }
+        CompletableFuture<AsyncToolshopClient.ApiResponse> first = client.get("/products/1");
+        CompletableFuture<AsyncToolshopClient.ApiResponse> second = client.get("/products/2");
+
+        for (CompletableFuture<AsyncToolshopClient.ApiResponse> result : failed) {
+            CompletionException e = assertThrows(CompletionException.class, result::join);
+            assertEquals("boom", e.getCause().getMessage());
+        }
+        Call call = wire.next();
+        assertEquals("/products/1", call.request().uri().getPath(), "Sent after three sends threw");
+        assertEquals(1, wire.sent.get(), "Still only one in flight");
+        wire.answer(call);
+        assertEquals(200, first.join().status());
+        wire.answer(wire.next());
+        assertEquals(200, second.join().status());
+    }
+}
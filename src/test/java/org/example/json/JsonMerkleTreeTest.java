@@ -0,0 +1,130 @@
+package org.example.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link JsonMerkleTree} hashes and diffs on small documents: what counts as the same, the paths and wording of each
+ * kind of difference, rows matched by id, and {@link JsonMerkleTree#sameAs} agreeing with an empty
+ * {@link JsonMerkleTree#diff} however the rows are reordered or edited.
+ */
+public class JsonMerkleTreeTest {
+
+    private static JsonMerkleTree tree(String json) {
+        return JsonMerkleTree.of(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> diff(String expected, String actual) {
+        JsonMerkleTree expectedTree = tree(expected);
+        JsonMerkleTree actualTree = tree(actual);
+        List<String> differences = expectedTree.diff(actualTree);
+        assertEquals(differences.isEmpty(), expectedTree.sameAs(actualTree), "sameAs agrees with diff");
+        return differences;
+    }
+
+    private static String rows(List<Integer> ids) {
+        StringBuilder json = new StringBuilder("{\"data\": [");
+        for (int i = 0; i < ids.size(); i++) {
+            json.append(i == 0 ? "" : ", ").append("{\"id\": \"").append(ids.get(i)).append("\", \"price\": ")
+                    .append(ids.get(i)).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    @Test
+    public void testSameValuesWrittenDifferently() {
+        assertEquals(List.of(), diff("{\"a\": 1, \"b\": [true, null, \"x\"]}", "{ \"b\":[true,null,\"x\"],\"a\":1 }"));
+        assertEquals(List.of(), diff("[\"A\\n\"]", "[\"\\u0041\\u000a\"]"), "Escapes");
+        assertEquals(List.of("$[0]: 1 -> 1.0"), diff("[1]", "[1.0]"), "Numbers compare as written");
+        assertEquals(List.of("$[0]: \"1\" -> 1"), diff("[\"1\"]", "[1]"));
+        assertEquals(List.of("$: {...} (0 properties) -> [...] (0 items)"), diff("{}", "[]"));
+    }
+
+    @Test
+    public void testChangedAddedAndRemovedProperties() {
+        assertEquals(List.of("$.a.b: 1 -> 2", "$.c: removed true", "$.d: added null"),
+                diff("{\"a\": {\"b\": 1}, \"c\": true}", "{\"a\": {\"b\": 2}, \"d\": null}"));
+    }
+
+    @Test
+    public void testArraysWithoutIdsCompareByIndex() {
+        assertEquals(List.of("$[0]: 1 -> 2", "$[1]: 2 -> 1", "$[2]: removed 3"), diff("[1, 2, 3]", "[2, 1]"));
+        assertEquals(List.of("$[1]: added {...} (1 property)"), diff("[{\"id\": 1}]", "[{\"id\": 1}, {\"x\": 2}]"),
+                "Not every element has an id");
+        assertEquals(List.of("$[1].x: 2 -> 3"), diff("[{\"id\": 1}, {\"id\": 1, \"x\": 2}]",
+                "[{\"id\": 1}, {\"id\": 1, \"x\": 3}]"), "Ids not unique");
+    }
+
+    @Test
+    public void testRowsAreMatchedById() {
+        assertEquals(List.of("$.data[id=2].price: 2 -> 20"), diff(rows(List.of(1, 2, 3)),
+                rows(List.of(1, 2, 3)).replace("\"price\": 2", "\"price\": 20")));
+        assertEquals(List.of("$.data[id=2]: removed {...} (2 properties)"),
+                diff(rows(List.of(1, 2, 3)), rows(List.of(1, 3))));
+        assertEquals(List.of("$.data[id=9]: added {...} (2 properties)"),
+                diff(rows(List.of(1, 2, 3)), rows(List.of(9, 1, 2, 3))), "Rows after it are not shifted");
+        assertEquals(List.of("$[id=7].sub[id=8].name: \"a\" -> \"b\""),
+                diff("[{\"id\": 7, \"sub\": [{\"id\": 8, \"name\": \"a\"}]}]",
+                        "[{\"id\": 7, \"sub\": [{\"id\": 8, \"name\": \"b\"}]}]"));
+    }
+
+    @Test
+    public void testRowsThatChangedPlacesAreReportedOutOfOrder() {
+        assertEquals(List.of("$.data[id=1]: out of order, now at 3, was at 0"),
+                diff(rows(List.of(1, 2, 3, 4)), rows(List.of(2, 3, 4, 1))), "One row moved, not three");
+        assertEquals(List.of("$.data[id=3]: out of order, now at 1, was at 2"),
+                diff(rows(List.of(1, 2, 3)), rows(List.of(1, 3, 2))));
+        assertEquals(List.of("$.data[id=3]: out of order, now at 0, was at 2",
+                "$.data[id=2]: out of order, now at 1, was at 1"),
+                diff(rows(List.of(1, 2, 3)), rows(List.of(3, 2, 1))));
+        assertEquals(List.of("$.data[id=2].price: 2 -> 5", "$.data[id=4]: added {...} (2 properties)",
+                "$.data[id=1]: out of order, now at 2, was at 0"),
+                diff(rows(List.of(1, 2, 3)), rows(List.of(2, 3, 1, 4)).replace("\"price\": 2", "\"price\": 5")));
+    }
+
+    @Test
+    public void testSameAsAgreesWithDiffOnShuffledAndEditedRows() {
+        Random random = new Random(25);
+        for (int round = 0; round < 500; round++) {
+            List<Integer> expected = new ArrayList<>();
+            int size = 1 + random.nextInt(12);
+            for (int id = 1; id <= size; id++) {
+                expected.add(id);
+            }
+            List<Integer> actual = new ArrayList<>(expected);
+            switch (round % 4) {
+                case 0 -> Collections.shuffle(actual, random);
+                case 1 -> Collections.swap(actual, random.nextInt(actual.size()), random.nextInt(actual.size()));
+                case 2 -> actual.add(random.nextInt(actual.size() + 1), 100);
+                default -> actual.remove(random.nextInt(actual.size()));
+            }
+            if (actual.isEmpty()) {
+                continue;
+            }
+            List<String> differences = diff(rows(expected), rows(actual));
+            assertEquals(expected.equals(actual), differences.isEmpty(), expected + " -> " + actual);
+        }
+    }
+
+    @Test
+    public void testDifferencesAreCappedAndValuesShortened() {
+        List<Integer> many = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            many.add(id);
+        }
+        List<Integer> reversed = new ArrayList<>(many);
+        Collections.reverse(reversed);
+        assertEquals(JsonMerkleTree.MAX_DIFFERENCES, diff(rows(many), rows(reversed)).size());
+
+        String longValue = "x".repeat(100);
+        String shown = diff("[\"" + longValue + "\"]", "[1]").get(0);
+        assertEquals("$[0]: \"" + "x".repeat(JsonMerkleTree.MAX_SHOWN - 1) + "... -> 1", shown);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link JsonReader} over a stream that hands out one byte per read, so every escape and number is split across
+ * chunks, against the same document read from an array.
+ */
+public class JsonReaderTest {
+
+    private static final String DOCUMENT = "{\"name\": \"a\\\"b\\\\c\\u00e9\\ud83d\\ude00\\n\", \"price\": -12.5e-3, "
+            + "\"count\": 9223372036854775807, \"tags\": [\"\u00e9\", true, null, 0]}";
+
+    private static InputStream trickle(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    private static List<String> tokens(JsonReader reader) {
+        List<String> tokens = new ArrayList<>();
+        for (JsonReader.Token token = reader.next(); token != JsonReader.Token.END; token = reader.next()) {
+            tokens.add(switch (token) {
+                case NAME, STRING, NUMBER -> token + " " + reader.stringValue();
+                default -> token.name();
+            });
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testStreamReadByteByByteMatchesArray() {
+        List<String> expected = tokens(new JsonReader(DOCUMENT.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("STRING a\"b\\c\u00e9\ud83d\ude00\n", expected.get(2));
+        assertEquals("NUMBER -12.5e-3", expected.get(4));
+        assertEquals(expected, tokens(new JsonReader(trickle(DOCUMENT))));
+    }
+
+    @Test
+    public void testLongValue() {
+        JsonReader reader = new JsonReader(trickle("[0, -0, 9223372036854775807, -9223372036854775808, "
+                + "9223372036854775808, -9223372036854775809, 1e3]"));
+        reader.next();
+        reader.next();
+        assertEquals(0, reader.longValue());
+        reader.next();
+        assertEquals(0, reader.longValue());
+        reader.next();
+        assertEquals(Long.MAX_VALUE, reader.longValue());
+        reader.next();
+        assertEquals(Long.MIN_VALUE, reader.longValue());
+        reader.next();
+        assertThrows(NumberFormatException.class, reader::longValue);
+        reader.next();
+        assertThrows(NumberFormatException.class, reader::longValue);
+        reader.next();
+        assertThrows(NumberFormatException.class, reader::longValue);
+    }
+
+    @Test
+    public void testMalformedInputFailsWhenSplitAcrossChunks() {
+        for (String document : List.of("[1.2.3]", "[1e]", "[-]", "[\"a\u0001\"]", "[\"\\q\"]", "[\"\\u00G0\"]",
+                "[\"\\u00", "[\"abc")) {
+            assertThrows(IllegalArgumentException.class, () -> tokens(new JsonReader(trickle(document))), document);
+            assertThrows(IllegalArgumentException.class,
+                    () -> tokens(new JsonReader(document.getBytes(StandardCharsets.UTF_8))), document);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link JsonSchema} on documents that are not JSON, however close: each has to come back as one "not JSON"
+ * violation naming what is wrong, never as a pass or as a schema mismatch. Also the integer minimum on values
+ * that do not fit a long.
+ */
+public class JsonSchemaTest {
+
+    private static final JsonSchema THING = JsonSchema.object("thing")
+            .required("count", JsonSchema.integer(1))
+            .required("price", JsonSchema.number())
+            .required("name", JsonSchema.string(0))
+            .build();
+
+    private static List<String> validate(String count, String price, String name) {
+        return THING.validate(("{\"count\": " + count + ", \"price\": " + price + ", \"name\": \"" + name + "\"}")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertNotJson(String problem, List<String> violations) {
+        assertEquals(1, violations.size(), violations.toString());
+        assertTrue(violations.get(0).startsWith("$: not JSON (" + problem), violations.get(0));
+    }
+
+    @Test
+    public void testValidDocumentMatches() {
+        assertEquals(List.of(), validate("1", "19.99", "Hammer"));
+        assertEquals(List.of(), validate("12", "-0", "\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00e9\\uD83D\\uDE00"));
+        assertEquals(List.of(), validate("1", "0.5e-3", "\u00e9\u007f"));
+        assertEquals(List.of(), validate("1", "1E+10", ""));
+        assertEquals(List.of(), validate("1", "-10e2", ""));
+    }
+
+    @Test
+    public void testMalformedNumbersAreNotJson() {
+        for (String number : List.of("1.2.3", "1e", "-", "01", "1.", "1.e5", "--1", "1e+", "1e5.0", "1-2",
+                "-.5")) {
+            assertNotJson("Bad number '" + number + "'", validate("1", number, ""));
+        }
+        assertNotJson("Bad number '1.2.3'", validate("1.2.3", "1", ""));
+        assertNotJson("Bad number '-'", validate("-", "1", ""));
+        assertNotJson("Unexpected character '+'", validate("1", "+1", ""));
+        assertNotJson("Unexpected character '.'", validate("1", ".5", ""));
+        assertNotJson("Expected ','", validate("1", "0x10", ""));
+    }
+
+    @Test
+    public void testControlCharactersInStringsAreNotJson() {
+        assertNotJson("Control character in string", validate("1", "1", "a\u0001b"));
+        assertNotJson("Control character in string", validate("1", "1", "line\nbreak"));
+        assertNotJson("Control character in string", validate("1", "1", "\u0000"));
+        assertNotJson("Control character in string", THING.validate("{\"na\u001fme\": 1}"
+                .getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testInvalidEscapesAreNotJson() {
+        assertNotJson("Bad escape '\\q'", validate("1", "1", "\\q"));
+        assertNotJson("Bad escape '\\x'", validate("1", "1", "\\x41"));
+        assertNotJson("Bad escape '\\'", validate("1", "1", "\\'"));
+        assertNotJson("Bad unicode escape", validate("1", "1", "\\u12G4"));
+        assertNotJson("Bad unicode escape", validate("1", "1", "\\u12\\\\"));
+        assertNotJson("Bad unicode escape", THING.validate("{\"name\": \"\\u12\"}".getBytes(StandardCharsets.UTF_8)));
+        assertNotJson("Unterminated string", THING.validate("{\"name\": \"\\u12".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testIntegerMinimum() {
+        assertEquals(List.of("$.count: expected integer >= 1, got 0"), validate("0", "1", ""));
+        assertEquals(List.of("$.count: expected integer >= 1, got -9223372036854775808"),
+                validate("-9223372036854775808", "1", ""));
+        assertEquals(List.of(), validate("9223372036854775807", "1", ""));
+        assertEquals(List.of(), validate("99999999999999999999", "1", ""), "Past the largest long");
+        assertEquals(List.of("$.count: expected integer >= 1, got -99999999999999999999"),
+                validate("-99999999999999999999", "1", ""));
+        assertEquals(List.of("$.count: expected integer >= 1, got number"), validate("1.5", "1", ""));
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link JsonTemplate} rendering, checked both as text and by reading the body back with {@link Json}: escaping,
+ * UTF-8 encoding around surrogates, slots inside strings and used twice, the hand-written number formatting, and
+ * a renderer's buffer being reused between renders.
+ */
+public class JsonTemplateTest {
+
+    private static final JsonTemplate VALUE = JsonTemplate.compile("{\"value\": {{value}}}");
+    private static final JsonTemplate NUMBER = JsonTemplate.compile("{{value:number}}");
+
+    private static Object renderedValue(String value) {
+        return ((Map<?, ?>) Json.parse(VALUE.newRenderer().with("value", value).toByteArray())).get("value");
+    }
+
+    private static String number(double value) {
+        return NUMBER.newRenderer().with("value", value).text();
+    }
+
+    @Test
+    public void testQuotesBackslashesAndControlCharactersAreEscaped() {
+        String value = "say \"hi\" \\ back\n\r\t\b\f\u0000\u0001\u001f\u007f end";
+        assertEquals("{\"value\": \"say \\\"hi\\\" \\\\ back\\n\\r\\t\\b\\f\\u0000\\u0001\\u001f\u007f end\"}",
+                VALUE.newRenderer().with("value", value).text());
+        assertEquals(value, renderedValue(value));
+    }
+
+    @Test
+    public void testCharactersAreEncodedAsUtf8() {
+        // Two-, three- and four-byte sequences
+        String value = "\u00e9\u20ac\ud83d\ude00";
+        byte[] body = VALUE.newRenderer().with("value", value).toByteArray();
+        assertArrayEquals(("{\"value\": \"" + value + "\"}").getBytes(StandardCharsets.UTF_8), body);
+        assertEquals(value, renderedValue(value));
+    }
+
+    @Test
+    public void testLoneSurrogatesAreEscapedAndPairsAreNot() {
+        assertEquals("{\"value\": \"a\\ud83db\"}", VALUE.newRenderer().with("value", "a\ud83db").text());
+        assertEquals("{\"value\": \"\\ude00\"}", VALUE.newRenderer().with("value", "\ude00").text());
+        assertEquals("{\"value\": \"\\ud83d\"}", VALUE.newRenderer().with("value", "\ud83d").text(),
+                "High surrogate at the end");
+        // Low before high is two lone surrogates, not a pair
+        assertEquals("{\"value\": \"\\ude00\\ud83d\"}", VALUE.newRenderer().with("value", "\ude00\ud83d").text());
+        String pairThenLone = "\ud83d\ude00\ud83d";
+        assertEquals(pairThenLone, renderedValue(pairThenLone));
+    }
+
+    @Test
+    public void testSlotsInsideStringsAndRepeatedSlots() {
+        JsonTemplate template = JsonTemplate.compile("{\"name\": \"category {{n:long}} of {{owner}}\", "
+                + "\"password\": {{password}}, \"password_confirmation\": {{password}}, \"tag\": \"{{owner}}\"}");
+        assertEquals(2, template.slot("password"));
+        JsonTemplate.Renderer renderer = template.newRenderer()
+                .with("n", -7)
+                .with("owner", "O'Brien \"the\" \\ \u00e9")
+                .with("password", "p\"w");
+
+        assertEquals("{\"name\": \"category -7 of O'Brien \\\"the\\\" \\\\ \u00e9\", "
+                + "\"password\": \"p\\\"w\", \"password_confirmation\": \"p\\\"w\", "
+                + "\"tag\": \"O'Brien \\\"the\\\" \\\\ \u00e9\"}", renderer.text());
+        Map<?, ?> json = (Map<?, ?>) Json.parse(renderer.toByteArray());
+        assertEquals("category -7 of O'Brien \"the\" \\ \u00e9", json.get("name"));
+        assertEquals(json.get("password"), json.get("password_confirmation"));
+
+        assertEquals("{\"name\": \"category -7 of O'Brien \\\"the\\\" \\\\ \u00e9\", \"password\": null, "
+                + "\"password_confirmation\": null, \"tag\": \"O'Brien \\\"the\\\" \\\\ \u00e9\"}",
+                renderer.with("password", (String) null).text(), "Null in value position");
+        assertThrows(IllegalStateException.class, () -> renderer.with("owner", (String) null).render(),
+                "Null inside a string");
+    }
+
+    @Test
+    public void testMalformedTemplatesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> JsonTemplate.compile("[{{a:long}}, {{a}}]"));
+        assertThrows(IllegalArgumentException.class, () -> JsonTemplate.compile("{\"a\": {{a}"));
+        assertThrows(IllegalArgumentException.class, () -> JsonTemplate.compile("{\"a\": {{a}} {{b}}}"));
+    }
+
+    @Test
+    public void testNumbers() {
+        assertEquals("-0.5", number(-0.5));
+        assertEquals("19.99", number(19.99));
+        assertEquals("0.1", number(0.1));
+        assertEquals("-1234.000001", number(-1234.000001));
+        assertEquals("42", number(42));
+        assertEquals("1.0E20", number(1e20));
+        assertEquals("1.0E-12", number(1e-12));
+        assertThrows(IllegalArgumentException.class, () -> NUMBER.newRenderer().with("value", Double.NaN));
+
+        JsonTemplate longs = JsonTemplate.compile("{{value:long}}");
+        assertEquals("-9223372036854775808", longs.newRenderer().with("value", Long.MIN_VALUE).text());
+        assertEquals("9223372036854775807", longs.newRenderer().with("value", Long.MAX_VALUE).text());
+        assertEquals("-10", longs.newRenderer().with("value", -10).text());
+    }
+
+    @Test
+    public void testNumbersReadBackAsTheSameDouble() {
+        SplittableRandom random = new SplittableRandom(20);
+        for (int i = 0; i < 10_000; i++) {
+            double value = switch (i % 4) {
+                case 0 -> Math.round(random.nextDouble(-1000, 1000) * 100) / 100.0;
+                case 1 -> random.nextDouble(-1e6, 1e6);
+                case 2 -> random.nextDouble() * Math.pow(10, random.nextInt(-30, 30));
+                default -> -random.nextLong(1L << 53);
+            };
+            String text = number(value);
+            assertEquals(value, Double.parseDouble(text), text);
+            assertInstanceOf(Number.class, Json.parse(text), text);
+        }
+    }
+
+    @Test
+    public void testRendererReusesItsBufferPerThread() {
+        JsonTemplate.Renderer renderer = VALUE.renderer();
+        assertSame(renderer, VALUE.renderer(), "One renderer per thread");
+        assertNotSame(renderer, VALUE.newRenderer());
+
+        ByteBuffer first = renderer.with("value", "a").render();
+        assertEquals(0, first.position());
+        assertEquals("{\"value\": \"a\"}", new String(first.array(), 0, first.limit(), StandardCharsets.UTF_8));
+
+        ByteBuffer second = renderer.with("value", "b").render();
+        assertSame(first, second, "Same buffer for a body that fits");
+        assertEquals("{\"value\": \"b\"}", new String(first.array(), 0, first.limit(), StandardCharsets.UTF_8),
+                "The earlier body is overwritten");
+
+        String large = "x".repeat(10_000);
+        ByteBuffer grown = renderer.with("value", large).render();
+        assertEquals(large.length() + 13, grown.limit());
+        ByteBuffer small = renderer.with("value", "c").render();
+        assertSame(grown, small, "Grown buffer is kept");
+        assertEquals(0, small.position());
+        assertEquals("{\"value\": \"c\"}", new String(small.array(), 0, small.limit(), StandardCharsets.UTF_8));
+
+        assertThrows(IllegalStateException.class, () -> VALUE.renderer().render(), "renderer() unsets the slots");
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link AdaptiveLimiter} step by step: additive growth only while the limit is in use, one multiplicative cut
+ * per generation of calls however many of them report trouble, the floor and ceiling, the congestion signal from
+ * round trips, and a {@code Retry-After} holding back every caller.
+ */
+public class AdaptiveLimiterTest {
+
+    // Round trips here are microseconds apart from scheduling noise, so only the congestion test may react to them
+    private static final double NO_CONGESTION = 1e9;
+
+    private static AdaptiveLimiter limiter(int initial, int min, int max, double backoff) {
+        return new AdaptiveLimiter(new AdaptiveLimiter.Config(initial, min, max, NO_CONGESTION, backoff));
+    }
+
+    private static List<AdaptiveLimiter.Permit> acquire(AdaptiveLimiter limiter, int permits)
+            throws InterruptedException {
+        List<AdaptiveLimiter.Permit> acquired = new ArrayList<>();
+        for (int i = 0; i < permits; i++) {
+            acquired.add(limiter.acquire());
+        }
+        return acquired;
+    }
+
+    @Test
+    public void testLimitGrowsByOneOverLimitPerCallThatFilledIt() throws InterruptedException {
+        AdaptiveLimiter limiter = limiter(1, 1, 10, 0.5);
+        limiter.acquire().success();
+        assertEquals(2.0, limiter.limit(), "1 + 1/1");
+
+        limiter.acquire().success();
+        assertEquals(2.0, limiter.limit(), "Half the limit in use: no growth");
+
+        List<AdaptiveLimiter.Permit> permits = acquire(limiter, 2);
+        permits.forEach(AdaptiveLimiter.Permit::success);
+        assertEquals(2.5, limiter.limit(), "Only the call that filled the limit counts");
+
+        // Kept full, nearly every call fills it, so the limit grows by about one per round of calls
+        permits = acquire(limiter, 2);
+        for (int i = 0; i < 20; i++) {
+            permits.remove(0).success();
+            while (limiter.inFlight() < (int) limiter.limit()) {
+                permits.add(limiter.acquire());
+            }
+        }
+        // 20 calls are about four rounds at limits from 2.5 to 6
+        assertEquals(6.26, limiter.limit(), 0.01);
+        permits.forEach(AdaptiveLimiter.Permit::ignore);
+        assertEquals(0, limiter.inFlight());
+        assertEquals(0, limiter.cuts());
+    }
+
+    @Test
+    public void testLimitStopsAtMaximum() throws InterruptedException {
+        AdaptiveLimiter limiter = limiter(2, 1, 3, 0.5);
+        for (int i = 0; i < 50; i++) {
+            acquire(limiter, (int) limiter.limit()).forEach(AdaptiveLimiter.Permit::success);
+        }
+        assertEquals(3.0, limiter.limit());
+        assertEquals(3.0, limiter.peakLimit());
+    }
+
+    @Test
+    public void testOneCutPerGeneration() throws InterruptedException {
+        AdaptiveLimiter limiter = limiter(8, 1, 16, 0.5);
+        List<AdaptiveLimiter.Permit> round = acquire(limiter, 8);
+        round.get(0).dropped();
+        round.get(1).throttled(Duration.ZERO);
+        round.get(2).dropped();
+        assertEquals(4.0, limiter.limit(), "Three signals from one round, one cut");
+        assertEquals(1, limiter.cuts());
+        assertEquals(1, limiter.throttled());
+
+        round.subList(4, 7).forEach(AdaptiveLimiter.Permit::success);
+        assertEquals(4.0, limiter.limit(), "Calls that did not fill the limit do not grow it");
+        round.get(7).ignore();
+
+        // Sent after the cut, so its trouble is news
+        AdaptiveLimiter.Permit next = limiter.acquire();
+        round.get(3).dropped();
+        assertEquals(4.0, limiter.limit(), "Still the first round");
+        next.dropped();
+        assertEquals(2.0, limiter.limit());
+        assertEquals(2, limiter.cuts());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    public void testCutsStopAtTheFloor() throws InterruptedException {
+        AdaptiveLimiter limiter = limiter(5, 1, 10, 0.5);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().dropped();
+        }
+        assertEquals(1.0, limiter.limit());
+        assertEquals(10, limiter.cuts());
+        limiter.acquire().success();
+        assertEquals(2.0, limiter.limit(), "Grows again from the floor");
+
+        AdaptiveLimiter higherFloor = limiter(5, 3, 10, 0.1);
+        higherFloor.acquire().dropped();
+        assertEquals(3.0, higherFloor.limit());
+    }
+
+    @Test
+    public void testSlowAnswerCountsAsCongestion() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(new AdaptiveLimiter.Config(4, 1, 10, 2.0, 0.5));
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire().success();
+        }
+        assertEquals(4.0, limiter.limit());
+        AdaptiveLimiter.Permit slow = limiter.acquire();
+        Thread.sleep(100);
+        slow.success();
+        assertEquals(2.0, limiter.limit());
+        assertEquals(1, limiter.cuts());
+        assertEquals(0, limiter.throttled());
+    }
+
+    @Test
+    public void testFullLimiterMakesCallersWait() throws Exception {
+        AdaptiveLimiter limiter = limiter(1, 1, 1, 0.5);
+        AdaptiveLimiter.Permit held = limiter.acquire();
+        CompletableFuture<AdaptiveLimiter.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        held.success();
+        waiting.get(5, TimeUnit.SECONDS).ignore();
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    public void testRetryAfterHoldsBackEveryCaller() throws Exception {
+        AdaptiveLimiter limiter = limiter(4, 1, 10, 0.5);
+        long start = System.nanoTime();
+        limiter.acquire().throttled(Duration.ofMillis(300));
+
+        CompletableFuture<Long> other = CompletableFuture.supplyAsync(() -> {
+            try {
+                limiter.acquire().success();
+                return System.nanoTime();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        limiter.acquire().success();
+        long waited = System.nanoTime() - start;
+        assertTrue(waited >= TimeUnit.MILLISECONDS.toNanos(300), "Waited only " + waited / 1_000_000 + "ms");
+        assertTrue(other.get(5, TimeUnit.SECONDS) - start >= TimeUnit.MILLISECONDS.toNanos(300),
+                "Another caller went ahead");
+    }
+
+    @Test
+    public void testPermitReleasedTwiceFails() throws InterruptedException {
+        AdaptiveLimiter limiter = limiter(2, 1, 4, 0.5);
+        AdaptiveLimiter.Permit permit = limiter.acquire();
+        permit.success();
+        assertThrows(IllegalStateException.class, permit::dropped);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    public void testConfigIsChecked() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter.Config(4, 0, 8, 2, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter.Config(4, 5, 8, 2, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter.Config(9, 1, 8, 2, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter.Config(4, 1, 8, 1, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter.Config(4, 1, 8, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter.Config(4, 1, 8, 2, 0));
+    }
+}
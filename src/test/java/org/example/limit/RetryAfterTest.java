@@ -0,0 +1,52 @@
+package org.example.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RetryAfter} on both forms of the header, on values past the cap or in the past, and on values it cannot
+ * read, which fall back rather than fail.
+ */
+public class RetryAfterTest {
+
+    private static final Duration FALLBACK = Duration.ofSeconds(1);
+
+    private static String httpDate(Duration fromNow) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plus(fromNow));
+    }
+
+    @Test
+    public void testDeltaSeconds() {
+        assertEquals(Duration.ofSeconds(3), RetryAfter.parse("3", FALLBACK));
+        assertEquals(Duration.ofSeconds(7), RetryAfter.parse(" 7 ", FALLBACK));
+        assertEquals(Duration.ZERO, RetryAfter.parse("0", FALLBACK));
+        assertEquals(Duration.ZERO, RetryAfter.parse("-5", FALLBACK));
+        assertEquals(RetryAfter.MAX, RetryAfter.parse("600", FALLBACK));
+        assertEquals(RetryAfter.MAX, RetryAfter.parse(String.valueOf(Long.MAX_VALUE), FALLBACK));
+    }
+
+    @Test
+    public void testHttpDate() {
+        Duration wait = RetryAfter.parse(httpDate(Duration.ofSeconds(30)), FALLBACK);
+        // The header has whole seconds, and a moment passes between writing and reading it
+        assertTrue(wait.compareTo(Duration.ofSeconds(28)) >= 0 && wait.compareTo(Duration.ofSeconds(30)) <= 0,
+                wait.toString());
+        assertEquals(Duration.ZERO, RetryAfter.parse(httpDate(Duration.ofMinutes(-5)), FALLBACK), "In the past");
+        assertEquals(RetryAfter.MAX, RetryAfter.parse(httpDate(Duration.ofHours(1)), FALLBACK));
+        assertEquals(Duration.ZERO, RetryAfter.parse("Wed, 21 Oct 2015 07:28:00 GMT", FALLBACK));
+    }
+
+    @Test
+    public void testUnreadableValuesFallBack() {
+        for (String value : new String[] {null, "", "  ", "soon", "1.5", "5s", "PT5S", "99999999999999999999",
+                "2015-10-21T07:28:00Z", "Wed, 32 Oct 2015 07:28:00 GMT"}) {
+            assertEquals(FALLBACK, RetryAfter.parse(value, FALLBACK), String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RetryBudget}: the reserve it starts with, refusing once that and the earned share are spent, refilling
+ * from first attempts up to the reserve and no further.
+ */
+public class RetryBudgetTest {
+
+    @Test
+    public void testReserveIsSpentThenRefused() {
+        RetryBudget budget = new RetryBudget(0.25, 2);
+        assertTrue(budget.withdraw());
+        assertTrue(budget.withdraw());
+        assertFalse(budget.withdraw());
+        assertFalse(budget.withdraw());
+        assertEquals(2, budget.retried());
+        assertEquals(2, budget.refused());
+    }
+
+    @Test
+    public void testFirstAttemptsRefillTheBudget() {
+        RetryBudget budget = new RetryBudget(0.25, 2);
+        budget.withdraw();
+        budget.withdraw();
+
+        for (int i = 0; i < 3; i++) {
+            budget.deposit();
+        }
+        assertFalse(budget.withdraw(), "Three quarters of a retry");
+        budget.deposit();
+        assertTrue(budget.withdraw(), "Four first attempts earn one retry");
+        assertFalse(budget.withdraw());
+
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        assertTrue(budget.withdraw());
+        assertTrue(budget.withdraw());
+        assertFalse(budget.withdraw(), "Refilled up to the reserve, not past it");
+        assertEquals(5, budget.retried());
+        assertEquals(3, budget.refused());
+    }
+
+    @Test
+    public void testZeroRatioNeverRefills() {
+        RetryBudget budget = new RetryBudget(0, 1);
+        assertTrue(budget.withdraw());
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        assertFalse(budget.withdraw());
+
+        RetryBudget none = new RetryBudget(1, 0);
+        none.deposit();
+        assertFalse(none.withdraw(), "No reserve, so nothing can be kept");
+    }
+
+    @Test
+    public void testArgumentsAreChecked() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(-0.1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(1.1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(0.1, -1));
+    }
+}
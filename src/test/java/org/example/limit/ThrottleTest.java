@@ -0,0 +1,138 @@
+package org.example.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Throttle} over a scripted {@link Throttle.Exchange}: throttled attempts retried until an answer, within
+ * the attempt limit and the retry budget, never for a request that cannot be sent twice, and failures without an
+ * answer passed on rather than repeated.
+ */
+public class ThrottleTest {
+
+    private record Answer(int status, String retryAfter) {
+    }
+
+    private static final class Script implements Throttle.Exchange<Answer> {
+        final Deque<Object> outcomes = new ArrayDeque<>();
+        final List<Answer> discarded = new ArrayList<>();
+        boolean repeatable = true;
+        int sent;
+
+        Script then(int status, String retryAfter) {
+            outcomes.add(new Answer(status, retryAfter));
+            return this;
+        }
+
+        Script thenFail(IOException failure) {
+            outcomes.add(failure);
+            return this;
+        }
+
+        @Override
+        public Answer send() throws IOException {
+            sent++;
+            Object outcome = outcomes.remove();
+            if (outcome instanceof IOException failure) {
+                throw failure;
+            }
+            return (Answer) outcome;
+        }
+
+        @Override
+        public int status(Answer response) {
+            return response.status();
+        }
+
+        @Override
+        public String header(Answer response, String name) {
+            return "Retry-After".equals(name) ? response.retryAfter() : null;
+        }
+
+        @Override
+        public boolean repeatable() {
+            return repeatable;
+        }
+
+        @Override
+        public void discard(Answer response) {
+            discarded.add(response);
+        }
+    }
+
+    private static Throttle throttle(int maxAttempts, int retryReserve) {
+        return new Throttle(new Throttle.Config(AdaptiveLimiter.Config.upTo(4), maxAttempts, 0.25, retryReserve,
+                Duration.ZERO));
+    }
+
+    @Test
+    public void testThrottledCallIsRetriedUntilAnswered() throws Exception {
+        Throttle throttle = throttle(4, 10);
+        Script script = new Script().then(429, "0").then(503, null).then(200, null);
+        assertEquals(200, throttle.call(script).status());
+        assertEquals(3, script.sent);
+        assertEquals(List.of(new Answer(429, "0"), new Answer(503, null)), script.discarded);
+        assertEquals(2, throttle.budget().retried());
+        assertEquals(2, throttle.limiter().throttled());
+        assertEquals(0, throttle.limiter().inFlight());
+    }
+
+    @Test
+    public void testRetryAfterIsWaitedFor() throws Exception {
+        Throttle throttle = throttle(4, 10);
+        long start = System.nanoTime();
+        assertEquals(200, throttle.call(new Script().then(429, "1").then(200, null)).status());
+        assertTrue(System.nanoTime() - start >= 1_000_000_000L, "Retried before Retry-After was up");
+    }
+
+    @Test
+    public void testLastThrottledAnswerIsReturnedWhenAttemptsRunOut() throws Exception {
+        Throttle throttle = throttle(3, 10);
+        Script script = new Script().then(429, "0").then(429, "0").then(429, "0").then(200, null);
+        assertEquals(429, throttle.call(script).status());
+        assertEquals(3, script.sent);
+        assertEquals(2, script.discarded.size(), "The answer handed back is not discarded");
+    }
+
+    @Test
+    public void testRetriesStopWhenTheBudgetIsSpent() throws Exception {
+        Throttle throttle = throttle(4, 1);
+        Script script = new Script().then(429, "0").then(429, "0").then(200, null);
+        assertEquals(429, throttle.call(script).status(), "One retry in reserve");
+        assertEquals(2, script.sent);
+        assertEquals(1, throttle.budget().refused());
+    }
+
+    @Test
+    public void testRequestThatCannotBeRepeatedIsNotRetried() throws Exception {
+        Throttle throttle = throttle(4, 10);
+        Script script = new Script().then(429, "0").then(200, null);
+        script.repeatable = false;
+        assertEquals(429, throttle.call(script).status());
+        assertEquals(1, script.sent);
+        assertEquals(0, throttle.budget().retried());
+    }
+
+    @Test
+    public void testFailureWithoutAnAnswerIsPassedOnAndCutsTheLimit() throws Exception {
+        Throttle throttle = throttle(4, 10);
+        Script timeout = new Script().thenFail(new SocketTimeoutException("Read timed out")).then(200, null);
+        assertThrows(SocketTimeoutException.class, () -> throttle.call(timeout));
+        assertEquals(1, timeout.sent, "Not repeated: a POST may have gone through");
+        assertEquals(1, throttle.limiter().cuts());
+        assertEquals(0, throttle.limiter().inFlight());
+
+        Script reset = new Script().thenFail(new IOException("Connection reset"));
+        assertThrows(IOException.class, () -> throttle.call(reset));
+        assertEquals(0, throttle.limiter().inFlight());
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Histogram} percentiles against the exact ones of the recorded values, within the precision it promises,
+ * and the two things the load coordinator relies on to merge worker results: the encoded form decodes to the same
+ * histogram, and adding histograms loses nothing.
+ */
+public class HistogramTest {
+
+    private static final long HIGHEST = 3_600_000_000L;
+    private static final double[] PERCENTILES = {0, 1, 25, 50, 75, 90, 99, 99.9, 99.99, 100};
+
+    // The exact value at a percentile, by the same nearest-rank rule the histogram uses
+    private static long exact(long[] sorted, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * sorted.length));
+        return sorted[(int) rank - 1];
+    }
+
+    // Reported values are the top of the bucket the exact value falls in, never below it
+    private static void assertWithinPrecision(long expected, long actual, int significantDigits, String message) {
+        assertTrue(actual >= expected, message + ": " + actual + " below " + expected);
+        assertTrue(actual - expected <= Math.max(1, expected / (long) Math.pow(10, significantDigits)),
+                message + ": " + actual + " too far above " + expected);
+    }
+
+    private static void assertSameContents(Histogram expected, Histogram actual) {
+        assertEquals(expected.count(), actual.count());
+        assertEquals(expected.mean(), actual.mean());
+        assertEquals(expected.max(), actual.max());
+        for (double percentile : PERCENTILES) {
+            assertEquals(expected.percentile(percentile), actual.percentile(percentile), "p" + percentile);
+        }
+        assertArrayEquals(expected.encode(), actual.encode());
+    }
+
+    @Test
+    public void testPercentilesOfKnownDistributions() {
+        for (int digits = 1; digits <= 4; digits++) {
+            Histogram uniform = new Histogram(HIGHEST, digits);
+            long[] values = new long[100_000];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = i + 1;
+                uniform.record(i + 1);
+            }
+            for (double percentile : PERCENTILES) {
+                assertWithinPrecision(exact(values, percentile), uniform.percentile(percentile), digits,
+                        "uniform p" + percentile + " at " + digits + " digits");
+            }
+            assertWithinPrecision(100_000, uniform.max(), digits, "uniform max");
+            assertEquals(50_000.5, uniform.mean());
+        }
+
+        // Latencies: mostly around a millisecond, a long tail out to seconds
+        SplittableRandom random = new SplittableRandom(2);
+        Histogram latencies = new Histogram(HIGHEST, 3);
+        long[] values = new long[200_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (1000 * Math.exp(random.nextGaussian() * 1.5));
+            latencies.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : PERCENTILES) {
+            assertWithinPrecision(exact(values, percentile), latencies.percentile(percentile), 3,
+                    "latency p" + percentile);
+        }
+        assertWithinPrecision(values[values.length - 1], latencies.max(), 3, "latency max");
+        assertEquals(values.length, latencies.count());
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram(HIGHEST, 3);
+        for (long value = 0; value < 2048; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1023, histogram.percentile(50));
+        assertEquals(2047, histogram.percentile(100));
+        assertEquals(2047, histogram.max());
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        Histogram histogram = new Histogram(HIGHEST, 3);
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.mean());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.percentile(99));
+        assertSameContents(histogram, Histogram.decode(histogram.encode()));
+    }
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        SplittableRandom random = new SplittableRandom(7);
+        Histogram histogram = new Histogram(HIGHEST, 3);
+        for (int i = 0; i < 50_000; i++) {
+            histogram.record(random.nextLong(1, 60_000_000));
+        }
+        histogram.record(0);
+        histogram.record(HIGHEST);
+        Histogram decoded = Histogram.decode(histogram.encode());
+        assertSameContents(histogram, decoded);
+
+        decoded.record(5);
+        assertEquals(histogram.count() + 1, decoded.count(), "A decoded histogram keeps recording");
+        assertThrows(IllegalArgumentException.class,
+                () -> histogram.add(Histogram.decode(new Histogram(HIGHEST, 2).encode())), "Precision kept");
+    }
+
+    @Test
+    public void testAddingHalvesEqualsRecordingEverything() {
+        SplittableRandom random = new SplittableRandom(11);
+        Histogram all = new Histogram(HIGHEST, 3);
+        Histogram first = new Histogram(HIGHEST, 3);
+        Histogram second = new Histogram(HIGHEST, 3);
+        for (int i = 0; i < 100_000; i++) {
+            long value = (long) (500 * Math.exp(random.nextGaussian() * 2));
+            all.record(value);
+            (i % 3 == 0 ? first : second).record(value);
+        }
+
+        Histogram merged = new Histogram(HIGHEST, 3);
+        merged.add(Histogram.decode(first.encode()));
+        merged.add(Histogram.decode(second.encode()));
+        assertSameContents(all, merged);
+
+        first.add(second);
+        assertSameContents(all, first);
+        assertThrows(IllegalArgumentException.class, () -> all.add(new Histogram(HIGHEST / 2, 3)));
+        assertThrows(IllegalArgumentException.class, () -> all.add(new Histogram(HIGHEST, 2)));
+    }
+
+    @Test
+    public void testOutOfRangeValues() {
+        Histogram histogram = new Histogram(HIGHEST, 3);
+        histogram.record(-5);
+        histogram.record(Long.MIN_VALUE);
+        assertEquals(2, histogram.count());
+        assertEquals(0, histogram.max(), "Negative values count as zero");
+        assertEquals(0, histogram.mean());
+
+        histogram.record(HIGHEST + 1);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(4, histogram.count());
+        assertEquals(HIGHEST, histogram.percentile(100), "Clamped to the trackable range");
+        assertWithinPrecision(HIGHEST, histogram.max(), 3, "max");
+        assertEquals(HIGHEST / 2.0, histogram.mean());
+        assertSameContents(histogram, Histogram.decode(histogram.encode()));
+
+        assertThrows(IllegalArgumentException.class, () -> new Histogram(1, 3));
+        assertThrows(IllegalArgumentException.class, () -> new Histogram(HIGHEST, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Histogram(HIGHEST, 6));
+    }
+}